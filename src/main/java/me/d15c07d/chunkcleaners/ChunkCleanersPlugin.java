@@ -1,11 +1,18 @@
 package me.d15c07d.chunkcleaners;
 
+import me.d15c07d.chunkcleaners.api.ChunkCleanersApi;
 import me.d15c07d.chunkcleaners.commands.ChunkCleanersCommand;
 import me.d15c07d.chunkcleaners.config.ConfigManager;
 import me.d15c07d.chunkcleaners.integration.IntegrationManager;
+import me.d15c07d.chunkcleaners.io.IoExecutor;
+import me.d15c07d.chunkcleaners.listeners.EstimatePreviewListener;
 import me.d15c07d.chunkcleaners.listeners.PlacementListener;
+import me.d15c07d.chunkcleaners.listeners.TaskWakeListener;
+import me.d15c07d.chunkcleaners.profiler.PhaseProfiler;
+import me.d15c07d.chunkcleaners.service.ApiService;
 import me.d15c07d.chunkcleaners.storage.PersistenceManager;
 import me.d15c07d.chunkcleaners.task.ChunkCleanerManager;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class ChunkCleanersPlugin extends JavaPlugin {
@@ -14,13 +21,21 @@ public class ChunkCleanersPlugin extends JavaPlugin {
     private PersistenceManager persistenceManager;
     private IntegrationManager integrationManager;
     private ChunkCleanerManager cleanerManager;
+    private PhaseProfiler profiler;
+    private IoExecutor ioExecutor;
+    private ApiService apiService;
 
     @Override
     public void onEnable() {
         saveDefaultConfig();
 
+        this.ioExecutor = new IoExecutor(this);
+        this.profiler = new PhaseProfiler(this);
+
         this.configManager = new ConfigManager(this);
         this.configManager.load();
+        // off by default: the watcher keeps an I/O thread polling for the plugin's lifetime
+        if (getConfig().getBoolean("hot_reload.enabled", false)) this.configManager.startHotReload();
 
         this.persistenceManager = new PersistenceManager(this);
 
@@ -29,21 +44,36 @@ public class ChunkCleanersPlugin extends JavaPlugin {
 
         this.cleanerManager = new ChunkCleanerManager(this, persistenceManager, configManager, integrationManager);
 
+        this.apiService = new ApiService(this);
+        getServer().getServicesManager().register(ChunkCleanersApi.class, apiService, this, ServicePriority.Normal);
+
         this.persistenceManager.setCleanerManager(cleanerManager);
         this.persistenceManager.load();
 
         new ChunkCleanersCommand(this);
 
         getServer().getPluginManager().registerEvents(new PlacementListener(this), this);
+        getServer().getPluginManager().registerEvents(new EstimatePreviewListener(this), this);
+        getServer().getPluginManager().registerEvents(new TaskWakeListener(this), this);
 
         getLogger().info("ChunkCleaners enabled.");
     }
 
     @Override
     public void onDisable() {
+        // 1-3: stop scheduling, drain planned jobs, leave exact cursors behind
         if (cleanerManager != null) cleanerManager.shutdown();
+        if (configManager != null) configManager.stopHotReload();
+        // checkpoint everything in one write (queued before the executor drains)
+        if (persistenceManager != null) {
+            persistenceManager.stopAutosave();
+            if (configManager == null || configManager.isSaveOnShutdown()) persistenceManager.save();
+        }
+        // 4: bounded CoreProtect flush, then the I/O queues
         if (integrationManager != null) integrationManager.shutdown();
-        if (persistenceManager != null) persistenceManager.save();
+        // drain queued writes/log lines; anything submitted after this runs inline
+        if (ioExecutor != null) ioExecutor.shutdown(Math.max(0L, getConfig().getLong("io.shutdown_wait_millis", 5000L)));
+        if (profiler != null) profiler.shutdown();
         getLogger().info("ChunkCleaners disabled.");
     }
 
@@ -51,4 +81,7 @@ public class ChunkCleanersPlugin extends JavaPlugin {
     public PersistenceManager getPersistenceManager() { return persistenceManager; }
     public IntegrationManager getIntegrationManager() { return integrationManager; }
     public ChunkCleanerManager getCleanerManager() { return cleanerManager; }
+    public PhaseProfiler getProfiler() { return profiler; }
+    public IoExecutor getIoExecutor() { return ioExecutor; }
+    public ApiService getApiService() { return apiService; }
 }
\ No newline at end of file
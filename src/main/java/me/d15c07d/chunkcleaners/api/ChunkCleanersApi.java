@@ -0,0 +1,57 @@
+package me.d15c07d.chunkcleaners.api;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * ChunkCleaners service, available through the Bukkit services manager:
+ * <pre>
+ *   ChunkCleanersApi api = Bukkit.getServicesManager().load(ChunkCleanersApi.class);
+ * </pre>
+ * Task control calls must be made on the main thread. Lifecycle notifications are available as Bukkit events
+ * (package {@code api.event}, main thread) and through {@link #subscribe(CleanerListener)} (background thread).
+ */
+public interface ChunkCleanersApi {
+
+    /**
+     * Start a cleaner of a configured type at a location on behalf of a player. No item is consumed and no
+     * placement checks are made.
+     *
+     * @return id of the new task
+     * @throws IllegalArgumentException if the type is not configured
+     */
+    UUID start(Player owner, Location location, String typeKey);
+
+    /**
+     * Pause a task until {@link #resume(UUID)}; the pause survives restarts.
+     *
+     * @return false if no such task exists
+     */
+    boolean pause(UUID taskId);
+
+    /**
+     * Resume a paused task. It starts again once a running slot is free.
+     *
+     * @return false if no such task is paused
+     */
+    boolean resume(UUID taskId);
+
+    /**
+     * Cancel a task; cleared blocks stay cleared.
+     *
+     * @return false if no such task exists
+     */
+    boolean cancel(UUID taskId);
+
+    Optional<CleanerInfo> getTask(UUID taskId);
+
+    Collection<CleanerInfo> getTasks();
+
+    void subscribe(CleanerListener listener);
+
+    void unsubscribe(CleanerListener listener);
+}
@@ -0,0 +1,69 @@
+package me.d15c07d.chunkcleaners.api;
+
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a cleaner task, taken on the main thread.
+ */
+public final class CleanerInfo {
+
+    public enum State {
+        /** Clearing blocks. */
+        RUNNING,
+        /** Waiting for a running slot, its world, its owner or its turn after a restart. */
+        WAITING,
+        /** Paused through {@link ChunkCleanersApi#pause(UUID)}. */
+        PAUSED,
+        /** Finished or cancelled. */
+        DONE
+    }
+
+    private final UUID id;
+    private final UUID ownerUuid;
+    private final String ownerName;
+    private final String worldName;
+    private final int chunkX;
+    private final int chunkZ;
+    private final String typeKey;
+    private final int size;
+    private final State state;
+    private final double progress;
+    private final int chunksDone;
+    private final int chunksTotal;
+    private final long blocksRemoved;
+
+    public CleanerInfo(UUID id, UUID ownerUuid, String ownerName, String worldName, int chunkX, int chunkZ, String typeKey,
+                       int size, State state, double progress, int chunksDone, int chunksTotal, long blocksRemoved) {
+        this.id = id;
+        this.ownerUuid = ownerUuid;
+        this.ownerName = ownerName;
+        this.worldName = worldName;
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.typeKey = typeKey;
+        this.size = size;
+        this.state = state;
+        this.progress = progress;
+        this.chunksDone = chunksDone;
+        this.chunksTotal = chunksTotal;
+        this.blocksRemoved = blocksRemoved;
+    }
+
+    public UUID getId() { return id; }
+    public UUID getOwnerUuid() { return ownerUuid; }
+    public String getOwnerName() { return ownerName; }
+    public String getWorldName() { return worldName; }
+    /** Chunk the cleaner was placed in (centre of the footprint). */
+    public int getChunkX() { return chunkX; }
+    public int getChunkZ() { return chunkZ; }
+    public String getTypeKey() { return typeKey; }
+    /** Footprint edge length in chunks. */
+    public int getSize() { return size; }
+    public State getState() { return state; }
+    /** 0..1 */
+    public double getProgress() { return progress; }
+    public int getChunksDone() { return chunksDone; }
+    public int getChunksTotal() { return chunksTotal; }
+    /** Blocks removed since the server last loaded the task (counters are not persisted). */
+    public long getBlocksRemoved() { return blocksRemoved; }
+}
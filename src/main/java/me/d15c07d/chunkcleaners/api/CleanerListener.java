@@ -0,0 +1,20 @@
+package me.d15c07d.chunkcleaners.api;
+
+import me.d15c07d.chunkcleaners.api.event.CleanerChunkCompletedEvent;
+import me.d15c07d.chunkcleaners.api.event.CleanerFinishedEvent;
+import me.d15c07d.chunkcleaners.api.event.CleanerStartEvent;
+
+/**
+ * Off-main-thread subscriber, registered with {@link ChunkCleanersApi#subscribe(CleanerListener)}.
+ *
+ * Callbacks receive the same payloads as the Bukkit events, in the order they happened, on a background thread.
+ * They may block (database writes, HTTP) without slowing down cleaning; they must not touch the world.
+ */
+public interface CleanerListener {
+
+    default void onStart(CleanerStartEvent event) {}
+
+    default void onChunkCompleted(CleanerChunkCompletedEvent event) {}
+
+    default void onFinished(CleanerFinishedEvent event) {}
+}
@@ -0,0 +1,53 @@
+package me.d15c07d.chunkcleaners.api;
+
+import org.bukkit.Material;
+
+import java.util.Map;
+
+/**
+ * Removed blocks per material as two parallel primitive arrays (material ordinals and counts), so listeners
+ * can walk a chunk's breakdown without boxing.
+ */
+public final class MaterialCounts {
+
+    private static final Material[] MATERIALS = Material.values();
+    private static final MaterialCounts EMPTY = new MaterialCounts(new int[0], new int[0], 0);
+
+    private final int[] ordinals;
+    private final int[] counts;
+    private final int total;
+
+    private MaterialCounts(int[] ordinals, int[] counts, int total) {
+        this.ordinals = ordinals;
+        this.counts = counts;
+        this.total = total;
+    }
+
+    public static MaterialCounts of(Map<Material, Integer> breakdown) {
+        if (breakdown == null || breakdown.isEmpty()) return EMPTY;
+        int[] ordinals = new int[breakdown.size()];
+        int[] counts = new int[breakdown.size()];
+        int i = 0;
+        int total = 0;
+        for (Map.Entry<Material, Integer> e : breakdown.entrySet()) {
+            ordinals[i] = e.getKey().ordinal();
+            counts[i] = e.getValue();
+            total += counts[i];
+            i++;
+        }
+        return new MaterialCounts(ordinals, counts, total);
+    }
+
+    /** Number of distinct materials. */
+    public int size() { return ordinals.length; }
+
+    public Material getMaterial(int index) { return MATERIALS[ordinals[index]]; }
+
+    /** {@link Material#ordinal()} of entry index. */
+    public int getMaterialOrdinal(int index) { return ordinals[index]; }
+
+    public int getCount(int index) { return counts[index]; }
+
+    /** Sum of all counts. */
+    public int getTotal() { return total; }
+}
@@ -0,0 +1,45 @@
+package me.d15c07d.chunkcleaners.api.event;
+
+import me.d15c07d.chunkcleaners.api.MaterialCounts;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+import java.util.UUID;
+
+/**
+ * A cleaner finished clearing one chunk of its footprint. Fired once per chunk; entities of the chunk are
+ * swept over the following ticks.
+ */
+public class CleanerChunkCompletedEvent extends Event {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final UUID taskId;
+    private final UUID ownerUuid;
+    private final String worldName;
+    private final int chunkX;
+    private final int chunkZ;
+    private final MaterialCounts removed;
+
+    public CleanerChunkCompletedEvent(UUID taskId, UUID ownerUuid, String worldName, int chunkX, int chunkZ, MaterialCounts removed) {
+        this.taskId = taskId;
+        this.ownerUuid = ownerUuid;
+        this.worldName = worldName;
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.removed = removed;
+    }
+
+    public UUID getTaskId() { return taskId; }
+    public UUID getOwnerUuid() { return ownerUuid; }
+    public String getWorldName() { return worldName; }
+    public int getChunkX() { return chunkX; }
+    public int getChunkZ() { return chunkZ; }
+    /** Blocks removed from the chunk, per material (only what this run removed after a restart). */
+    public MaterialCounts getRemoved() { return removed; }
+
+    @Override
+    public HandlerList getHandlers() { return HANDLERS; }
+
+    public static HandlerList getHandlerList() { return HANDLERS; }
+}
@@ -0,0 +1,35 @@
+package me.d15c07d.chunkcleaners.api.event;
+
+import me.d15c07d.chunkcleaners.api.CleanerInfo;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * A cleaner task ended, either because its whole footprint was cleared or because it was cancelled.
+ */
+public class CleanerFinishedEvent extends Event {
+
+    public enum Outcome { COMPLETED, CANCELLED }
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final CleanerInfo cleaner;
+    private final Outcome outcome;
+    private final long entitiesRemoved;
+
+    public CleanerFinishedEvent(CleanerInfo cleaner, Outcome outcome, long entitiesRemoved) {
+        this.cleaner = cleaner;
+        this.outcome = outcome;
+        this.entitiesRemoved = entitiesRemoved;
+    }
+
+    public CleanerInfo getCleaner() { return cleaner; }
+    public Outcome getOutcome() { return outcome; }
+    /** Entities removed since the task was last started (counters are not persisted). */
+    public long getEntitiesRemoved() { return entitiesRemoved; }
+
+    @Override
+    public HandlerList getHandlers() { return HANDLERS; }
+
+    public static HandlerList getHandlerList() { return HANDLERS; }
+}
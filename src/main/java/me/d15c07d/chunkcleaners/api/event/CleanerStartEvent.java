@@ -0,0 +1,32 @@
+package me.d15c07d.chunkcleaners.api.event;
+
+import me.d15c07d.chunkcleaners.api.CleanerInfo;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * A cleaner started clearing: when placed, and again every time it resumes (after a restart, a pause or while
+ * waiting for a slot).
+ */
+public class CleanerStartEvent extends Event {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final CleanerInfo cleaner;
+    private final boolean resumed;
+
+    public CleanerStartEvent(CleanerInfo cleaner, boolean resumed) {
+        this.cleaner = cleaner;
+        this.resumed = resumed;
+    }
+
+    public CleanerInfo getCleaner() { return cleaner; }
+
+    /** False only for the very first start of a task. */
+    public boolean isResumed() { return resumed; }
+
+    @Override
+    public HandlerList getHandlers() { return HANDLERS; }
+
+    public static HandlerList getHandlerList() { return HANDLERS; }
+}
@@ -2,11 +2,24 @@ package me.d15c07d.chunkcleaners.commands;
 
 import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
 import me.d15c07d.chunkcleaners.config.ConfigManager;
+import me.d15c07d.chunkcleaners.io.IoExecutor;
+import me.d15c07d.chunkcleaners.job.MaintenanceJob;
+import me.d15c07d.chunkcleaners.journal.UndoJournal;
+import me.d15c07d.chunkcleaners.journal.UndoJournalManager;
+import me.d15c07d.chunkcleaners.profiler.PhaseProfiler;
+import me.d15c07d.chunkcleaners.region.OfflineRegionJob;
+import me.d15c07d.chunkcleaners.shape.ChunkShape;
+import me.d15c07d.chunkcleaners.shape.CircleShape;
+import me.d15c07d.chunkcleaners.shape.RectShape;
 import me.d15c07d.chunkcleaners.storage.PersistenceManager;
 import me.d15c07d.chunkcleaners.task.ChunkCleanerManager;
 import me.d15c07d.chunkcleaners.task.ChunkCleanerTask;
+import me.d15c07d.chunkcleaners.task.TurboPolicy;
+import me.d15c07d.chunkcleaners.task.WorldBudget;
+import me.d15c07d.chunkcleaners.tune.AutoTuner;
 import me.d15c07d.chunkcleaners.utils.MessageUtil;
 import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.command.*;
 import org.bukkit.entity.Player;
@@ -24,17 +37,33 @@ import java.util.stream.Collectors;
  *   /chunkcleaners give <player> <type> [amount]
  *
  * Other subcommands:
+ *   estimate <type>
+ *   undo [task uuid]
  *   list
  *   reload
  *   admin save
  *   admin savetask <uuid>
  *   admin list
  *   admin status <uuid>
+ *   admin profile [seconds]
+ *   admin offline start <world> <x1> <z1> <x2> <z2>
+ *   admin offline circle <world> <x> <z> <radius>
+ *   admin offline region <world> <regionId>
+ *   admin offline cancel <uuid>
+ *   admin job start <world> <x1> <z1> <x2> <z2>
+ *   admin job circle <world> <x> <z> <radius>
+ *   admin job region <world> <regionId>
+ *   admin job cancel <uuid>
+ *   admin tune [target_ms] | confirm | status | cancel
  *
  * All messages are configurable under messages.main.* and messages.admin.* in config.yml.
  */
 public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
 
+    private static final String USAGE_JOB = "<red>Usage: /chunkcleaners admin job start <world> <x1> <z1> <x2> <z2> | circle <world> <x> <z> <radius> | region <world> <id> | cancel <uuid>";
+    private static final String USAGE_TUNE = "<red>Usage: /chunkcleaners admin tune [target_ms] | confirm | status | cancel";
+    private static final String USAGE_OFFLINE = "<red>Usage: /chunkcleaners admin offline start <world> <x1> <z1> <x2> <z2> | circle <world> <x> <z> <radius> | region <world> <id> | cancel <uuid>";
+
     private final ChunkCleanersPlugin plugin;
     private final ChunkCleanerManager manager;
     private final PersistenceManager persistence;
@@ -106,6 +135,10 @@ public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
             switch (sub) {
                 case "give":
                     return handleGive(sender, args);
+                case "estimate":
+                    return handleEstimate(sender, args);
+                case "undo":
+                    return handleUndo(sender, args);
                 case "list":
                     return handleList(sender);
                 case "reload":
@@ -147,12 +180,6 @@ public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
         }
 
         String playerName = args[1];
-        OfflinePlayer target = Bukkit.getOfflinePlayer(playerName);
-        if (target == null) {
-            sender.sendMessage(MessageUtil.parse("<red>Player not found: " + playerName));
-            return true;
-        }
-
         String typeKey = args[2];
         Optional<ConfigManager.CleanerType> typeOpt = configManager.getType(typeKey);
         if (typeOpt.isEmpty()) {
@@ -165,21 +192,166 @@ public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
         if (args.length >= 4) {
             try { amount = Math.max(1, Integer.parseInt(args[3])); } catch (NumberFormatException ignored) { amount = 1; }
         }
+        final int giveAmount = amount;
+
+        Player online = Bukkit.getPlayerExact(playerName);
+        if (online != null) {
+            giveTo(sender, online, playerName, type, giveAmount);
+            return true;
+        }
+        // offline names may need a profile lookup (disk or web); resolve off the main thread
+        plugin.getIoExecutor().submit(IoExecutor.Resource.PROFILE_LOOKUP, () -> Bukkit.getOfflinePlayer(playerName))
+                .whenComplete((target, err) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (err != null || target == null) {
+                        sender.sendMessage(MessageUtil.parse("<red>Player not found: " + playerName));
+                        return;
+                    }
+                    giveTo(sender, target, playerName, type, giveAmount);
+                }));
+        return true;
+    }
 
+    private void giveTo(CommandSender sender, OfflinePlayer target, String playerName, ConfigManager.CleanerType type, int amount) {
         try {
             manager.giveCleanerItem(target, type, amount);
             sendParsedVar(sender, cfgMain("give_success", "<green>Gave {amount}x {type} to {player}."), Map.of(
                     "amount", String.valueOf(amount),
-                    "type", typeKey,
+                    "type", type.getKey(),
                     "player", target.getName() == null ? playerName : target.getName()
             ));
         } catch (Throwable t) {
             sender.sendMessage(MessageUtil.parse("<red>Error giving cleaner: " + t.getMessage()));
             plugin.getLogger().warning("MainCommand.give failed: " + t.getMessage());
         }
+    }
+
+    /**
+     * /chunkcleaners estimate <type> - prescan the footprint of a cleaner placed where the player stands.
+     */
+    private boolean handleEstimate(CommandSender sender, String[] args) {
+        if (!(sender instanceof Player)) {
+            sendParsed(sender, cfgMain("estimate_players_only", "<red>Only players can run estimates."));
+            return true;
+        }
+        if (!sender.hasPermission("chunkcleaners.estimate") && !sender.isOp()) {
+            sender.sendMessage(MessageUtil.parse(plugin.getConfig().getString("messages.no_permission", "&cYou don't have permission to do that.")));
+            return true;
+        }
+        if (args.length < 2) {
+            sendParsed(sender, cfgMain("estimate_usage", "<red>Usage: /chunkcleaners estimate <type>"));
+            return true;
+        }
+        Optional<ConfigManager.CleanerType> typeOpt = configManager.getType(args[1]);
+        if (typeOpt.isEmpty()) {
+            sender.sendMessage(MessageUtil.parse(plugin.getConfig().getString("messages.invalid_type", "&cThat chunk cleaner type doesn't exist.")));
+            return true;
+        }
+        Player p = (Player) sender;
+        sendParsed(p, cfgMain("estimate_started", "<gray>Scanning the cleaner footprint..."));
+        manager.getEstimator().estimate(p.getUniqueId(), p.getLocation(), typeOpt.get()).whenComplete((est, err) -> {
+            if (!p.isOnline()) return;
+            if (err != null) {
+                sendParsedVar(p, cfgMain("estimate_fail", "<red>Estimate failed: {error}"), Map.of("error", err.getMessage() == null ? "unknown" : err.getMessage()));
+                return;
+            }
+            sendParsedVar(p, cfgMain("estimate_header", "<gold>Estimate for <white>{type}</white> at chunk {coords}:"), Map.of(
+                    "type", est.getTypeKey(),
+                    "coords", est.getOriginChunkX() + "," + est.getOriginChunkZ()));
+            sendParsedVar(p, cfgMain("estimate_summary", "<gold>Blocks: <white>{blocks}</white> in {chunks} chunks <gray>({skipped} protected, {ungenerated} not generated)"), Map.of(
+                    "blocks", String.valueOf(est.getTotalBlocks()),
+                    "chunks", String.valueOf(est.getChunkCount()),
+                    "skipped", String.valueOf(est.getSkippedChunks().size()),
+                    "ungenerated", String.valueOf(est.getUngeneratedChunks())));
+            sendParsedVar(p, cfgMain("estimate_duration", "<gold>Predicted duration: <white>{seconds}s</white> <gray>(current throttle and TPS)"), Map.of(
+                    "seconds", String.valueOf(est.getPredictedSeconds())));
+            int maxLines = Math.max(0, plugin.getConfig().getInt("estimate.max_material_lines", 8));
+            String lineFormat = cfgMain("estimate_material_line", "<gray>- <white>{material}</white>: {count}");
+            int shown = 0;
+            for (Map.Entry<Material, Integer> e : est.getBreakdown().entrySet()) {
+                if (shown++ >= maxLines) break;
+                sendParsedVar(p, lineFormat, Map.of("material", e.getKey().name().toLowerCase(Locale.ROOT), "count", String.valueOf(e.getValue())));
+            }
+        });
+        return true;
+    }
+
+    /**
+     * /chunkcleaners undo [uuid] - list undo journals, or restore what a cleaner removed.
+     */
+    private boolean handleUndo(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("chunkcleaners.undo") && !sender.isOp()) {
+            sender.sendMessage(MessageUtil.parse(plugin.getConfig().getString("messages.no_permission", "&cYou don't have permission to do that.")));
+            return true;
+        }
+        UndoJournalManager journals = manager.getJournals();
+        if (!journals.isEnabled()) {
+            sendParsed(sender, cfgMain("undo_disabled", "<red>Undo journals are disabled (journal.enabled)."));
+            return true;
+        }
+        if (args.length < 2) {
+            listJournals(sender, journals);
+            return true;
+        }
+        UUID id;
+        try {
+            id = UUID.fromString(args[1]);
+        } catch (IllegalArgumentException iae) {
+            sendParsed(sender, cfgMain("undo_usage", "<red>Usage: /chunkcleaners undo <task uuid>"));
+            return true;
+        }
+        // stop a running cleaner first so nothing more is removed while its journal is replayed
+        for (ChunkCleanerTask t : new ArrayList<>(manager.getActiveTasks())) {
+            if (t.getId().equals(id)) t.cancel();
+        }
+        switch (journals.undo(sender, id)) {
+            case NOT_FOUND:
+                sendParsedVar(sender, cfgMain("undo_not_found", "<red>No undo journal for {id}."), Map.of("id", args[1]));
+                break;
+            case ALREADY_RUNNING:
+                sendParsedVar(sender, cfgMain("undo_running", "<red>Undo of {id} is already running."), Map.of("id", args[1]));
+                break;
+            default:
+                sendParsedVar(sender, cfgMain("undo_started", "<green>Restoring blocks removed by {id}..."), Map.of("id", args[1]));
+        }
         return true;
     }
 
+    private void listJournals(CommandSender sender, UndoJournalManager journals) {
+        List<UUID> ids = new ArrayList<>(journals.getKnownJournals());
+        if (ids.isEmpty()) {
+            sendParsed(sender, cfgMain("undo_list_empty", "<yellow>No undo journals."));
+            return;
+        }
+        // headers live on disk
+        plugin.getIoExecutor().submit(IoExecutor.Resource.JOURNAL, () -> {
+            List<UndoJournal.Info> infos = new ArrayList<>();
+            for (UUID id : ids) {
+                try {
+                    infos.add(journals.readInfo(id));
+                } catch (Exception ignored) {
+                    // not written yet or pruned meanwhile
+                }
+            }
+            infos.sort(Comparator.comparingLong(UndoJournal.Info::getCreatedAt).reversed());
+            return infos;
+        }).whenComplete((infos, err) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if (err != null || infos.isEmpty()) {
+                sendParsed(sender, cfgMain("undo_list_empty", "<yellow>No undo journals."));
+                return;
+            }
+            sendParsedVar(sender, cfgMain("undo_list_header", "<gold>Undo journals: <gray>({count})"), Map.of("count", String.valueOf(infos.size())));
+            long now = Instant.now().getEpochSecond();
+            for (UndoJournal.Info info : infos) {
+                sendParsedVar(sender, cfgMain("undo_list_entry", "<aqua>{owner} <gray>{world} <gold>{type} <gray>age={age}s <yellow>{id}"), Map.of(
+                        "owner", info.getOwnerName(),
+                        "world", info.getWorldName(),
+                        "type", info.getTypeKey(),
+                        "age", String.valueOf(Math.max(0L, now - info.getCreatedAt())),
+                        "id", info.getTaskId().toString()));
+            }
+        }));
+    }
+
     private boolean handleList(CommandSender sender) {
         if (hasAdminPerm(sender)) {
             // reuse admin list
@@ -198,6 +370,7 @@ public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
         try {
             plugin.reloadConfig();
             try { plugin.getConfigManager().reload(); } catch (Throwable ignored) {}
+            try { plugin.getConfigManager().applyHotReloadSetting(); } catch (Throwable ignored) {}
             try { plugin.getCleanerManager().onConfigReload(); } catch (Throwable ignored) {}
             sendParsed(sender, cfgMain("reload_success", "<green>Configuration reloaded."));
         } catch (Throwable t) {
@@ -230,6 +403,18 @@ public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
                 return handleAdminList(sender);
             case "status":
                 return handleAdminStatus(sender, args);
+            case "profile":
+                return handleAdminProfile(sender, args);
+            case "top":
+                return handleAdminTop(sender, args);
+            case "worlds":
+                return handleAdminWorlds(sender);
+            case "offline":
+                return handleAdminOffline(sender, args);
+            case "job":
+                return handleAdminJob(sender, args);
+            case "tune":
+                return handleAdminTune(sender, args);
             default:
                 sendParsed(sender, cfgAdmin("help_header", "<gold>ChunkCleaners Admin Commands"));
                 for (String l : cfgAdminList("help_lines")) sendParsed(sender, l);
@@ -262,12 +447,18 @@ public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
             return true;
         }
         Optional<ChunkCleanerTask> opt = manager.getActiveTasks().stream().filter(t -> t.getId().equals(id)).findFirst();
+        Optional<OfflineRegionJob> offline = manager.getOfflineCleaner().getJob(id);
+        if (opt.isEmpty() && offline.isPresent()) {
+            persistence.saveOfflineJob(offline.get());
+            sendParsedVar(sender, cfgAdmin("savetask_success", "<green>Saved progress for task {id}"), Map.of("id", idStr));
+            return true;
+        }
         if (opt.isEmpty()) {
             sendParsed(sender, cfgAdmin("savetask_no_task", "<red>No active task with that UUID."));
             return true;
         }
         try {
-            persistence.saveTaskProgress(opt.get());
+            persistence.saveTask(opt.get());
             sendParsedVar(sender, cfgAdmin("savetask_success", "<green>Saved progress for task {id}"), Map.of("id", idStr));
         } catch (Throwable t) {
             sendParsedVar(sender, cfgAdmin("save_fail", "<red>Failed to save: {error}"), Map.of("error", t.getMessage() == null ? "unknown" : t.getMessage()));
@@ -277,12 +468,15 @@ public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
     }
 
     private boolean handleAdminList(CommandSender sender) {
-        Collection<ChunkCleanerTask> tasks = manager.getActiveTasks();
-        if (tasks.isEmpty()) {
+        // job workers are listed through their job
+        List<ChunkCleanerTask> tasks = manager.getActiveTasks().stream().filter(t -> t.getJob() == null).collect(Collectors.toList());
+        Collection<OfflineRegionJob> offlineJobs = manager.getOfflineCleaner().getJobs();
+        Collection<MaintenanceJob> jobs = manager.getJobManager().getJobs();
+        if (tasks.isEmpty() && offlineJobs.isEmpty() && jobs.isEmpty()) {
             sendParsed(sender, cfgAdmin("list_empty", "<yellow>No active chunk cleaners."));
             return true;
         }
-        sendParsedVar(sender, cfgAdmin("list_header", "<gold>Active Chunk Cleaners: <gray>({count})"), Map.of("count", String.valueOf(tasks.size())));
+        sendParsedVar(sender, cfgAdmin("list_header", "<gold>Active Chunk Cleaners: <gray>({count})"), Map.of("count", String.valueOf(tasks.size() + offlineJobs.size() + jobs.size())));
         int idx = 1;
         for (ChunkCleanerTask t : tasks) {
             String id = t.getId().toString();
@@ -294,11 +488,8 @@ public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
                 int minY = Math.max(w.getMinHeight(), -63);
                 int maxY = w.getMaxHeight();
                 long levelsPerChunk = Math.max(0, maxY - minY);
-                long processedBefore = (long) t.getCurrentChunkIndex() * levelsPerChunk;
-                int topY = maxY - 1;
-                long processedInCurrent = Math.max(0, (topY - t.getCurrentY()));
-                long processed = processedBefore + processedInCurrent;
-                long total = Math.max(1, (long) t.getSize() * levelsPerChunk);
+                long processed = t.getCursorLevels(minY, maxY);
+                long total = Math.max(1, (long) t.getChunkCount() * levelsPerChunk);
                 percent = Math.min(100, (processed * 100) / total);
             }
             String entryFormat = plugin.getConfig().getString("messages.list_entry", null);
@@ -311,13 +502,70 @@ public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
                         .replace("{age}", String.valueOf(Math.max(0, Instant.now().getEpochSecond() - t.getStartedAt())));
             } else {
                 line = "<aqua>" + idx + ". <white>" + owner + " <gray>(" + coords + ") <gold>" + percent + "% <yellow>" + id;
+                if (t.getState() == ChunkCleanerTask.State.PARKED) line += " <gray>[" + stateLabel(t) + "]";
             }
             sendParsed(sender, line);
             idx++;
         }
+        String offlineFormat = cfgAdmin("offline_list_entry", "<aqua>{index}. <white>{owner} <gray>(offline {world}:{from}..{to}) <gold>{percent}% <yellow>{id}");
+        for (OfflineRegionJob j : offlineJobs) {
+            sendParsedVar(sender, offlineFormat, offlineVars(j, idx));
+            idx++;
+        }
+        String jobFormat = cfgAdmin("job_list_entry", "<aqua>{index}. <white>{owner} <gray>(job {world} {shape}) <gold>{percent}% <gray>[{workers} workers] <yellow>{id}");
+        for (MaintenanceJob j : jobs) {
+            sendParsedVar(sender, jobFormat, jobVars(j, idx));
+            idx++;
+        }
         return true;
     }
 
+    private Map<String, String> jobVars(MaintenanceJob j, int index) {
+        long percent = Math.min(100, (long) j.getDoneChunks() * 100 / Math.max(1, j.getTotalChunks()));
+        Map<String, String> vars = new HashMap<>();
+        vars.put("index", String.valueOf(index));
+        vars.put("id", j.getId().toString());
+        vars.put("owner", j.getOwnerName() == null ? "console" : j.getOwnerName());
+        vars.put("world", j.getWorldName());
+        vars.put("shape", j.getShape().describe());
+        vars.put("order", j.getOrder().name().toLowerCase(Locale.ROOT));
+        vars.put("percent", String.valueOf(percent));
+        vars.put("done", String.valueOf(j.getDoneChunks()));
+        vars.put("leased", String.valueOf(j.getLeasedChunks()));
+        vars.put("total", String.valueOf(j.getTotalChunks()));
+        vars.put("workers", String.valueOf(j.getWorkerCount()));
+        vars.put("blocks", String.valueOf(j.getBlocksRemoved()));
+        return vars;
+    }
+
+    private static String stateLabel(ChunkCleanerTask t) {
+        if (t.getState() != ChunkCleanerTask.State.PARKED) return t.getState().name().toLowerCase(Locale.ROOT);
+        return "parked: " + t.getParkReason().name().toLowerCase(Locale.ROOT);
+    }
+
+    private Map<String, String> offlineVars(OfflineRegionJob j, int index) {
+        long percent = Math.min(100, (long) j.getCursor() * 100 / Math.max(1, j.getTotalChunks()));
+        Map<String, String> vars = new HashMap<>();
+        vars.put("index", String.valueOf(index));
+        vars.put("id", j.getId().toString());
+        vars.put("owner", j.getOwnerName() == null ? "console" : j.getOwnerName());
+        vars.put("world", j.getWorldName());
+        vars.put("from", j.getMinChunkX() + "," + j.getMinChunkZ());
+        vars.put("to", j.getMaxChunkX() + "," + j.getMaxChunkZ());
+        vars.put("shape", j.getShape().describe());
+        vars.put("percent", String.valueOf(percent));
+        vars.put("cursor", String.valueOf(j.getCursor()));
+        vars.put("total", String.valueOf(j.getTotalChunks()));
+        vars.put("cleared", String.valueOf(j.getCleared().get()));
+        vars.put("blocks", String.valueOf(j.getBlocksRemoved().get()));
+        vars.put("loaded", String.valueOf(j.getSkippedLoaded().get()));
+        vars.put("conflict", String.valueOf(j.getSkippedConflict().get()));
+        vars.put("unsupported", String.valueOf(j.getSkippedUnsupported().get()));
+        vars.put("too_large", String.valueOf(j.getSkippedTooLarge().get()));
+        vars.put("error", j.getFailure() == null ? "" : j.getFailure());
+        return vars;
+    }
+
     private boolean handleAdminStatus(CommandSender sender, String[] args) {
         if (args.length < 3) {
             sendParsed(sender, cfgAdmin("status_not_found", "<red>Usage: /chunkcleaners admin status <uuid>"));
@@ -332,6 +580,27 @@ public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
             return true;
         }
         Optional<ChunkCleanerTask> opt = manager.getActiveTasks().stream().filter(t -> t.getId().equals(id)).findFirst();
+        Optional<OfflineRegionJob> offline = manager.getOfflineCleaner().getJob(id);
+        Optional<MaintenanceJob> job = manager.getJobManager().getJob(id);
+        if (job.isPresent()) {
+            Map<String, String> vars = jobVars(job.get(), 1);
+            sendParsedVar(sender, "<gold>Task: <white>{id} <gray>(maintenance job)", vars);
+            sendParsedVar(sender, cfgAdmin("offline_status_area", "<gold>Area: <white>{world} {shape}"), vars);
+            sendParsedVar(sender, cfgAdmin("job_status_progress", "<gold>Progress: <white>{percent}% ({done}/{total} chunks, {leased} in progress, {order} order)"), vars);
+            sendParsedVar(sender, cfgAdmin("job_status_workers", "<gold>Workers: <white>{workers} <gold>Removed: <white>{blocks} blocks"), vars);
+            return true;
+        }
+        if (opt.isEmpty() && offline.isPresent()) {
+            Map<String, String> vars = offlineVars(offline.get(), 1);
+            sendParsedVar(sender, "<gold>Task: <white>{id} <gray>(offline)", vars);
+            sendParsedVar(sender, cfgAdmin("offline_status_area", "<gold>Area: <white>{world} {shape}"), vars);
+            sendParsedVar(sender, cfgAdmin("offline_status_progress", "<gold>Progress: <white>{percent}% ({cursor}/{total} chunks)"), vars);
+            sendParsedVar(sender, cfgAdmin("offline_status_result", "<gold>Cleared: <white>{cleared} chunks, {blocks} blocks <gold>Skipped: <white>loaded={loaded} conflict={conflict} unsupported={unsupported} too_large={too_large}"), vars);
+            if (offline.get().getFailure() != null) {
+                sendParsedVar(sender, cfgAdmin("offline_status_failed", "<red>Stopped: <white>{error}"), vars);
+            }
+            return true;
+        }
         if (opt.isEmpty()) {
             sendParsed(sender, cfgAdmin("status_not_found", "<red>No active task with that UUID."));
             return true;
@@ -340,6 +609,18 @@ public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
 
         sendParsedVar(sender, "<gold>Task: <white>{id}", Map.of("id", t.getId().toString()));
         sendParsedVar(sender, "<gold>Owner: <white>{owner} <gray>({uuid})", Map.of("owner", t.getOwnerName() == null ? "unknown" : t.getOwnerName(), "uuid", t.getOwnerUuid() == null ? "null" : t.getOwnerUuid().toString()));
+        sendParsedVar(sender, cfgAdmin("status_state", "<gold>State: <white>{state}"), Map.of("state", stateLabel(t)));
+        sendParsedVar(sender, cfgAdmin("status_cost", "<gold>Cost: <white>{cost}ms/s, {total}ms total, {rate} blocks/ms, {entities} entities, share {share}%"), Map.of(
+                "cost", String.format(Locale.ROOT, "%.2f", t.getCostMillisPerSecond()),
+                "total", formatMillis(t.getCostNanos()),
+                "rate", String.format(Locale.ROOT, "%.1f", t.getBlocksPerMilli()),
+                "entities", String.valueOf(t.getEntitiesRemoved()),
+                "share", String.valueOf(Math.round(t.getBudgetShare() * 100.0))));
+
+        sendParsedVar(sender, cfgAdmin("status_shape", "<gold>Shape: <white>{shape} <gray>({chunks} chunks, {order} order)"), Map.of(
+                "shape", t.getShape().describe(),
+                "chunks", String.valueOf(t.getChunkCount()),
+                "order", t.getChunkOrder().name().toLowerCase(Locale.ROOT)));
 
         World w = Bukkit.getWorld(t.getWorldName());
         if (w == null) {
@@ -348,12 +629,9 @@ public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
         }
         int minY = Math.max(w.getMinHeight(), -63);
         int maxY = w.getMaxHeight();
-        int topY = maxY - 1;
         long levelsPerChunk = Math.max(0, maxY - minY);
-        long totalLevels = (long) t.getSize() * levelsPerChunk;
-        long processedBefore = (long) t.getCurrentChunkIndex() * levelsPerChunk;
-        long processedInCurrent = Math.max(0, (topY - t.getCurrentY()));
-        long processedLevels = processedBefore + processedInCurrent;
+        long totalLevels = (long) t.getChunkCount() * levelsPerChunk;
+        long processedLevels = t.getCursorLevels(minY, maxY);
         double progress = totalLevels == 0 ? 1.0 : Math.min(1.0, processedLevels / (double) totalLevels);
 
         String progressLine = cfgAdmin("status_progress_line", "<gold>Progress: <white>{percent}% ({processed}/{total} levels)")
@@ -369,14 +647,332 @@ public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
+    private boolean handleAdminOffline(CommandSender sender, String[] args) {
+        String action = args.length >= 3 ? args[2].toLowerCase(Locale.ROOT) : "";
+        if (action.equals("cancel") && args.length >= 4) {
+            UUID id;
+            try {
+                id = UUID.fromString(args[3]);
+            } catch (IllegalArgumentException iae) {
+                sendParsedVar(sender, cfgAdmin("savetask_invalid_uuid", "<red>Invalid UUID: {id}"), Map.of("id", args[3]));
+                return true;
+            }
+            if (manager.getOfflineCleaner().cancel(id)) {
+                sendParsedVar(sender, cfgAdmin("offline_cancelled", "<yellow>Offline clear {id} cancelled."), Map.of("id", args[3]));
+            } else {
+                sendParsed(sender, cfgAdmin("status_not_found", "<red>No active task with that UUID."));
+            }
+            return true;
+        }
+        String usage = cfgAdmin("offline_usage", USAGE_OFFLINE);
+        World world = areaWorld(sender, args, usage);
+        if (world == null) return true;
+        ChunkShape shape = parseArea(sender, args, world, usage);
+        if (shape == null) return true;
+        long maxArea = Math.max(1L, plugin.getConfig().getLong("offline.max_chunks", 16384L));
+        long area = areaOf(shape, maxArea);
+        if (area > maxArea) {
+            sendParsedVar(sender, cfgAdmin("offline_too_large", "<red>Area too large: {chunks} chunks (max {max})."), Map.of("chunks", String.valueOf(area), "max", String.valueOf(maxArea)));
+            return true;
+        }
+        UUID ownerUuid = sender instanceof Player ? ((Player) sender).getUniqueId() : null;
+        OfflineRegionJob job = manager.getOfflineCleaner().start(ownerUuid, sender.getName(), world, shape);
+        if (job == null) {
+            sendParsed(sender, cfgAdmin("offline_overlap", "<red>That area overlaps a running offline clear."));
+            return true;
+        }
+        sendParsedVar(sender, cfgAdmin("offline_started", "<green>Offline clear {id} started for {chunks} chunks. Loaded chunks are skipped."), Map.of("id", job.getId().toString(), "chunks", String.valueOf(area)));
+        return true;
+    }
+
+    /**
+     * /chunkcleaners admin job ...: world-scale clear by worker cleaners, resumable chunk by chunk.
+     */
+    private boolean handleAdminJob(CommandSender sender, String[] args) {
+        String action = args.length >= 3 ? args[2].toLowerCase(Locale.ROOT) : "";
+        if (action.equals("cancel") && args.length >= 4) {
+            UUID id;
+            try {
+                id = UUID.fromString(args[3]);
+            } catch (IllegalArgumentException iae) {
+                sendParsedVar(sender, cfgAdmin("savetask_invalid_uuid", "<red>Invalid UUID: {id}"), Map.of("id", args[3]));
+                return true;
+            }
+            if (manager.getJobManager().cancel(id)) {
+                sendParsedVar(sender, cfgAdmin("job_cancelled", "<yellow>Maintenance job {id} cancelled."), Map.of("id", args[3]));
+            } else {
+                sendParsed(sender, cfgAdmin("status_not_found", "<red>No active task with that UUID."));
+            }
+            return true;
+        }
+        String usage = cfgAdmin("job_usage", USAGE_JOB);
+        World world = areaWorld(sender, args, usage);
+        if (world == null) return true;
+        ChunkShape shape = parseArea(sender, args, world, usage);
+        if (shape == null) return true;
+        long maxArea = Math.max(1L, plugin.getConfig().getLong("jobs.max_chunks", 262144L));
+        long area = areaOf(shape, maxArea);
+        if (area > maxArea) {
+            sendParsedVar(sender, cfgAdmin("offline_too_large", "<red>Area too large: {chunks} chunks (max {max})."), Map.of("chunks", String.valueOf(area), "max", String.valueOf(maxArea)));
+            return true;
+        }
+        UUID ownerUuid = sender instanceof Player ? ((Player) sender).getUniqueId() : null;
+        MaintenanceJob job = manager.getJobManager().start(ownerUuid, sender.getName(), world, shape);
+        if (job == null) {
+            sendParsed(sender, cfgAdmin("job_overlap", "<red>That area overlaps a running maintenance job."));
+            return true;
+        }
+        sendParsedVar(sender, cfgAdmin("job_started", "<green>Maintenance job {id} started for {chunks} chunks."), Map.of("id", job.getId().toString(), "chunks", String.valueOf(area)));
+        return true;
+    }
+
+    // world of an area command (admin offline / admin job <action> <world> ...); null after replying
+    private World areaWorld(CommandSender sender, String[] args, String usage) {
+        String action = args.length >= 3 ? args[2].toLowerCase(Locale.ROOT) : "";
+        int needed = action.equals("start") ? 8 : action.equals("circle") ? 7 : action.equals("region") ? 5 : Integer.MAX_VALUE;
+        if (args.length < needed) {
+            sendParsed(sender, usage);
+            return null;
+        }
+        World world = Bukkit.getWorld(args[3]);
+        if (world == null) {
+            sendParsedVar(sender, cfgAdmin("status_world_unloaded", "<red>World not loaded: {world}"), Map.of("world", args[3]));
+        }
+        return world;
+    }
+
+    // start <x1> <z1> <x2> <z2> | circle <x> <z> <radius> | region <id>, in chunk coordinates; null after replying
+    private ChunkShape parseArea(CommandSender sender, String[] args, World world, String usage) {
+        String action = args[2].toLowerCase(Locale.ROOT);
+        if (action.equals("region")) {
+            ChunkShape shape = plugin.getIntegrationManager().regionOutline(world, args[4]);
+            if (shape == null) {
+                sendParsedVar(sender, cfgAdmin("offline_no_region", "<red>No WorldGuard region {region} in {world}."), Map.of("region", args[4], "world", world.getName()));
+            }
+            return shape;
+        }
+        try {
+            return action.equals("circle")
+                    ? new CircleShape(Integer.parseInt(args[4]), Integer.parseInt(args[5]), Math.max(0, Integer.parseInt(args[6])))
+                    : new RectShape(Integer.parseInt(args[4]), Integer.parseInt(args[5]), Integer.parseInt(args[6]), Integer.parseInt(args[7]));
+        } catch (NumberFormatException nfe) {
+            sendParsed(sender, usage);
+            return null;
+        }
+    }
+
+    // the bounding box check keeps a huge outline from being counted chunk by chunk
+    private static long areaOf(ChunkShape shape, long maxArea) {
+        return shape.getBoundsArea() > 16L * maxArea ? shape.getBoundsArea() : shape.getChunkCount();
+    }
+
+    /**
+     * /chunkcleaners admin tune [target_ms] | confirm | status | cancel: benchmark the server and write proposed knobs.
+     */
+    private boolean handleAdminTune(CommandSender sender, String[] args) {
+        AutoTuner tuner = manager.getAutoTuner();
+        String action = args.length >= 3 ? args[2].toLowerCase(Locale.ROOT) : "";
+        if (action.equals("status")) {
+            if (tuner.getPhase() == AutoTuner.Phase.IDLE) {
+                sendParsed(sender, cfgAdmin("tune_idle", "<yellow>No auto-tune run in progress."));
+                return true;
+            }
+            Map<String, String> vars = new HashMap<>();
+            vars.put("phase", tuner.getPhase().name().toLowerCase(Locale.ROOT));
+            vars.put("strategy", tuner.getCurrentStrategy() == null ? "-" : tuner.getCurrentStrategy());
+            vars.put("done", String.valueOf(tuner.getStrategiesDone()));
+            vars.put("total", String.valueOf(tuner.getStrategyCount()));
+            sendParsedVar(sender, cfgAdmin("tune_status", "<gold>Auto-tune: <white>{phase} {strategy} <gray>({done}/{total} strategies done)"), vars);
+            return true;
+        }
+        if (action.equals("cancel")) {
+            if (tuner.cancel()) {
+                sendParsed(sender, cfgAdmin("tune_cancelled", "<yellow>Auto-tune cancelled."));
+            } else {
+                sendParsed(sender, cfgAdmin("tune_idle", "<yellow>No auto-tune run in progress."));
+            }
+            return true;
+        }
+        if (action.equals("confirm")) {
+            sendTuneError(sender, tuner.confirm(sender));
+            return true;
+        }
+        double target = plugin.getConfig().getDouble("tune.target_ms_per_tick", 5.0);
+        if (!action.isEmpty()) {
+            try {
+                target = Double.parseDouble(args[2]);
+            } catch (NumberFormatException nfe) {
+                target = -1.0;
+            }
+            if (target <= 0.0 || target >= 50.0) {
+                sendParsed(sender, cfgAdmin("tune_usage", USAGE_TUNE));
+                return true;
+            }
+        }
+        sendTuneError(sender, tuner.start(sender, target));
+        return true;
+    }
+
+    private void sendTuneError(CommandSender sender, String key) {
+        if (key == null) return;
+        switch (key) {
+            case "tune_running":
+                sendParsed(sender, cfgAdmin(key, "<red>An auto-tune run is already in progress."));
+                break;
+            case "tune_no_origin":
+                sendParsed(sender, cfgAdmin(key, "<red>Set tune.origin_chunk_x and tune.origin_chunk_z before benchmarking in tune.world."));
+                break;
+            case "tune_no_confirm":
+                sendParsed(sender, cfgAdmin(key, "<red>Nothing to confirm; run /chunkcleaners admin tune first."));
+                break;
+            default:
+                sendParsed(sender, cfgAdmin("tune_no_world", "<red>No scratch world for the benchmark; check tune.world / tune.temporary_world."));
+        }
+    }
+
+    /**
+     * /chunkcleaners admin top [count]: tasks by current main-thread cost, most expensive first.
+     */
+    private boolean handleAdminTop(CommandSender sender, String[] args) {
+        int count = Math.max(1, plugin.getConfig().getInt("cost.top_lines", 10));
+        if (args.length >= 3) {
+            try { count = Math.max(1, Integer.parseInt(args[2])); } catch (NumberFormatException ignored) {}
+        }
+        List<ChunkCleanerTask> tasks = new ArrayList<>(manager.getActiveTasks());
+        if (tasks.isEmpty()) {
+            sendParsed(sender, cfgAdmin("list_empty", "<yellow>No active chunk cleaners."));
+            return true;
+        }
+        tasks.sort(Comparator.comparingDouble(ChunkCleanerTask::getCostMillisPerSecond).reversed()
+                .thenComparing(Comparator.comparingLong(ChunkCleanerTask::getCostNanos).reversed()));
+        sendParsed(sender, cfgAdmin("top_header", "<gold>Cleaners by main-thread cost (ms per second):"));
+        String format = cfgAdmin("top_line", "<aqua>{index}. <white>{owner} <gray>({coords}) <gold>{cost}ms/s <white>total={total}ms blocks/ms={rate} entities={entities} share={share}% <gray>[{state}] <yellow>{id}");
+        for (int i = 0; i < Math.min(count, tasks.size()); i++) {
+            ChunkCleanerTask t = tasks.get(i);
+            Map<String, String> vars = new HashMap<>();
+            vars.put("index", String.valueOf(i + 1));
+            vars.put("owner", t.getOwnerName() == null ? "unknown" : t.getOwnerName());
+            vars.put("coords", t.getWorldName() + ":" + t.getChunkX() + "," + t.getChunkZ());
+            vars.put("cost", String.format(Locale.ROOT, "%.2f", t.getCostMillisPerSecond()));
+            vars.put("total", formatMillis(t.getCostNanos()));
+            vars.put("rate", String.format(Locale.ROOT, "%.1f", t.getBlocksPerMilli()));
+            vars.put("entities", String.valueOf(t.getEntitiesRemoved()));
+            vars.put("share", String.valueOf(Math.round(t.getBudgetShare() * 100.0)));
+            vars.put("state", stateLabel(t));
+            vars.put("id", t.getId().toString());
+            sendParsedVar(sender, format, vars);
+        }
+        return true;
+    }
+
+    private boolean handleAdminWorlds(CommandSender sender) {
+        Collection<WorldBudget.WorldStats> stats = manager.getWorldBudget().getStats();
+        if (stats.isEmpty()) {
+            sendParsed(sender, cfgAdmin("list_empty", "<yellow>No active chunk cleaners."));
+            return true;
+        }
+        double budget = plugin.getConfig().getDouble("budget.max_ms_per_tick", 0.0);
+        sendParsedVar(sender, cfgAdmin("worlds_header", "<gold>Cleaner throughput per world <gray>(budget {budget}ms/tick):"),
+                Map.of("budget", budget > 0.0 ? String.format(Locale.ROOT, "%.2f", budget) : "off"));
+        TurboPolicy turbo = manager.getWorldBudget().getTurbo();
+        Map<String, String> turboVars = new HashMap<>();
+        turboVars.put("status", turbo.getStatus().name().toLowerCase(Locale.ROOT));
+        turboVars.put("multiplier", String.format(Locale.ROOT, "%.2f", turbo.getMultiplier()));
+        turboVars.put("mspt", turbo.getMspt() < 0.0 ? "-" : String.format(Locale.ROOT, "%.2f", turbo.getMspt()));
+        turboVars.put("allowance", turbo.getAllowanceNanos() == Long.MAX_VALUE ? "-" : String.format(Locale.ROOT, "%.2f", turbo.getAllowanceNanos() / 1_000_000.0));
+        sendParsedVar(sender, cfgAdmin("worlds_turbo", "<gold>Turbo: <white>{status} x{multiplier} <gray>(mspt {mspt}, allowance {allowance}ms/tick)"), turboVars);
+        String format = cfgAdmin("worlds_line", "<aqua>{world} <white>running={running} <gold>{blocks} blocks/s <white>{cost}ms/s shard={shard}ms weight={weight} load={load}% <gray>({entities} entities, {chunks} chunks)");
+        for (WorldBudget.WorldStats s : stats) {
+            Map<String, String> vars = new HashMap<>();
+            vars.put("world", s.getWorld());
+            vars.put("running", String.valueOf(s.getRunning()));
+            vars.put("blocks", String.format(Locale.ROOT, "%.0f", s.getBlocksPerSecond()));
+            vars.put("cost", String.format(Locale.ROOT, "%.2f", s.getMsPerSecond()));
+            vars.put("shard", s.getShardNanos() == Long.MAX_VALUE ? "-" : String.format(Locale.ROOT, "%.2f", s.getShardNanos() / 1_000_000.0));
+            vars.put("weight", String.format(Locale.ROOT, "%.2f", s.getWeight()));
+            vars.put("load", String.valueOf(Math.round(s.getLoadFactor() * 100.0)));
+            vars.put("entities", String.valueOf(s.getEntities()));
+            vars.put("chunks", String.valueOf(s.getLoadedChunks()));
+            sendParsedVar(sender, format, vars);
+        }
+        return true;
+    }
+
+    private boolean handleAdminProfile(CommandSender sender, String[] args) {
+        int defSeconds = Math.max(1, plugin.getConfig().getInt("profiler.default_seconds", 10));
+        int maxSeconds = Math.max(1, plugin.getConfig().getInt("profiler.max_seconds", 300));
+        int seconds = defSeconds;
+        if (args.length >= 3) {
+            try { seconds = Integer.parseInt(args[2]); } catch (NumberFormatException ignored) { seconds = defSeconds; }
+        }
+        seconds = Math.max(1, Math.min(maxSeconds, seconds));
+
+        PhaseProfiler profiler = plugin.getProfiler();
+        boolean started = profiler.startSession(seconds, report -> sendProfileReport(sender, report));
+        if (!started) {
+            sendParsed(sender, cfgAdmin("profile_running", "<red>A profiling window is already running."));
+            return true;
+        }
+        sendParsedVar(sender, cfgAdmin("profile_started", "<green>Profiling cleaner work for {seconds}s..."), Map.of("seconds", String.valueOf(seconds)));
+        return true;
+    }
+
+    private void sendProfileReport(CommandSender sender, PhaseProfiler.Report report) {
+        if (sender instanceof Player && !((Player) sender).isOnline()) return;
+        String window = String.format(Locale.ROOT, "%.1f", report.getWindowMillis() / 1000.0);
+        if (report.getPhases().isEmpty()) {
+            sendParsedVar(sender, cfgAdmin("profile_empty", "<yellow>No cleaner work was recorded in the last {window}s."), Map.of("window", window));
+            return;
+        }
+        sendParsedVar(sender, cfgAdmin("profile_header", "<gold>Cleaner profile ({window}s window):"), Map.of("window", window));
+        String phaseFormat = cfgAdmin("profile_phase_line", "<yellow>{phase}<white>: n={count} total={total}ms p50={p50}ms p99={p99}ms max={max}ms");
+        for (PhaseProfiler.PhaseStats ps : report.getPhases()) {
+            sendParsedVar(sender, phaseFormat, Map.of(
+                    "phase", ps.getPhase().getLabel(),
+                    "count", String.valueOf(ps.getCount()),
+                    "total", formatMillis(ps.getTotalNanos()),
+                    "p50", formatMillis(ps.getP50Nanos()),
+                    "p99", formatMillis(ps.getP99Nanos()),
+                    "max", formatMillis(ps.getMaxNanos())
+            ));
+        }
+
+        List<PhaseProfiler.TaskStats> tasks = report.getTasks();
+        if (tasks.isEmpty()) return;
+        int maxTasks = Math.max(1, plugin.getConfig().getInt("profiler.max_task_lines", 5));
+        sendParsed(sender, cfgAdmin("profile_task_header", "<gold>Per task (heaviest first):"));
+        String taskFormat = cfgAdmin("profile_task_line", "<aqua>{owner} <gray>{id} <white>total={total}ms <gray>(mostly {phase}: {phase_total}ms)");
+        for (int i = 0; i < Math.min(maxTasks, tasks.size()); i++) {
+            PhaseProfiler.TaskStats ts = tasks.get(i);
+            String owner = manager.getActiveTasks().stream()
+                    .filter(t -> t.getId().equals(ts.getTaskId()))
+                    .map(ChunkCleanerTask::getOwnerName)
+                    .filter(Objects::nonNull)
+                    .findFirst().orElse("finished");
+            PhaseProfiler.Phase heaviest = ts.getHeaviestPhase();
+            sendParsedVar(sender, taskFormat, Map.of(
+                    "owner", owner,
+                    "id", ts.getTaskId().toString(),
+                    "total", formatMillis(ts.getTotalNanos()),
+                    "phase", heaviest.getLabel(),
+                    "phase_total", formatMillis(ts.getNanos(heaviest))
+            ));
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
     /* ---------------- Tab completion ---------------- */
 
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         boolean admin = hasAdminPerm(sender);
         if (args.length == 1) {
-            List<String> top = new ArrayList<>(List.of("give", "list", "reload", "admin"));
+            List<String> top = new ArrayList<>(List.of("give", "estimate", "undo", "list", "reload", "admin"));
             if (!admin) top.remove("admin");
+            if (!sender.hasPermission("chunkcleaners.undo") && !sender.isOp()) top.remove("undo");
             String pref = args[0].toLowerCase(Locale.ROOT);
             return top.stream().filter(s -> s.startsWith(pref)).collect(Collectors.toList());
         }
@@ -388,6 +984,19 @@ public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
                     .filter(n -> n.toLowerCase(Locale.ROOT).startsWith(pref))
                     .collect(Collectors.toList());
         }
+        if (args.length == 2 && args[0].equalsIgnoreCase("estimate")) {
+            String pref = args[1].toLowerCase(Locale.ROOT);
+            return configManager.getTypes().stream().map(ConfigManager.CleanerType::getKey)
+                    .filter(k -> k.toLowerCase(Locale.ROOT).startsWith(pref))
+                    .collect(Collectors.toList());
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("undo") && (sender.hasPermission("chunkcleaners.undo") || sender.isOp())) {
+            String pref = args[1].toLowerCase(Locale.ROOT);
+            return manager.getJournals().getKnownJournals().stream()
+                    .map(UUID::toString)
+                    .filter(id -> id.startsWith(pref))
+                    .collect(Collectors.toList());
+        }
         if (args.length == 3 && args[0].equalsIgnoreCase("give")) {
             // suggest types for the 3rd arg (type)
             var sec = plugin.getConfig().getConfigurationSection("types");
@@ -396,17 +1005,46 @@ public class ChunkCleanersCommand implements CommandExecutor, TabCompleter {
             return sec.getKeys(false).stream().filter(k -> k.startsWith(pref)).collect(Collectors.toList());
         }
         if (args.length == 2 && args[0].equalsIgnoreCase("admin") && admin) {
-            return Arrays.asList("save", "savetask", "list", "status").stream()
+            return Arrays.asList("save", "savetask", "list", "status", "profile", "top", "worlds", "offline", "job", "tune").stream()
                     .filter(s -> s.startsWith(args[1].toLowerCase(Locale.ROOT)))
                     .collect(Collectors.toList());
         }
         if (args.length == 3 && args[0].equalsIgnoreCase("admin") && (args[1].equalsIgnoreCase("savetask") || args[1].equalsIgnoreCase("status")) && admin) {
             String prefix = args[2].toLowerCase(Locale.ROOT);
-            return manager.getActiveTasks().stream()
-                    .map(t -> t.getId().toString())
+            List<String> ids = new ArrayList<>();
+            manager.getActiveTasks().forEach(t -> ids.add(t.getId().toString()));
+            manager.getOfflineCleaner().getJobs().forEach(j -> ids.add(j.getId().toString()));
+            manager.getJobManager().getJobs().forEach(j -> ids.add(j.getId().toString()));
+            return ids.stream()
                     .filter(id -> id.toLowerCase(Locale.ROOT).startsWith(prefix))
                     .collect(Collectors.toList());
         }
+        if (args.length == 3 && args[0].equalsIgnoreCase("admin") && (args[1].equalsIgnoreCase("offline") || args[1].equalsIgnoreCase("job")) && admin) {
+            return Arrays.asList("start", "circle", "region", "cancel").stream()
+                    .filter(s -> s.startsWith(args[2].toLowerCase(Locale.ROOT)))
+                    .collect(Collectors.toList());
+        }
+        if (args.length == 3 && args[0].equalsIgnoreCase("admin") && args[1].equalsIgnoreCase("tune") && admin) {
+            return Arrays.asList("confirm", "status", "cancel").stream()
+                    .filter(s -> s.startsWith(args[2].toLowerCase(Locale.ROOT)))
+                    .collect(Collectors.toList());
+        }
+        if (args.length == 4 && args[0].equalsIgnoreCase("admin") && (args[1].equalsIgnoreCase("offline") || args[1].equalsIgnoreCase("job")) && admin) {
+            String prefix = args[3].toLowerCase(Locale.ROOT);
+            if (args[2].equalsIgnoreCase("cancel")) {
+                Collection<UUID> ids = args[1].equalsIgnoreCase("job")
+                        ? manager.getJobManager().getJobs().stream().map(MaintenanceJob::getId).collect(Collectors.toList())
+                        : manager.getOfflineCleaner().getJobs().stream().map(OfflineRegionJob::getId).collect(Collectors.toList());
+                return ids.stream()
+                        .map(UUID::toString)
+                        .filter(id -> id.startsWith(prefix))
+                        .collect(Collectors.toList());
+            }
+            return Bukkit.getWorlds().stream()
+                    .map(World::getName)
+                    .filter(n -> n.toLowerCase(Locale.ROOT).startsWith(prefix))
+                    .collect(Collectors.toList());
+        }
         return Collections.emptyList();
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package me.d15c07d.chunkcleaners.config;
+
+import org.bukkit.Material;
+
+import java.util.*;
+
+/**
+ * Immutable view of the configured cleaner types, compiled once per (re)load by {@link ConfigManager}.
+ *
+ * Besides the lookup by key it indexes the types by block material, so the placement listener can turn away
+ * ordinary blocks with one array lookup. When two types share a material the first one in config order wins
+ * for items without a type tag.
+ */
+public final class CleanerTypeRegistry {
+
+    static final CleanerTypeRegistry EMPTY = new CleanerTypeRegistry(new LinkedHashMap<>());
+
+    private final Map<String, ConfigManager.CleanerType> byKey;
+    private final EnumMap<Material, ConfigManager.CleanerType> byMaterial = new EnumMap<>(Material.class);
+
+    CleanerTypeRegistry(LinkedHashMap<String, ConfigManager.CleanerType> types) {
+        this.byKey = Collections.unmodifiableMap(new LinkedHashMap<>(types));
+        for (ConfigManager.CleanerType t : types.values()) byMaterial.putIfAbsent(t.getMaterial(), t);
+    }
+
+    public Optional<ConfigManager.CleanerType> get(String key) {
+        if (key == null) return Optional.empty();
+        return Optional.ofNullable(byKey.get(key.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Type whose block is the given material, or null for ordinary blocks.
+     */
+    public ConfigManager.CleanerType forMaterial(Material material) {
+        return material == null ? null : byMaterial.get(material);
+    }
+
+    public boolean isCleanerMaterial(Material material) {
+        return material != null && byMaterial.containsKey(material);
+    }
+
+    public Collection<ConfigManager.CleanerType> values() {
+        return byKey.values();
+    }
+}
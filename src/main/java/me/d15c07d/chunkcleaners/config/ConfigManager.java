@@ -1,8 +1,17 @@
 package me.d15c07d.chunkcleaners.config;
 
 import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.ItemFactory;
+import me.d15c07d.chunkcleaners.io.IoExecutor;
+import me.d15c07d.chunkcleaners.shape.ShapeSpec;
+import me.d15c07d.chunkcleaners.utils.MessageUtil;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.*;
+import org.bukkit.inventory.ItemStack;
 
 import java.nio.file.*;
 import java.util.*;
@@ -12,9 +21,11 @@ public class ConfigManager {
 
     private final ChunkCleanersPlugin plugin;
     private FileConfiguration cfg;
-    private final Map<String, CleanerType> types = new HashMap<>();
+    // swapped as a whole on reload; readers never see a half-built registry
+    private volatile CleanerTypeRegistry registry = CleanerTypeRegistry.EMPTY;
+    private EnumSet<EntityType> defaultEntityTypes = EnumSet.noneOf(EntityType.class);
     private final AtomicBoolean hotReloadRunning = new AtomicBoolean(false);
-    private Thread watchThread;
+    private volatile Thread watchThread;
 
     public ConfigManager(ChunkCleanersPlugin plugin) {
         this.plugin = plugin;
@@ -32,9 +43,13 @@ public class ConfigManager {
     }
 
     private void loadTypes() {
-        types.clear();
+        LinkedHashMap<String, CleanerType> types = new LinkedHashMap<>();
+        defaultEntityTypes = parseEntityTypes(cfg.getStringList("entities.default_types"));
         ConfigurationSection sec = cfg.getConfigurationSection("types");
-        if (sec == null) return;
+        if (sec == null) {
+            registry = CleanerTypeRegistry.EMPTY;
+            return;
+        }
         for (String key : sec.getKeys(false)) {
             ConfigurationSection t = sec.getConfigurationSection(key);
             if (t == null) continue;
@@ -43,18 +58,80 @@ public class ConfigManager {
             int size = Math.max(1, t.getInt("size", 1));
             String block = t.getString("block", "END_PORTAL_FRAME");
             int duration = Math.max(1, t.getInt("duration", 10));
-            CleanerType ct = new CleanerType(key, display, description, size, block, duration);
+            EnumSet<EntityType> entityTypes = t.isList("entities") ? parseEntityTypes(t.getStringList("entities")) : EnumSet.copyOf(defaultEntityTypes);
+            Material material = Material.getMaterial(block.toUpperCase(Locale.ROOT));
+            if (material == null || !material.isBlock()) {
+                plugin.getLogger().warning("Unknown block '" + block + "' for cleaner type " + key + "; using END_PORTAL_FRAME.");
+                material = Material.END_PORTAL_FRAME;
+            }
+            CleanerType ct = new CleanerType(key, display, description, size, block, material, duration, entityTypes);
+            ct.shape = ShapeSpec.fromConfig(t, size, plugin.getConfig().getInt("shapes.max_chunks", 4096), plugin.getLogger());
+            ct.template = ItemFactory.buildTemplate(plugin, ct);
             types.put(key.toLowerCase(Locale.ROOT), ct);
         }
+        registry = new CleanerTypeRegistry(types);
     }
 
     public Optional<CleanerType> getType(String key) {
-        if (key == null) return Optional.empty();
-        return Optional.ofNullable(types.get(key.toLowerCase(Locale.ROOT)));
+        return registry.get(key);
     }
 
     public Collection<CleanerType> getTypes() {
-        return types.values();
+        return registry.values();
+    }
+
+    public CleanerTypeRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Entity types cleared from finished chunks when a cleaner type has no own "entities" list.
+     */
+    public EnumSet<EntityType> getDefaultEntityTypes() {
+        return EnumSet.copyOf(defaultEntityTypes);
+    }
+
+    /**
+     * Parse entity type names. Besides plain EntityType names a few groups are accepted:
+     * "@items" (dropped items and xp orbs), "@projectiles", "@monsters", "@animals".
+     */
+    private EnumSet<EntityType> parseEntityTypes(List<String> names) {
+        EnumSet<EntityType> out = EnumSet.noneOf(EntityType.class);
+        if (names == null) return out;
+        for (String raw : names) {
+            if (raw == null || raw.isBlank()) continue;
+            String name = raw.trim().toUpperCase(Locale.ROOT);
+            if (name.startsWith("@")) {
+                Class<?> group = switch (name) {
+                    case "@ITEMS" -> null;
+                    case "@PROJECTILES" -> Projectile.class;
+                    case "@MONSTERS" -> Monster.class;
+                    case "@ANIMALS" -> Animals.class;
+                    default -> {
+                        plugin.getLogger().warning("Unknown entity group in config: " + raw);
+                        yield Void.class;
+                    }
+                };
+                if (group == Void.class) continue;
+                for (EntityType type : EntityType.values()) {
+                    Class<?> ec = type.getEntityClass();
+                    if (ec == null) continue;
+                    if (group == null) {
+                        if (Item.class.isAssignableFrom(ec) || ExperienceOrb.class.isAssignableFrom(ec)) out.add(type);
+                    } else if (group.isAssignableFrom(ec)) {
+                        out.add(type);
+                    }
+                }
+                continue;
+            }
+            try {
+                out.add(EntityType.valueOf(name));
+            } catch (IllegalArgumentException iae) {
+                plugin.getLogger().warning("Unknown entity type in config: " + raw);
+            }
+        }
+        out.remove(EntityType.PLAYER);
+        return out;
     }
 
     public String getMessage(String path) {
@@ -74,50 +151,60 @@ public class ConfigManager {
         return cfg.getInt("hot_reload.poll_interval_ms", 1000);
     }
 
-    // start a WatchService thread that watches the plugin folder for config changes and reloads instantly
+    // watch the plugin folder for config changes on the I/O executor; the reload itself runs on the main thread
     public void startHotReload() {
-        if (!cfg.getBoolean("hot_reload.enabled", true)) return;
-        if (hotReloadRunning.get()) return;
-        hotReloadRunning.set(true);
+        if (!cfg.getBoolean("hot_reload.enabled", false)) return;
+        if (!hotReloadRunning.compareAndSet(false, true)) return;
         Path pluginDir = plugin.getDataFolder().toPath();
         String fileToWatch = cfg.getString("hot_reload.file", "config.yml");
-        Path pathToWatch = pluginDir.resolve(fileToWatch);
 
-        watchThread = new Thread(() -> {
-            try {
-                WatchService service = FileSystems.getDefault().newWatchService();
+        plugin.getIoExecutor().execute(IoExecutor.Resource.CONFIG_WATCH, () -> {
+            watchThread = Thread.currentThread();
+            try (WatchService service = FileSystems.getDefault().newWatchService()) {
                 pluginDir.register(service, StandardWatchEventKinds.ENTRY_MODIFY);
                 while (hotReloadRunning.get()) {
                     WatchKey key = service.poll(getPollIntervalMs(), java.util.concurrent.TimeUnit.MILLISECONDS);
                     if (key == null) continue;
+                    boolean changed = false;
                     for (WatchEvent<?> ev : key.pollEvents()) {
-                        Path changed = (Path) ev.context();
-                        if (changed.endsWith(fileToWatch)) {
-                            plugin.getLogger().info("Detected config.yml change - reloading ChunkCleaners...");
-                            try {
-                                reload();
-                                plugin.getCleanerManager().onConfigReload();
-                                plugin.getLogger().info("ChunkCleaners config reloaded.");
-                            } catch (Exception ex) {
-                                plugin.getLogger().warning("Failed to reload config: " + ex.getMessage());
-                            }
-                        }
+                        Path path = (Path) ev.context();
+                        if (path.endsWith(fileToWatch)) changed = true;
                     }
                     key.reset();
+                    if (changed && hotReloadRunning.get()) Bukkit.getScheduler().runTask(plugin, this::applyHotReload);
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             } catch (Exception e) {
-                plugin.getLogger().warning("Hot reload thread stopped: " + e.getMessage());
+                plugin.getLogger().warning("Hot reload watcher stopped: " + e.getMessage());
+            } finally {
+                watchThread = null;
+                hotReloadRunning.set(false);
             }
-        }, "ChunkCleaners-HotReload");
-        watchThread.setDaemon(true);
-        watchThread.start();
+        });
+    }
+
+    private void applyHotReload() {
+        plugin.getLogger().info("Detected config.yml change - reloading ChunkCleaners...");
+        try {
+            reload();
+            plugin.getCleanerManager().onConfigReload();
+            plugin.getLogger().info("ChunkCleaners config reloaded.");
+        } catch (Exception ex) {
+            plugin.getLogger().warning("Failed to reload config: " + ex.getMessage());
+        }
+    }
+
+    /** Start or stop the watcher to match hot_reload.enabled after a manual reload. */
+    public void applyHotReloadSetting() {
+        if (cfg.getBoolean("hot_reload.enabled", false)) startHotReload();
+        else stopHotReload();
     }
 
     public void stopHotReload() {
         hotReloadRunning.set(false);
-        if (watchThread != null) watchThread.interrupt();
+        Thread t = watchThread;
+        if (t != null) t.interrupt();
     }
 
     public static class CleanerType {
@@ -126,15 +213,31 @@ public class ConfigManager {
         private final String description;
         private final int size;
         private final String blockMaterial;
+        private final Material material;
         private final int durationSeconds;
+        private final EnumSet<EntityType> entityTypes;
+        // parsed once per load
+        private final Component displayComponent;
+        private final List<Component> loreComponents;
+        private ItemStack template;
+        private ShapeSpec shape;
 
-        public CleanerType(String key, String displayName, String description, int size, String blockMaterial, int durationSeconds) {
+        public CleanerType(String key, String displayName, String description, int size, String blockMaterial, Material material,
+                           int durationSeconds, EnumSet<EntityType> entityTypes) {
             this.key = key;
             this.displayName = displayName;
             this.description = description;
             this.size = size;
             this.blockMaterial = blockMaterial;
+            this.material = material;
             this.durationSeconds = durationSeconds;
+            this.entityTypes = entityTypes == null ? EnumSet.noneOf(EntityType.class) : EnumSet.copyOf(entityTypes);
+            this.displayComponent = MessageUtil.parse(displayName);
+            List<Component> lore = new ArrayList<>();
+            for (String line : (description == null ? "" : description).split("\\r?\\n")) {
+                if (!line.isBlank()) lore.add(MessageUtil.parse(line.trim()));
+            }
+            this.loreComponents = List.copyOf(lore);
         }
 
         public String getKey() {
@@ -153,12 +256,45 @@ public class ConfigManager {
             return size;
         }
 
+        /**
+         * Footprint shape relative to the placement chunk; a square of {@link #getSize()} unless configured.
+         */
+        public ShapeSpec getShape() {
+            return shape == null ? ShapeSpec.square(size) : shape;
+        }
+
         public String getBlockMaterial() {
             return blockMaterial;
         }
 
+        public Material getMaterial() {
+            return material;
+        }
+
+        public Component getDisplayComponent() {
+            return displayComponent;
+        }
+
+        public List<Component> getLoreComponents() {
+            return loreComponents;
+        }
+
+        /**
+         * Prepared cleaner item (amount 1); clone it before handing it out.
+         */
+        public ItemStack getTemplate() {
+            return template;
+        }
+
         public int getDurationSeconds() {
             return durationSeconds;
         }
+
+        /**
+         * Entity types this cleaner removes from finished chunks.
+         */
+        public EnumSet<EntityType> getEntityTypes() {
+            return EnumSet.copyOf(entityTypes);
+        }
     }
 }
\ No newline at end of file
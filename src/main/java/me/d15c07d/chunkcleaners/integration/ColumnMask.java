@@ -0,0 +1,48 @@
+package me.d15c07d.chunkcleaners.integration;
+
+/**
+ * Which of the 256 x/z columns of a chunk a cleaner may edit, as a long[4] bitmap.
+ *
+ * Bit (z << 4) | x is set when the column is editable, so the block loop needs one shift and mask per column.
+ */
+public final class ColumnMask {
+
+    public static final int WORDS = 4;
+
+    private ColumnMask() {}
+
+    public static long[] allEditable() {
+        return new long[] { -1L, -1L, -1L, -1L };
+    }
+
+    public static boolean isEditable(long[] mask, int x, int z) {
+        int bit = (z << 4) | x;
+        return (mask[bit >>> 6] & (1L << bit)) != 0L;
+    }
+
+    /**
+     * Clear the columns from (x0, z0) to (x1, z1), chunk-local and inclusive.
+     */
+    public static void deny(long[] mask, int x0, int z0, int x1, int z1) {
+        for (int z = z0; z <= z1; z++) {
+            for (int x = x0; x <= x1; x++) deny(mask, x, z);
+        }
+    }
+
+    public static void deny(long[] mask, int x, int z) {
+        int bit = (z << 4) | x;
+        mask[bit >>> 6] &= ~(1L << bit);
+    }
+
+    public static boolean isNoneEditable(long[] mask) {
+        return (mask[0] | mask[1] | mask[2] | mask[3]) == 0L;
+    }
+
+    public static boolean isAllEditable(long[] mask) {
+        return (mask[0] & mask[1] & mask[2] & mask[3]) == -1L;
+    }
+
+    public static int countEditable(long[] mask) {
+        return Long.bitCount(mask[0]) + Long.bitCount(mask[1]) + Long.bitCount(mask[2]) + Long.bitCount(mask[3]);
+    }
+}
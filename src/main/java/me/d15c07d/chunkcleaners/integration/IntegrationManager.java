@@ -1,20 +1,42 @@
 package me.d15c07d.chunkcleaners.integration;
 
 import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.io.IoExecutor;
+import me.d15c07d.chunkcleaners.profiler.PhaseProfiler.Phase;
+import me.d15c07d.chunkcleaners.shape.ChunkCursor;
+import me.d15c07d.chunkcleaners.shape.ChunkOrder;
+import me.d15c07d.chunkcleaners.shape.ChunkShape;
+import me.d15c07d.chunkcleaners.shape.PolygonShape;
+import me.d15c07d.chunkcleaners.utils.LightingUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitRunnable;
 
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 
 public class IntegrationManager {
@@ -32,6 +54,7 @@ public class IntegrationManager {
     private Object coreProtectAPI = null;
     private final Queue<CoreProtectChunkEntry> cpQueue = new ConcurrentLinkedQueue<>();
     private BukkitRunnable cpFlushTask = null;
+    private final Map<UUID, CompletableFuture<String>> actorNames = new ConcurrentHashMap<>();
 
     // cached WG container (reflection)
     private Object wgRegionContainer = null;
@@ -173,13 +196,19 @@ public class IntegrationManager {
                         if (cpQueue.isEmpty()) return;
                         int processed = 0;
                         while (processed < maxPerFlush) {
+                            CoreProtectChunkEntry head = cpQueue.peek();
+                            // keep order: wait for the head's actor name lookup instead of skipping past it
+                            if (head == null || !head.actorLookup.isDone()) break;
                             CoreProtectChunkEntry e = cpQueue.poll();
                             if (e == null) break;
+                            e.actorName = e.actorLookup.getNow("ChunkCleaner");
+                            long t0 = plugin.getProfiler().begin();
                             try {
                                 tryLogChunkEntry(e);
                             } catch (Throwable t) {
                                 plugin.getLogger().fine("CoreProtect chunk log attempt failed: " + t.getMessage());
                             }
+                            plugin.getProfiler().end(Phase.COREPROTECT_FLUSH, null, t0);
                             processed++;
                         }
                         if (cpQueue.size() > queueMax) {
@@ -247,47 +276,8 @@ public class IntegrationManager {
                         } catch (Throwable ignore) {}
                     }
                 }
-                if (gpDataStore != null) {
-                    Method getClaimAt = null;
-                    for (Method m : gpDataStore.getClass().getMethods()) {
-                        if (m.getName().equals("getClaimAt")) {
-                            getClaimAt = m;
-                            break;
-                        }
-                    }
-                    if (getClaimAt != null) {
-                        Object claim = null;
-                        try {
-                            claim = getClaimAt.invoke(gpDataStore, loc, false, null);
-                        } catch (IllegalArgumentException iae) {
-                            try {
-                                claim = getClaimAt.invoke(gpDataStore, loc);
-                            } catch (Throwable ignore) {}
-                        }
-                        if (claim != null) {
-                            boolean allowed = false;
-                            try {
-                                Method allowBuild = claim.getClass().getMethod("allowBuild", Player.class);
-                                Object res = allowBuild.invoke(claim, p);
-                                if (res instanceof Boolean && (Boolean) res) allowed = true;
-                            } catch (Throwable ignore) {}
-                            try {
-                                Method isTrusted = claim.getClass().getMethod("isUserTrusted", String.class);
-                                Object res = isTrusted.invoke(claim, p.getUniqueId().toString());
-                                if (res instanceof Boolean && (Boolean) res) allowed = true;
-                            } catch (Throwable ignore) {}
-                            try {
-                                Method getOwnerID = claim.getClass().getMethod("getOwnerID");
-                                Object ownerId = getOwnerID.invoke(claim);
-                                if (ownerId != null) {
-                                    if (ownerId instanceof String && ownerId.equals(p.getUniqueId().toString())) allowed = true;
-                                    else if (ownerId instanceof UUID && ownerId.equals(p.getUniqueId())) allowed = true;
-                                }
-                            } catch (Throwable ignore) {}
-                            if (!allowed) return false;
-                        }
-                    }
-                }
+                Object claim = gpClaimAt(loc);
+                if (claim != null && !gpClaimAllows(claim, p)) return false;
             } catch (Throwable t) {
                 plugin.getLogger().log(Level.FINE, "GriefPrevention check failed, denying placement: " + t.getMessage(), t);
                 return false;
@@ -364,17 +354,492 @@ public class IntegrationManager {
         return true;
     }
 
+    private boolean gpClaimAllows(Object claim, Player p) {
+        boolean allowed = false;
+        try {
+            Method allowBuild = claim.getClass().getMethod("allowBuild", Player.class);
+            Object res = allowBuild.invoke(claim, p);
+            if (res instanceof Boolean && (Boolean) res) allowed = true;
+        } catch (Throwable ignore) {}
+        try {
+            Method isTrusted = claim.getClass().getMethod("isUserTrusted", String.class);
+            Object res = isTrusted.invoke(claim, p.getUniqueId().toString());
+            if (res instanceof Boolean && (Boolean) res) allowed = true;
+        } catch (Throwable ignore) {}
+        try {
+            Method getOwnerID = claim.getClass().getMethod("getOwnerID");
+            Object ownerId = getOwnerID.invoke(claim);
+            if (ownerId != null) {
+                if (ownerId instanceof String && ownerId.equals(p.getUniqueId().toString())) allowed = true;
+                else if (ownerId instanceof UUID && ownerId.equals(p.getUniqueId())) allowed = true;
+            }
+        } catch (Throwable ignore) {}
+        return allowed;
+    }
+
+    // GriefPrevention claim at a location (either getClaimAt signature), or null
+    private Object gpClaimAt(Location loc) throws ReflectiveOperationException {
+        if (gpDataStore == null) return null;
+        Method getClaimAt = null;
+        for (Method m : gpDataStore.getClass().getMethods()) {
+            if (m.getName().equals("getClaimAt")) {
+                getClaimAt = m;
+                break;
+            }
+        }
+        if (getClaimAt == null) return null;
+        try {
+            return getClaimAt.invoke(gpDataStore, loc, false, null);
+        } catch (IllegalArgumentException iae) {
+            try {
+                return getClaimAt.invoke(gpDataStore, loc);
+            } catch (Throwable ignore) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * True if {@link #computeColumnMasks} needs the owner online, i.e. any protection integration is active.
+     */
+    public boolean requiresOnlineOwner() {
+        return worldguardEnabled || griefPreventionEnabled || factionsEnabled;
+    }
+
     /**
-     * Conservative check for editing a whole chunk on behalf of ownerUuid.
-     * If protections exist and owner is offline, returns false.
+     * Editable columns of the footprint chunks the owner may not edit completely, keyed by
+     * {@link LightingUtil#chunkKey} (main thread). Chunks missing from the map are fully editable; a chunk whose
+     * mask has no column left is skipped as a whole.
+     *
+     * One query per integration covers the whole footprint: WorldGuard regions applicable to a cuboid spanning
+     * the footprint at full world height, GriefPrevention claims intersecting the chunk range, and the Factions
+     * board owner of each chunk. WorldGuard's BUILD state is resolved by WorldGuard itself (priorities,
+     * inheritance, membership and __global__) once per distinct set of regions covering a column; claims clear
+     * exactly the columns they cover; Factions claims whole chunks anyway. If an integration's query fails,
+     * its chunks are checked at their centre with {@link #canPlaceInRegion} and denied as a whole. With
+     * protections active and the owner offline every chunk is denied.
      */
-    public boolean canEditChunk(UUID ownerUuid, Location loc) {
-        if (!worldguardEnabled && !griefPreventionEnabled && !factionsEnabled) return true;
+    public Map<Long, long[]> computeColumnMasks(UUID ownerUuid, World world, ChunkShape footprint) {
+        Map<Long, long[]> masks = new HashMap<>();
+        if (!requiresOnlineOwner()) return masks;
         Player owner = ownerUuid == null ? null : Bukkit.getPlayer(ownerUuid);
+        ChunkCursor c = footprint.cursor(ChunkOrder.ROW, footprint.getMinX(), footprint.getMinZ());
         if (owner == null || !owner.isOnline()) {
+            while (c.next()) masks.put(LightingUtil.chunkKey(c.getX(), c.getZ()), new long[ColumnMask.WORDS]);
+            return masks;
+        }
+        ChunkRange range = new ChunkRange(footprint, masks);
+
+        boolean ok = true;
+        if (worldguardEnabled && wgRegionContainer != null) ok = wgDenyColumns(owner, world, range);
+        if (ok && griefPreventionEnabled) ok = gpDenyColumns(owner, world, range);
+        if (ok && factionsEnabled && (factionsUUIDDetected || massiveCoreDetected)) ok = factionsDenyChunks(owner, world, footprint, range);
+        if (!ok) {
+            while (c.next()) {
+                long key = LightingUtil.chunkKey(c.getX(), c.getZ());
+                long[] mask = masks.get(key);
+                if (mask != null && ColumnMask.isNoneEditable(mask)) continue;
+                Location center = new Location(world, (c.getX() << 4) + 8, owner.getLocation().getBlockY(), (c.getZ() << 4) + 8);
+                if (!canPlaceInRegion(owner, center)) range.denyChunk(key);
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * Chunks of a mask map without any editable column.
+     */
+    public static Set<Long> fullyProtected(Map<Long, long[]> masks) {
+        Set<Long> out = new HashSet<>();
+        for (Map.Entry<Long, long[]> e : masks.entrySet()) {
+            if (ColumnMask.isNoneEditable(e.getValue())) out.add(e.getKey());
+        }
+        return out;
+    }
+
+    private interface ColumnTest {
+        boolean covers(int blockX, int blockZ) throws ReflectiveOperationException;
+    }
+
+    private static final class ChunkRange {
+        final int minCX, minCZ, maxCX, maxCZ;
+        final ChunkShape shape;
+        final Map<Long, long[]> masks;
+
+        ChunkRange(ChunkShape shape, Map<Long, long[]> masks) {
+            this.minCX = shape.getMinX();
+            this.minCZ = shape.getMinZ();
+            this.maxCX = shape.getMaxX();
+            this.maxCZ = shape.getMaxZ();
+            this.shape = shape;
+            this.masks = masks;
+        }
+
+        void denyChunk(long key) {
+            masks.put(key, new long[ColumnMask.WORDS]);
+        }
+
+        void denyColumn(int chunkX, int chunkZ, int x, int z) {
+            ColumnMask.deny(masks.computeIfAbsent(LightingUtil.chunkKey(chunkX, chunkZ), k -> ColumnMask.allEditable()), x, z);
+        }
+
+        // clear the columns of a block-coordinate box (inclusive) in the footprint chunks it touches;
+        // with a test, only the columns the test accepts
+        void deny(int minBX, int minBZ, int maxBX, int maxBZ, ColumnTest test) throws ReflectiveOperationException {
+            int cx0 = Math.max(minCX, minBX >> 4), cx1 = Math.min(maxCX, maxBX >> 4);
+            int cz0 = Math.max(minCZ, minBZ >> 4), cz1 = Math.min(maxCZ, maxBZ >> 4);
+            for (int cx = cx0; cx <= cx1; cx++) {
+                for (int cz = cz0; cz <= cz1; cz++) {
+                    if (!shape.contains(cx, cz)) continue;
+                    long key = LightingUtil.chunkKey(cx, cz);
+                    int x0 = Math.max(0, minBX - (cx << 4)), x1 = Math.min(15, maxBX - (cx << 4));
+                    int z0 = Math.max(0, minBZ - (cz << 4)), z1 = Math.min(15, maxBZ - (cz << 4));
+                    long[] mask = masks.computeIfAbsent(key, k -> ColumnMask.allEditable());
+                    if (test == null) {
+                        ColumnMask.deny(mask, x0, z0, x1, z1);
+                        continue;
+                    }
+                    for (int z = z0; z <= z1; z++) {
+                        for (int x = x0; x <= x1; x++) {
+                            if (test.covers((cx << 4) + x, (cz << 4) + z)) ColumnMask.deny(mask, x, z);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean wgDenyColumns(Player owner, World world, ChunkRange range) {
+        try {
+            Class<?> bukkitAdapter = Class.forName("com.sk89q.worldedit.bukkit.BukkitAdapter");
+            Class<?> weWorldClass = Class.forName("com.sk89q.worldedit.world.World");
+            Object weWorld = bukkitAdapter.getMethod("adapt", World.class).invoke(null, world);
+            Object regionManager = wgRegionContainer.getClass().getMethod("get", weWorldClass).invoke(wgRegionContainer, weWorld);
+            if (regionManager == null) return true; // regions disabled in this world
+
+            Class<?> wgPluginClass = Class.forName("com.sk89q.worldguard.bukkit.WorldGuardPlugin");
+            Object wgPlugin = wgPluginClass.getMethod("inst").invoke(null);
+            Object localPlayer = wgPluginClass.getMethod("wrapPlayer", Player.class).invoke(wgPlugin, owner);
+            Class<?> localPlayerClass = Class.forName("com.sk89q.worldguard.LocalPlayer");
+
+            // region bypass (op / worldguard.region.bypass.<world>)
+            try {
+                Object wg = Class.forName("com.sk89q.worldguard.WorldGuard").getMethod("getInstance").invoke(null);
+                Object platform = wg.getClass().getMethod("getPlatform").invoke(wg);
+                Object sessions = platform.getClass().getMethod("getSessionManager").invoke(platform);
+                Object bypass = sessions.getClass().getMethod("hasBypass", localPlayerClass, weWorldClass).invoke(sessions, localPlayer, weWorld);
+                if (Boolean.TRUE.equals(bypass)) return true;
+            } catch (Throwable ignored) {}
+
+            Class<?> bv3 = Class.forName("com.sk89q.worldedit.math.BlockVector3");
+            Method at = bv3.getMethod("at", int.class, int.class, int.class);
+            Object min = at.invoke(null, range.minCX << 4, world.getMinHeight(), range.minCZ << 4);
+            Object max = at.invoke(null, (range.maxCX << 4) + 15, world.getMaxHeight() - 1, (range.maxCZ << 4) + 15);
+            Object cuboid = Class.forName("com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion")
+                    .getConstructor(String.class, bv3, bv3).newInstance("chunkcleaners_footprint", min, max);
+            Class<?> regionClass = Class.forName("com.sk89q.worldguard.protection.regions.ProtectedRegion");
+            Object applicable = regionManager.getClass().getMethod("getApplicableRegions", regionClass).invoke(regionManager, cuboid);
+
+            Object buildFlag = Class.forName("com.sk89q.worldguard.protection.flags.Flags").getField("BUILD").get(null);
+            Class<?> stateFlagClass = Class.forName("com.sk89q.worldguard.protection.flags.StateFlag");
+            Object buildFlags = Array.newInstance(stateFlagClass, 1);
+            Array.set(buildFlags, 0, buildFlag);
+            Method testState = Class.forName("com.sk89q.worldguard.protection.ApplicableRegionSet")
+                    .getMethod("testState", Class.forName("com.sk89q.worldguard.protection.association.RegionAssociable"), buildFlags.getClass());
+            Method getApplicable = regionManager.getClass().getMethod("getApplicableRegions", regionClass);
+            Constructor<?> cuboidCtor = cuboid.getClass().getConstructor(String.class, bv3, bv3);
+            Method getX = bv3.getMethod("getBlockX");
+            Method getZ = bv3.getMethod("getBlockZ");
+            Class<?> bv2 = Class.forName("com.sk89q.worldedit.math.BlockVector2");
+            Method at2 = bv2.getMethod("at", int.class, int.class);
+            Method contains2 = regionClass.getMethod("contains", bv2);
+            Method getId = regionClass.getMethod("getId");
+            Method getMinimumPoint = regionClass.getMethod("getMinimumPoint");
+            Method getMaximumPoint = regionClass.getMethod("getMaximumPoint");
+            Method getPoints = regionClass.getMethod("getPoints");
+            Method getX2 = bv2.getMethod("getBlockX");
+            Method getZ2 = bv2.getMethod("getBlockZ");
+            Class<?> cuboidClass = cuboid.getClass();
+
+            // regions touching the footprint, with their column bounds and, for polygons, their outline
+            List<WgRegion> regions = new ArrayList<>();
+            for (Object region : (Iterable<?>) applicable) {
+                if ("__global__".equals(getId.invoke(region))) continue;
+                Object rMin = getMinimumPoint.invoke(region);
+                Object rMax = getMaximumPoint.invoke(region);
+                int[] outline = null;
+                if (!cuboidClass.isInstance(region)) {
+                    List<?> points = (List<?>) getPoints.invoke(region);
+                    outline = new int[points.size() * 2];
+                    for (int i = 0; i < points.size(); i++) {
+                        outline[2 * i] = (Integer) getX2.invoke(points.get(i));
+                        outline[2 * i + 1] = (Integer) getZ2.invoke(points.get(i));
+                    }
+                }
+                regions.add(new WgRegion(region, (Integer) getX.invoke(rMin), (Integer) getZ.invoke(rMin),
+                        (Integer) getX.invoke(rMax), (Integer) getZ.invoke(rMax), outline));
+            }
+
+            // Columns covered by the same regions resolve the same way, so WorldGuard decides BUILD once per
+            // distinct set (priorities, inheritance, membership and __global__ included) on one column of it.
+            // Per chunk, a region either covers it whole, misses it, or (crossed by its outline) is tested per column.
+            Map<BitSet, Boolean> resolved = new HashMap<>();
+            BitSet whole = new BitSet();
+            BitSet key = new BitSet();
+            List<Integer> partial = new ArrayList<>();
+            // BUILD for the region set in key, decided on the column at (bx, bz)
+            ColumnTest allows = (bx, bz) -> {
+                Boolean allowed = resolved.get(key);
+                if (allowed == null) {
+                    Object column = cuboidCtor.newInstance("chunkcleaners_column",
+                            at.invoke(null, bx, world.getMinHeight(), bz), at.invoke(null, bx, world.getMaxHeight() - 1, bz));
+                    allowed = Boolean.TRUE.equals(testState.invoke(getApplicable.invoke(regionManager, column), localPlayer, buildFlags));
+                    resolved.put((BitSet) key.clone(), allowed);
+                }
+                return allowed;
+            };
+            ChunkCursor c = range.shape.cursor(ChunkOrder.ROW, range.minCX, range.minCZ);
+            while (c.next()) {
+                int baseX = c.getX() << 4, baseZ = c.getZ() << 4;
+                whole.clear();
+                partial.clear();
+                for (int i = 0; i < regions.size(); i++) {
+                    WgRegion r = regions.get(i);
+                    if (r.maxX < baseX || r.minX > baseX + 15 || r.maxZ < baseZ || r.minZ > baseZ + 15) continue;
+                    boolean boxCovers = r.minX <= baseX && r.maxX >= baseX + 15 && r.minZ <= baseZ && r.maxZ >= baseZ + 15;
+                    if (r.outline == null) {
+                        if (boxCovers) whole.set(i);
+                        else partial.add(i);
+                    } else if (r.crosses(baseX, baseZ)) {
+                        partial.add(i);
+                    } else if (Boolean.TRUE.equals(contains2.invoke(r.region, at2.invoke(null, baseX + 8, baseZ + 8)))) {
+                        // outline stays clear of the chunk: inside at the centre means inside everywhere
+                        whole.set(i);
+                    }
+                }
+                if (partial.isEmpty()) {
+                    // no outline crosses the chunk: one answer for every column
+                    key.clear();
+                    key.or(whole);
+                    if (!allows.covers(baseX + 8, baseZ + 8)) range.denyChunk(LightingUtil.chunkKey(c.getX(), c.getZ()));
+                    continue;
+                }
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        int bx = baseX + x, bz = baseZ + z;
+                        key.clear();
+                        key.or(whole);
+                        for (int i : partial) {
+                            WgRegion r = regions.get(i);
+                            if (bx < r.minX || bx > r.maxX || bz < r.minZ || bz > r.maxZ) continue;
+                            if (r.outline == null || Boolean.TRUE.equals(contains2.invoke(r.region, at2.invoke(null, bx, bz)))) key.set(i);
+                        }
+                        if (!allows.covers(bx, bz)) range.denyColumn(c.getX(), c.getZ(), x, z);
+                    }
+                }
+            }
+            return true;
+        } catch (Throwable t) {
+            plugin.getLogger().log(Level.FINE, "WorldGuard footprint query failed, checking chunk centres: " + t.getMessage(), t);
+            return false;
+        }
+    }
+
+    private boolean gpDenyColumns(Player owner, World world, ChunkRange range) {
+        if (gpDataStore == null) return false;
+        try {
+            // claims are indexed by chunk (across worlds); older builds only list them all
+            Method byChunk = null;
+            try {
+                byChunk = gpDataStore.getClass().getMethod("getClaims", int.class, int.class);
+            } catch (NoSuchMethodException ignored) {}
+            Method getLesser = null, getGreater = null;
+            Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            Iterable<?> claims;
+            if (byChunk != null) {
+                List<Object> touching = new ArrayList<>();
+                ChunkCursor c = range.shape.cursor(ChunkOrder.ROW, range.minCX, range.minCZ);
+                while (c.next()) {
+                    Object inChunk = byChunk.invoke(gpDataStore, c.getX(), c.getZ());
+                    if (!(inChunk instanceof Iterable)) continue;
+                    for (Object claim : (Iterable<?>) inChunk) {
+                        if (seen.add(claim)) touching.add(claim);
+                    }
+                }
+                claims = touching;
+            } else {
+                Object all = gpDataStore.getClass().getMethod("getClaims").invoke(gpDataStore);
+                if (!(all instanceof Iterable)) return false;
+                claims = (Iterable<?>) all;
+            }
+            for (Object claim : claims) {
+                if (getLesser == null) {
+                    getLesser = claim.getClass().getMethod("getLesserBoundaryCorner");
+                    getGreater = claim.getClass().getMethod("getGreaterBoundaryCorner");
+                }
+                Location lo = (Location) getLesser.invoke(claim);
+                Location hi = (Location) getGreater.invoke(claim);
+                if (lo == null || hi == null || lo.getWorld() == null || !lo.getWorld().getName().equals(world.getName())) continue;
+                // cheap bounding-box reject before the permission check
+                if ((hi.getBlockX() >> 4) < range.minCX || (lo.getBlockX() >> 4) > range.maxCX
+                        || (hi.getBlockZ() >> 4) < range.minCZ || (lo.getBlockZ() >> 4) > range.maxCZ) continue;
+                if (gpClaimAllows(claim, owner)) continue;
+                range.deny(lo.getBlockX(), lo.getBlockZ(), hi.getBlockX(), hi.getBlockZ(), null);
+            }
+            return true;
+        } catch (Throwable t) {
+            plugin.getLogger().log(Level.FINE, "GriefPrevention footprint query failed, checking chunk centres: " + t.getMessage(), t);
+            return false;
+        }
+    }
+
+    // a WorldGuard region touching a footprint: column bounds, and the outline ({x, z} pairs) of a polygon
+    private static final class WgRegion {
+        final Object region;
+        final int minX, minZ, maxX, maxZ;
+        final int[] outline; // null: cuboid
+
+        WgRegion(Object region, int minX, int minZ, int maxX, int maxZ, int[] outline) {
+            this.region = region;
+            this.minX = minX;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxZ = maxZ;
+            this.outline = outline;
+        }
+
+        // whether an outline edge may pass through the chunk at (baseX, baseZ); conservative, padded by a block
+        boolean crosses(int baseX, int baseZ) {
+            long x0 = baseX - 1, z0 = baseZ - 1, x1 = baseX + 16, z1 = baseZ + 16;
+            int n = outline.length / 2;
+            for (int i = 0, j = n - 1; i < n; j = i++) {
+                long ax = outline[2 * j], az = outline[2 * j + 1], bx = outline[2 * i], bz = outline[2 * i + 1];
+                if (Math.max(ax, bx) < x0 || Math.min(ax, bx) > x1 || Math.max(az, bz) < z0 || Math.min(az, bz) > z1) continue;
+                // all four corners strictly on one side of the edge's line: no crossing
+                long dx = bx - ax, dz = bz - az;
+                long c00 = Long.signum(dx * (z0 - az) - dz * (x0 - ax)), c10 = Long.signum(dx * (z0 - az) - dz * (x1 - ax));
+                long c01 = Long.signum(dx * (z1 - az) - dz * (x0 - ax)), c11 = Long.signum(dx * (z1 - az) - dz * (x1 - ax));
+                if (c00 == c10 && c10 == c01 && c01 == c11 && c00 != 0) continue;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private boolean factionsDenyChunks(Player owner, World world, ChunkShape footprint, ChunkRange range) {
+        try {
+            Class<?> boardClass = Class.forName("com.massivecraft.factions.Board");
+            Object board = boardClass.getMethod("getInstance").invoke(null);
+            Class<?> fLocationClass = Class.forName("com.massivecraft.factions.FLocation");
+            Method getFactionAt = boardClass.getMethod("getFactionAt", fLocationClass);
+
+            Class<?> fPlayersClass = Class.forName("com.massivecraft.factions.FPlayers");
+            Object fPlayers = fPlayersClass.getMethod("getInstance").invoke(null);
+            Object fPlayer = fPlayersClass.getMethod("getByPlayer", Player.class).invoke(fPlayers, owner);
+            Object playerFaction = Class.forName("com.massivecraft.factions.FPlayer").getMethod("getFaction").invoke(fPlayer);
+
+            ChunkCursor c = footprint.cursor(ChunkOrder.ROW, footprint.getMinX(), footprint.getMinZ());
+            while (c.next()) {
+                // FLocation coordinates are chunk coordinates
+                Object fLoc = fLocationClass.getConstructor(String.class, int.class, int.class).newInstance(world.getName(), c.getX(), c.getZ());
+                Object factionAt = getFactionAt.invoke(board, fLoc);
+                if (factionAt == null || factionAt.equals(playerFaction)) continue;
+                try {
+                    if (Boolean.TRUE.equals(factionAt.getClass().getMethod("isWilderness").invoke(factionAt))) continue;
+                } catch (NoSuchMethodException ignored) {}
+                range.denyChunk(LightingUtil.chunkKey(c.getX(), c.getZ()));
+            }
+            return true;
+        } catch (Throwable t) {
+            plugin.getLogger().log(Level.FINE, "Factions footprint query failed, checking chunk centres: " + t.getMessage(), t);
             return false;
         }
-        return canPlaceInRegion(owner, loc);
+    }
+
+    /* ---------------- Region outlines ---------------- */
+
+    /**
+     * Outline of the WorldGuard region (highest priority, __global__ ignored) or else the GriefPrevention claim
+     * at a location, as a block polygon; null if there is none or the lookup failed (main thread).
+     */
+    public ChunkShape regionOutlineAt(Location loc) {
+        if (loc == null || loc.getWorld() == null) return null;
+        if (worldguardEnabled && wgRegionContainer != null) {
+            try {
+                Object regionManager = wgRegionManager(loc.getWorld());
+                if (regionManager != null) {
+                    Class<?> bv3 = Class.forName("com.sk89q.worldedit.math.BlockVector3");
+                    Object at = bv3.getMethod("at", int.class, int.class, int.class).invoke(null, loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+                    Object applicable = regionManager.getClass().getMethod("getApplicableRegions", bv3).invoke(regionManager, at);
+                    Class<?> regionClass = Class.forName("com.sk89q.worldguard.protection.regions.ProtectedRegion");
+                    Object best = null;
+                    int bestPriority = Integer.MIN_VALUE;
+                    for (Object region : (Iterable<?>) applicable) {
+                        if ("__global__".equals(regionClass.getMethod("getId").invoke(region))) continue;
+                        int priority = (Integer) regionClass.getMethod("getPriority").invoke(region);
+                        if (best == null || priority > bestPriority) {
+                            best = region;
+                            bestPriority = priority;
+                        }
+                    }
+                    if (best != null) return wgOutline(best);
+                }
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.FINE, "WorldGuard region lookup failed: " + t.getMessage(), t);
+            }
+        }
+        if (griefPreventionEnabled) {
+            try {
+                Object claim = gpClaimAt(loc);
+                if (claim != null) {
+                    Location lo = (Location) claim.getClass().getMethod("getLesserBoundaryCorner").invoke(claim);
+                    Location hi = (Location) claim.getClass().getMethod("getGreaterBoundaryCorner").invoke(claim);
+                    if (lo != null && hi != null) {
+                        return PolygonShape.of(List.of(new int[] { lo.getBlockX(), lo.getBlockZ() }, new int[] { hi.getBlockX(), lo.getBlockZ() },
+                                new int[] { hi.getBlockX(), hi.getBlockZ() }, new int[] { lo.getBlockX(), hi.getBlockZ() }));
+                    }
+                }
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.FINE, "GriefPrevention claim lookup failed: " + t.getMessage(), t);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Outline of a WorldGuard region by id, or null if WorldGuard is off or the region does not exist.
+     */
+    public ChunkShape regionOutline(World world, String regionId) {
+        if (!worldguardEnabled || wgRegionContainer == null || world == null) return null;
+        try {
+            Object regionManager = wgRegionManager(world);
+            if (regionManager == null) return null;
+            Object region = regionManager.getClass().getMethod("getRegion", String.class).invoke(regionManager, regionId);
+            return region == null ? null : wgOutline(region);
+        } catch (Throwable t) {
+            plugin.getLogger().log(Level.FINE, "WorldGuard region lookup failed: " + t.getMessage(), t);
+            return null;
+        }
+    }
+
+    private Object wgRegionManager(World world) throws ReflectiveOperationException {
+        Class<?> bukkitAdapter = Class.forName("com.sk89q.worldedit.bukkit.BukkitAdapter");
+        Class<?> weWorldClass = Class.forName("com.sk89q.worldedit.world.World");
+        Object weWorld = bukkitAdapter.getMethod("adapt", World.class).invoke(null, world);
+        return wgRegionContainer.getClass().getMethod("get", weWorldClass).invoke(wgRegionContainer, weWorld);
+    }
+
+    // cuboids report their four corners, polygons their outline
+    private ChunkShape wgOutline(Object region) throws ReflectiveOperationException {
+        Class<?> regionClass = Class.forName("com.sk89q.worldguard.protection.regions.ProtectedRegion");
+        Class<?> bv2 = Class.forName("com.sk89q.worldedit.math.BlockVector2");
+        Method getX = bv2.getMethod("getBlockX");
+        Method getZ = bv2.getMethod("getBlockZ");
+        List<int[]> points = new ArrayList<>();
+        for (Object p : (List<?>) regionClass.getMethod("getPoints").invoke(region)) {
+            points.add(new int[] { (Integer) getX.invoke(p), (Integer) getZ.invoke(p) });
+        }
+        return points.size() < 3 ? null : PolygonShape.of(points);
     }
 
     /* ---------------- CoreProtect chunk-summary API ---------------- */
@@ -399,10 +864,20 @@ public class IntegrationManager {
             return;
         }
 
-        String actorName = (actorUuid == null) ? "ChunkCleaner" : (Bukkit.getOfflinePlayer(actorUuid).getName());
-        if (actorName == null) actorName = "ChunkCleaner";
+        cpQueue.add(new CoreProtectChunkEntry(resolveActorName(actorUuid), chunkCenter.clone(), totalRemoved, breakdown));
+    }
 
-        cpQueue.add(new CoreProtectChunkEntry(actorName, chunkCenter.clone(), totalRemoved, breakdown));
+    /**
+     * Actor name for CoreProtect entries. Offline owners are looked up once on the I/O executor (the lookup may
+     * read player data from disk) and cached; online owners resolve immediately.
+     */
+    private CompletableFuture<String> resolveActorName(UUID actorUuid) {
+        if (actorUuid == null) return CompletableFuture.completedFuture("ChunkCleaner");
+        Player online = Bukkit.getPlayer(actorUuid);
+        if (online != null) return CompletableFuture.completedFuture(online.getName());
+        return actorNames.computeIfAbsent(actorUuid, id -> plugin.getIoExecutor()
+                .submit(IoExecutor.Resource.PROFILE_LOOKUP, () -> Bukkit.getOfflinePlayer(id).getName())
+                .handle((name, err) -> name == null ? "ChunkCleaner" : name));
     }
 
     /**
@@ -466,15 +941,46 @@ public class IntegrationManager {
         }
 
         // Fallback: server-side info log so admins can inspect. This avoids spamming CoreProtect but still records activity.
-        plugin.getLogger().info("CoreProtect: chunk cleaned by " + e.actorName + " at " + formatLocation(e.chunkCenter)
-                + " removed=" + e.totalRemoved + (e.breakdown != null ? " breakdown=" + e.breakdown : ""));
+        String line = "CoreProtect: chunk cleaned by " + e.actorName + " at " + formatLocation(e.chunkCenter)
+                + " removed=" + e.totalRemoved + (e.breakdown != null ? " breakdown=" + e.breakdown : "");
+        // console/file log handlers can block; keep them off the main thread
+        plugin.getIoExecutor().execute(IoExecutor.Resource.COREPROTECT, () -> plugin.getLogger().info(line));
     }
 
+    /**
+     * Stop the periodic flush and write out what is still queued, in order, within
+     * shutdown.coreprotect_flush_millis. Entries left after the deadline are counted in a warning.
+     */
     public void shutdown() {
         if (cpFlushTask != null) {
             try { cpFlushTask.cancel(); } catch (Throwable ignored) {}
             cpFlushTask = null;
         }
+        if (cpQueue.isEmpty()) return;
+        long budgetMillis = Math.max(0L, plugin.getConfig().getLong("shutdown.coreprotect_flush_millis", 2000L));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        CoreProtectChunkEntry e;
+        while ((e = cpQueue.peek()) != null) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) break;
+            try {
+                e.actorName = e.actorLookup.get(left, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException te) {
+                break;
+            } catch (Throwable t) {
+                e.actorName = "ChunkCleaner";
+            }
+            cpQueue.poll();
+            try {
+                tryLogChunkEntry(e);
+            } catch (Throwable t) {
+                plugin.getLogger().fine("CoreProtect chunk log attempt failed: " + t.getMessage());
+            }
+        }
+        if (!cpQueue.isEmpty()) {
+            plugin.getLogger().warning("CoreProtect flush timed out on shutdown; " + cpQueue.size() + " chunk entries were not logged.");
+            cpQueue.clear();
+        }
     }
 
     private static String formatLocation(Location l) {
@@ -484,13 +990,14 @@ public class IntegrationManager {
 
     /* CoreProtect queue entry (chunk-summary) */
     private static class CoreProtectChunkEntry {
-        final String actorName;
+        final CompletableFuture<String> actorLookup;
+        String actorName = "ChunkCleaner";
         final Location chunkCenter;
         final int totalRemoved;
         final Map<Material, Integer> breakdown;
 
-        CoreProtectChunkEntry(String actorName, Location chunkCenter, int totalRemoved, Map<Material, Integer> breakdown) {
-            this.actorName = actorName;
+        CoreProtectChunkEntry(CompletableFuture<String> actorLookup, Location chunkCenter, int totalRemoved, Map<Material, Integer> breakdown) {
+            this.actorLookup = actorLookup;
             this.chunkCenter = chunkCenter;
             this.totalRemoved = totalRemoved;
             this.breakdown = breakdown;
@@ -0,0 +1,131 @@
+package me.d15c07d.chunkcleaners.io;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single execution service for blocking I/O (file writes, region files, console fallback logging,
+ * profile lookups, the config file watcher) and for API subscribers, which may block as well.
+ *
+ * Every submission runs on its own virtual thread, so blocking is cheap, while a fair semaphore per
+ * {@link Resource} bounds how many tasks touch the same resource at once (io.max_concurrency.&lt;resource&gt;).
+ * After {@link #shutdown(long)} submissions run inline on the caller, so late saves during onDisable still
+ * reach the disk.
+ */
+public class IoExecutor {
+
+    public enum Resource {
+        PERSISTENCE(1),
+        REGION_FILES(2),
+        JOURNAL(1),
+        COREPROTECT(1),
+        PROFILE_LOOKUP(4),
+        CONFIG_WATCH(1),
+        API_EVENTS(1);
+
+        private final int defaultPermits;
+
+        Resource(int defaultPermits) {
+            this.defaultPermits = defaultPermits;
+        }
+
+        public String getConfigKey() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final ChunkCleanersPlugin plugin;
+    private final ExecutorService executor;
+    private final Map<Resource, Semaphore> permits = new EnumMap<>(Resource.class);
+    private final AtomicInteger inFlight = new AtomicInteger(0);
+    private volatile boolean closed = false;
+
+    public IoExecutor(ChunkCleanersPlugin plugin) {
+        this.plugin = plugin;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (Resource r : Resource.values()) {
+            int n = Math.max(1, plugin.getConfig().getInt("io.max_concurrency." + r.getConfigKey(), r.defaultPermits));
+            permits.put(r, new Semaphore(n, true));
+        }
+    }
+
+    public CompletableFuture<Void> execute(Resource resource, Runnable work) {
+        return submit(resource, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run blocking work for the given resource. The future completes on the I/O thread.
+     */
+    public <T> CompletableFuture<T> submit(Resource resource, Callable<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (closed) {
+            runGuarded(resource, work, future);
+            return future;
+        }
+        inFlight.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    runGuarded(resource, work, future);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            inFlight.decrementAndGet();
+            runGuarded(resource, work, future);
+        }
+        return future;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Stop accepting work and wait up to timeoutMillis for queued work to finish; whatever is still running
+     * afterwards (e.g. a blocked watcher) is interrupted.
+     */
+    public void shutdown(long timeoutMillis) {
+        closed = true;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(Math.max(0L, timeoutMillis), TimeUnit.MILLISECONDS)) {
+                plugin.getLogger().warning("I/O executor did not drain within " + timeoutMillis + "ms; " + inFlight.get() + " task(s) interrupted.");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException ie) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> void runGuarded(Resource resource, Callable<T> work, CompletableFuture<T> future) {
+        Semaphore sem = permits.get(resource);
+        boolean acquired = false;
+        try {
+            sem.acquire();
+            acquired = true;
+            future.complete(work.call());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(ie);
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        } finally {
+            if (acquired) sem.release();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package me.d15c07d.chunkcleaners.job;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One bit per chunk of a maintenance job (by ordinal of the job's walk), set once the chunk is cleared.
+ *
+ * In memory it is a plain long[] (a million chunks take 125 KiB). On disk it is stored as alternating run
+ * lengths (unset, set, unset, ...) as varints, gzipped: a job clears in long contiguous runs, so even a
+ * million-chunk job in progress takes a few bytes to a few KiB.
+ *
+ * Not thread-safe; the job mutates it on the main thread and hands {@link #copy()}s to the writer.
+ */
+public final class CompletionBitmap {
+
+    private static final int MAGIC = 0x43434d42; // "CCMB"
+    private static final int VERSION = 1;
+
+    private final int size;
+    private final long[] words;
+    private int cardinality;
+
+    public CompletionBitmap(int size) {
+        this.size = Math.max(0, size);
+        this.words = new long[(this.size + 63) >>> 6];
+    }
+
+    private CompletionBitmap(CompletionBitmap other) {
+        this.size = other.size;
+        this.words = other.words.clone();
+        this.cardinality = other.cardinality;
+    }
+
+    public int size() { return size; }
+    public int cardinality() { return cardinality; }
+    public boolean isComplete() { return cardinality >= size; }
+
+    public boolean get(int i) {
+        return i >= 0 && i < size && (words[i >>> 6] & (1L << i)) != 0L;
+    }
+
+    /**
+     * Set a bit; false if it was already set.
+     */
+    public boolean set(int i) {
+        if (i < 0 || i >= size) return false;
+        long bit = 1L << i;
+        if ((words[i >>> 6] & bit) != 0L) return false;
+        words[i >>> 6] |= bit;
+        cardinality++;
+        return true;
+    }
+
+    /**
+     * First unset bit at or after from, or -1.
+     */
+    public int nextClear(int from) {
+        if (from < 0) from = 0;
+        if (from >= size) return -1;
+        int w = from >>> 6;
+        long word = ~words[w] & (-1L << from);
+        while (true) {
+            if (word != 0L) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                return i < size ? i : -1;
+            }
+            if (++w >= words.length) return -1;
+            word = ~words[w];
+        }
+    }
+
+    public CompletionBitmap copy() {
+        return new CompletionBitmap(this);
+    }
+
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(size);
+        GZIPOutputStream gz = new GZIPOutputStream(data);
+        DataOutputStream runs = new DataOutputStream(new BufferedOutputStream(gz));
+        boolean value = false;
+        int i = 0;
+        while (i < size) {
+            int start = i;
+            while (i < size && get(i) == value) i++;
+            writeVarInt(runs, i - start);
+            value = !value;
+        }
+        runs.flush();
+        gz.finish();
+        data.flush();
+    }
+
+    /**
+     * Read a bitmap written by {@link #write}.
+     *
+     * @throws IOException if the data is corrupt or was written for a job of another size
+     */
+    public static CompletionBitmap read(InputStream in, int expectedSize) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) throw new IOException("not a completion bitmap");
+        int version = data.readInt();
+        if (version != VERSION) throw new IOException("unsupported bitmap version " + version);
+        int size = data.readInt();
+        if (size != expectedSize) throw new IOException("bitmap has " + size + " chunks, job has " + expectedSize);
+        CompletionBitmap bm = new CompletionBitmap(size);
+        DataInputStream runs = new DataInputStream(new BufferedInputStream(new GZIPInputStream(data)));
+        boolean value = false;
+        int i = 0;
+        while (i < size) {
+            int len = readVarInt(runs);
+            if (len < 0 || len > size - i) throw new IOException("corrupt run length");
+            if (value) {
+                for (int j = i; j < i + len; j++) bm.set(j);
+            }
+            i += len;
+            value = !value;
+        }
+        return bm;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int v) throws IOException {
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("varint too long");
+    }
+}
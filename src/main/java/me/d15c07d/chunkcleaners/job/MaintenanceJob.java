@@ -0,0 +1,156 @@
+package me.d15c07d.chunkcleaners.job;
+
+import me.d15c07d.chunkcleaners.shape.ChunkCursor;
+import me.d15c07d.chunkcleaners.shape.ChunkOrder;
+import me.d15c07d.chunkcleaners.shape.ChunkShape;
+import me.d15c07d.chunkcleaners.utils.LightingUtil;
+
+import java.util.*;
+
+/**
+ * State of one world-scale maintenance clear: a shape of chunks in one world, cleared by several worker
+ * cleaners at once, each leasing a tile of pending chunks.
+ *
+ * Progress is a {@link CompletionBitmap} over the ordinals of the job's walk, so chunks may finish in any order
+ * and a restart resumes with exactly the chunks that were not cleared yet. Chunks leased to a worker that stops
+ * before clearing them go back to the pool. All methods run on the main thread.
+ */
+public class MaintenanceJob {
+
+    private final UUID id;
+    private final UUID ownerUuid;
+    private final String ownerName;
+    private final String worldName;
+    private final ChunkShape shape;
+    private final ChunkOrder order;
+    private long startedAt;
+
+    private CompletionBitmap done;
+    // ordinals leased to a worker and not cleared yet
+    private final BitSet leased = new BitSet();
+    // chunk key -> ordinal of every leased chunk, and the keys leased to each worker
+    private final Map<Long, Integer> leasedOrdinals = new HashMap<>();
+    private final Map<UUID, long[]> workers = new LinkedHashMap<>();
+    private ChunkCursor scan;
+    // second cursor for chunks released behind the main scan, from the lowest released ordinal on
+    private ChunkCursor rescan;
+    private int rescanFrom = Integer.MAX_VALUE;
+    private long blocksRemoved = 0L;
+    private boolean dirty = false;
+    private boolean cancelled = false;
+
+    public MaintenanceJob(UUID id, UUID ownerUuid, String ownerName, String worldName, ChunkShape shape, ChunkOrder order) {
+        this.id = id;
+        this.ownerUuid = ownerUuid;
+        this.ownerName = ownerName;
+        this.worldName = worldName;
+        this.shape = shape;
+        this.order = order == null ? ChunkOrder.HILBERT : order;
+        this.startedAt = System.currentTimeMillis() / 1000L;
+        this.done = new CompletionBitmap(shape.getChunkCount());
+    }
+
+    /**
+     * Lease up to max pending chunks that are next to each other in the walk, as {chunkX, chunkZ}; empty if
+     * every remaining chunk is cleared or leased already.
+     */
+    public List<int[]> leaseTile(UUID workerId, int max) {
+        if (scan == null) scan = shape.cursor(order, shape.getMinX(), shape.getMinZ());
+        List<int[]> out = new ArrayList<>();
+        // from where the last tile ended
+        lease(scan, Math.max(0, scan.getOrdinal()), max, out);
+        // chunks released by stopped workers behind the scan; the rescan cursor only moves forward between leases
+        if (out.isEmpty() && rescanFrom != Integer.MAX_VALUE) {
+            if (rescan == null) rescan = shape.cursor(order, shape.getMinX(), shape.getMinZ());
+            int last = lease(rescan, rescanFrom, max, out);
+            rescanFrom = last < 0 ? Integer.MAX_VALUE : last + 1;
+        }
+        if (out.isEmpty()) return out;
+        long[] keys = new long[out.size()];
+        for (int i = 0; i < keys.length; i++) keys[i] = LightingUtil.chunkKey(out.get(i)[0], out.get(i)[1]);
+        workers.put(workerId, keys);
+        return out;
+    }
+
+    // lease a contiguous run of pending chunks from ordinal from on; the last ordinal leased, or -1
+    private int lease(ChunkCursor cursor, int from, int max, List<int[]> out) {
+        int last = -1;
+        int ord = nextPending(from);
+        while (ord >= 0 && out.size() < max) {
+            if (!cursor.seek(ord)) break;
+            out.add(new int[] { cursor.getX(), cursor.getZ() });
+            leased.set(ord);
+            leasedOrdinals.put(LightingUtil.chunkKey(cursor.getX(), cursor.getZ()), ord);
+            last = ord;
+            ord = nextPending(ord + 1);
+            // keep tiles contiguous: stop at the first gap
+            if (ord != cursor.getOrdinal() + 1) break;
+        }
+        return last;
+    }
+
+    private int nextPending(int from) {
+        int ord = done.nextClear(from);
+        while (ord >= 0 && leased.get(ord)) ord = done.nextClear(ord + 1);
+        return ord;
+    }
+
+    /**
+     * A worker finished clearing a chunk; false if the chunk was not leased by this job.
+     */
+    public boolean markCleared(int chunkX, int chunkZ, long blocks) {
+        Integer ord = leasedOrdinals.remove(LightingUtil.chunkKey(chunkX, chunkZ));
+        if (ord == null) return false;
+        leased.clear(ord);
+        done.set(ord);
+        blocksRemoved += blocks;
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * A worker stopped (finished or cancelled): whatever it did not clear goes back to the pool.
+     */
+    public void releaseWorker(UUID workerId) {
+        long[] keys = workers.remove(workerId);
+        if (keys == null) return;
+        for (long key : keys) {
+            Integer ord = leasedOrdinals.remove(key);
+            if (ord == null) continue;
+            leased.clear(ord);
+            rescanFrom = Math.min(rescanFrom, ord);
+        }
+    }
+
+    public boolean isComplete() { return done.isComplete(); }
+    public boolean isCancelled() { return cancelled; }
+    public void setCancelled() { this.cancelled = true; }
+
+    /** True once if chunks were cleared since the last call; used by the bitmap writer. */
+    public boolean takeDirty() {
+        if (!dirty) return false;
+        dirty = false;
+        return true;
+    }
+
+    public UUID getId() { return id; }
+    public UUID getOwnerUuid() { return ownerUuid; }
+    public String getOwnerName() { return ownerName; }
+    public String getWorldName() { return worldName; }
+    public ChunkShape getShape() { return shape; }
+    public ChunkOrder getOrder() { return order; }
+    public long getStartedAt() { return startedAt; }
+    public void setStartedAt(long startedAt) { this.startedAt = startedAt; }
+    public int getTotalChunks() { return done.size(); }
+    public int getDoneChunks() { return done.cardinality(); }
+    public int getLeasedChunks() { return leasedOrdinals.size(); }
+    public Set<UUID> getWorkerIds() { return Collections.unmodifiableSet(workers.keySet()); }
+    public int getWorkerCount() { return workers.size(); }
+    public long getBlocksRemoved() { return blocksRemoved; }
+    public void setBlocksRemoved(long blocksRemoved) { this.blocksRemoved = blocksRemoved; }
+
+    public CompletionBitmap snapshotBitmap() { return done.copy(); }
+    public void setBitmap(CompletionBitmap bitmap) {
+        if (bitmap != null && bitmap.size() == shape.getChunkCount()) this.done = bitmap;
+    }
+}
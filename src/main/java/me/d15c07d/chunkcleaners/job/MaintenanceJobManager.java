@@ -0,0 +1,265 @@
+package me.d15c07d.chunkcleaners.job;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.io.IoExecutor;
+import me.d15c07d.chunkcleaners.shape.ChunkListShape;
+import me.d15c07d.chunkcleaners.shape.ChunkOrder;
+import me.d15c07d.chunkcleaners.shape.ChunkShape;
+import me.d15c07d.chunkcleaners.task.ChunkCleanerManager;
+import me.d15c07d.chunkcleaners.task.ChunkCleanerTask;
+import me.d15c07d.chunkcleaners.utils.MessageUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs world-scale maintenance jobs (/chunkcleaners admin job).
+ *
+ * A job does not clear anything itself: every jobs.fill_interval_ticks it keeps up to jobs.worker_slots worker
+ * cleaners alive, each a normal {@link ChunkCleanerTask} over a tile of up to jobs.chunks_per_worker pending
+ * chunks. Workers go through the usual admission, world budget and cost policy, and report every cleared chunk
+ * back to the job.
+ *
+ * The completion bitmap of each job is written to jobs/&lt;id&gt;.bitmap next to the persistence file every
+ * jobs.bitmap_save_seconds (and on stop), through the I/O executor. The YAML record only holds the definition;
+ * the bitmap is the source of truth for what is left.
+ */
+public class MaintenanceJobManager {
+
+    private final ChunkCleanersPlugin plugin;
+    private final ChunkCleanerManager manager;
+    private final Map<UUID, MaintenanceJob> jobs = new ConcurrentHashMap<>();
+
+    // latest bitmap snapshot per job waiting for the I/O executor
+    private final Map<UUID, CompletionBitmap> pendingBitmaps = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+    private BukkitTask fillTask;
+    private BukkitTask flushTask;
+
+    public MaintenanceJobManager(ChunkCleanersPlugin plugin, ChunkCleanerManager manager) {
+        this.plugin = plugin;
+        this.manager = manager;
+    }
+
+    /**
+     * Start the fill and flush timers; the first fill waits for startup.resume_delay_ticks like restored cleaners.
+     */
+    public void start() {
+        stopTimers();
+        long delay = Math.max(1L, plugin.getConfig().getLong("startup.resume_delay_ticks", 100L));
+        long fill = Math.max(1L, plugin.getConfig().getLong("jobs.fill_interval_ticks", 20L));
+        long flush = Math.max(1L, plugin.getConfig().getLong("jobs.bitmap_save_seconds", 5L)) * 20L;
+        fillTask = Bukkit.getScheduler().runTaskTimer(plugin, this::fill, delay, fill);
+        flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::flushDirty, flush, flush);
+    }
+
+    private void stopTimers() {
+        if (fillTask != null) {
+            try { fillTask.cancel(); } catch (Throwable ignored) {}
+            fillTask = null;
+        }
+        if (flushTask != null) {
+            try { flushTask.cancel(); } catch (Throwable ignored) {}
+            flushTask = null;
+        }
+    }
+
+    /**
+     * Start a new job (main thread).
+     *
+     * @return the job, or null if it overlaps a running job in the same world
+     */
+    public MaintenanceJob start(UUID ownerUuid, String ownerName, World world, ChunkShape shape) {
+        for (MaintenanceJob j : jobs.values()) {
+            if (j.getWorldName().equals(world.getName()) && j.getShape().overlapsBounds(shape)) return null;
+        }
+        // the job walks from its bounding box minimum (MaintenanceJob.leaseTile)
+        ChunkOrder order = ChunkOrder.parse(plugin.getConfig().getString("jobs.order", "hilbert"), ChunkOrder.HILBERT)
+                .fitFor(shape, shape.getMinX(), shape.getMinZ());
+        MaintenanceJob job = new MaintenanceJob(UUID.randomUUID(), ownerUuid, ownerName, world.getName(), shape, order);
+        jobs.put(job.getId(), job);
+        plugin.getPersistenceManager().saveMaintenanceJob(job);
+        queueBitmap(job);
+        return job;
+    }
+
+    /**
+     * Re-attach a job restored from disk, with the bitmap it last wrote. A missing or unreadable bitmap restarts
+     * the job from nothing cleared, which only redoes work.
+     */
+    public void addLoadedJob(MaintenanceJob job) {
+        File file = bitmapFile(job.getId());
+        if (file.isFile()) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+                job.setBitmap(CompletionBitmap.read(in, job.getTotalChunks()));
+            } catch (IOException e) {
+                plugin.getLogger().warning("Maintenance job " + job.getId() + ": unreadable bitmap (" + e.getMessage() + "); starting over.");
+            }
+        } else {
+            plugin.getLogger().warning("Maintenance job " + job.getId() + ": bitmap file missing; starting over.");
+        }
+        jobs.put(job.getId(), job);
+    }
+
+    public boolean cancel(UUID id) {
+        MaintenanceJob job = jobs.remove(id);
+        if (job == null) return false;
+        job.setCancelled();
+        stopWorkers(job);
+        plugin.getPersistenceManager().removeRecord(id);
+        deleteBitmap(id);
+        return true;
+    }
+
+    public Collection<MaintenanceJob> getJobs() {
+        return jobs.values();
+    }
+
+    public Optional<MaintenanceJob> getJob(UUID id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Last step of the stop sequence, after the workers drained: write every bitmap. Jobs stay registered so the
+     * final save keeps their records.
+     */
+    public void shutdown() {
+        stopTimers();
+        for (MaintenanceJob job : jobs.values()) {
+            job.takeDirty();
+            queueBitmap(job);
+        }
+    }
+
+    /* ---------------- Workers (main thread) ---------------- */
+
+    private void fill() {
+        int slots = Math.max(1, plugin.getConfig().getInt("jobs.worker_slots", 4));
+        int tileSize = Math.max(1, plugin.getConfig().getInt("jobs.chunks_per_worker", 16));
+        for (MaintenanceJob job : new ArrayList<>(jobs.values())) {
+            if (job.isComplete()) {
+                if (job.getWorkerCount() == 0) finish(job);
+                continue;
+            }
+            // workers of an unloaded world park until it is back
+            World world = Bukkit.getWorld(job.getWorldName());
+            if (world == null) continue;
+            while (job.getWorkerCount() < slots) {
+                UUID workerId = UUID.randomUUID();
+                List<int[]> tile = job.leaseTile(workerId, tileSize);
+                if (tile.isEmpty()) break;
+                manager.addWorker(createWorker(job, workerId, tile, world));
+            }
+        }
+    }
+
+    private ChunkCleanerTask createWorker(MaintenanceJob job, UUID workerId, List<int[]> tile, World world) {
+        int[] first = tile.get(0);
+        int seconds = Math.max(1, plugin.getConfig().getInt("jobs.seconds_per_chunk", 2)) * tile.size();
+        UUID owner = job.getOwnerUuid() == null ? ChunkCleanerManager.CONSOLE_OWNER : job.getOwnerUuid();
+        ChunkCleanerTask worker = new ChunkCleanerTask(workerId, owner, job.getOwnerName(), first[0], first[1],
+                job.getWorldName(), "job", ChunkListShape.of(tile), ChunkOrder.ROW, seconds, plugin,
+                (first[0] << 4) + 8, world.getMinHeight(), (first[1] << 4) + 8);
+        worker.setJob(job);
+        // admin jobs clear claimed land, as offline clears do
+        worker.setColumnMasks(Map.of());
+        return worker;
+    }
+
+    private void stopWorkers(MaintenanceJob job) {
+        for (UUID workerId : new ArrayList<>(job.getWorkerIds())) {
+            for (ChunkCleanerTask t : new ArrayList<>(manager.getActiveTasks())) {
+                if (t.getId().equals(workerId)) t.cancel();
+            }
+            job.releaseWorker(workerId);
+        }
+    }
+
+    private void finish(MaintenanceJob job) {
+        if (jobs.remove(job.getId()) == null) return;
+        plugin.getPersistenceManager().removeRecord(job.getId());
+        deleteBitmap(job.getId());
+        String msg = plugin.getConfig().getString("messages.admin.job_finished",
+                        "<green>Maintenance job {id} finished: <white>{chunks}</white> chunks, <white>{blocks}</white> blocks removed.")
+                .replace("{id}", job.getId().toString())
+                .replace("{chunks}", String.valueOf(job.getTotalChunks()))
+                .replace("{blocks}", String.valueOf(job.getBlocksRemoved()));
+        plugin.getLogger().info("Maintenance job " + job.getId() + " finished: chunks=" + job.getTotalChunks()
+                + " blocks=" + job.getBlocksRemoved());
+        if (job.getOwnerUuid() != null) {
+            Player p = Bukkit.getPlayer(job.getOwnerUuid());
+            if (p != null && p.isOnline()) p.sendMessage(MessageUtil.parse(msg));
+        }
+    }
+
+    /* ---------------- Bitmap files ---------------- */
+
+    private void flushDirty() {
+        for (MaintenanceJob job : jobs.values()) {
+            if (!job.takeDirty()) continue;
+            queueBitmap(job);
+            plugin.getPersistenceManager().saveMaintenanceJob(job);
+        }
+    }
+
+    // snapshot now, write on the I/O executor; a newer snapshot replaces one still waiting
+    private void queueBitmap(MaintenanceJob job) {
+        pendingBitmaps.put(job.getId(), job.snapshotBitmap());
+        plugin.getIoExecutor().execute(IoExecutor.Resource.PERSISTENCE, this::drainBitmaps);
+    }
+
+    private void drainBitmaps() {
+        synchronized (writeLock) {
+            for (UUID id : new ArrayList<>(pendingBitmaps.keySet())) {
+                CompletionBitmap bitmap = pendingBitmaps.remove(id);
+                if (bitmap == null) continue;
+                try {
+                    writeAtomically(bitmapFile(id), bitmap);
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Failed to save bitmap of maintenance job " + id + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void deleteBitmap(UUID id) {
+        pendingBitmaps.remove(id);
+        plugin.getIoExecutor().execute(IoExecutor.Resource.PERSISTENCE, () -> {
+            synchronized (writeLock) {
+                try {
+                    Files.deleteIfExists(bitmapFile(id).toPath());
+                } catch (IOException e) {
+                    plugin.getLogger().fine("Failed to delete bitmap of maintenance job " + id + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    private static void writeAtomically(File file, CompletionBitmap bitmap) throws IOException {
+        Path target = file.toPath();
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(file.getName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+            bitmap.write(out);
+        }
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private File bitmapFile(UUID id) {
+        return new File(plugin.getPersistenceManager().getJobFolder(), id + ".bitmap");
+    }
+}
@@ -0,0 +1,387 @@
+package me.d15c07d.chunkcleaners.journal;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.io.IoExecutor;
+import org.bukkit.block.data.BlockData;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only undo journal of one cleaner task (journal/&lt;task id&gt;.ccj).
+ *
+ * File layout: a header (magic, task id, world, owner, type, size, chunk count, creation time) followed by records of
+ * {int compressedLength, int rawLength, deflated bytes}. Each record holds the removed blocks of one
+ * chunk section for one layer batch: the block states as a palette of BlockData strings plus
+ * {position, palette index} pairs, position being (y &amp; 15) &lt;&lt; 8 | z &lt;&lt; 4 | x.
+ * A compressedLength of -1 marks a journal that hit journal.max_task_mb; nothing after it was recorded.
+ *
+ * Records are built on the main thread and compressed/appended on the I/O executor. Only records not yet
+ * written are held in memory, and the task pauses while they exceed journal.max_pending_kb, so memory does
+ * not grow with the cleaner size.
+ */
+public final class UndoJournal {
+
+    static final int MAGIC = 0x43434A32; // "CCJ2"
+    // journals written before the chunk count was stored (square footprints only)
+    static final int MAGIC_V1 = 0x43434A31; // "CCJ1"
+    static final int TRUNCATED = -1;
+    public static final String EXTENSION = ".ccj";
+
+    /**
+     * Task metadata stored in the journal header.
+     */
+    public static final class Info {
+        private final UUID taskId;
+        private final String worldName;
+        private final UUID ownerUuid;
+        private final String ownerName;
+        private final String typeKey;
+        private final int size;
+        private final int chunkCount;
+        private final long createdAt;
+
+        public Info(UUID taskId, String worldName, UUID ownerUuid, String ownerName, String typeKey, int size, int chunkCount, long createdAt) {
+            this.taskId = taskId;
+            this.worldName = worldName;
+            this.ownerUuid = ownerUuid;
+            this.ownerName = ownerName;
+            this.typeKey = typeKey;
+            this.size = size;
+            this.chunkCount = chunkCount;
+            this.createdAt = createdAt;
+        }
+
+        public UUID getTaskId() { return taskId; }
+        public String getWorldName() { return worldName; }
+        public UUID getOwnerUuid() { return ownerUuid; }
+        public String getOwnerName() { return ownerName; }
+        public String getTypeKey() { return typeKey; }
+        public int getSize() { return size; }
+        /** Chunks in the cleaner's footprint. */
+        public int getChunkCount() { return chunkCount; }
+        public long getCreatedAt() { return createdAt; }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeUTF(taskId.toString());
+            out.writeUTF(worldName);
+            out.writeUTF(ownerUuid == null ? "" : ownerUuid.toString());
+            out.writeUTF(ownerName == null ? "" : ownerName);
+            out.writeUTF(typeKey == null ? "" : typeKey);
+            out.writeInt(size);
+            out.writeInt(chunkCount);
+            out.writeLong(createdAt);
+        }
+
+        static Info read(DataInputStream in) throws IOException {
+            int magic = in.readInt();
+            if (magic != MAGIC && magic != MAGIC_V1) throw new IOException("Not an undo journal");
+            UUID taskId = UUID.fromString(in.readUTF());
+            String world = in.readUTF();
+            String owner = in.readUTF();
+            String ownerName = in.readUTF();
+            String type = in.readUTF();
+            int size = in.readInt();
+            int chunkCount = magic == MAGIC_V1 ? size * size : in.readInt();
+            long createdAt = in.readLong();
+            return new Info(taskId, world, owner.isEmpty() ? null : UUID.fromString(owner), ownerName, type, size, chunkCount, createdAt);
+        }
+    }
+
+    /**
+     * Removed blocks of one chunk section, as read back from a journal.
+     */
+    public static final class Section {
+        private final int chunkX;
+        private final int chunkZ;
+        private final int sectionY;
+        private final String[] palette;
+        private final short[] positions;
+        private final short[] indices;
+
+        Section(int chunkX, int chunkZ, int sectionY, String[] palette, short[] positions, short[] indices) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.sectionY = sectionY;
+            this.palette = palette;
+            this.positions = positions;
+            this.indices = indices;
+        }
+
+        public int getChunkX() { return chunkX; }
+        public int getChunkZ() { return chunkZ; }
+        public int getSectionY() { return sectionY; }
+        public String[] getPalette() { return palette; }
+        public int size() { return positions.length; }
+        public int getPosition(int i) { return positions[i] & 0xFFF; }
+        public int getPaletteIndex(int i) { return indices[i]; }
+    }
+
+    private final ChunkCleanersPlugin plugin;
+    private final Info info;
+    private final File file;
+    private final long maxFileBytes;
+    private final long maxPendingBytes;
+
+    private final Queue<byte[]> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final AtomicBoolean drainQueued = new AtomicBoolean(false);
+    private final Object writeLock = new Object();
+    private volatile boolean closed = false;
+    private volatile boolean truncated = false;
+
+    UndoJournal(ChunkCleanersPlugin plugin, Info info, File file) {
+        this.plugin = plugin;
+        this.info = info;
+        this.file = file;
+        this.maxFileBytes = Math.max(1L, plugin.getConfig().getLong("journal.max_task_mb", 64L)) * 1024L * 1024L;
+        this.maxPendingBytes = Math.max(16L, plugin.getConfig().getLong("journal.max_pending_kb", 1024L)) * 1024L;
+    }
+
+    public Info getInfo() { return info; }
+    public File getFile() { return file; }
+    public boolean isTruncated() { return truncated; }
+
+    /**
+     * True while more than journal.max_pending_kb of records wait for the disk; the task should not
+     * remove anything further until they are written.
+     */
+    public boolean isBackedUp() {
+        return pendingBytes.get() > maxPendingBytes;
+    }
+
+    /**
+     * Start recording one layer batch of a chunk (main thread).
+     *
+     * @return null once the journal is closed or truncated
+     */
+    public Recorder recorder(int chunkX, int chunkZ) {
+        if (closed || truncated) return null;
+        return new Recorder(chunkX, chunkZ);
+    }
+
+    /**
+     * Stop recording and write what is left. The future completes once the file is up to date.
+     */
+    public CompletableFuture<Void> close() {
+        closed = true;
+        return plugin.getIoExecutor().execute(IoExecutor.Resource.JOURNAL, this::drain);
+    }
+
+    /**
+     * Collects the removed block states of one batch; batches are walked top-down, so a section is
+     * complete as soon as the y coordinate leaves it.
+     */
+    public final class Recorder {
+        private final int chunkX;
+        private final int chunkZ;
+        private int sectionY = Integer.MIN_VALUE;
+        private final Map<BlockData, Integer> palette = new HashMap<>();
+        private final List<BlockData> paletteOrder = new ArrayList<>();
+        private short[] positions = new short[256];
+        private short[] indices = new short[256];
+        private int count = 0;
+
+        private Recorder(int chunkX, int chunkZ) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+
+        public void add(int x, int y, int z, BlockData data) {
+            int sy = y >> 4;
+            if (sy != sectionY) {
+                flushSection();
+                sectionY = sy;
+            }
+            Integer idx = palette.get(data);
+            if (idx == null) {
+                idx = paletteOrder.size();
+                palette.put(data, idx);
+                paletteOrder.add(data);
+            }
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+                indices = Arrays.copyOf(indices, count * 2);
+            }
+            positions[count] = (short) (((y & 15) << 8) | (z << 4) | x);
+            indices[count] = (short) (int) idx;
+            count++;
+        }
+
+        public void commit() {
+            flushSection();
+        }
+
+        private void flushSection() {
+            if (count == 0) return;
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + count * 4 + paletteOrder.size() * 32);
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(chunkX);
+                out.writeInt(chunkZ);
+                out.writeInt(sectionY);
+                out.writeShort(paletteOrder.size());
+                for (BlockData bd : paletteOrder) out.writeUTF(bd.getAsString());
+                out.writeShort(count);
+                for (int i = 0; i < count; i++) {
+                    out.writeShort(positions[i]);
+                    out.writeShort(indices[i]);
+                }
+                out.flush();
+                enqueue(bytes.toByteArray());
+            } catch (IOException e) {
+                // in-memory stream; cannot happen
+                plugin.getLogger().warning("Failed to encode undo record: " + e.getMessage());
+            }
+            palette.clear();
+            paletteOrder.clear();
+            count = 0;
+        }
+    }
+
+    private void enqueue(byte[] raw) {
+        if (truncated) return;
+        pending.add(raw);
+        pendingBytes.addAndGet(raw.length);
+        if (drainQueued.compareAndSet(false, true)) {
+            plugin.getIoExecutor().execute(IoExecutor.Resource.JOURNAL, this::drain);
+        }
+    }
+
+    private void drain() {
+        drainQueued.set(false);
+        synchronized (writeLock) {
+            if (pending.isEmpty()) return;
+            boolean fresh = !file.exists() || file.length() == 0;
+            long written = fresh ? 0L : file.length();
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)))) {
+                if (fresh) info.write(out);
+                byte[] buf = new byte[8192];
+                byte[] raw;
+                while ((raw = pending.poll()) != null) {
+                    pendingBytes.addAndGet(-raw.length);
+                    if (truncated) continue;
+                    deflater.reset();
+                    deflater.setInput(raw);
+                    deflater.finish();
+                    ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 16);
+                    while (!deflater.finished()) {
+                        int n = deflater.deflate(buf);
+                        compressed.write(buf, 0, n);
+                    }
+                    if (written + compressed.size() + 8 > maxFileBytes) {
+                        out.writeInt(TRUNCATED);
+                        truncated = true;
+                        plugin.getLogger().warning("Undo journal for task " + info.getTaskId() + " reached journal.max_task_mb; "
+                                + "further removals of this task are not recorded.");
+                        continue;
+                    }
+                    out.writeInt(compressed.size());
+                    out.writeInt(raw.length);
+                    compressed.writeTo(out);
+                    written += compressed.size() + 8;
+                }
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to append undo journal " + file.getName() + ": " + e.getMessage());
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    /* ---------------- Reading ---------------- */
+
+    /**
+     * Read only the header of a journal file.
+     */
+    public static Info readInfo(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return Info.read(in);
+        }
+    }
+
+    /**
+     * Streams the records of a journal one section at a time.
+     */
+    public static final class Reader implements Closeable {
+        private final DataInputStream in;
+        private final Info info;
+        private final Inflater inflater = new Inflater();
+        private boolean truncated = false;
+
+        public Reader(File file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                this.info = Info.read(in);
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        public Info getInfo() { return info; }
+
+        /** True if the journal ended with the size-limit marker. */
+        public boolean isTruncated() { return truncated; }
+
+        /**
+         * @return the next section, or null at the end (a record cut short by a crash also ends the journal)
+         */
+        public Section next() throws IOException {
+            int compressedLength;
+            int rawLength;
+            byte[] compressed;
+            try {
+                compressedLength = in.readInt();
+                if (compressedLength == TRUNCATED) {
+                    truncated = true;
+                    return null;
+                }
+                rawLength = in.readInt();
+                if (compressedLength <= 0 || rawLength <= 0) return null;
+                compressed = new byte[compressedLength];
+                in.readFully(compressed);
+            } catch (EOFException eof) {
+                return null;
+            }
+            byte[] raw = new byte[rawLength];
+            inflater.reset();
+            inflater.setInput(compressed);
+            try {
+                int n = 0;
+                while (n < rawLength && !inflater.finished()) n += inflater.inflate(raw, n, rawLength - n);
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt undo record: " + e.getMessage(), e);
+            }
+            DataInputStream rec = new DataInputStream(new ByteArrayInputStream(raw));
+            int chunkX = rec.readInt();
+            int chunkZ = rec.readInt();
+            int sectionY = rec.readInt();
+            String[] palette = new String[rec.readUnsignedShort()];
+            for (int i = 0; i < palette.length; i++) palette[i] = rec.readUTF();
+            int count = rec.readUnsignedShort();
+            short[] positions = new short[count];
+            short[] indices = new short[count];
+            for (int i = 0; i < count; i++) {
+                positions[i] = rec.readShort();
+                indices[i] = rec.readShort();
+            }
+            return new Section(chunkX, chunkZ, sectionY, palette, positions, indices);
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package me.d15c07d.chunkcleaners.journal;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.io.IoExecutor;
+import me.d15c07d.chunkcleaners.utils.MessageUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Owns the journal folder: opens a journal per running task, runs /chunkcleaners undo and prunes old journals.
+ *
+ * Retention: journals of tasks that are no longer running are deleted once older than journal.retention_hours,
+ * and the oldest ones go first while the folder exceeds journal.max_total_mb. A journal is deleted after it
+ * was undone completely.
+ */
+public class UndoJournalManager {
+
+    public enum UndoStart { STARTED, NOT_FOUND, ALREADY_RUNNING }
+
+    private final ChunkCleanersPlugin plugin;
+    private final File folder;
+    private final boolean enabled;
+
+    private final Map<UUID, UndoJournal> open = new ConcurrentHashMap<>();
+    // journals still writing their last records after close()
+    private final Map<UUID, CompletableFuture<Void>> closing = new ConcurrentHashMap<>();
+    private final Map<UUID, UndoTask> undoing = new ConcurrentHashMap<>();
+    // task ids with a journal on disk, for tab completion (refreshed by prune)
+    private final Set<UUID> known = ConcurrentHashMap.newKeySet();
+    private BukkitTask pruneTask;
+
+    public UndoJournalManager(ChunkCleanersPlugin plugin) {
+        this.plugin = plugin;
+        this.folder = new File(plugin.getDataFolder(), plugin.getConfig().getString("journal.folder", "journal"));
+        this.enabled = plugin.getConfig().getBoolean("journal.enabled", true);
+    }
+
+    public void start() {
+        long minutes = Math.max(1L, plugin.getConfig().getLong("journal.prune_interval_minutes", 60L));
+        plugin.getIoExecutor().execute(IoExecutor.Resource.JOURNAL, this::prune);
+        pruneTask = Bukkit.getScheduler().runTaskTimer(plugin,
+                () -> plugin.getIoExecutor().execute(IoExecutor.Resource.JOURNAL, this::prune),
+                minutes * 60L * 20L, minutes * 60L * 20L);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Journal for a starting (or resumed) task; appends to an existing file. Null when journaling is off.
+     */
+    public UndoJournal open(UndoJournal.Info info) {
+        if (!enabled) return null;
+        return open.computeIfAbsent(info.getTaskId(), id -> {
+            if (!folder.exists()) folder.mkdirs();
+            known.add(id);
+            return new UndoJournal(plugin, info, fileFor(id));
+        });
+    }
+
+    /**
+     * Stop recording for a task; completes once its records are on disk.
+     */
+    public CompletableFuture<Void> close(UUID taskId) {
+        UndoJournal j = open.remove(taskId);
+        if (j == null) return closing.getOrDefault(taskId, CompletableFuture.completedFuture(null));
+        CompletableFuture<Void> f = j.close();
+        closing.put(taskId, f);
+        f.whenComplete((ignored, err) -> closing.remove(taskId, f));
+        return f;
+    }
+
+    public Set<UUID> getKnownJournals() {
+        return Collections.unmodifiableSet(known);
+    }
+
+    public boolean isUndoing(UUID taskId) {
+        return undoing.containsKey(taskId);
+    }
+
+    /**
+     * Replay a task's journal. The task must no longer be running (callers cancel it first).
+     * Progress and the result are reported to the sender.
+     */
+    public UndoStart undo(CommandSender sender, UUID taskId) {
+        File file = fileFor(taskId);
+        if (undoing.containsKey(taskId)) return UndoStart.ALREADY_RUNNING;
+        if (!known.contains(taskId) && !open.containsKey(taskId)) return UndoStart.NOT_FOUND;
+        UUID senderUuid = sender instanceof Player ? ((Player) sender).getUniqueId() : null;
+        UndoTask task = new UndoTask(plugin, file, t -> finished(t, taskId, senderUuid));
+        undoing.put(taskId, task);
+        // let pending records of the task reach the file first
+        close(taskId).whenComplete((ignored, err) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if (!task.isCancelled()) task.start();
+        }));
+        return UndoStart.STARTED;
+    }
+
+    private void finished(UndoTask t, UUID taskId, UUID senderUuid) {
+        undoing.remove(taskId);
+        CommandSender to = senderUuid == null ? Bukkit.getConsoleSender() : Bukkit.getPlayer(senderUuid);
+        if (t.getFailure() != null) {
+            plugin.getLogger().warning("Undo of " + taskId + " stopped: " + t.getFailure());
+            if (to != null) {
+                to.sendMessage(MessageUtil.parse(plugin.getConfig().getString("messages.main.undo_failed", "<red>Undo of {id} stopped: {error}")
+                        .replace("{id}", taskId.toString()).replace("{error}", t.getFailure())));
+            }
+            return;
+        }
+        if (t.isCancelled()) return;
+        // fully replayed; a second replay would refill space cleared since
+        known.remove(taskId);
+        plugin.getIoExecutor().execute(IoExecutor.Resource.JOURNAL, () -> t.getFile().delete());
+        if (to != null) {
+            String msg = plugin.getConfig().getString("messages.main.undo_finished",
+                    "<green>Undo of {id} finished: <white>{restored}</white> blocks restored, <yellow>{skipped}</yellow> left as they are.");
+            msg = msg.replace("{id}", taskId.toString())
+                    .replace("{restored}", String.valueOf(t.getRestored()))
+                    .replace("{skipped}", String.valueOf(t.getSkipped()));
+            to.sendMessage(MessageUtil.parse(msg));
+            if (t.isTruncated()) {
+                to.sendMessage(MessageUtil.parse(plugin.getConfig().getString("messages.main.undo_truncated",
+                        "<yellow>The journal hit its size limit; blocks removed after that point could not be restored.")));
+            }
+        }
+    }
+
+    /**
+     * Delete expired journals and enforce the total size limit (I/O thread).
+     */
+    private void prune() {
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(UndoJournal.EXTENSION));
+        if (files == null) return;
+        long maxAgeMillis = Math.max(0L, plugin.getConfig().getLong("journal.retention_hours", 72L)) * 3600_000L;
+        long maxTotal = Math.max(1L, plugin.getConfig().getLong("journal.max_total_mb", 512L)) * 1024L * 1024L;
+        long now = System.currentTimeMillis();
+
+        List<File> candidates = new ArrayList<>();
+        Set<UUID> seen = new HashSet<>();
+        long total = 0L;
+        for (File f : files) {
+            UUID id = idOf(f);
+            if (id == null) continue;
+            boolean inUse = open.containsKey(id) || closing.containsKey(id) || undoing.containsKey(id);
+            if (!inUse && now - f.lastModified() > maxAgeMillis) {
+                if (f.delete()) continue;
+            }
+            seen.add(id);
+            total += f.length();
+            if (!inUse) candidates.add(f);
+        }
+        candidates.sort(Comparator.comparingLong(File::lastModified));
+        for (File f : candidates) {
+            if (total <= maxTotal) break;
+            long len = f.length();
+            if (f.delete()) {
+                total -= len;
+                seen.remove(idOf(f));
+            }
+        }
+        known.removeIf(id -> !seen.contains(id) && !open.containsKey(id) && !closing.containsKey(id));
+        known.addAll(seen);
+    }
+
+    /**
+     * Header of a journal on disk (blocking; call from the I/O executor).
+     */
+    public UndoJournal.Info readInfo(UUID taskId) throws IOException {
+        return UndoJournal.readInfo(fileFor(taskId));
+    }
+
+    public void shutdown() {
+        if (pruneTask != null) {
+            try { pruneTask.cancel(); } catch (Throwable ignored) {}
+            pruneTask = null;
+        }
+        for (UndoTask t : undoing.values()) t.cancel();
+        undoing.clear();
+        for (UUID id : new ArrayList<>(open.keySet())) close(id);
+    }
+
+    private File fileFor(UUID taskId) {
+        return new File(folder, taskId + UndoJournal.EXTENSION);
+    }
+
+    private static UUID idOf(File f) {
+        String name = f.getName();
+        try {
+            return UUID.fromString(name.substring(0, name.length() - UndoJournal.EXTENSION.length()));
+        } catch (IllegalArgumentException iae) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package me.d15c07d.chunkcleaners.journal;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.config.ConfigManager;
+import me.d15c07d.chunkcleaners.io.IoExecutor;
+import me.d15c07d.chunkcleaners.task.ThrottlePlan;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Replays an undo journal into the world.
+ *
+ * Uses the same throttle as the cleaner that wrote it: every interval of {@link ThrottlePlan} (after TPS
+ * scaling) restores at most chunksPerInterval * yBatchSize layers worth of blocks. Sections are read on the
+ * I/O executor one budget at a time, so only the next batch is ever held in memory. A block is only put back
+ * where the world is still air, so anything built since the clear is left alone.
+ */
+public class UndoTask {
+
+    private final ChunkCleanersPlugin plugin;
+    private final File file;
+    private final Consumer<UndoTask> onDone;
+
+    private UndoJournal.Reader reader;
+    private BukkitTask schedulerTask;
+    private ThrottlePlan plan;
+    private boolean readInFlight = false;
+    private volatile boolean exhausted = false;
+    private volatile boolean cancelled = false;
+
+    private long restored = 0L;
+    private long skipped = 0L;
+    private volatile boolean truncated = false;
+    private String failure;
+
+    public UndoTask(ChunkCleanersPlugin plugin, File file, Consumer<UndoTask> onDone) {
+        this.plugin = plugin;
+        this.file = file;
+        this.onDone = onDone;
+    }
+
+    /**
+     * Open the journal off-thread, then start restoring on the main thread.
+     */
+    public void start() {
+        plugin.getIoExecutor().submit(IoExecutor.Resource.JOURNAL, () -> new UndoJournal.Reader(file))
+                .whenComplete((r, err) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (err != null) {
+                        failure = err.getMessage() == null ? err.getClass().getSimpleName() : err.getMessage();
+                        done();
+                        return;
+                    }
+                    reader = r;
+                    if (cancelled) {
+                        done();
+                        return;
+                    }
+                    // same plan the cleaner ran with
+                    int size = Math.max(1, r.getInfo().getSize());
+                    int duration = plugin.getConfigManager().getType(r.getInfo().getTypeKey())
+                            .map(ConfigManager.CleanerType::getDurationSeconds).orElse(1);
+                    plan = ThrottlePlan.compute(plugin, size, duration, Math.max(1, r.getInfo().getChunkCount()));
+                    schedulerTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, Math.max(1L, plan.getIntervalTicks()));
+                }));
+    }
+
+    public void cancel() {
+        cancelled = true;
+        if (schedulerTask != null) schedulerTask.cancel();
+        closeReader();
+    }
+
+    public UndoJournal.Info getInfo() { return reader == null ? null : reader.getInfo(); }
+    public File getFile() { return file; }
+    public long getRestored() { return restored; }
+    public long getSkipped() { return skipped; }
+    public boolean isTruncated() { return truncated; }
+    public boolean isCancelled() { return cancelled; }
+    /** Error that stopped the replay, or null. */
+    public String getFailure() { return failure; }
+
+    private void tick() {
+        if (cancelled || readInFlight) return;
+        if (exhausted) {
+            done();
+            return;
+        }
+        ThrottlePlan current = plan.underTps(plugin, ThrottlePlan.currentTps(plugin));
+        long budget = (long) current.getChunksPerInterval() * current.getYBatchSize() * 256L;
+        readInFlight = true;
+        plugin.getIoExecutor().submit(IoExecutor.Resource.JOURNAL, () -> readBatch(budget))
+                .whenComplete((batch, err) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                    readInFlight = false;
+                    if (cancelled) return;
+                    if (err != null) {
+                        failure = err.getMessage() == null ? err.getClass().getSimpleName() : err.getMessage();
+                        done();
+                        return;
+                    }
+                    apply(batch);
+                }));
+    }
+
+    private List<UndoJournal.Section> readBatch(long budget) throws IOException {
+        List<UndoJournal.Section> out = new ArrayList<>();
+        long blocks = 0;
+        while (blocks < budget) {
+            UndoJournal.Section s = reader.next();
+            if (s == null) {
+                exhausted = true;
+                truncated = reader.isTruncated();
+                break;
+            }
+            out.add(s);
+            blocks += s.size();
+        }
+        return out;
+    }
+
+    private void apply(List<UndoJournal.Section> batch) {
+        World world = Bukkit.getWorld(reader.getInfo().getWorldName());
+        if (world == null) {
+            failure = "world not loaded: " + reader.getInfo().getWorldName();
+            done();
+            return;
+        }
+        for (UndoJournal.Section s : batch) {
+            BlockData[] parsed = new BlockData[s.getPalette().length];
+            boolean[] invalid = new boolean[parsed.length];
+            int baseX = s.getChunkX() << 4;
+            int baseY = s.getSectionY() << 4;
+            int baseZ = s.getChunkZ() << 4;
+            for (int i = 0; i < s.size(); i++) {
+                int idx = s.getPaletteIndex(i);
+                if (idx < 0 || idx >= parsed.length || invalid[idx]) {
+                    skipped++;
+                    continue;
+                }
+                if (parsed[idx] == null) {
+                    try {
+                        parsed[idx] = Bukkit.createBlockData(s.getPalette()[idx]);
+                    } catch (IllegalArgumentException iae) {
+                        // state written by another server version
+                        invalid[idx] = true;
+                        skipped++;
+                        continue;
+                    }
+                }
+                int pos = s.getPosition(i);
+                Block block = world.getBlockAt(baseX + (pos & 15), baseY + (pos >> 8), baseZ + ((pos >> 4) & 15));
+                if (block.getType() != Material.AIR) {
+                    skipped++;
+                    continue;
+                }
+                block.setBlockData(parsed[idx], false);
+                restored++;
+            }
+        }
+    }
+
+    private void done() {
+        if (schedulerTask != null) schedulerTask.cancel();
+        closeReader();
+        onDone.accept(this);
+    }
+
+    private void closeReader() {
+        if (reader == null) return;
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
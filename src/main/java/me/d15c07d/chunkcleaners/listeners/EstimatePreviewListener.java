@@ -0,0 +1,71 @@
+package me.d15c07d.chunkcleaners.listeners;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.ItemFactory;
+import me.d15c07d.chunkcleaners.config.ConfigManager;
+import me.d15c07d.chunkcleaners.utils.ActionBarUtil;
+import me.d15c07d.chunkcleaners.utils.MessageUtil;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Shows a prescan summary in the action bar when a player switches to a cleaner item, so they can see what a
+ * placement right here would remove and how long it would take. Rate limited per player by
+ * estimate.preview_cooldown_seconds.
+ */
+public class EstimatePreviewListener implements Listener {
+
+    private final ChunkCleanersPlugin plugin;
+    private final Map<UUID, Long> lastPreview = new HashMap<>();
+
+    public EstimatePreviewListener(ChunkCleanersPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemHeld(PlayerItemHeldEvent ev) {
+        if (!plugin.getConfig().getBoolean("estimate.preview_on_hold", true)) return;
+        Player p = ev.getPlayer();
+        if (!p.hasPermission("chunkcleaners.estimate")) return;
+        ItemStack item = p.getInventory().getItem(ev.getNewSlot());
+        String typeKey = ItemFactory.readCleanerType(plugin, item);
+        if (typeKey == null) return;
+        Optional<ConfigManager.CleanerType> type = plugin.getConfigManager().getType(typeKey);
+        if (type.isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        long cooldown = Math.max(0L, plugin.getConfig().getLong("estimate.preview_cooldown_seconds", 5L)) * 1000L;
+        Long last = lastPreview.get(p.getUniqueId());
+        if (last != null && now - last < cooldown) return;
+        lastPreview.put(p.getUniqueId(), now);
+
+        int slot = ev.getNewSlot();
+        plugin.getCleanerManager().getEstimator().estimate(p.getUniqueId(), p.getLocation(), type.get()).thenAccept(est -> {
+            // only show it if the player still holds the cleaner
+            if (!p.isOnline() || p.getInventory().getHeldItemSlot() != slot) return;
+            String msg = plugin.getConfig().getString("messages.main.estimate_preview",
+                            "<gold>{type}<gray>: <white>{blocks}</white> blocks, ~<white>{seconds}s</white>, <yellow>{skipped}</yellow> protected chunks")
+                    .replace("{type}", est.getTypeKey())
+                    .replace("{blocks}", String.valueOf(est.getTotalBlocks()))
+                    .replace("{seconds}", String.valueOf(est.getPredictedSeconds()))
+                    .replace("{skipped}", String.valueOf(est.getSkippedChunks().size()));
+            ActionBarUtil.sendActionBar(p, MessageUtil.parse(msg));
+        });
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent ev) {
+        lastPreview.remove(ev.getPlayer().getUniqueId());
+        plugin.getCleanerManager().getEstimator().forget(ev.getPlayer().getUniqueId());
+    }
+}
@@ -1,34 +1,27 @@
 package me.d15c07d.chunkcleaners.listeners;
 
 import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.ItemFactory;
+import me.d15c07d.chunkcleaners.config.CleanerTypeRegistry;
 import me.d15c07d.chunkcleaners.config.ConfigManager;
 import me.d15c07d.chunkcleaners.task.ChunkCleanerManager;
-import org.bukkit.NamespacedKey;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.block.Block;
 import org.bukkit.Location;
-import org.bukkit.Material;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
 
 
 public class PlacementListener implements Listener {
 
     private final ChunkCleanersPlugin plugin;
     private final ChunkCleanerManager manager;
-    private final NamespacedKey typeKey;
 
     public PlacementListener(ChunkCleanersPlugin plugin) {
         this.plugin = plugin;
         this.manager = plugin.getCleanerManager();
-        this.typeKey = new NamespacedKey(plugin, "chunkcleaner-type");
     }
 
     @EventHandler(ignoreCancelled = true)
@@ -38,48 +31,21 @@ public class PlacementListener implements Listener {
         if (!(ev.getPlayer() instanceof Player)) return;
         Player p = ev.getPlayer();
 
-        // 1) Try PDC detection first
-        String configuredTypeKey = null;
-        try {
-            if (item.hasItemMeta() && item.getItemMeta().getPersistentDataContainer().has(typeKey, PersistentDataType.STRING)) {
-                configuredTypeKey = item.getItemMeta().getPersistentDataContainer().get(typeKey, PersistentDataType.STRING);
-            }
-        } catch (Throwable ignored) {}
+        // most placed blocks are not cleaners: one material lookup before touching the item
+        CleanerTypeRegistry registry = plugin.getConfigManager().getRegistry();
+        Block placed = ev.getBlockPlaced();
+        ConfigManager.CleanerType byBlock = registry.forMaterial(placed.getType());
+        if (byBlock == null && !registry.isCleanerMaterial(item.getType())) return;
 
-        if (configuredTypeKey == null) {
-            Block placed = ev.getBlockPlaced();
-            if (placed != null) {
-                Material mat = placed.getType();
-                // iterate configured types to find matches
-                var typesSection = plugin.getConfig().getConfigurationSection("types");
-                if (typesSection != null) {
-                    List<String> matches = new ArrayList<>();
-                    for (String key : typesSection.getKeys(false)) {
-                        String cfgBlock = plugin.getConfig().getString("types." + key + ".block", "");
-                        if (cfgBlock != null && !cfgBlock.isEmpty()) {
-                            try {
-                                Material cfgMat = Material.valueOf(cfgBlock.toUpperCase(Locale.ROOT));
-                                if (cfgMat == mat) matches.add(key);
-                            } catch (IllegalArgumentException ignored) { /* invalid material in config - skip */ }
-                        }
-                    }
-                    if (matches.size() == 1) {
-                        configuredTypeKey = matches.get(0);
-                    } else if (matches.size() > 1) {
-                        // ambiguous: choose first as fallback
-                        configuredTypeKey = matches.get(0);
-                    }
-                }
-            }
+        // tagged items carry their type; untagged ones of a cleaner material fall back to the block's type
+        ConfigManager.CleanerType type = byBlock;
+        String taggedKey = ItemFactory.readCleanerType(plugin, item);
+        if (taggedKey != null) {
+            var tagged = registry.get(taggedKey);
+            if (tagged.isEmpty()) return; // not a configured cleaner type; skip
+            type = tagged.get();
         }
-
-        if (configuredTypeKey == null) return;
-
-        // Validate type exists in config
-        var typeOpt = plugin.getConfigManager().getType(configuredTypeKey);
-        if (typeOpt.isEmpty()) return; // not a configured cleaner type; skip
-
-        ConfigManager.CleanerType type = typeOpt.get();
+        if (type == null) return;
 
         // Protection check: canPlaceInRegion (IntegrationManager) - if false, cancel placement
         Location loc = ev.getBlockPlaced().getLocation();
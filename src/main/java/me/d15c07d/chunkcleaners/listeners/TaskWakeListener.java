@@ -0,0 +1,43 @@
+package me.d15c07d.chunkcleaners.listeners;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Parks and wakes cleaner tasks on the events that decide whether they can run: their owner joining or
+ * leaving (when protection checks need the owner online) and their world loading or unloading.
+ */
+public class TaskWakeListener implements Listener {
+
+    private final ChunkCleanersPlugin plugin;
+
+    public TaskWakeListener(ChunkCleanersPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent ev) {
+        plugin.getCleanerManager().onOwnerJoin(ev.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent ev) {
+        plugin.getCleanerManager().onOwnerQuit(ev.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent ev) {
+        plugin.getCleanerManager().onWorldLoad(ev.getWorld().getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent ev) {
+        plugin.getCleanerManager().onWorldUnload(ev.getWorld().getName());
+    }
+}
@@ -0,0 +1,68 @@
+package me.d15c07d.chunkcleaners.profiler;
+
+/**
+ * Small log-linear latency histogram (nanoseconds).
+ *
+ * Each power-of-two range is split into 4 sub-buckets, so reported percentiles are within ~25%
+ * of the real value while the whole histogram stays a fixed 256-slot array (no per-sample allocation).
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count = 0L;
+    private long totalNanos = 0L;
+    private long maxNanos = 0L;
+
+    public synchronized void record(long nanos) {
+        if (nanos < 0L) nanos = 0L;
+        counts[indexOf(nanos)]++;
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) maxNanos = nanos;
+    }
+
+    public synchronized void reset() {
+        java.util.Arrays.fill(counts, 0L);
+        count = 0L;
+        totalNanos = 0L;
+        maxNanos = 0L;
+    }
+
+    public synchronized long getCount() { return count; }
+    public synchronized long getTotalNanos() { return totalNanos; }
+    public synchronized long getMaxNanos() { return maxNanos; }
+
+    /**
+     * Approximate quantile (0..1). Returns the upper bound of the bucket holding the quantile,
+     * clamped to the observed maximum.
+     */
+    public synchronized long quantile(double q) {
+        if (count == 0L) return 0L;
+        long target = Math.max(1L, (long) Math.ceil(Math.max(0.0, Math.min(1.0, q)) * count));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) return Math.min(maxNanos, upperBoundOf(i));
+        }
+        return maxNanos;
+    }
+
+    private static int indexOf(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) nanos;
+        int msb = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) ((nanos >>> (msb - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return msb * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBoundOf(int index) {
+        int msb = index / SUB_BUCKETS;
+        int sub = index % SUB_BUCKETS;
+        if (msb < SUB_BUCKET_BITS) return index;
+        long base = (long) (SUB_BUCKETS + sub + 1) << (msb - SUB_BUCKET_BITS);
+        return base - 1L;
+    }
+}
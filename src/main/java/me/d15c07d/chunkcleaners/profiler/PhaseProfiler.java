@@ -0,0 +1,208 @@
+package me.d15c07d.chunkcleaners.profiler;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Lightweight phase timers for cleaner work.
+ *
+ * Usage at a call site:
+ * <pre>
+ *   long t0 = profiler.begin();
+ *   ... work ...
+ *   profiler.end(Phase.BLOCK_LOOP, taskId, t0);
+ * </pre>
+ * While no sampling session is running {@link #begin()} returns 0 without reading the clock and
+ * {@link #end} returns immediately, so the timers cost a volatile read per call site.
+ */
+public class PhaseProfiler {
+
+    public enum Phase {
+        CHUNK_LOAD("chunk load"),
+        PROTECTION_CHECK("protection check"),
+        BLOCK_LOOP("block loop"),
+        ENTITY_REMOVAL("entity removal"),
+        COREPROTECT_ENQUEUE("coreprotect enqueue"),
+        COREPROTECT_FLUSH("coreprotect flush"),
+        SAVE_PROGRESS("saveTaskProgress"),
+        SAVE_ALL("save all"),
+        UPDATE_VISUALS("updateVisuals");
+
+        private final String label;
+
+        Phase(String label) { this.label = label; }
+
+        public String getLabel() { return label; }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final ChunkCleanersPlugin plugin;
+    private final LatencyHistogram[] histograms = new LatencyHistogram[PHASES.length];
+    private final Map<UUID, long[]> perTaskNanos = new ConcurrentHashMap<>();
+
+    private volatile boolean sampling = false;
+    private BukkitTask sessionTask;
+    private long sessionStartedAt;
+
+    public PhaseProfiler(ChunkCleanersPlugin plugin) {
+        this.plugin = plugin;
+        for (int i = 0; i < histograms.length; i++) histograms[i] = new LatencyHistogram();
+    }
+
+    /**
+     * Start timestamp for a phase, or 0 when not sampling.
+     */
+    public long begin() {
+        return sampling ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Record a phase that started at {@code startNanos} (value returned by {@link #begin()}).
+     *
+     * @param taskId task the work was done for (may be null for shared work such as a full save)
+     */
+    public void end(Phase phase, UUID taskId, long startNanos) {
+        if (startNanos == 0L || !sampling) return;
+        long elapsed = System.nanoTime() - startNanos;
+        histograms[phase.ordinal()].record(elapsed);
+        if (taskId != null) {
+            long[] totals = perTaskNanos.computeIfAbsent(taskId, k -> new long[PHASES.length]);
+            synchronized (totals) {
+                totals[phase.ordinal()] += elapsed;
+            }
+        }
+    }
+
+    public boolean isSampling() { return sampling; }
+
+    /**
+     * Begin a sampling window. The report is handed to {@code onComplete} on the main thread once the window closes.
+     *
+     * @return false if a session is already running
+     */
+    public synchronized boolean startSession(int seconds, Consumer<Report> onComplete) {
+        if (sampling) return false;
+        for (LatencyHistogram h : histograms) h.reset();
+        perTaskNanos.clear();
+        sessionStartedAt = System.currentTimeMillis();
+        sampling = true;
+        sessionTask = Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            Report report = stopSession();
+            if (report != null && onComplete != null) onComplete.accept(report);
+        }, Math.max(1, seconds) * 20L);
+        return true;
+    }
+
+    /**
+     * Close the current window (if any) and build its report.
+     */
+    public synchronized Report stopSession() {
+        if (!sampling) return null;
+        sampling = false;
+        if (sessionTask != null) {
+            try { sessionTask.cancel(); } catch (Throwable ignored) {}
+            sessionTask = null;
+        }
+        long windowMillis = Math.max(1L, System.currentTimeMillis() - sessionStartedAt);
+
+        List<PhaseStats> phases = new ArrayList<>();
+        for (Phase p : PHASES) {
+            LatencyHistogram h = histograms[p.ordinal()];
+            if (h.getCount() == 0L) continue;
+            phases.add(new PhaseStats(p, h.getCount(), h.getTotalNanos(), h.quantile(0.50), h.quantile(0.99), h.getMaxNanos()));
+        }
+
+        List<TaskStats> tasks = new ArrayList<>();
+        for (Map.Entry<UUID, long[]> e : perTaskNanos.entrySet()) {
+            long[] copy;
+            synchronized (e.getValue()) {
+                copy = e.getValue().clone();
+            }
+            tasks.add(new TaskStats(e.getKey(), copy));
+        }
+        tasks.sort(Comparator.comparingLong(TaskStats::getTotalNanos).reversed());
+        return new Report(windowMillis, phases, tasks);
+    }
+
+    public void shutdown() {
+        stopSession();
+    }
+
+    /* ---------------- Report types ---------------- */
+
+    public static class Report {
+        private final long windowMillis;
+        private final List<PhaseStats> phases;
+        private final List<TaskStats> tasks;
+
+        Report(long windowMillis, List<PhaseStats> phases, List<TaskStats> tasks) {
+            this.windowMillis = windowMillis;
+            this.phases = phases;
+            this.tasks = tasks;
+        }
+
+        public long getWindowMillis() { return windowMillis; }
+        public List<PhaseStats> getPhases() { return phases; }
+        public List<TaskStats> getTasks() { return tasks; }
+    }
+
+    public static class PhaseStats {
+        private final Phase phase;
+        private final long count;
+        private final long totalNanos;
+        private final long p50Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        PhaseStats(Phase phase, long count, long totalNanos, long p50Nanos, long p99Nanos, long maxNanos) {
+            this.phase = phase;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public Phase getPhase() { return phase; }
+        public long getCount() { return count; }
+        public long getTotalNanos() { return totalNanos; }
+        public long getP50Nanos() { return p50Nanos; }
+        public long getP99Nanos() { return p99Nanos; }
+        public long getMaxNanos() { return maxNanos; }
+    }
+
+    public static class TaskStats {
+        private final UUID taskId;
+        private final long[] nanosByPhase;
+        private final long totalNanos;
+
+        TaskStats(UUID taskId, long[] nanosByPhase) {
+            this.taskId = taskId;
+            this.nanosByPhase = nanosByPhase;
+            long sum = 0L;
+            for (long n : nanosByPhase) sum += n;
+            this.totalNanos = sum;
+        }
+
+        public UUID getTaskId() { return taskId; }
+        public long getTotalNanos() { return totalNanos; }
+        public long getNanos(Phase phase) { return nanosByPhase[phase.ordinal()]; }
+
+        /**
+         * Phase with the largest share of this task's time.
+         */
+        public Phase getHeaviestPhase() {
+            int best = 0;
+            for (int i = 1; i < nanosByPhase.length; i++) {
+                if (nanosByPhase[i] > nanosByPhase[best]) best = i;
+            }
+            return PHASES[best];
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package me.d15c07d.chunkcleaners.region;
+
+import me.d15c07d.chunkcleaners.region.NbtIO.NbtList;
+
+import java.util.*;
+
+/**
+ * Clears the block palettes of a serialized (1.18+) chunk, mirroring what a cleaner does in-game:
+ * every block between minY and maxY becomes air except bedrock.
+ *
+ * Besides the palettes it drops block entities and scheduled ticks in the cleared range, removes stored light
+ * and heightmaps and clears isLightOn, so the server recomputes light and heightmaps when the chunk is next loaded.
+ */
+public final class ChunkNbtCleaner {
+
+    public enum Result { CLEARED, UNCHANGED, UNSUPPORTED }
+
+    // first data version using the 1.18 section layout (root "sections", "block_states" palettes)
+    private static final int MIN_DATA_VERSION = 2860;
+    private static final String AIR = "minecraft:air";
+    private static final Set<String> AIR_NAMES = Set.of(AIR, "minecraft:cave_air", "minecraft:void_air");
+    private static final Set<String> KEEP_NAMES = Set.of("minecraft:bedrock");
+
+    private ChunkNbtCleaner() { /* no instances */ }
+
+    /**
+     * @param minY lowest world Y to clear (inclusive)
+     * @param maxY highest world Y to clear (exclusive)
+     * @param removed block name -> removed count, filled in by this call
+     */
+    @SuppressWarnings("unchecked")
+    public static Result clean(Map<String, Object> root, int minY, int maxY, Map<String, Integer> removed) {
+        Object dataVersion = root.get("DataVersion");
+        if (!(dataVersion instanceof Integer) || (Integer) dataVersion < MIN_DATA_VERSION) return Result.UNSUPPORTED;
+        // proto-chunks are still being generated; editing them would be undone by the generator
+        Object status = root.get("Status");
+        if (!(status instanceof String) || !((String) status).endsWith("full")) return Result.UNSUPPORTED;
+        Object sections = root.get("sections");
+        if (!(sections instanceof NbtList)) return Result.UNSUPPORTED;
+
+        boolean changed = false;
+        for (Object o : ((NbtList) sections).getValues()) {
+            if (!(o instanceof Map)) continue;
+            Map<String, Object> section = (Map<String, Object>) o;
+            if (cleanSection(section, minY, maxY, removed)) {
+                section.remove("SkyLight");
+                section.remove("BlockLight");
+                changed = true;
+            }
+        }
+        if (!changed) return Result.UNCHANGED;
+
+        filterByY(root, "block_entities", minY, maxY);
+        filterByY(root, "block_ticks", minY, maxY);
+        filterByY(root, "fluid_ticks", minY, maxY);
+        root.remove("Heightmaps");
+        root.put("isLightOn", (byte) 0);
+        return Result.CLEARED;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean cleanSection(Map<String, Object> section, int minY, int maxY, Map<String, Integer> removed) {
+        Object sy = section.get("Y");
+        Object states = section.get("block_states");
+        if (!(sy instanceof Number) || !(states instanceof Map)) return false;
+        int baseY = ((Number) sy).intValue() << 4;
+        if (baseY + 15 < minY || baseY >= maxY) return false;
+
+        Map<String, Object> blockStates = (Map<String, Object>) states;
+        Object paletteObj = blockStates.get("palette");
+        if (!(paletteObj instanceof NbtList)) return false;
+        List<Object> palette = ((NbtList) paletteObj).getValues();
+        int size = palette.size();
+        if (size == 0) return false;
+
+        String[] names = new String[size];
+        boolean anyRemovable = false;
+        for (int i = 0; i < size; i++) {
+            Object entry = palette.get(i);
+            Object name = entry instanceof Map ? ((Map<String, Object>) entry).get("Name") : null;
+            names[i] = name instanceof String ? (String) name : AIR;
+            if (isRemovable(names[i])) anyRemovable = true;
+        }
+        if (!anyRemovable) return false;
+
+        int[] indices = decode(blockStates.get("data"), size);
+        if (indices == null) return false;
+
+        int airIndex = -1;
+        for (int i = 0; i < size; i++) {
+            if (AIR.equals(names[i])) { airIndex = i; break; }
+        }
+        List<Object> newPalette = new ArrayList<>(palette);
+        if (airIndex < 0) {
+            Map<String, Object> air = new LinkedHashMap<>();
+            air.put("Name", AIR);
+            newPalette.add(air);
+            airIndex = newPalette.size() - 1;
+        }
+
+        boolean changed = false;
+        for (int i = 0; i < 4096; i++) {
+            int y = baseY + (i >> 8);
+            if (y < minY || y >= maxY) continue;
+            int idx = indices[i];
+            if (idx < 0 || idx >= size || !isRemovable(names[idx])) continue;
+            removed.merge(names[idx], 1, Integer::sum);
+            indices[i] = airIndex;
+            changed = true;
+        }
+        if (!changed) return false;
+
+        // compact the palette to the entries still in use and repack
+        int[] remap = new int[newPalette.size()];
+        Arrays.fill(remap, -1);
+        List<Object> compact = new ArrayList<>();
+        for (int i = 0; i < 4096; i++) {
+            int idx = indices[i];
+            if (remap[idx] < 0) {
+                remap[idx] = compact.size();
+                compact.add(newPalette.get(idx));
+            }
+            indices[i] = remap[idx];
+        }
+        blockStates.put("palette", new NbtList(NbtIO.TAG_COMPOUND, compact));
+        if (compact.size() == 1) blockStates.remove("data");
+        else blockStates.put("data", encode(indices, compact.size()));
+        return true;
+    }
+
+    private static boolean isRemovable(String name) {
+        return !AIR_NAMES.contains(name) && !KEEP_NAMES.contains(name);
+    }
+
+    private static int bitsFor(int paletteSize) {
+        return Math.max(4, 32 - Integer.numberOfLeadingZeros(paletteSize - 1));
+    }
+
+    // entries never span two longs (1.16+ packing)
+    private static int[] decode(Object data, int paletteSize) {
+        int[] out = new int[4096];
+        if (paletteSize == 1) return out;
+        if (!(data instanceof long[])) return null;
+        long[] longs = (long[]) data;
+        int bits = bitsFor(paletteSize);
+        int perLong = 64 / bits;
+        if (longs.length < (4096 + perLong - 1) / perLong) return null;
+        long mask = (1L << bits) - 1;
+        for (int i = 0; i < 4096; i++) {
+            out[i] = (int) ((longs[i / perLong] >>> ((i % perLong) * bits)) & mask);
+        }
+        return out;
+    }
+
+    private static long[] encode(int[] indices, int paletteSize) {
+        int bits = bitsFor(paletteSize);
+        int perLong = 64 / bits;
+        long[] longs = new long[(4096 + perLong - 1) / perLong];
+        for (int i = 0; i < 4096; i++) {
+            longs[i / perLong] |= ((long) indices[i]) << ((i % perLong) * bits);
+        }
+        return longs;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void filterByY(Map<String, Object> root, String key, int minY, int maxY) {
+        Object list = root.get(key);
+        if (!(list instanceof NbtList)) return;
+        ((NbtList) list).getValues().removeIf(o -> {
+            if (!(o instanceof Map)) return false;
+            Object y = ((Map<String, Object>) o).get("y");
+            if (!(y instanceof Number)) return false;
+            int v = ((Number) y).intValue();
+            return v >= minY && v < maxY;
+        });
+    }
+}
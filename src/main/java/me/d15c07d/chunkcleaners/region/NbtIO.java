@@ -0,0 +1,188 @@
+package me.d15c07d.chunkcleaners.region;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal NBT codec for region-file chunks.
+ *
+ * Tags map to plain Java values: Byte, Short, Integer, Long, Float, Double, byte[], String, int[], long[],
+ * {@link NbtList} for lists (keeps the element type so empty lists round-trip) and
+ * {@code Map<String, Object>} (insertion ordered) for compounds.
+ */
+public final class NbtIO {
+
+    public static final byte TAG_END = 0;
+    public static final byte TAG_BYTE = 1;
+    public static final byte TAG_SHORT = 2;
+    public static final byte TAG_INT = 3;
+    public static final byte TAG_LONG = 4;
+    public static final byte TAG_FLOAT = 5;
+    public static final byte TAG_DOUBLE = 6;
+    public static final byte TAG_BYTE_ARRAY = 7;
+    public static final byte TAG_STRING = 8;
+    public static final byte TAG_LIST = 9;
+    public static final byte TAG_COMPOUND = 10;
+    public static final byte TAG_INT_ARRAY = 11;
+    public static final byte TAG_LONG_ARRAY = 12;
+
+    // nesting guard against corrupt data
+    private static final int MAX_DEPTH = 512;
+
+    private NbtIO() { /* no instances */ }
+
+    public static final class NbtList {
+        private final byte elementType;
+        private final List<Object> values;
+
+        public NbtList(byte elementType, List<Object> values) {
+            this.elementType = elementType;
+            this.values = values;
+        }
+
+        public byte getElementType() { return elementType; }
+        public List<Object> getValues() { return values; }
+    }
+
+    /**
+     * Read a named root compound (the root name is discarded).
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> readRoot(DataInput in) throws IOException {
+        byte type = in.readByte();
+        if (type != TAG_COMPOUND) throw new IOException("Root tag is not a compound: " + type);
+        in.readUTF();
+        return (Map<String, Object>) readPayload(in, type, 0);
+    }
+
+    public static void writeRoot(DataOutput out, Map<String, Object> root) throws IOException {
+        out.writeByte(TAG_COMPOUND);
+        out.writeUTF("");
+        writePayload(out, TAG_COMPOUND, root);
+    }
+
+    private static Object readPayload(DataInput in, byte type, int depth) throws IOException {
+        if (depth > MAX_DEPTH) throw new IOException("NBT nested too deeply");
+        switch (type) {
+            case TAG_BYTE: return in.readByte();
+            case TAG_SHORT: return in.readShort();
+            case TAG_INT: return in.readInt();
+            case TAG_LONG: return in.readLong();
+            case TAG_FLOAT: return in.readFloat();
+            case TAG_DOUBLE: return in.readDouble();
+            case TAG_BYTE_ARRAY: {
+                byte[] arr = new byte[checkedLength(in.readInt())];
+                in.readFully(arr);
+                return arr;
+            }
+            case TAG_STRING: return in.readUTF();
+            case TAG_LIST: {
+                byte elementType = in.readByte();
+                int len = checkedLength(in.readInt());
+                List<Object> values = new ArrayList<>(Math.min(len, 1024));
+                for (int i = 0; i < len; i++) values.add(readPayload(in, elementType, depth + 1));
+                return new NbtList(elementType, values);
+            }
+            case TAG_COMPOUND: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                while (true) {
+                    byte child = in.readByte();
+                    if (child == TAG_END) break;
+                    String name = in.readUTF();
+                    map.put(name, readPayload(in, child, depth + 1));
+                }
+                return map;
+            }
+            case TAG_INT_ARRAY: {
+                int[] arr = new int[checkedLength(in.readInt())];
+                for (int i = 0; i < arr.length; i++) arr[i] = in.readInt();
+                return arr;
+            }
+            case TAG_LONG_ARRAY: {
+                long[] arr = new long[checkedLength(in.readInt())];
+                for (int i = 0; i < arr.length; i++) arr[i] = in.readLong();
+                return arr;
+            }
+            default:
+                throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writePayload(DataOutput out, byte type, Object value) throws IOException {
+        switch (type) {
+            case TAG_BYTE: out.writeByte((Byte) value); break;
+            case TAG_SHORT: out.writeShort((Short) value); break;
+            case TAG_INT: out.writeInt((Integer) value); break;
+            case TAG_LONG: out.writeLong((Long) value); break;
+            case TAG_FLOAT: out.writeFloat((Float) value); break;
+            case TAG_DOUBLE: out.writeDouble((Double) value); break;
+            case TAG_BYTE_ARRAY: {
+                byte[] arr = (byte[]) value;
+                out.writeInt(arr.length);
+                out.write(arr);
+                break;
+            }
+            case TAG_STRING: out.writeUTF((String) value); break;
+            case TAG_LIST: {
+                NbtList list = (NbtList) value;
+                byte elementType = list.getElementType();
+                if (elementType == TAG_END && !list.getValues().isEmpty()) elementType = typeOf(list.getValues().get(0));
+                out.writeByte(elementType);
+                out.writeInt(list.getValues().size());
+                for (Object o : list.getValues()) writePayload(out, elementType, o);
+                break;
+            }
+            case TAG_COMPOUND: {
+                for (Map.Entry<String, Object> e : ((Map<String, Object>) value).entrySet()) {
+                    byte childType = typeOf(e.getValue());
+                    out.writeByte(childType);
+                    out.writeUTF(e.getKey());
+                    writePayload(out, childType, e.getValue());
+                }
+                out.writeByte(TAG_END);
+                break;
+            }
+            case TAG_INT_ARRAY: {
+                int[] arr = (int[]) value;
+                out.writeInt(arr.length);
+                for (int v : arr) out.writeInt(v);
+                break;
+            }
+            case TAG_LONG_ARRAY: {
+                long[] arr = (long[]) value;
+                out.writeInt(arr.length);
+                for (long v : arr) out.writeLong(v);
+                break;
+            }
+            default:
+                throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+
+    public static byte typeOf(Object value) throws IOException {
+        if (value instanceof Byte) return TAG_BYTE;
+        if (value instanceof Short) return TAG_SHORT;
+        if (value instanceof Integer) return TAG_INT;
+        if (value instanceof Long) return TAG_LONG;
+        if (value instanceof Float) return TAG_FLOAT;
+        if (value instanceof Double) return TAG_DOUBLE;
+        if (value instanceof byte[]) return TAG_BYTE_ARRAY;
+        if (value instanceof String) return TAG_STRING;
+        if (value instanceof NbtList) return TAG_LIST;
+        if (value instanceof Map) return TAG_COMPOUND;
+        if (value instanceof int[]) return TAG_INT_ARRAY;
+        if (value instanceof long[]) return TAG_LONG_ARRAY;
+        throw new IOException("Unsupported NBT value: " + (value == null ? "null" : value.getClass().getName()));
+    }
+
+    private static int checkedLength(int len) throws IOException {
+        if (len < 0) throw new IOException("Negative NBT length " + len);
+        return len;
+    }
+}
@@ -0,0 +1,466 @@
+package me.d15c07d.chunkcleaners.region;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.io.IoExecutor;
+import me.d15c07d.chunkcleaners.shape.ChunkShape;
+import me.d15c07d.chunkcleaners.utils.LightingUtil;
+import me.d15c07d.chunkcleaners.utils.MessageUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Offline cleaner: clears chunks by editing the world's region files directly, without loading them.
+ *
+ * Lock protocol (the server owns loaded chunks and may rewrite a region file at any time):
+ *  1. On the main thread, before a region file is touched, each of its target chunks is checked: chunks that are
+ *     loaded, within view distance + offline.player_margin_chunks of a player, or were unloaded less than
+ *     offline.unload_grace_seconds ago (their save may still be queued) are skipped. The rest are locked.
+ *  2. A ChunkLoadEvent for a locked chunk marks it as conflicted; the worker re-checks right before writing and
+ *     leaves conflicted chunks alone. The event fires only after the server read the chunk, so a load can still
+ *     overlap the write: offline.verify_delay_ticks after the last write of a region file, every written chunk
+ *     that is loaded or conflicted by then is counted as a conflict, not as cleared (the server's copy may be
+ *     saved back over it).
+ *  3. A chunk is only rewritten into the sectors it already owns (the region header is never changed), so the
+ *     server's sector allocation for other chunks of the same file stays valid.
+ *  4. Locks are released on the main thread once the region file is done, together with the progress checkpoint.
+ *
+ * Chunks skipped because they were in use can be cleared by a normal cleaner or a later offline run.
+ */
+public class OfflineRegionCleaner implements Listener {
+
+    private final ChunkCleanersPlugin plugin;
+
+    private final Map<UUID, OfflineRegionJob> jobs = new ConcurrentHashMap<>();
+    private final Map<UUID, CountDownLatch> workers = new ConcurrentHashMap<>();
+    // world name -> locked / conflicted chunk keys
+    private final Map<String, Set<Long>> locked = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> conflicts = new ConcurrentHashMap<>();
+    // world name -> chunk key -> unload time (main thread only)
+    private final Map<String, Map<Long, Long>> recentlyUnloaded = new HashMap<>();
+    private volatile boolean stopping = false;
+
+    public OfflineRegionCleaner(ChunkCleanersPlugin plugin) {
+        this.plugin = plugin;
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+    }
+
+    /**
+     * Start a new job. Must be called on the main thread.
+     *
+     * @return the job, or null if it overlaps a running offline job
+     */
+    public OfflineRegionJob start(UUID ownerUuid, String ownerName, World world, ChunkShape shape) {
+        for (OfflineRegionJob j : jobs.values()) {
+            if (j.overlaps(world.getName(), shape)) return null;
+        }
+        // flush dirty chunks so region files reflect what the server last had in memory
+        try { world.save(); } catch (Throwable ignored) {}
+        OfflineRegionJob job = new OfflineRegionJob(UUID.randomUUID(), ownerUuid, ownerName, world.getName(), shape);
+        jobs.put(job.getId(), job);
+        plugin.getPersistenceManager().saveOfflineJob(job);
+        launch(job);
+        return job;
+    }
+
+    /**
+     * Re-attach a job restored from disk.
+     */
+    public void addLoadedJob(OfflineRegionJob job) {
+        jobs.put(job.getId(), job);
+        launch(job);
+    }
+
+    public boolean cancel(UUID id) {
+        OfflineRegionJob job = jobs.remove(id);
+        if (job == null) return false;
+        plugin.getPersistenceManager().removeRecord(id);
+        return true;
+    }
+
+    public Collection<OfflineRegionJob> getJobs() {
+        return jobs.values();
+    }
+
+    public Optional<OfflineRegionJob> getJob(UUID id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Stop workers, waiting briefly for in-flight writes. Jobs stay registered so they are persisted.
+     */
+    public void shutdown() {
+        stopping = true;
+        long waitMillis = Math.max(0L, plugin.getConfig().getLong("offline.shutdown_wait_millis", 5000L));
+        long deadline = System.currentTimeMillis() + waitMillis;
+        for (CountDownLatch latch : workers.values()) {
+            try {
+                latch.await(Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        HandlerList.unregisterAll(this);
+    }
+
+    /* ---------------- Worker ---------------- */
+
+    private void launch(OfflineRegionJob job) {
+        if (stopping || workers.containsKey(job.getId())) return;
+        CountDownLatch latch = new CountDownLatch(1);
+        workers.put(job.getId(), latch);
+        // one virtual thread per job; io.max_concurrency.region_files bounds how many touch region files at once
+        plugin.getIoExecutor().execute(IoExecutor.Resource.REGION_FILES, () -> {
+            try {
+                runJob(job);
+            } catch (Throwable t) {
+                plugin.getLogger().warning("Offline cleaner " + job.getId() + " failed: " + t.getMessage());
+            } finally {
+                workers.remove(job.getId());
+                latch.countDown();
+            }
+        });
+    }
+
+    private void runJob(OfflineRegionJob job) throws Exception {
+        Path regionDir = callMain(() -> {
+            World w = Bukkit.getWorld(job.getWorldName());
+            return w == null ? null : regionFolder(w).toPath();
+        });
+        if (regionDir == null) {
+            // world not loaded: keep the record, it is picked up again on the next start
+            if (!stopping) plugin.getLogger().warning("Offline cleaner " + job.getId() + " waiting: world " + job.getWorldName() + " is not loaded.");
+            return;
+        }
+
+        int seen = 0;
+        for (int[] region : job.regions()) {
+            List<int[]> chunks = job.chunksIn(region[0], region[1]);
+            if (seen + chunks.size() <= job.getCursor()) {
+                seen += chunks.size();
+                continue;
+            }
+            if (stopping || !jobs.containsKey(job.getId())) return;
+
+            Path file = regionDir.resolve(RegionFile.fileName(region[0], region[1]));
+            int retries = Math.max(0, plugin.getConfig().getInt("offline.region_retries", 2));
+            for (int attempt = 0; ; attempt++) {
+                List<int[]> targets = Files.isRegularFile(file) ? callMain(() -> lock(job, chunks)) : Collections.emptyList();
+                if (targets == null) return;
+
+                List<ChunkSummary> summaries = new ArrayList<>();
+                boolean processed = false;
+                Exception error = null;
+                try {
+                    if (!targets.isEmpty()) processRegion(job, file, targets, summaries);
+                    processed = true;
+                } catch (Exception e) {
+                    error = e;
+                } finally {
+                    final int checkpoint = seen + chunks.size();
+                    final boolean advance = processed;
+                    // give loads that overlapped a write time to show up before the locks go
+                    if (!summaries.isEmpty()) {
+                        LockSupport.parkNanos(Math.max(0L, plugin.getConfig().getLong("offline.verify_delay_ticks", 20L)) * 50_000_000L);
+                    }
+                    callMain(() -> {
+                        verifyWritten(job, summaries);
+                        unlock(job.getWorldName(), targets);
+                        if (!stopping && jobs.containsKey(job.getId())) {
+                            // only a region processed to the end moves the cursor past it
+                            if (advance) job.setCursor(checkpoint);
+                            logSummaries(job, summaries);
+                            plugin.getPersistenceManager().saveOfflineJob(job);
+                        }
+                        return Boolean.TRUE;
+                    });
+                }
+                if (error == null) break;
+                String reason = file.getFileName() + ": " + error.getMessage();
+                if (attempt >= retries) {
+                    callMain(() -> {
+                        fail(job, reason);
+                        return Boolean.TRUE;
+                    });
+                    return;
+                }
+                plugin.getLogger().warning("Offline cleaner " + job.getId() + " failed on " + reason + "; retrying.");
+                LockSupport.parkNanos(Math.max(0L, plugin.getConfig().getLong("offline.retry_delay_seconds", 5L)) * 1_000_000_000L);
+                if (stopping || !jobs.containsKey(job.getId())) return;
+            }
+            seen += chunks.size();
+        }
+        callMain(() -> {
+            finish(job);
+            return Boolean.TRUE;
+        });
+    }
+
+    private void processRegion(OfflineRegionJob job, Path file, List<int[]> targets, List<ChunkSummary> summaries) throws Exception {
+        int minY = Math.max(plugin.getConfig().getInt("offline.min_y", -63), job.getWorldMinY());
+        int maxY = job.getWorldMaxY();
+        long nanosPerChunk = 1_000_000_000L / Math.max(1, plugin.getConfig().getInt("offline.max_chunks_per_second", 100));
+        Set<Long> conflicted = conflicts.computeIfAbsent(job.getWorldName(), k -> ConcurrentHashMap.newKeySet());
+
+        try (RegionFile regionFile = new RegionFile(file)) {
+            long next = System.nanoTime();
+            for (int[] c : targets) {
+                if (stopping || !jobs.containsKey(job.getId())) return;
+                long wait = next - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+                next = Math.max(next, System.nanoTime() - nanosPerChunk) + nanosPerChunk;
+
+                long key = LightingUtil.chunkKey(c[0], c[1]);
+                if (conflicted.contains(key)) {
+                    job.getSkippedConflict().incrementAndGet();
+                    continue;
+                }
+                if (!regionFile.hasChunk(c[0], c[1])) continue;
+                RegionFile.ChunkData data;
+                try {
+                    data = regionFile.read(c[0], c[1]);
+                } catch (Exception e) {
+                    plugin.getLogger().warning("Offline cleaner could not read chunk " + c[0] + "," + c[1] + ": " + e.getMessage());
+                    data = null;
+                }
+                if (data == null) {
+                    job.getSkippedUnsupported().incrementAndGet();
+                    continue;
+                }
+
+                Map<String, Integer> removed = new HashMap<>();
+                ChunkNbtCleaner.Result result = ChunkNbtCleaner.clean(data.getRoot(), minY, maxY, removed);
+                if (result == ChunkNbtCleaner.Result.UNSUPPORTED) {
+                    job.getSkippedUnsupported().incrementAndGet();
+                    continue;
+                }
+                if (result == ChunkNbtCleaner.Result.UNCHANGED) {
+                    job.getCleared().incrementAndGet();
+                    continue;
+                }
+                // last check before touching the file: the server may have started loading it meanwhile
+                if (conflicted.contains(key)) {
+                    job.getSkippedConflict().incrementAndGet();
+                    continue;
+                }
+                if (regionFile.write(data) == RegionFile.WriteResult.TOO_LARGE) {
+                    job.getSkippedTooLarge().incrementAndGet();
+                    continue;
+                }
+                int total = 0;
+                for (int n : removed.values()) total += n;
+                job.getCleared().incrementAndGet();
+                job.getBlocksRemoved().addAndGet(total);
+                summaries.add(new ChunkSummary(c[0], c[1], total, removed));
+            }
+        }
+    }
+
+    /* ---------------- Main-thread steps ---------------- */
+
+    private List<int[]> lock(OfflineRegionJob job, List<int[]> chunks) {
+        World world = Bukkit.getWorld(job.getWorldName());
+        if (world == null) return null;
+        job.setWorldHeight(world.getMinHeight(), world.getMaxHeight());
+
+        long now = System.currentTimeMillis();
+        long graceMillis = Math.max(0L, plugin.getConfig().getLong("offline.unload_grace_seconds", 30L)) * 1000L;
+        Map<Long, Long> unloads = recentlyUnloaded.getOrDefault(world.getName(), Collections.emptyMap());
+        unloads.values().removeIf(t -> now - t >= graceMillis);
+
+        int margin = Math.max(0, world.getViewDistance() + plugin.getConfig().getInt("offline.player_margin_chunks", 2));
+        List<int[]> playerChunks = new ArrayList<>();
+        for (Player p : world.getPlayers()) {
+            Location l = p.getLocation();
+            playerChunks.add(new int[]{l.getBlockX() >> 4, l.getBlockZ() >> 4});
+        }
+
+        Set<Long> lockedKeys = locked.computeIfAbsent(world.getName(), k -> ConcurrentHashMap.newKeySet());
+        List<int[]> out = new ArrayList<>();
+        for (int[] c : chunks) {
+            long key = LightingUtil.chunkKey(c[0], c[1]);
+            boolean busy = world.isChunkLoaded(c[0], c[1]) || unloads.containsKey(key);
+            for (int i = 0; i < playerChunks.size() && !busy; i++) {
+                int[] pc = playerChunks.get(i);
+                busy = Math.max(Math.abs(pc[0] - c[0]), Math.abs(pc[1] - c[1])) <= margin;
+            }
+            if (busy) {
+                job.getSkippedLoaded().incrementAndGet();
+                continue;
+            }
+            lockedKeys.add(key);
+            out.add(c);
+        }
+        return out;
+    }
+
+    /**
+     * Written chunks the server loaded while they were locked may have been read before or during the write:
+     * count them as conflicts and drop their summaries.
+     */
+    private void verifyWritten(OfflineRegionJob job, List<ChunkSummary> summaries) {
+        World world = Bukkit.getWorld(job.getWorldName());
+        Set<Long> conflicted = conflicts.getOrDefault(job.getWorldName(), Collections.emptySet());
+        Iterator<ChunkSummary> it = summaries.iterator();
+        while (it.hasNext()) {
+            ChunkSummary s = it.next();
+            boolean loaded = world == null || world.isChunkLoaded(s.chunkX, s.chunkZ);
+            if (!loaded && !conflicted.contains(LightingUtil.chunkKey(s.chunkX, s.chunkZ))) continue;
+            it.remove();
+            job.getCleared().decrementAndGet();
+            job.getBlocksRemoved().addAndGet(-s.total);
+            job.getSkippedConflict().incrementAndGet();
+        }
+    }
+
+    private void unlock(String worldName, List<int[]> chunks) {
+        Set<Long> lockedKeys = locked.get(worldName);
+        Set<Long> conflicted = conflicts.get(worldName);
+        for (int[] c : chunks) {
+            long key = LightingUtil.chunkKey(c[0], c[1]);
+            if (lockedKeys != null) lockedKeys.remove(key);
+            if (conflicted != null) conflicted.remove(key);
+        }
+    }
+
+    private void logSummaries(OfflineRegionJob job, List<ChunkSummary> summaries) {
+        World world = Bukkit.getWorld(job.getWorldName());
+        if (world == null) return;
+        for (ChunkSummary s : summaries) {
+            Map<Material, Integer> breakdown = new EnumMap<>(Material.class);
+            for (Map.Entry<String, Integer> e : s.removed.entrySet()) {
+                Material m = Material.matchMaterial(e.getKey());
+                if (m != null) breakdown.merge(m, e.getValue(), Integer::sum);
+            }
+            Location center = new Location(world, (s.chunkX << 4) + 8, world.getMinHeight(), (s.chunkZ << 4) + 8);
+            try {
+                plugin.getIntegrationManager().enqueueChunkSummary(job.getOwnerUuid(), center, s.total, breakdown);
+            } catch (Throwable t) {
+                plugin.getLogger().fine("Failed to enqueue CoreProtect summary for offline chunk: " + t.getMessage());
+            }
+        }
+    }
+
+    // the worker stops; the record stays (cursor before the failed region) until cancelled or the next restart
+    private void fail(OfflineRegionJob job, String reason) {
+        if (!jobs.containsKey(job.getId())) return;
+        job.setFailure(reason);
+        plugin.getLogger().warning("Offline clear " + job.getId() + " stopped: " + reason);
+        String msg = plugin.getConfig().getString("messages.admin.offline_failed",
+                        "<red>Offline clear {id} stopped on {error}. It retries after a restart; cancel it to drop it.")
+                .replace("{id}", job.getId().toString())
+                .replace("{error}", reason);
+        if (job.getOwnerUuid() != null) {
+            Player p = Bukkit.getPlayer(job.getOwnerUuid());
+            if (p != null && p.isOnline()) p.sendMessage(MessageUtil.parse(msg));
+        }
+    }
+
+    private void finish(OfflineRegionJob job) {
+        if (jobs.remove(job.getId()) == null) return;
+        plugin.getPersistenceManager().removeRecord(job.getId());
+        String msg = plugin.getConfig().getString("messages.admin.offline_finished",
+                        "<green>Offline clear {id} finished: <white>{cleared}</white> chunks, <white>{blocks}</white> blocks removed, <yellow>{skipped}</yellow> chunks skipped.")
+                .replace("{id}", job.getId().toString())
+                .replace("{cleared}", String.valueOf(job.getCleared().get()))
+                .replace("{blocks}", String.valueOf(job.getBlocksRemoved().get()))
+                .replace("{skipped}", String.valueOf(job.getSkippedTotal()));
+        plugin.getLogger().info("Offline clear " + job.getId() + " finished: cleared=" + job.getCleared().get()
+                + " blocks=" + job.getBlocksRemoved().get() + " skippedLoaded=" + job.getSkippedLoaded().get()
+                + " skippedConflict=" + job.getSkippedConflict().get() + " skippedUnsupported=" + job.getSkippedUnsupported().get()
+                + " skippedTooLarge=" + job.getSkippedTooLarge().get());
+        if (job.getOwnerUuid() != null) {
+            Player p = Bukkit.getPlayer(job.getOwnerUuid());
+            if (p != null && p.isOnline()) p.sendMessage(MessageUtil.parse(msg));
+        }
+    }
+
+    /**
+     * Run on the main thread and wait, giving up when the plugin is stopping (the main thread is then
+     * busy disabling us and would never run it).
+     */
+    private <T> T callMain(Callable<T> call) throws Exception {
+        Future<T> future = Bukkit.getScheduler().callSyncMethod(plugin, call);
+        while (true) {
+            try {
+                return future.get(250, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException te) {
+                if (stopping) {
+                    future.cancel(false);
+                    return null;
+                }
+            }
+        }
+    }
+
+    public static File regionFolder(World world) {
+        File root = world.getWorldFolder();
+        switch (world.getEnvironment()) {
+            case NETHER: return new File(root, "DIM-1/region");
+            case THE_END: return new File(root, "DIM1/region");
+            default: return new File(root, "region");
+        }
+    }
+
+    /* ---------------- Events ---------------- */
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Set<Long> lockedKeys = locked.get(event.getWorld().getName());
+        if (lockedKeys == null || lockedKeys.isEmpty()) return;
+        long key = LightingUtil.chunkKey(event.getChunk().getX(), event.getChunk().getZ());
+        if (lockedKeys.contains(key)) {
+            conflicts.computeIfAbsent(event.getWorld().getName(), k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Map<Long, Long> unloads = recentlyUnloaded.computeIfAbsent(event.getWorld().getName(), k -> new HashMap<>());
+        long now = System.currentTimeMillis();
+        unloads.put(LightingUtil.chunkKey(event.getChunk().getX(), event.getChunk().getZ()), now);
+        if (unloads.size() > 4096) {
+            long graceMillis = Math.max(0L, plugin.getConfig().getLong("offline.unload_grace_seconds", 30L)) * 1000L;
+            unloads.values().removeIf(t -> now - t >= graceMillis);
+        }
+    }
+
+    @EventHandler
+    public void onWorldLoad(WorldLoadEvent event) {
+        // jobs restored while their world was not loaded yet
+        for (OfflineRegionJob job : jobs.values()) {
+            if (job.getWorldName().equals(event.getWorld().getName())) launch(job);
+        }
+    }
+
+    private static final class ChunkSummary {
+        private final int chunkX;
+        private final int chunkZ;
+        private final int total;
+        private final Map<String, Integer> removed;
+
+        private ChunkSummary(int chunkX, int chunkZ, int total, Map<String, Integer> removed) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.total = total;
+            this.removed = removed;
+        }
+    }
+}
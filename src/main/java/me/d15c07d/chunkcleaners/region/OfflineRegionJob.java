@@ -0,0 +1,129 @@
+package me.d15c07d.chunkcleaners.region;
+
+import me.d15c07d.chunkcleaners.shape.ChunkShape;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one offline clear: a shape of chunks in one world (a rectangle, circle or region outline), processed
+ * region file by region file.
+ *
+ * The cursor counts chunks of the shape already handled, in {@link #regions()} order (regions by z then x,
+ * chunks inside a region by z then x). It is only advanced after a whole region file was processed; redoing a
+ * partially processed region after a restart is harmless because already cleared chunks have nothing to remove.
+ */
+public class OfflineRegionJob {
+
+    private final UUID id;
+    private final UUID ownerUuid;
+    private final String ownerName;
+    private final String worldName;
+    private final ChunkShape shape;
+    private long startedAt;
+
+    private volatile int cursor = 0;
+    // why the worker stopped on a region it could not process; null while healthy
+    private volatile String failure;
+    // world build limits, refreshed on the main thread before each region
+    private volatile int worldMinY = -64;
+    private volatile int worldMaxY = 320;
+
+    private final AtomicLong cleared = new AtomicLong();
+    private final AtomicLong blocksRemoved = new AtomicLong();
+    private final AtomicLong skippedLoaded = new AtomicLong();
+    private final AtomicLong skippedConflict = new AtomicLong();
+    private final AtomicLong skippedUnsupported = new AtomicLong();
+    private final AtomicLong skippedTooLarge = new AtomicLong();
+
+    public OfflineRegionJob(UUID id, UUID ownerUuid, String ownerName, String worldName, ChunkShape shape) {
+        this.id = id;
+        this.ownerUuid = ownerUuid;
+        this.ownerName = ownerName;
+        this.worldName = worldName;
+        this.shape = shape;
+        this.startedAt = System.currentTimeMillis() / 1000L;
+    }
+
+    /**
+     * Region files overlapping the shape's bounding box as {regionX, regionZ}, in processing order.
+     */
+    public List<int[]> regions() {
+        List<int[]> out = new ArrayList<>();
+        for (int rz = shape.getMinZ() >> 5; rz <= shape.getMaxZ() >> 5; rz++) {
+            for (int rx = shape.getMinX() >> 5; rx <= shape.getMaxX() >> 5; rx++) {
+                out.add(new int[]{rx, rz});
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Chunks of the shape inside one region file as {chunkX, chunkZ}.
+     */
+    public List<int[]> chunksIn(int regionX, int regionZ) {
+        List<int[]> out = new ArrayList<>();
+        int fromZ = Math.max(shape.getMinZ(), regionZ << 5);
+        int toZ = Math.min(shape.getMaxZ(), (regionZ << 5) + 31);
+        int fromX = Math.max(shape.getMinX(), regionX << 5);
+        int toX = Math.min(shape.getMaxX(), (regionX << 5) + 31);
+        for (int z = fromZ; z <= toZ; z++) {
+            for (int x = fromX; x <= toX; x++) {
+                if (shape.contains(x, z)) out.add(new int[]{x, z});
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Conservative overlap test on the bounding boxes.
+     */
+    public boolean overlaps(String world, ChunkShape other) {
+        return worldName.equals(world) && shape.overlapsBounds(other);
+    }
+
+    public int getTotalChunks() {
+        return shape.getChunkCount();
+    }
+
+    public boolean isDone() {
+        return cursor >= getTotalChunks();
+    }
+
+    public UUID getId() { return id; }
+    public UUID getOwnerUuid() { return ownerUuid; }
+    public String getOwnerName() { return ownerName; }
+    public String getWorldName() { return worldName; }
+    public ChunkShape getShape() { return shape; }
+    public int getMinChunkX() { return shape.getMinX(); }
+    public int getMinChunkZ() { return shape.getMinZ(); }
+    public int getMaxChunkX() { return shape.getMaxX(); }
+    public int getMaxChunkZ() { return shape.getMaxZ(); }
+    public long getStartedAt() { return startedAt; }
+    public void setStartedAt(long startedAt) { this.startedAt = startedAt; }
+    public int getCursor() { return cursor; }
+    public void setCursor(int cursor) { this.cursor = Math.max(0, cursor); }
+    /** Error that stopped the job after its retries; a restart tries the region again. */
+    public String getFailure() { return failure; }
+    public void setFailure(String failure) { this.failure = failure; }
+
+    public int getWorldMinY() { return worldMinY; }
+    public int getWorldMaxY() { return worldMaxY; }
+    public void setWorldHeight(int minY, int maxY) {
+        this.worldMinY = minY;
+        this.worldMaxY = maxY;
+    }
+
+    public long getSkippedTotal() {
+        return skippedLoaded.get() + skippedConflict.get() + skippedUnsupported.get() + skippedTooLarge.get();
+    }
+
+    public AtomicLong getCleared() { return cleared; }
+    public AtomicLong getBlocksRemoved() { return blocksRemoved; }
+    public AtomicLong getSkippedLoaded() { return skippedLoaded; }
+    public AtomicLong getSkippedConflict() { return skippedConflict; }
+    public AtomicLong getSkippedUnsupported() { return skippedUnsupported; }
+    public AtomicLong getSkippedTooLarge() { return skippedTooLarge; }
+}
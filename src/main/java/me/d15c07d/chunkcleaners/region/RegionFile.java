@@ -0,0 +1,147 @@
+package me.d15c07d.chunkcleaners.region;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reader/in-place writer for one Anvil region file (r.X.Z.mca).
+ *
+ * Layout: a 4 KiB location table (3-byte sector offset + 1-byte sector count per chunk), a 4 KiB timestamp
+ * table, then 4 KiB sectors. Each chunk payload starts with a 4-byte length and a 1-byte compression type.
+ *
+ * Writes never touch the header: a chunk is only rewritten when the new payload fits into the sectors it
+ * already owns, so the server's own sector allocation for this file stays valid. Chunks that would grow past
+ * their sectors, use LZ4 or live in external .mcc files are reported as unsupported and left alone.
+ */
+public final class RegionFile implements Closeable {
+
+    private static final int SECTOR_BYTES = 4096;
+    private static final int COMPRESSION_GZIP = 1;
+    private static final int COMPRESSION_ZLIB = 2;
+    private static final int COMPRESSION_NONE = 3;
+
+    public enum WriteResult { WRITTEN, TOO_LARGE }
+
+    /**
+     * A decoded chunk plus what is needed to write it back.
+     */
+    public static final class ChunkData {
+        private final int localIndex;
+        private final int compression;
+        private final Map<String, Object> root;
+
+        private ChunkData(int localIndex, int compression, Map<String, Object> root) {
+            this.localIndex = localIndex;
+            this.compression = compression;
+            this.root = root;
+        }
+
+        public Map<String, Object> getRoot() { return root; }
+    }
+
+    private final FileChannel channel;
+    private final int[] locations = new int[1024];
+
+    public RegionFile(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(SECTOR_BYTES);
+        readFully(header, 0L);
+        header.flip();
+        for (int i = 0; i < 1024; i++) locations[i] = header.getInt();
+    }
+
+    public static String fileName(int regionX, int regionZ) {
+        return "r." + regionX + "." + regionZ + ".mca";
+    }
+
+    public static int localIndex(int chunkX, int chunkZ) {
+        return (chunkX & 31) + (chunkZ & 31) * 32;
+    }
+
+    public boolean hasChunk(int chunkX, int chunkZ) {
+        return locations[localIndex(chunkX, chunkZ)] != 0;
+    }
+
+    /**
+     * Read and decompress a chunk.
+     *
+     * @return null if the chunk was never generated or its storage format is not supported
+     */
+    public ChunkData read(int chunkX, int chunkZ) throws IOException {
+        int index = localIndex(chunkX, chunkZ);
+        int loc = locations[index];
+        if (loc == 0) return null;
+        long offset = (long) (loc >>> 8) * SECTOR_BYTES;
+        int sectors = loc & 0xFF;
+        if (sectors == 0) return null;
+
+        ByteBuffer head = ByteBuffer.allocate(5);
+        readFully(head, offset);
+        head.flip();
+        int length = head.getInt();
+        int compression = head.get() & 0xFF;
+        if (length <= 1 || length + 4 > sectors * SECTOR_BYTES) return null;
+        // external .mcc payloads (high bit) and LZ4 (4) are left to the server
+        if (compression != COMPRESSION_GZIP && compression != COMPRESSION_ZLIB && compression != COMPRESSION_NONE) return null;
+
+        ByteBuffer payload = ByteBuffer.allocate(length - 1);
+        readFully(payload, offset + 5);
+        InputStream raw = new ByteArrayInputStream(payload.array());
+        InputStream in;
+        if (compression == COMPRESSION_GZIP) in = new GZIPInputStream(raw);
+        else if (compression == COMPRESSION_ZLIB) in = new InflaterInputStream(raw);
+        else in = raw;
+        try (DataInputStream din = new DataInputStream(new BufferedInputStream(in))) {
+            return new ChunkData(index, compression, NbtIO.readRoot(din));
+        }
+    }
+
+    /**
+     * Compress and write a chunk back into its existing sectors.
+     */
+    public WriteResult write(ChunkData data) throws IOException {
+        int loc = locations[data.localIndex];
+        long offset = (long) (loc >>> 8) * SECTOR_BYTES;
+        int sectors = loc & 0xFF;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        OutputStream out;
+        if (data.compression == COMPRESSION_GZIP) out = new GZIPOutputStream(bytes);
+        else if (data.compression == COMPRESSION_ZLIB) out = new DeflaterOutputStream(bytes);
+        else out = bytes;
+        try (DataOutputStream dout = new DataOutputStream(new BufferedOutputStream(out))) {
+            NbtIO.writeRoot(dout, data.root);
+        }
+        byte[] compressed = bytes.toByteArray();
+        if (compressed.length + 5 > sectors * SECTOR_BYTES) return WriteResult.TOO_LARGE;
+
+        ByteBuffer buf = ByteBuffer.allocate(compressed.length + 5);
+        buf.putInt(compressed.length + 1);
+        buf.put((byte) data.compression);
+        buf.put(compressed);
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf, offset + buf.position());
+        channel.force(false);
+        return WriteResult.WRITTEN;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = channel.read(buf, position + buf.position());
+            if (n < 0) throw new EOFException("Unexpected end of region file");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package me.d15c07d.chunkcleaners.service;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.api.ChunkCleanersApi;
+import me.d15c07d.chunkcleaners.api.CleanerInfo;
+import me.d15c07d.chunkcleaners.api.CleanerListener;
+import me.d15c07d.chunkcleaners.api.MaterialCounts;
+import me.d15c07d.chunkcleaners.api.event.CleanerChunkCompletedEvent;
+import me.d15c07d.chunkcleaners.api.event.CleanerFinishedEvent;
+import me.d15c07d.chunkcleaners.api.event.CleanerStartEvent;
+import me.d15c07d.chunkcleaners.config.ConfigManager;
+import me.d15c07d.chunkcleaners.io.IoExecutor;
+import me.d15c07d.chunkcleaners.task.ChunkCleanerTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of {@link ChunkCleanersApi}, registered with the services manager.
+ *
+ * Tasks report lifecycle points through the fire* methods (main thread). Payloads are only built when a Bukkit
+ * handler or an async subscriber exists, so without listeners a chunk completion costs two array length checks.
+ * Async deliveries go through one queue drained on the I/O executor (API_EVENTS), which keeps them in order
+ * and lets a burst of chunk completions reach subscribers as one batch.
+ */
+public class ApiService implements ChunkCleanersApi {
+
+    private final ChunkCleanersPlugin plugin;
+    private final List<CleanerListener> subscribers = new CopyOnWriteArrayList<>();
+    private final Queue<Event> outbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainQueued = new AtomicBoolean(false);
+
+    public ApiService(ChunkCleanersPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /* ---------------- ChunkCleanersApi ---------------- */
+
+    @Override
+    public UUID start(Player owner, Location location, String typeKey) {
+        ConfigManager.CleanerType type = plugin.getConfigManager().getType(typeKey)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown cleaner type: " + typeKey));
+        return plugin.getCleanerManager().startCleaner(owner, location, type);
+    }
+
+    @Override
+    public boolean pause(UUID taskId) {
+        return plugin.getCleanerManager().pauseTask(taskId);
+    }
+
+    @Override
+    public boolean resume(UUID taskId) {
+        return plugin.getCleanerManager().resumeTask(taskId);
+    }
+
+    @Override
+    public boolean cancel(UUID taskId) {
+        return plugin.getCleanerManager().cancelTask(taskId);
+    }
+
+    @Override
+    public Optional<CleanerInfo> getTask(UUID taskId) {
+        return plugin.getCleanerManager().getActiveTasks().stream()
+                .filter(t -> t.getId().equals(taskId))
+                .findFirst()
+                .map(ApiService::snapshot);
+    }
+
+    @Override
+    public Collection<CleanerInfo> getTasks() {
+        List<CleanerInfo> out = new ArrayList<>();
+        for (ChunkCleanerTask t : plugin.getCleanerManager().getActiveTasks()) out.add(snapshot(t));
+        return out;
+    }
+
+    @Override
+    public void subscribe(CleanerListener listener) {
+        if (listener != null && !subscribers.contains(listener)) subscribers.add(listener);
+    }
+
+    @Override
+    public void unsubscribe(CleanerListener listener) {
+        subscribers.remove(listener);
+    }
+
+    /* ---------------- Task hooks (main thread) ---------------- */
+
+    public void fireStart(ChunkCleanerTask t, boolean resumed) {
+        dispatch(CleanerStartEvent.getHandlerList(), () -> new CleanerStartEvent(snapshot(t), resumed));
+    }
+
+    public void fireChunkCompleted(ChunkCleanerTask t, int chunkX, int chunkZ, Map<Material, Integer> removed) {
+        dispatch(CleanerChunkCompletedEvent.getHandlerList(),
+                () -> new CleanerChunkCompletedEvent(t.getId(), t.getOwnerUuid(), t.getWorldName(), chunkX, chunkZ, MaterialCounts.of(removed)));
+    }
+
+    public void fireFinished(ChunkCleanerTask t, CleanerFinishedEvent.Outcome outcome) {
+        dispatch(CleanerFinishedEvent.getHandlerList(), () -> new CleanerFinishedEvent(snapshot(t), outcome, t.getEntitiesRemoved()));
+    }
+
+    public static CleanerInfo snapshot(ChunkCleanerTask t) {
+        CleanerInfo.State state;
+        if (t.getState() == ChunkCleanerTask.State.RUNNING) state = CleanerInfo.State.RUNNING;
+        else if (t.getState() == ChunkCleanerTask.State.DONE) state = CleanerInfo.State.DONE;
+        else if (t.getParkReason() == ChunkCleanerTask.ParkReason.PAUSED) state = CleanerInfo.State.PAUSED;
+        else state = CleanerInfo.State.WAITING;
+        return new CleanerInfo(t.getId(), t.getOwnerUuid(), t.getOwnerName(), t.getWorldName(), t.getChunkX(), t.getChunkZ(),
+                t.getTypeKey(), t.getSize(), state, t.getProgress(), t.getChunksDone(), t.getChunkCount(), t.getBlocksRemoved());
+    }
+
+    private void dispatch(HandlerList handlers, Supplier<Event> factory) {
+        boolean sync = handlers.getRegisteredListeners().length > 0;
+        if (!sync && subscribers.isEmpty()) return;
+        Event ev = factory.get();
+        if (sync) {
+            try {
+                Bukkit.getPluginManager().callEvent(ev);
+            } catch (Throwable t) {
+                plugin.getLogger().warning("ChunkCleaners API event handler failed: " + t.getMessage());
+            }
+        }
+        if (subscribers.isEmpty()) return;
+        outbox.add(ev);
+        if (drainQueued.compareAndSet(false, true)) {
+            plugin.getIoExecutor().execute(IoExecutor.Resource.API_EVENTS, this::drain);
+        }
+    }
+
+    private void drain() {
+        drainQueued.set(false);
+        Event ev;
+        while ((ev = outbox.poll()) != null) {
+            for (CleanerListener l : subscribers) {
+                try {
+                    if (ev instanceof CleanerChunkCompletedEvent) l.onChunkCompleted((CleanerChunkCompletedEvent) ev);
+                    else if (ev instanceof CleanerStartEvent) l.onStart((CleanerStartEvent) ev);
+                    else if (ev instanceof CleanerFinishedEvent) l.onFinished((CleanerFinishedEvent) ev);
+                } catch (Throwable t) {
+                    plugin.getLogger().warning("ChunkCleaners API subscriber " + l.getClass().getName() + " failed: " + t.getMessage());
+                }
+            }
+        }
+    }
+}
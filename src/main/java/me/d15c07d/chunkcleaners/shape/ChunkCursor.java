@@ -0,0 +1,157 @@
+package me.d15c07d.chunkcleaners.shape;
+
+/**
+ * Allocation-free walk over the chunks of a {@link ChunkShape} in a {@link ChunkOrder}.
+ *
+ * {@link #next()} moves to the next chunk of the shape; {@link #getX()}/{@link #getZ()} are its coordinates and
+ * {@link #getOrdinal()} its position in the walk (0-based), which is what cleaners persist as their cursor.
+ * {@link #seek(int)} gets back to an ordinal after a restart; seeking backwards restarts the walk.
+ *
+ * Not thread-safe; each user keeps its own cursor.
+ */
+public final class ChunkCursor {
+
+    private static final int[] DX = { 1, 0, -1, 0 };
+    private static final int[] DZ = { 0, 1, 0, -1 };
+
+    private final ChunkShape shape;
+    private final ChunkOrder order;
+    private final int originX;
+    private final int originZ;
+    private final int width;
+    private final int height;
+    // ROW / HILBERT: raw positions in the bounding box (or its power-of-two square)
+    private final long rawEnd;
+    private final int side;
+    // SPIRAL: legs grow until a ring lies wholly outside the bounding box
+    private final int maxLeg;
+
+    private long raw;
+    private int dir;
+    private int leg;
+    private int legPos;
+    private int ordinal;
+    private int x;
+    private int z;
+    private boolean exhausted;
+
+    ChunkCursor(ChunkShape shape, ChunkOrder order, int originX, int originZ) {
+        this.shape = shape;
+        this.order = order == null ? ChunkOrder.ROW : order;
+        this.originX = originX;
+        this.originZ = originZ;
+        this.width = shape.getMaxX() - shape.getMinX() + 1;
+        this.height = shape.getMaxZ() - shape.getMinZ() + 1;
+        int s = 1;
+        while (s < Math.max(width, height)) s <<= 1;
+        this.side = s;
+        this.rawEnd = this.order == ChunkOrder.HILBERT ? (long) s * s : (long) width * height;
+        int extent = Math.max(Math.max(Math.abs(shape.getMinX() - originX), Math.abs(shape.getMaxX() - originX)),
+                Math.max(Math.abs(shape.getMinZ() - originZ), Math.abs(shape.getMaxZ() - originZ)));
+        this.maxLeg = 2 * extent + 2;
+        reset();
+    }
+
+    /**
+     * Back to before the first chunk.
+     */
+    public void reset() {
+        raw = -1L;
+        dir = 0;
+        leg = 1;
+        legPos = 0;
+        ordinal = -1;
+        exhausted = false;
+    }
+
+    /**
+     * Move to the next chunk of the shape; false once the walk is over.
+     */
+    public boolean next() {
+        if (exhausted) return false;
+        while (step()) {
+            if (x < shape.getMinX() || x > shape.getMaxX() || z < shape.getMinZ() || z > shape.getMaxZ()) continue;
+            if (!shape.contains(x, z)) continue;
+            ordinal++;
+            return true;
+        }
+        exhausted = true;
+        return false;
+    }
+
+    /**
+     * Position the cursor on the chunk with the given ordinal; false if the shape has fewer chunks.
+     */
+    public boolean seek(int target) {
+        if (target < 0) {
+            reset();
+            return false;
+        }
+        if (target < ordinal || exhausted) reset();
+        while (ordinal < target) {
+            if (!next()) return false;
+        }
+        return true;
+    }
+
+    public int getOrdinal() { return ordinal; }
+    public int getX() { return x; }
+    public int getZ() { return z; }
+    public ChunkOrder getOrder() { return order; }
+
+    private boolean step() {
+        switch (order) {
+            case SPIRAL:
+                if (raw < 0) {
+                    raw = 0;
+                    x = originX;
+                    z = originZ;
+                    return true;
+                }
+                if (leg >= maxLeg) return false;
+                x += DX[dir];
+                z += DZ[dir];
+                if (++legPos == leg) {
+                    legPos = 0;
+                    dir = (dir + 1) & 3;
+                    // legs run 1, 1, 2, 2, 3, 3, ...
+                    if ((dir & 1) == 0) leg++;
+                }
+                return true;
+            case HILBERT:
+                if (++raw >= rawEnd) return false;
+                hilbert(raw);
+                return true;
+            default:
+                if (++raw >= rawEnd) return false;
+                x = shape.getMinX() + (int) (raw % width);
+                z = shape.getMinZ() + (int) (raw / width);
+                return true;
+        }
+    }
+
+    // d -> (x, z) on a Hilbert curve filling a side x side square anchored at the bounding box minimum
+    private void hilbert(long d) {
+        int hx = 0;
+        int hz = 0;
+        long t = d;
+        for (int s = 1; s < side; s <<= 1) {
+            int rx = (int) (1L & (t >>> 1));
+            int rz = (int) (1L & (t ^ rx));
+            if (rz == 0) {
+                if (rx == 1) {
+                    hx = s - 1 - hx;
+                    hz = s - 1 - hz;
+                }
+                int tmp = hx;
+                hx = hz;
+                hz = tmp;
+            }
+            hx += s * rx;
+            hz += s * rz;
+            t >>>= 2;
+        }
+        x = shape.getMinX() + hx;
+        z = shape.getMinZ() + hz;
+    }
+}
@@ -0,0 +1,70 @@
+package me.d15c07d.chunkcleaners.shape;
+
+import me.d15c07d.chunkcleaners.utils.LightingUtil;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Explicit set of chunks, kept as sorted packed chunk keys; membership is a binary search.
+ */
+public final class ChunkListShape extends ChunkShape {
+
+    private final long[] keys;
+
+    private ChunkListShape(long[] keys, int minX, int minZ, int maxX, int maxZ) {
+        super(minX, minZ, maxX, maxZ);
+        this.keys = keys;
+    }
+
+    /**
+     * @throws IllegalArgumentException for an empty list
+     */
+    public static ChunkListShape of(List<int[]> chunks) {
+        if (chunks.isEmpty()) throw new IllegalArgumentException("no chunks");
+        long[] keys = new long[chunks.size()];
+        int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (int i = 0; i < keys.length; i++) {
+            int[] c = chunks.get(i);
+            keys[i] = LightingUtil.chunkKey(c[0], c[1]);
+            minX = Math.min(minX, c[0]);
+            minZ = Math.min(minZ, c[1]);
+            maxX = Math.max(maxX, c[0]);
+            maxZ = Math.max(maxZ, c[1]);
+        }
+        Arrays.sort(keys);
+        // duplicates would be visited once anyway; drop them so the count is right
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (n == 0 || keys[n - 1] != keys[i]) keys[n++] = keys[i];
+        }
+        return new ChunkListShape(Arrays.copyOf(keys, n), minX, minZ, maxX, maxZ);
+    }
+
+    @Override
+    public boolean contains(int chunkX, int chunkZ) {
+        return Arrays.binarySearch(keys, LightingUtil.chunkKey(chunkX, chunkZ)) >= 0;
+    }
+
+    @Override
+    protected int countChunks() {
+        return keys.length;
+    }
+
+    @Override
+    public String getKind() { return "chunks"; }
+
+    @Override
+    public String describe() {
+        return keys.length + " listed chunks";
+    }
+
+    @Override
+    protected void writeDefinition(ConfigurationSection sec) {
+        List<String> out = new ArrayList<>(keys.length);
+        for (long k : keys) out.add(LightingUtil.chunkKeyX(k) + "," + LightingUtil.chunkKeyZ(k));
+        sec.set("chunks", out);
+    }
+}
@@ -0,0 +1,51 @@
+package me.d15c07d.chunkcleaners.shape;
+
+import java.util.Locale;
+
+/**
+ * Order a {@link ChunkCursor} visits the chunks of a shape in.
+ *
+ * ROW walks the bounding box row by row (z, then x); saves made before shapes existed use it. SPIRAL walks
+ * square rings outwards from the placement chunk, so the area around the cleaner clears first. HILBERT follows
+ * a Hilbert curve over the bounding box: consecutive chunks are always neighbours and runs of chunks stay
+ * clustered, which keeps region files and loaded chunks local for large shapes.
+ */
+public enum ChunkOrder {
+    ROW, SPIRAL, HILBERT;
+
+    // raw positions a walk may visit per bounding-box chunk before ROW is used instead
+    private static final long MAX_RAW_PER_CHUNK = 4L;
+
+    /**
+     * This order, or ROW if walking the shape this way from the origin would step through more than four times
+     * as many raw positions as the bounding box holds. HILBERT fills a power-of-two square and SPIRAL whole rings
+     * around the origin, so on a thin shape (say 1 x 262144 chunks) either would run for billions of steps.
+     */
+    public ChunkOrder fitFor(ChunkShape shape, int originX, int originZ) {
+        long area = shape.getBoundsArea();
+        long width = shape.getMaxX() - shape.getMinX() + 1L;
+        long height = shape.getMaxZ() - shape.getMinZ() + 1L;
+        long raw;
+        if (this == HILBERT) {
+            long side = 1L;
+            while (side < Math.max(width, height)) side <<= 1;
+            raw = side * side;
+        } else if (this == SPIRAL) {
+            long extent = Math.max(Math.max(Math.abs((long) shape.getMinX() - originX), Math.abs((long) shape.getMaxX() - originX)),
+                    Math.max(Math.abs((long) shape.getMinZ() - originZ), Math.abs((long) shape.getMaxZ() - originZ)));
+            raw = (2L * extent + 3L) * (2L * extent + 3L);
+        } else {
+            return this;
+        }
+        return raw > MAX_RAW_PER_CHUNK * area ? ROW : this;
+    }
+
+    public static ChunkOrder parse(String s, ChunkOrder fallback) {
+        if (s == null) return fallback;
+        try {
+            return valueOf(s.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException iae) {
+            return fallback;
+        }
+    }
+}
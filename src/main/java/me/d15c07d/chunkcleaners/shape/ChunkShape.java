@@ -0,0 +1,114 @@
+package me.d15c07d.chunkcleaners.shape;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Locale;
+
+/**
+ * The set of chunks a cleaner or offline job covers, described by its definition rather than by the expanded
+ * coordinates. Chunks are visited through a {@link ChunkCursor}, which walks the bounding box in a
+ * {@link ChunkOrder} and keeps the chunks {@link #contains} accepts; nothing is materialised per chunk.
+ *
+ * Shapes are immutable and may be shared between threads.
+ */
+public abstract class ChunkShape {
+
+    protected final int minX;
+    protected final int minZ;
+    protected final int maxX;
+    protected final int maxZ;
+    // counted once on first use
+    private volatile int chunkCount = -1;
+
+    protected ChunkShape(int minX, int minZ, int maxX, int maxZ) {
+        this.minX = Math.min(minX, maxX);
+        this.minZ = Math.min(minZ, maxZ);
+        this.maxX = Math.max(minX, maxX);
+        this.maxZ = Math.max(minZ, maxZ);
+    }
+
+    /** True if the chunk belongs to the shape; only called for chunks inside the bounding box. */
+    public abstract boolean contains(int chunkX, int chunkZ);
+
+    /** Kind written to the saved definition (rect, circle, polygon, chunks). */
+    public abstract String getKind();
+
+    /** Short human-readable definition for status output. */
+    public abstract String describe();
+
+    protected abstract void writeDefinition(ConfigurationSection sec);
+
+    public int getMinX() { return minX; }
+    public int getMinZ() { return minZ; }
+    public int getMaxX() { return maxX; }
+    public int getMaxZ() { return maxZ; }
+
+    public long getBoundsArea() {
+        return (long) (maxX - minX + 1) * (maxZ - minZ + 1);
+    }
+
+    public int getChunkCount() {
+        int n = chunkCount;
+        if (n < 0) {
+            n = countChunks();
+            chunkCount = n;
+        }
+        return n;
+    }
+
+    protected int countChunks() {
+        int n = 0;
+        for (int z = minZ; z <= maxZ; z++) {
+            for (int x = minX; x <= maxX; x++) {
+                if (contains(x, z)) n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Side of a square with about as many chunks, for the size-based throttle scaling.
+     */
+    public int getEquivalentSize() {
+        return Math.max(1, (int) Math.ceil(Math.sqrt(getChunkCount())));
+    }
+
+    public boolean overlapsBounds(ChunkShape other) {
+        return other.minX <= maxX && other.maxX >= minX && other.minZ <= maxZ && other.maxZ >= minZ;
+    }
+
+    /**
+     * Fresh cursor over the shape; origin is where a spiral starts (the placement chunk).
+     */
+    public ChunkCursor cursor(ChunkOrder order, int originX, int originZ) {
+        return new ChunkCursor(this, order, originX, originZ);
+    }
+
+    public void save(ConfigurationSection sec) {
+        sec.set("kind", getKind());
+        writeDefinition(sec);
+    }
+
+    /**
+     * Read a definition written by {@link #save}; null if the section is missing or malformed.
+     */
+    public static ChunkShape load(ConfigurationSection sec) {
+        if (sec == null) return null;
+        try {
+            switch (sec.getString("kind", "").toLowerCase(Locale.ROOT)) {
+                case "rect":
+                    return new RectShape(sec.getInt("minX"), sec.getInt("minZ"), sec.getInt("maxX"), sec.getInt("maxZ"));
+                case "circle":
+                    return new CircleShape(sec.getInt("centerX"), sec.getInt("centerZ"), sec.getInt("radius"));
+                case "polygon":
+                    return PolygonShape.of(ShapeSpec.parsePoints(sec.getStringList("points"), 0, 0));
+                case "chunks":
+                    return ChunkListShape.of(ShapeSpec.parsePoints(sec.getStringList("chunks"), 0, 0));
+                default:
+                    return null;
+            }
+        } catch (IllegalArgumentException iae) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package me.d15c07d.chunkcleaners.shape;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Disc of chunks around a centre chunk. A chunk is inside when dx² + dz² ≤ r² + r, which rounds the rim the
+ * way a player would draw it (radius 1 is a plus, radius 2 a 5x5 without its corners).
+ */
+public final class CircleShape extends ChunkShape {
+
+    private final int centerX;
+    private final int centerZ;
+    private final int radius;
+    private final long limit;
+
+    public CircleShape(int centerX, int centerZ, int radius) {
+        super(centerX - Math.max(0, radius), centerZ - Math.max(0, radius), centerX + Math.max(0, radius), centerZ + Math.max(0, radius));
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.radius = Math.max(0, radius);
+        this.limit = (long) this.radius * this.radius + this.radius;
+    }
+
+    @Override
+    public boolean contains(int chunkX, int chunkZ) {
+        long dx = chunkX - centerX;
+        long dz = chunkZ - centerZ;
+        return dx * dx + dz * dz <= limit;
+    }
+
+    public int getRadius() { return radius; }
+
+    @Override
+    public String getKind() { return "circle"; }
+
+    @Override
+    public String describe() {
+        return "circle " + centerX + "," + centerZ + " r=" + radius;
+    }
+
+    @Override
+    protected void writeDefinition(ConfigurationSection sec) {
+        sec.set("centerX", centerX);
+        sec.set("centerZ", centerZ);
+        sec.set("radius", radius);
+    }
+}
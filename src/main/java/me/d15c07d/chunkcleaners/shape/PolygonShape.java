@@ -0,0 +1,86 @@
+package me.d15c07d.chunkcleaners.shape;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Polygon in block coordinates (x/z). A chunk is inside when its centre column is inside the polygon or on
+ * its outline, so region outlines keep the chunks they mostly cover and never half the neighbours.
+ */
+public final class PolygonShape extends ChunkShape {
+
+    private final int[] xs;
+    private final int[] zs;
+
+    private PolygonShape(int[] xs, int[] zs, int minX, int minZ, int maxX, int maxZ) {
+        super(minX, minZ, maxX, maxZ);
+        this.xs = xs;
+        this.zs = zs;
+    }
+
+    /**
+     * Polygon through the given block points ({x, z} each), in outline order.
+     *
+     * @throws IllegalArgumentException with fewer than three points
+     */
+    public static PolygonShape of(List<int[]> points) {
+        if (points.size() < 3) throw new IllegalArgumentException("a polygon needs at least 3 points");
+        int n = points.size();
+        int[] xs = new int[n];
+        int[] zs = new int[n];
+        int minBX = Integer.MAX_VALUE, minBZ = Integer.MAX_VALUE, maxBX = Integer.MIN_VALUE, maxBZ = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            xs[i] = points.get(i)[0];
+            zs[i] = points.get(i)[1];
+            minBX = Math.min(minBX, xs[i]);
+            minBZ = Math.min(minBZ, zs[i]);
+            maxBX = Math.max(maxBX, xs[i]);
+            maxBZ = Math.max(maxBZ, zs[i]);
+        }
+        return new PolygonShape(xs, zs, minBX >> 4, minBZ >> 4, maxBX >> 4, maxBZ >> 4);
+    }
+
+    /**
+     * Polygon through the centres of the given chunks, e.g. chunk offsets from a cleaner's config.
+     */
+    public static PolygonShape ofChunkCentres(List<int[]> chunks) {
+        List<int[]> points = new ArrayList<>(chunks.size());
+        for (int[] c : chunks) points.add(new int[] { (c[0] << 4) + 8, (c[1] << 4) + 8 });
+        return of(points);
+    }
+
+    @Override
+    public boolean contains(int chunkX, int chunkZ) {
+        long px = (chunkX << 4) + 8;
+        long pz = (chunkZ << 4) + 8;
+        boolean inside = false;
+        int n = xs.length;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            long xi = xs[i], zi = zs[i], xj = xs[j], zj = zs[j];
+            // on the outline
+            if ((px - xi) * (zj - zi) == (pz - zi) * (xj - xi)
+                    && px >= Math.min(xi, xj) && px <= Math.max(xi, xj)
+                    && pz >= Math.min(zi, zj) && pz <= Math.max(zi, zj)) return true;
+            // even-odd crossing of a ray towards +x
+            if ((zi > pz) != (zj > pz) && px < (xj - xi) * (pz - zi) / (double) (zj - zi) + xi) inside = !inside;
+        }
+        return inside;
+    }
+
+    @Override
+    public String getKind() { return "polygon"; }
+
+    @Override
+    public String describe() {
+        return "polygon " + xs.length + " points";
+    }
+
+    @Override
+    protected void writeDefinition(ConfigurationSection sec) {
+        List<String> out = new ArrayList<>(xs.length);
+        for (int i = 0; i < xs.length; i++) out.add(xs[i] + "," + zs[i]);
+        sec.set("points", out);
+    }
+}
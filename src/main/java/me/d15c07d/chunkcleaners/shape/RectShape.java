@@ -0,0 +1,49 @@
+package me.d15c07d.chunkcleaners.shape;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * Axis-aligned rectangle of chunks, corners inclusive. The classic square cleaner footprint is one of these.
+ */
+public final class RectShape extends ChunkShape {
+
+    public RectShape(int x1, int z1, int x2, int z2) {
+        super(x1, z1, x2, z2);
+    }
+
+    /**
+     * Square of size x size chunks placed in the origin chunk (origin at index size / 2 on both axes).
+     */
+    public static RectShape square(int originChunkX, int originChunkZ, int size) {
+        int half = size / 2;
+        int x0 = originChunkX - half;
+        int z0 = originChunkZ - half;
+        return new RectShape(x0, z0, x0 + size - 1, z0 + size - 1);
+    }
+
+    @Override
+    public boolean contains(int chunkX, int chunkZ) {
+        return chunkX >= minX && chunkX <= maxX && chunkZ >= minZ && chunkZ <= maxZ;
+    }
+
+    @Override
+    protected int countChunks() {
+        return (maxX - minX + 1) * (maxZ - minZ + 1);
+    }
+
+    @Override
+    public String getKind() { return "rect"; }
+
+    @Override
+    public String describe() {
+        return "rect " + minX + "," + minZ + ".." + maxX + "," + maxZ;
+    }
+
+    @Override
+    protected void writeDefinition(ConfigurationSection sec) {
+        sec.set("minX", minX);
+        sec.set("minZ", minZ);
+        sec.set("maxX", maxX);
+        sec.set("maxZ", maxZ);
+    }
+}
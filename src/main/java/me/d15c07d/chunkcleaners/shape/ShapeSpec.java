@@ -0,0 +1,133 @@
+package me.d15c07d.chunkcleaners.shape;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Shape of a cleaner type as configured (types.&lt;key&gt;.shape), relative to the chunk the cleaner is placed in.
+ * Turned into an absolute {@link ChunkShape} at placement; REGION shapes are resolved by the integration manager
+ * from the WorldGuard region or GriefPrevention claim at the placement spot.
+ */
+public final class ShapeSpec {
+
+    public enum Kind { SQUARE, CIRCLE, POLYGON, CHUNKS, REGION }
+
+    private final Kind kind;
+    private final int size;
+    private final int radius;
+    // chunk offsets from the origin chunk (POLYGON: outline through chunk centres, CHUNKS: the chunks)
+    private final List<int[]> offsets;
+
+    private ShapeSpec(Kind kind, int size, int radius, List<int[]> offsets) {
+        this.kind = kind;
+        this.size = Math.max(1, size);
+        this.radius = Math.max(0, radius);
+        this.offsets = offsets == null ? List.of() : List.copyOf(offsets);
+    }
+
+    public static ShapeSpec square(int size) {
+        return new ShapeSpec(Kind.SQUARE, size, 0, null);
+    }
+
+    /**
+     * Read the shape keys of a type section; anything invalid, or a circle, polygon or chunk list over maxChunks
+     * chunks (or whose bounding box, which the cursor walks, is over 16 times that), falls back to a square of
+     * the type's size.
+     */
+    public static ShapeSpec fromConfig(ConfigurationSection type, int size, int maxChunks, Logger log) {
+        String raw = type.getString("shape", "square");
+        Kind kind;
+        try {
+            kind = Kind.valueOf(raw.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException iae) {
+            log.warning("Unknown shape '" + raw + "' for cleaner type " + type.getName() + "; using a square.");
+            return square(size);
+        }
+        try {
+            switch (kind) {
+                case CIRCLE:
+                    return checkArea(new ShapeSpec(kind, size, type.getInt("radius", size / 2), null), maxChunks);
+                case POLYGON: {
+                    List<int[]> points = parsePoints(type.getStringList("points"), 0, 0);
+                    if (points.size() < 3) throw new IllegalArgumentException("needs at least 3 points");
+                    return checkArea(new ShapeSpec(kind, size, 0, points), maxChunks);
+                }
+                case CHUNKS: {
+                    List<int[]> chunks = parsePoints(type.getStringList("chunks"), 0, 0);
+                    if (chunks.isEmpty()) throw new IllegalArgumentException("needs at least one chunk");
+                    return checkArea(new ShapeSpec(kind, size, 0, chunks), maxChunks);
+                }
+                default:
+                    return new ShapeSpec(kind, size, 0, null);
+            }
+        } catch (IllegalArgumentException iae) {
+            log.warning("Invalid " + raw + " shape for cleaner type " + type.getName() + " (" + iae.getMessage() + "); using a square.");
+            return square(size);
+        }
+    }
+
+    // same guard as region outlines: huge bounding boxes are turned away before counting chunks
+    private static ShapeSpec checkArea(ShapeSpec spec, int maxChunks) {
+        ChunkShape shape = spec.at(0, 0);
+        long max = Math.max(1, maxChunks);
+        if (shape.getBoundsArea() > 16L * max) {
+            throw new IllegalArgumentException("bounding box of " + shape.getBoundsArea() + " chunks, max " + 16L * max);
+        }
+        if (shape.getChunkCount() > max) {
+            throw new IllegalArgumentException(shape.getChunkCount() + " chunks, max " + max);
+        }
+        return spec;
+    }
+
+    /**
+     * "x,z" strings to {x + offX, z + offZ} pairs.
+     *
+     * @throws IllegalArgumentException on a malformed entry
+     */
+    public static List<int[]> parsePoints(List<String> raw, int offX, int offZ) {
+        List<int[]> out = new ArrayList<>(raw.size());
+        for (String s : raw) {
+            String[] parts = s.split(",");
+            if (parts.length != 2) throw new IllegalArgumentException("bad point '" + s + "'");
+            try {
+                out.add(new int[] { Integer.parseInt(parts[0].trim()) + offX, Integer.parseInt(parts[1].trim()) + offZ });
+            } catch (NumberFormatException nfe) {
+                throw new IllegalArgumentException("bad point '" + s + "'");
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Absolute shape for a cleaner placed in the origin chunk; null for REGION, which needs the world.
+     */
+    public ChunkShape at(int originChunkX, int originChunkZ) {
+        switch (kind) {
+            case CIRCLE:
+                return new CircleShape(originChunkX, originChunkZ, radius);
+            case POLYGON: {
+                List<int[]> chunks = new ArrayList<>(offsets.size());
+                for (int[] o : offsets) chunks.add(new int[] { originChunkX + o[0], originChunkZ + o[1] });
+                return PolygonShape.ofChunkCentres(chunks);
+            }
+            case CHUNKS: {
+                List<int[]> chunks = new ArrayList<>(offsets.size());
+                for (int[] o : offsets) chunks.add(new int[] { originChunkX + o[0], originChunkZ + o[1] });
+                return ChunkListShape.of(chunks);
+            }
+            case REGION:
+                return null;
+            default:
+                return RectShape.square(originChunkX, originChunkZ, size);
+        }
+    }
+
+    public Kind getKind() { return kind; }
+    /** Square side; also the fallback when a REGION placement finds no region. */
+    public int getSize() { return size; }
+    public int getRadius() { return radius; }
+}
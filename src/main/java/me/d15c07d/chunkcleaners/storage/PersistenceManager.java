@@ -1,6 +1,14 @@
 package me.d15c07d.chunkcleaners.storage;
 
 import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.integration.ColumnMask;
+import me.d15c07d.chunkcleaners.io.IoExecutor;
+import me.d15c07d.chunkcleaners.job.MaintenanceJob;
+import me.d15c07d.chunkcleaners.profiler.PhaseProfiler.Phase;
+import me.d15c07d.chunkcleaners.region.OfflineRegionJob;
+import me.d15c07d.chunkcleaners.shape.ChunkOrder;
+import me.d15c07d.chunkcleaners.shape.ChunkShape;
+import me.d15c07d.chunkcleaners.shape.RectShape;
 import me.d15c07d.chunkcleaners.task.ChunkCleanerTask;
 import me.d15c07d.chunkcleaners.task.ChunkCleanerManager;
 import org.bukkit.configuration.ConfigurationSection;
@@ -8,30 +16,55 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.scheduler.BukkitRunnable;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class PersistenceManager {
 
     private final ChunkCleanersPlugin plugin;
     private final File file;
+    // committed cursors of every cleaner, rewritten by each checkpoint; cheap next to the whole YAML
+    private final File cursorFile;
     private final YamlConfiguration yaml;
     private ChunkCleanerManager manager;
 
+    // latest serialized state waiting for the I/O executor
+    private final AtomicReference<String> pendingWrite = new AtomicReference<>();
+    private final AtomicBoolean writeQueued = new AtomicBoolean(false);
+    private final AtomicReference<String> pendingCursors = new AtomicReference<>();
+    private final AtomicBoolean cursorsQueued = new AtomicBoolean(false);
+    private final Object writeLock = new Object();
+
     private final AtomicBoolean autosaveRunning = new AtomicBoolean(false);
     private BukkitRunnable autosaveTask;
+    private BukkitRunnable checkpointTask;
 
     public PersistenceManager(ChunkCleanersPlugin plugin) {
         this.plugin = plugin;
         String path = plugin.getConfig().getString("persistence-file", "data/active-cleaners.yml");
         this.file = new File(plugin.getDataFolder(), path);
         if (!file.getParentFile().exists()) file.getParentFile().mkdirs();
+        this.cursorFile = new File(file.getParentFile(), file.getName() + ".cursors");
         this.yaml = YamlConfiguration.loadConfiguration(file);
 
         try {
             boolean enabled = plugin.getConfig().getBoolean("persistence.autosave_enabled", true);
             int interval = plugin.getConfig().getInt("persistence.autosave_interval_seconds", 60);
             if (enabled && interval > 0) startAutosave(interval);
+            int checkpointTicks = plugin.getConfig().getInt("persistence.checkpoint_interval_ticks", 1);
+            if (checkpointTicks > 0) startCheckpoints(checkpointTicks);
         } catch (Throwable t) {
             plugin.getLogger().fine("PersistenceManager autosave not started: " + t.getMessage());
         }
@@ -41,33 +74,133 @@ public class PersistenceManager {
         this.manager = manager;
     }
 
+    /** Chunks saved before their relight finished, next to the persistence file. */
+    public File getRelightFile() {
+        return new File(file.getParentFile(), "relight-pending.yml");
+    }
+
+    /** Completion bitmaps of maintenance jobs, next to the persistence file. */
+    public File getJobFolder() {
+        return new File(file.getParentFile(), "jobs");
+    }
+
     public synchronized void save() {
         yaml.set("active", null);
         if (manager == null) return;
+        long t0 = plugin.getProfiler().begin();
         for (ChunkCleanerTask t : manager.getActiveTasks()) {
+            // job workers are transient; the job's bitmap holds their progress
+            if (t.getJob() != null) continue;
             writeTaskBase(t);
+            writeTaskProgress(t);
         }
-        try {
-            yaml.save(file);
-        } catch (Exception e) {
-            plugin.getLogger().warning("Failed to save active cleaners: " + e.getMessage());
+        for (OfflineRegionJob j : manager.getOfflineCleaner().getJobs()) {
+            writeOfflineJob(j);
         }
+        for (MaintenanceJob j : manager.getJobManager().getJobs()) {
+            writeMaintenanceJob(j);
+        }
+        writeAsync();
+        plugin.getProfiler().end(Phase.SAVE_ALL, null, t0);
     }
 
-    public synchronized void saveTaskProgress(ChunkCleanerTask t) {
-        if (t == null) return;
+    /**
+     * Write a cleaner's whole record, shape and column masks included; done when it is admitted and on request.
+     */
+    public synchronized void saveTask(ChunkCleanerTask t) {
+        if (t == null || t.getJob() != null) return;
+        long t0 = plugin.getProfiler().begin();
         writeTaskBase(t);
+        writeTaskProgress(t);
+        writeAsync();
+        plugin.getProfiler().end(Phase.SAVE_PROGRESS, t.getId(), t0);
+    }
 
-        String key = "active." + t.getId().toString() + ".progress";
-        yaml.set(key + ".currentChunkIndex", t.getCurrentChunkIndex());
-        yaml.set(key + ".currentY", t.getCurrentY());
-        yaml.set(key + ".startedAt", t.getStartedAt());
+    /**
+     * Write a cleaner's cursor and paused flag (park, pause, resume); the rest of the record only when it is
+     * missing.
+     */
+    public synchronized void saveTaskProgress(ChunkCleanerTask t) {
+        if (t == null || t.getJob() != null) return;
+        long t0 = plugin.getProfiler().begin();
+        if (!yaml.contains("active." + t.getId() + ".world")) writeTaskBase(t);
+        writeTaskProgress(t);
+        writeAsync();
+        plugin.getProfiler().end(Phase.SAVE_PROGRESS, t.getId(), t0);
+    }
+
+    /**
+     * If any cleaner applied a batch since the last checkpoint, write the committed cursors of all cleaners to
+     * the cursor file. That is one short line per cleaner, so it runs every persistence.checkpoint_interval_ticks
+     * (every tick by default) and a crash loses at most the batch applied in the last tick. Ticks without
+     * progress cost nothing; the YAML itself is only written on admission, park and autosave.
+     */
+    public synchronized void checkpoint() {
+        if (manager == null) return;
+        boolean any = false;
+        StringBuilder sb = new StringBuilder();
+        for (ChunkCleanerTask t : manager.getActiveTasks()) {
+            if (t.getJob() != null) continue;
+            if (t.takeCheckpointDirty()) any = true;
+            sb.append(t.getId()).append(' ').append(t.getCurrentChunkIndex()).append(' ')
+                    .append(t.isYInitialized() ? String.valueOf(t.getCurrentY()) : "-").append('\n');
+        }
+        if (!any) return;
+        pendingCursors.set(sb.toString());
+        if (cursorsQueued.compareAndSet(false, true)) {
+            plugin.getIoExecutor().execute(IoExecutor.Resource.PERSISTENCE, this::drainCursors);
+        }
+    }
+
+    private void drainCursors() {
+        cursorsQueued.set(false);
+        synchronized (writeLock) {
+            String data = pendingCursors.getAndSet(null);
+            if (data == null) return;
+            try {
+                writeAtomically(cursorFile, data);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to save cleaner cursors: " + e.getMessage());
+            }
+        }
+    }
 
+    // id -> {chunk index, y or Integer.MIN_VALUE}; empty without a cursor file
+    private Map<UUID, int[]> readCursors() {
+        Map<UUID, int[]> out = new HashMap<>();
+        if (!cursorFile.isFile()) return out;
         try {
-            yaml.save(file);
-        } catch (Exception e) {
-            plugin.getLogger().warning("Failed to save task progress for " + t.getId() + ": " + e.getMessage());
+            for (String line : Files.readAllLines(cursorFile.toPath(), StandardCharsets.UTF_8)) {
+                String[] parts = line.trim().split(" ");
+                if (parts.length != 3) continue;
+                try {
+                    out.put(UUID.fromString(parts[0]), new int[] { Integer.parseInt(parts[1]),
+                            "-".equals(parts[2]) ? Integer.MIN_VALUE : Integer.parseInt(parts[2]) });
+                } catch (IllegalArgumentException ignored) {
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to read cleaner cursors: " + e.getMessage());
         }
+        return out;
+    }
+
+    // true if cursor a is further along than cursor b in the given sweep order
+    private static boolean isAhead(ChunkCleanerTask.SweepOrder order, int indexA, int yA, int indexB, int yB) {
+        if (order == ChunkCleanerTask.SweepOrder.LAYER) return yA != yB ? yA < yB : indexA > indexB;
+        return indexA != indexB ? indexA > indexB : yA < yB;
+    }
+
+    // committed cursor only: the batch it points at has not been applied yet
+    private void writeTaskProgress(ChunkCleanerTask t) {
+        String base = "active." + t.getId().toString();
+        String key = base + ".progress";
+        yaml.set(key + ".currentChunkIndex", t.getCurrentChunkIndex());
+        if (t.isYInitialized()) yaml.set(key + ".currentY", t.getCurrentY());
+        yaml.set(key + ".startedAt", t.getStartedAt());
+        // paused through the API; stays paused after a restart
+        boolean paused = t.getState() == ChunkCleanerTask.State.PARKED && t.getParkReason() == ChunkCleanerTask.ParkReason.PAUSED;
+        yaml.set(base + ".paused", paused ? true : null);
     }
 
     private void writeTaskBase(ChunkCleanerTask t) {
@@ -79,8 +212,27 @@ public class PersistenceManager {
         yaml.set(base + ".world", t.getWorldName());
         yaml.set(base + ".type", t.getTypeKey());
         yaml.set(base + ".size", t.getSize());
+        // the footprint definition plus the order its chunks are walked in; the cursor is an ordinal of that walk
+        yaml.set(base + ".shape", null);
+        t.getShape().save(yaml.createSection(base + ".shape"));
+        yaml.set(base + ".chunkOrder", t.getChunkOrder().name().toLowerCase(Locale.ROOT));
         yaml.set(base + ".duration", t.getDurationSeconds());
         yaml.set(base + ".startedAt", t.getStartedAt());
+        // the saved cursor only means something in the order it was made in
+        yaml.set(base + ".sweepOrder", t.getSweepOrder().name().toLowerCase(Locale.ROOT));
+        yaml.set(base + ".layerBand", t.getSweepOrder() == ChunkCleanerTask.SweepOrder.LAYER ? t.getLayerBand() : null);
+        // editable columns of protected footprint chunks (chunk key -> 4 longs), decided at placement
+        yaml.set(base + ".protectedChunks", null);
+        yaml.set(base + ".columnMasks", null);
+        Map<Long, long[]> masks = t.getColumnMasks();
+        if (masks != null) {
+            ConfigurationSection sec = yaml.createSection(base + ".columnMasks");
+            for (Map.Entry<Long, long[]> e : masks.entrySet()) {
+                List<Long> words = new ArrayList<>(ColumnMask.WORDS);
+                for (long w : e.getValue()) words.add(w);
+                sec.set(String.valueOf(e.getKey()), words);
+            }
+        }
 
         // Persist placement block coords
         yaml.set(base + ".placedBlockX", t.getPlacedBlockX());
@@ -88,6 +240,165 @@ public class PersistenceManager {
         yaml.set(base + ".placedBlockZ", t.getPlacedBlockZ());
     }
 
+    /**
+     * Offline region jobs share the "active" records with normal cleaners, tagged with mode: offline.
+     */
+    public synchronized void saveOfflineJob(OfflineRegionJob j) {
+        if (j == null) return;
+        long t0 = plugin.getProfiler().begin();
+        writeOfflineJob(j);
+        writeAsync();
+        plugin.getProfiler().end(Phase.SAVE_PROGRESS, j.getId(), t0);
+    }
+
+    /**
+     * Maintenance jobs are tagged with mode: job; their progress lives in the bitmap file, the record only keeps
+     * a summary for status output.
+     */
+    public synchronized void saveMaintenanceJob(MaintenanceJob j) {
+        if (j == null) return;
+        long t0 = plugin.getProfiler().begin();
+        writeMaintenanceJob(j);
+        writeAsync();
+        plugin.getProfiler().end(Phase.SAVE_PROGRESS, j.getId(), t0);
+    }
+
+    public synchronized void removeRecord(UUID id) {
+        if (id == null) return;
+        yaml.set("active." + id, null);
+        writeAsync();
+    }
+
+    /**
+     * Serialize now (cheap, keeps the YAML tree single-threaded) and hand the text to the I/O executor.
+     * Saves that arrive while a write is queued replace its text, so bursts of progress saves collapse into
+     * one disk write of the latest state.
+     */
+    private void writeAsync() {
+        pendingWrite.set(yaml.saveToString());
+        if (writeQueued.compareAndSet(false, true)) {
+            plugin.getIoExecutor().execute(IoExecutor.Resource.PERSISTENCE, this::drainWrite);
+        }
+    }
+
+    private void drainWrite() {
+        writeQueued.set(false);
+        // the lock keeps two drains from landing out of order
+        synchronized (writeLock) {
+            String data = pendingWrite.getAndSet(null);
+            if (data == null) return;
+            try {
+                writeAtomically(file, data);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to save active cleaners: " + e.getMessage());
+            }
+        }
+    }
+
+    // write to a sibling temp file and move it over, so a crash mid-write never leaves a truncated file
+    private static void writeAtomically(File file, String data) throws IOException {
+        Path target = file.toPath();
+        Path tmp = target.resolveSibling(file.getName() + ".tmp");
+        Files.writeString(tmp, data, StandardCharsets.UTF_8);
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void writeOfflineJob(OfflineRegionJob j) {
+        String base = "active." + j.getId().toString();
+        yaml.set(base + ".mode", "offline");
+        yaml.set(base + ".ownerUuid", j.getOwnerUuid() == null ? null : j.getOwnerUuid().toString());
+        yaml.set(base + ".ownerName", j.getOwnerName());
+        yaml.set(base + ".world", j.getWorldName());
+        yaml.set(base + ".minChunkX", j.getMinChunkX());
+        yaml.set(base + ".minChunkZ", j.getMinChunkZ());
+        yaml.set(base + ".maxChunkX", j.getMaxChunkX());
+        yaml.set(base + ".maxChunkZ", j.getMaxChunkZ());
+        yaml.set(base + ".shape", null);
+        j.getShape().save(yaml.createSection(base + ".shape"));
+        yaml.set(base + ".startedAt", j.getStartedAt());
+        yaml.set(base + ".progress.cursor", j.getCursor());
+        yaml.set(base + ".progress.cleared", j.getCleared().get());
+        yaml.set(base + ".progress.blocksRemoved", j.getBlocksRemoved().get());
+        yaml.set(base + ".progress.skippedLoaded", j.getSkippedLoaded().get());
+        yaml.set(base + ".progress.skippedConflict", j.getSkippedConflict().get());
+        yaml.set(base + ".progress.skippedUnsupported", j.getSkippedUnsupported().get());
+        yaml.set(base + ".progress.skippedTooLarge", j.getSkippedTooLarge().get());
+    }
+
+    private void writeMaintenanceJob(MaintenanceJob j) {
+        String base = "active." + j.getId().toString();
+        yaml.set(base + ".mode", "job");
+        yaml.set(base + ".ownerUuid", j.getOwnerUuid() == null ? null : j.getOwnerUuid().toString());
+        yaml.set(base + ".ownerName", j.getOwnerName());
+        yaml.set(base + ".world", j.getWorldName());
+        yaml.set(base + ".shape", null);
+        j.getShape().save(yaml.createSection(base + ".shape"));
+        // the bitmap is indexed by this walk
+        yaml.set(base + ".chunkOrder", j.getOrder().name().toLowerCase(Locale.ROOT));
+        yaml.set(base + ".startedAt", j.getStartedAt());
+        yaml.set(base + ".progress.done", j.getDoneChunks());
+        yaml.set(base + ".progress.total", j.getTotalChunks());
+        yaml.set(base + ".progress.blocksRemoved", j.getBlocksRemoved());
+    }
+
+    private MaintenanceJob readMaintenanceJob(UUID id, ConfigurationSection t) {
+        ChunkShape shape = ChunkShape.load(t.getConfigurationSection("shape"));
+        if (shape == null) throw new IllegalArgumentException("missing shape");
+        String owner = t.getString("ownerUuid");
+        MaintenanceJob j = new MaintenanceJob(id, owner == null ? null : UUID.fromString(owner), t.getString("ownerName", "console"),
+                t.getString("world"), shape, ChunkOrder.parse(t.getString("chunkOrder"), ChunkOrder.HILBERT));
+        j.setStartedAt(t.getLong("startedAt", System.currentTimeMillis() / 1000L));
+        j.setBlocksRemoved(t.getLong("progress.blocksRemoved", 0L));
+        return j;
+    }
+
+    // null when the cleaner was saved before protection was precomputed
+    private static Map<Long, long[]> readColumnMasks(ConfigurationSection t) {
+        Map<Long, long[]> masks = new HashMap<>();
+        ConfigurationSection sec = t.getConfigurationSection("columnMasks");
+        if (sec != null) {
+            for (String key : sec.getKeys(false)) {
+                List<Long> words = sec.getLongList(key);
+                if (words.size() != ColumnMask.WORDS) continue;
+                long[] mask = new long[ColumnMask.WORDS];
+                for (int i = 0; i < mask.length; i++) mask[i] = words.get(i);
+                masks.put(Long.parseLong(key), mask);
+            }
+            return masks;
+        }
+        if (t.contains("protectedChunks")) {
+            // whole-chunk list written by earlier builds
+            for (long key : t.getLongList("protectedChunks")) masks.put(key, new long[ColumnMask.WORDS]);
+            return masks;
+        }
+        return null;
+    }
+
+    private OfflineRegionJob readOfflineJob(UUID id, ConfigurationSection t) {
+        String owner = t.getString("ownerUuid");
+        // rectangle jobs saved before shapes existed only have the corners
+        ChunkShape shape = ChunkShape.load(t.getConfigurationSection("shape"));
+        if (shape == null) shape = new RectShape(t.getInt("minChunkX"), t.getInt("minChunkZ"), t.getInt("maxChunkX"), t.getInt("maxChunkZ"));
+        OfflineRegionJob j = new OfflineRegionJob(id, owner == null ? null : UUID.fromString(owner), t.getString("ownerName", "console"),
+                t.getString("world"), shape);
+        j.setStartedAt(t.getLong("startedAt", System.currentTimeMillis() / 1000L));
+        ConfigurationSection progress = t.getConfigurationSection("progress");
+        if (progress != null) {
+            j.setCursor(progress.getInt("cursor", 0));
+            j.getCleared().set(progress.getLong("cleared", 0L));
+            j.getBlocksRemoved().set(progress.getLong("blocksRemoved", 0L));
+            j.getSkippedLoaded().set(progress.getLong("skippedLoaded", 0L));
+            j.getSkippedConflict().set(progress.getLong("skippedConflict", 0L));
+            j.getSkippedUnsupported().set(progress.getLong("skippedUnsupported", 0L));
+            j.getSkippedTooLarge().set(progress.getLong("skippedTooLarge", 0L));
+        }
+        return j;
+    }
+
     public void load() {
         ConfigurationSection sec = yaml.getConfigurationSection("active");
         if (sec == null) return;
@@ -95,10 +406,19 @@ public class PersistenceManager {
             plugin.getLogger().warning("PersistenceManager.load() called before manager set.");
             return;
         }
+        Map<UUID, int[]> cursors = readCursors();
         for (String key : sec.getKeys(false)) {
             ConfigurationSection t = sec.getConfigurationSection(key);
             try {
                 UUID id = UUID.fromString(key);
+                if ("offline".equals(t.getString("mode"))) {
+                    manager.getOfflineCleaner().addLoadedJob(readOfflineJob(id, t));
+                    continue;
+                }
+                if ("job".equals(t.getString("mode"))) {
+                    manager.getJobManager().addLoadedJob(readMaintenanceJob(id, t));
+                    continue;
+                }
                 UUID owner = UUID.fromString(t.getString("ownerUuid"));
                 String ownerName = t.getString("ownerName", "unknown");
                 int chunkX = t.getInt("chunkX");
@@ -110,11 +430,12 @@ public class PersistenceManager {
                 long startedAt = t.getLong("startedAt", System.currentTimeMillis() / 1000L);
 
                 int currentChunkIndex = 0;
-                int currentY = 0;
+                Integer currentY = null;
                 ConfigurationSection progress = t.getConfigurationSection("progress");
                 if (progress != null) {
                     currentChunkIndex = progress.getInt("currentChunkIndex", 0);
-                    currentY = progress.getInt("currentY", 0);
+                    // y = 0 is a real level, only a missing key means "start at the top"
+                    if (progress.contains("currentY")) currentY = progress.getInt("currentY");
                 }
 
                 // Read placed block coords (fallback to chunk center if missing)
@@ -122,12 +443,28 @@ public class PersistenceManager {
                 int placedY = t.getInt("placedBlockY", 64);
                 int placedZ = t.getInt("placedBlockZ", (chunkZ << 4) + 8);
 
+                // saves from before shapes existed: a square walked row by row
+                ChunkShape shape = ChunkShape.load(t.getConfigurationSection("shape"));
+                if (shape == null) shape = RectShape.square(chunkX, chunkZ, Math.max(1, size));
+                ChunkOrder order = ChunkOrder.parse(t.getString("chunkOrder"), ChunkOrder.ROW);
+
                 // create task and restore progress
-                ChunkCleanerTask task = new ChunkCleanerTask(id, owner, ownerName, chunkX, chunkZ, world, type, size, duration, plugin, placedX, placedY, placedZ);
+                ChunkCleanerTask task = new ChunkCleanerTask(id, owner, ownerName, chunkX, chunkZ, world, type, shape, order, duration, plugin, placedX, placedY, placedZ);
                 task.setStartedAt(startedAt);
+                // older saves were always made in chunk order
+                task.setSweepOrder("layer".equalsIgnoreCase(t.getString("sweepOrder", "chunk"))
+                        ? ChunkCleanerTask.SweepOrder.LAYER : ChunkCleanerTask.SweepOrder.CHUNK, t.getInt("layerBand", 4));
+                // the cursor file is written after every batch, the record only on park and autosave
+                int[] cursor = cursors.get(id);
+                if (cursor != null && cursor[1] != Integer.MIN_VALUE && (currentY == null
+                        || isAhead(task.getSweepOrder(), cursor[0], cursor[1], currentChunkIndex, currentY))) {
+                    currentChunkIndex = cursor[0];
+                    currentY = cursor[1];
+                }
                 task.setCurrentChunkIndex(currentChunkIndex);
-                if (currentY != 0) task.setCurrentY(currentY);
-                manager.addLoadedTask(task);
+                if (currentY != null) task.setCurrentY(currentY);
+                task.setColumnMasks(readColumnMasks(t));
+                manager.addLoadedTask(task, t.getBoolean("paused", false));
             } catch (Exception e) {
                 plugin.getLogger().warning("Failed to load cleaner " + key + ": " + e.getMessage());
             }
@@ -156,5 +493,23 @@ public class PersistenceManager {
             try { autosaveTask.cancel(); } catch (Throwable ignored) {}
             autosaveTask = null;
         }
+        if (checkpointTask != null) {
+            try { checkpointTask.cancel(); } catch (Throwable ignored) {}
+            checkpointTask = null;
+        }
+    }
+
+    private void startCheckpoints(int intervalTicks) {
+        checkpointTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                try {
+                    checkpoint();
+                } catch (Throwable t) {
+                    plugin.getLogger().fine("Checkpoint failed: " + t.getMessage());
+                }
+            }
+        };
+        checkpointTask.runTaskTimer(plugin, intervalTicks, intervalTicks);
     }
 }
\ No newline at end of file
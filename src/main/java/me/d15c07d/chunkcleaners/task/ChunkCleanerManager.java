@@ -4,20 +4,36 @@ import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
 import me.d15c07d.chunkcleaners.ItemFactory;
 import me.d15c07d.chunkcleaners.config.ConfigManager;
 import me.d15c07d.chunkcleaners.integration.IntegrationManager;
+import me.d15c07d.chunkcleaners.job.MaintenanceJobManager;
+import me.d15c07d.chunkcleaners.journal.UndoJournalManager;
+import me.d15c07d.chunkcleaners.region.OfflineRegionCleaner;
+import me.d15c07d.chunkcleaners.shape.ChunkOrder;
+import me.d15c07d.chunkcleaners.shape.ChunkShape;
+import me.d15c07d.chunkcleaners.shape.RectShape;
+import me.d15c07d.chunkcleaners.shape.ShapeSpec;
 import me.d15c07d.chunkcleaners.storage.PersistenceManager;
+import me.d15c07d.chunkcleaners.tune.AutoTuner;
 import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 public class ChunkCleanerManager {
 
+    // owners of cleaners no player placed; kept distinct so per-owner limits and listings tell them apart
+    public static final UUID CONSOLE_OWNER = new UUID(0L, 0L);
+    public static final UUID TUNER_OWNER = new UUID(0L, 1L);
+
     private final ChunkCleanersPlugin plugin;
     private final PersistenceManager persistence;
     private final ConfigManager config;
@@ -27,11 +43,84 @@ public class ChunkCleanerManager {
     // key: unique id (UUID), value: active cleaner
     private final Map<UUID, ChunkCleanerTask> active = new ConcurrentHashMap<>();
 
+    // shared relight / resend queues for direct section writes (lighting.mode=deferred, network.mode=resend)
+    private final ChunkResendQueue resendQueue;
+    private final ChunkTickets chunkTickets;
+    private final RelightQueue relightQueue;
+    // region-file cleaner for unloaded chunks (admin offline)
+    private final OfflineRegionCleaner offlineCleaner;
+    // world-scale maintenance jobs run by worker cleaners (admin job)
+    private final MaintenanceJobManager jobManager;
+    // benchmark behind /chunkcleaners admin tune
+    private final AutoTuner autoTuner;
+    // footprint prescans (/chunkcleaners estimate, held-item preview)
+    private final WorkEstimator estimator;
+    // undo journals of cleaned blocks (/chunkcleaners undo)
+    private final UndoJournalManager journals;
+
+    // one aggregated action bar / boss bar per owner
+    private final OwnerProgressDisplay progressDisplay;
+    private final WorldBudget worldBudget;
+
+    // restored tasks waiting to be admitted, oldest first (main thread only)
+    private final Queue<ChunkCleanerTask> resumeQueue = new PriorityQueue<>(Comparator.comparingLong(ChunkCleanerTask::getStartedAt));
+    private BukkitTask resumeTask;
+
     public ChunkCleanerManager(ChunkCleanersPlugin plugin, PersistenceManager persistence, ConfigManager config, IntegrationManager integration) {
         this.plugin = plugin;
         this.persistence = persistence;
         this.config = config;
         this.integration = integration;
+        this.resendQueue = new ChunkResendQueue(plugin);
+        this.resendQueue.start();
+        this.chunkTickets = new ChunkTickets(plugin);
+        this.relightQueue = new RelightQueue(plugin, resendQueue, chunkTickets, persistence.getRelightFile());
+        this.relightQueue.start();
+        this.offlineCleaner = new OfflineRegionCleaner(plugin);
+        this.jobManager = new MaintenanceJobManager(plugin, this);
+        this.jobManager.start();
+        this.autoTuner = new AutoTuner(plugin, this);
+        this.estimator = new WorkEstimator(plugin);
+        this.journals = new UndoJournalManager(plugin);
+        this.journals.start();
+        this.progressDisplay = new OwnerProgressDisplay(plugin, this);
+        this.progressDisplay.start();
+        this.worldBudget = new WorldBudget(plugin, this);
+        this.worldBudget.start();
+        startResumeQueue();
+    }
+
+    /**
+     * Admit queued tasks at startup.resume_batch_size per startup.resume_interval_ticks, after
+     * startup.resume_delay_ticks, so a restart with many saved cleaners does not start them all in one tick.
+     */
+    private void startResumeQueue() {
+        long delay = Math.max(1L, plugin.getConfig().getLong("startup.resume_delay_ticks", 100L));
+        long interval = Math.max(1L, plugin.getConfig().getLong("startup.resume_interval_ticks", 20L));
+        resumeTask = Bukkit.getScheduler().runTaskTimer(plugin, this::admitQueued, delay, interval);
+    }
+
+    private void admitQueued() {
+        int batch = Math.max(1, plugin.getConfig().getInt("startup.resume_batch_size", 2));
+        int admitted = 0;
+        while (admitted < batch) {
+            ChunkCleanerTask t = resumeQueue.poll();
+            if (t == null) break;
+            // cancelled, or woken some other way while waiting
+            if (!active.containsKey(t.getId()) || t.getState() != ChunkCleanerTask.State.PARKED
+                    || t.getParkReason() != ChunkCleanerTask.ParkReason.RESUMING) continue;
+            admit(t);
+            admitted++;
+        }
+    }
+
+    private void enqueueResume(ChunkCleanerTask t) {
+        t.park(ChunkCleanerTask.ParkReason.RESUMING);
+        resumeQueue.add(t);
+    }
+
+    public int getResumeQueueSize() {
+        return resumeQueue.size();
     }
 
     public void giveCleanerItem(OfflinePlayer player, ConfigManager.CleanerType type, int amount) {
@@ -43,19 +132,165 @@ public class ChunkCleanerManager {
         }
     }
 
-    public void startCleaner(Player owner, Location placeLocation, ConfigManager.CleanerType type) {
+    public UUID startCleaner(Player owner, Location placeLocation, ConfigManager.CleanerType type) {
         Chunk chunk = placeLocation.getChunk();
         UUID id = UUID.randomUUID();
         // Pass placed block coordinates to task so hologram can anchor exactly above placed block
         int bx = placeLocation.getBlockX();
         int by = placeLocation.getBlockY();
         int bz = placeLocation.getBlockZ();
+        ChunkShape shape = resolveShape(type, placeLocation);
         ChunkCleanerTask task = new ChunkCleanerTask(id, owner.getUniqueId(), owner.getName(),
                 chunk.getX(), chunk.getZ(), placeLocation.getWorld().getName(),
-                type.getKey(), type.getSize(), type.getDurationSeconds(), plugin,
+                type.getKey(), shape, getChunkOrder().fitFor(shape, chunk.getX(), chunk.getZ()), type.getDurationSeconds(), plugin,
                 bx, by, bz);
+        // reuse a prescan the player just ran for this spot
+        Optional<WorkEstimator.Estimate> estimate = estimator.takeRecent(owner.getUniqueId(), placeLocation.getWorld().getName(), chunk.getX(), chunk.getZ(), type.getKey());
+        if (estimate.isPresent()) task.applyEstimate(estimate.get());
+        else task.computeProtection(placeLocation.getWorld());
         active.put(id, task);
-        task.start();
+        // shape and masks are written once here; later saves only touch the cursor
+        persistence.saveTask(task);
+        admit(task);
+        return id;
+    }
+
+    /**
+     * Footprint of a cleaner of the given type placed at the location (main thread). Region shapes take the
+     * outline of the region or claim there; without one, or if it has more than shapes.max_region_chunks chunks,
+     * the type's square is used instead.
+     */
+    public ChunkShape resolveShape(ConfigManager.CleanerType type, Location at) {
+        ShapeSpec spec = type.getShape();
+        int originX = at.getBlockX() >> 4;
+        int originZ = at.getBlockZ() >> 4;
+        if (spec.getKind() != ShapeSpec.Kind.REGION) return spec.at(originX, originZ);
+        ChunkShape outline = integration.regionOutlineAt(at);
+        int max = Math.max(1, plugin.getConfig().getInt("shapes.max_region_chunks", 1024));
+        // huge bounding boxes are turned away before counting chunks
+        if (outline != null && outline.getBoundsArea() <= 16L * max && outline.getChunkCount() > 0 && outline.getChunkCount() <= max) return outline;
+        return RectShape.square(originX, originZ, spec.getSize());
+    }
+
+    /** Order new cleaners visit their chunks in (shapes.order). */
+    public ChunkOrder getChunkOrder() {
+        return ChunkOrder.parse(plugin.getConfig().getString("shapes.order", "spiral"), ChunkOrder.SPIRAL);
+    }
+
+    /**
+     * Register a maintenance job worker and admit it like a placed cleaner (main thread).
+     */
+    public void addWorker(ChunkCleanerTask worker) {
+        active.put(worker.getId(), worker);
+        admit(worker);
+    }
+
+    /**
+     * Start a task if it can run and a running slot is free; park it otherwise (main thread).
+     */
+    private void admit(ChunkCleanerTask task) {
+        ChunkCleanerTask.ParkReason blocked = task.blockedReason();
+        if (blocked != null) {
+            task.park(blocked);
+        } else if (!hasFreeSlot()) {
+            task.park(ChunkCleanerTask.ParkReason.QUEUE_FULL);
+        } else {
+            task.start();
+        }
+    }
+
+    private boolean hasFreeSlot() {
+        int max = plugin.getConfig().getInt("performance.max_running_tasks", 0);
+        if (max <= 0) return true;
+        long running = active.values().stream().filter(t -> t.getState() == ChunkCleanerTask.State.RUNNING).count();
+        return running < max;
+    }
+
+    /**
+     * A task stopped running (finished, cancelled or parked); hand its slot to the longest waiting task.
+     */
+    public void onTaskStopped(ChunkCleanerTask stopped) {
+        wakeParked(t -> t.getParkReason() == ChunkCleanerTask.ParkReason.QUEUE_FULL);
+    }
+
+    /* ---------------- Park / wake events (main thread) ---------------- */
+
+    /**
+     * Pause a task until {@link #resumeTask(UUID)} (API). Planned batches run first.
+     */
+    public boolean pauseTask(UUID id) {
+        ChunkCleanerTask t = active.get(id);
+        if (t == null || t.getState() == ChunkCleanerTask.State.DONE) return false;
+        t.park(ChunkCleanerTask.ParkReason.PAUSED);
+        persistence.saveTaskProgress(t);
+        return true;
+    }
+
+    public boolean resumeTask(UUID id) {
+        ChunkCleanerTask t = active.get(id);
+        if (t == null || t.getState() != ChunkCleanerTask.State.PARKED || t.getParkReason() != ChunkCleanerTask.ParkReason.PAUSED) return false;
+        admit(t);
+        persistence.saveTaskProgress(t);
+        return true;
+    }
+
+    public boolean cancelTask(UUID id) {
+        ChunkCleanerTask t = active.get(id);
+        if (t == null) return false;
+        t.cancel();
+        return true;
+    }
+
+    /**
+     * End of a cost-policy pause (cost.policy: pause).
+     */
+    public void resumeAfterCostPause(ChunkCleanerTask t) {
+        if (!active.containsKey(t.getId())) return;
+        if (t.getState() == ChunkCleanerTask.State.PARKED && t.getParkReason() == ChunkCleanerTask.ParkReason.OVER_BUDGET) admit(t);
+    }
+
+    public void onOwnerJoin(UUID ownerUuid) {
+        wakeParked(t -> t.getParkReason() == ChunkCleanerTask.ParkReason.OWNER_OFFLINE && ownerUuid.equals(t.getOwnerUuid()));
+    }
+
+    public void onOwnerQuit(UUID ownerUuid) {
+        if (!integration.requiresOnlineOwner()) return;
+        for (ChunkCleanerTask t : new ArrayList<>(active.values())) {
+            if (t.getState() == ChunkCleanerTask.State.RUNNING && ownerUuid.equals(t.getOwnerUuid())
+                    && t.blockedReason() == ChunkCleanerTask.ParkReason.OWNER_OFFLINE) {
+                t.park(ChunkCleanerTask.ParkReason.OWNER_OFFLINE);
+            }
+        }
+    }
+
+    public void onWorldLoad(String worldName) {
+        // through the resume queue: a world with many cleaners loads like a restart
+        List<ChunkCleanerTask> waiting = new ArrayList<>();
+        for (ChunkCleanerTask t : active.values()) {
+            if (t.getState() == ChunkCleanerTask.State.PARKED && t.getParkReason() == ChunkCleanerTask.ParkReason.WORLD_UNLOADED
+                    && worldName.equals(t.getWorldName())) waiting.add(t);
+        }
+        waiting.forEach(this::enqueueResume);
+    }
+
+    public void onWorldUnload(String worldName) {
+        for (ChunkCleanerTask t : new ArrayList<>(active.values())) {
+            if (t.getState() == ChunkCleanerTask.State.RUNNING && worldName.equals(t.getWorldName())) {
+                t.park(ChunkCleanerTask.ParkReason.WORLD_UNLOADED);
+            }
+        }
+    }
+
+    private void wakeParked(Predicate<ChunkCleanerTask> filter) {
+        List<ChunkCleanerTask> parked = new ArrayList<>();
+        for (ChunkCleanerTask t : active.values()) {
+            if (t.getState() == ChunkCleanerTask.State.PARKED && filter.test(t)) parked.add(t);
+        }
+        // oldest first, so queued tasks keep their order
+        parked.sort(Comparator.comparingLong(ChunkCleanerTask::getStartedAt));
+        for (ChunkCleanerTask t : parked) {
+            if (t.getState() == ChunkCleanerTask.State.PARKED) admit(t);
+        }
     }
 
     public boolean isChunkHasCleaner(Chunk chunk) {
@@ -120,26 +355,98 @@ public class ChunkCleanerManager {
         return active.values();
     }
 
+    /**
+     * First step of the stop sequence: stop scheduling, run already planned main-thread jobs within
+     * shutdown.drain_millis (the rest is dropped and redone after restart) and leave every task registered
+     * with an exact committed cursor for the final save.
+     */
     public void shutdown() {
-        // cancel running tasks
+        if (resumeTask != null) {
+            try { resumeTask.cancel(); } catch (Throwable ignored) {}
+            resumeTask = null;
+        }
+        resumeQueue.clear();
+        // a benchmark cut short is worthless; drop it before the drain
+        autoTuner.shutdown();
+        progressDisplay.stop();
+        worldBudget.stop();
+        // stop offline workers first; their jobs stay registered for the final save
+        offlineCleaner.shutdown();
+        long drainMillis = Math.max(0L, plugin.getConfig().getLong("shutdown.drain_millis", 1000L));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainMillis);
+        int abandoned = 0;
         for (ChunkCleanerTask t : active.values()) {
-            t.cancel();
+            abandoned += t.shutdown(deadline);
+        }
+        if (abandoned > 0) {
+            plugin.getLogger().info("Shutdown drain took longer than " + drainMillis + "ms; " + abandoned + " batch(es) will be redone on restart.");
         }
-        // optionally persistence save is handled elsewhere
-        active.clear();
+        // after the drain, so the bitmaps include the batches it applied
+        jobManager.shutdown();
+        journals.shutdown();
+        relightQueue.shutdown();
+        resendQueue.shutdown();
+        chunkTickets.releaseAll();
     }
 
     public void onConfigReload() {
         // apply new config to running tasks: update durations/holograms text etc.
         active.values().forEach(ChunkCleanerTask::onConfigReload);
+        // actionbar.refresh_ticks may have changed
+        progressDisplay.start();
+        // jobs.* intervals may have changed
+        jobManager.start();
+        // performance.max_running_tasks may have grown
+        onTaskStopped(null);
+    }
+
+    public WorldBudget getWorldBudget() {
+        return worldBudget;
+    }
+
+    public ChunkTickets getChunkTickets() {
+        return chunkTickets;
+    }
+
+    public RelightQueue getRelightQueue() {
+        return relightQueue;
+    }
+
+    public ChunkResendQueue getResendQueue() {
+        return resendQueue;
+    }
+
+    public WorkEstimator getEstimator() {
+        return estimator;
+    }
+
+    public UndoJournalManager getJournals() {
+        return journals;
+    }
+
+    public OfflineRegionCleaner getOfflineCleaner() {
+        return offlineCleaner;
+    }
+
+    public MaintenanceJobManager getJobManager() {
+        return jobManager;
+    }
+
+    public AutoTuner getAutoTuner() {
+        return autoTuner;
     }
 
     public PersistenceManager getPersistence() {
         return persistence;
     }
 
-    public void addLoadedTask(ChunkCleanerTask t) {
+    /**
+     * Register a task restored from disk. It stays in memory only (no hologram, timer or chunk loads) until
+     * the resume queue admits it.
+     */
+    public void addLoadedTask(ChunkCleanerTask t, boolean paused) {
         active.put(t.getId(), t);
-        t.resume();
+        if (paused) t.park(ChunkCleanerTask.ParkReason.PAUSED);
+        else enqueueResume(t);
     }
 }
\ No newline at end of file
@@ -1,21 +1,56 @@
 package me.d15c07d.chunkcleaners.task;
 
 import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
-import me.d15c07d.chunkcleaners.utils.ActionBarUtil;
+import me.d15c07d.chunkcleaners.api.event.CleanerFinishedEvent;
+import me.d15c07d.chunkcleaners.config.ConfigManager;
+import me.d15c07d.chunkcleaners.integration.ColumnMask;
+import me.d15c07d.chunkcleaners.integration.IntegrationManager;
+import me.d15c07d.chunkcleaners.job.MaintenanceJob;
+import me.d15c07d.chunkcleaners.journal.UndoJournal;
+import me.d15c07d.chunkcleaners.profiler.PhaseProfiler;
+import me.d15c07d.chunkcleaners.profiler.PhaseProfiler.Phase;
+import me.d15c07d.chunkcleaners.shape.ChunkCursor;
+import me.d15c07d.chunkcleaners.shape.ChunkOrder;
+import me.d15c07d.chunkcleaners.shape.ChunkShape;
+import me.d15c07d.chunkcleaners.utils.DirectBlockWriter;
 import me.d15c07d.chunkcleaners.utils.HologramUtil;
+import me.d15c07d.chunkcleaners.utils.LightingUtil;
 import me.d15c07d.chunkcleaners.utils.MessageUtil;
 import org.bukkit.*;
 import org.bukkit.Chunk;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.Waterlogged;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
 
-import java.lang.reflect.Method;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ChunkCleanerTask {
 
+    public enum State { RUNNING, PARKED, DONE }
+
+    /**
+     * Why a task cannot make progress right now. Parked tasks hold no timer or hologram and are woken by
+     * {@link ChunkCleanerManager} on the matching event (player join, world load, a freed running slot).
+     * RESUMING tasks were restored from disk (or their world just loaded) and wait in the staggered admission
+     * queue; OVER_BUDGET tasks were paused by the cost policy for cost.pause_seconds. PAUSED tasks were paused
+     * through the API and only resume through it.
+     */
+    public enum ParkReason { OWNER_OFFLINE, WORLD_UNLOADED, QUEUE_FULL, RESUMING, OVER_BUDGET, PAUSED }
+
+    /**
+     * CHUNK clears each chunk down to the bottom before the next; LAYER clears a band of layerBand layers across
+     * the whole footprint before descending.
+     */
+    public enum SweepOrder { CHUNK, LAYER }
+
     private final UUID id;
     private final UUID ownerUuid;
     private final String ownerName;
@@ -26,6 +61,7 @@ public class ChunkCleanerTask {
     private final int size;
     private final int durationSeconds;
     private final ChunkCleanersPlugin plugin;
+    private final PhaseProfiler profiler;
 
     // Block coordinates where the cleaner item was placed (used to anchor hologram)
     private final int placedBlockX;
@@ -35,11 +71,44 @@ public class ChunkCleanerTask {
     // Runtime state
     private long startedAt;
     private volatile boolean cancelled = false;
-
-    // Ordered list of chunk coords to process ([chunkX,chunkZ])
-    private final List<int[]> chunkCoords = new ArrayList<>();
+    private volatile State state = State.PARKED;
+    private volatile ParkReason parkReason = ParkReason.QUEUE_FULL;
+    // set by the async scheduler once it asked the main thread to park; stops it from planning more work
+    private volatile boolean parkRequested = false;
+    // a drainMainThread run is queued on the main thread
+    private final AtomicBoolean drainQueued = new AtomicBoolean(false);
+    // started at least once by this server (for CleanerStartEvent#isResumed)
+    private boolean everStarted = false;
+
+    // Footprint and the order its chunks are visited in; cursors below are ordinals of that walk
+    private final ChunkShape shape;
+    private final ChunkOrder chunkOrder;
+    private final int chunkCount;
+    // walk positioned at the planned chunk (async scheduler only)
+    private ChunkCursor planCursor;
+    // planned cursor: next batch the async scheduler will hand out
     private volatile int currentChunkIndex = 0;
     private volatile int currentY = 0; // next Y to process (top-down)
+    // committed cursor: first batch whose main-thread job has not run yet; the only one persisted
+    private volatile int committedChunkIndex = 0;
+    // CHUNK: cursor = (chunk, y inside it). LAYER: cursor = (chunk inside the band, top of the band)
+    private SweepOrder sweepOrder;
+    private int layerBand;
+    private volatile int committedY = 0;
+    private volatile boolean yInitialized = false;
+    // committed cursor moved since the last checkpoint
+    private volatile boolean checkpointDirty = false;
+
+    // Main-thread jobs planned by the scheduler, run in order by drainMainThread
+    private final Queue<Runnable> pendingJobs = new ConcurrentLinkedQueue<>();
+    private static final int MAX_PENDING_JOB_RUNS = 4;
+    // main thread: wakes the cleaner after a cost.policy=pause park
+    private BukkitTask costResumeTask;
+    // main thread: layer-order chunks this cleaner holds a ticket on until their last band
+    private final Set<Long> heldChunks = new HashSet<>();
+    // main thread: world budget tick and what this cleaner spent in it
+    private long budgetTick = -1L;
+    private long budgetSpentTick = 0L;
 
     // Y bounds
     private int minY;
@@ -52,6 +121,13 @@ public class ChunkCleanerTask {
     // ETA smoothing samples (main-thread only)
     private final Deque<Sample> samples = new ArrayDeque<>();
     private final int sampleWindowSeconds;
+    // throughput the current throttle should reach; prior for the ETA until samples fill the window
+    private volatile double expectedLevelsPerSecond = 0.0;
+    private long runningSinceMillis;
+    // editable columns of partly or fully protected footprint chunks, computed once on the main thread;
+    // null until known. protectedChunks are those without any editable column.
+    private volatile Map<Long, long[]> columnMasks;
+    private volatile Set<Long> protectedChunks;
 
     private static class Sample {
         final long timestampMillis;
@@ -65,6 +141,26 @@ public class ChunkCleanerTask {
     // Hologram handle
     private HologramUtil.HologramHandle hologramHandle;
 
+    // set on workers of a maintenance job: no hologram, journal, record or owner messages; cleared chunks are
+    // reported to the job
+    private MaintenanceJob job;
+
+    // Cost accounting (written on the main thread): time spent in this task's main-thread slices and its output.
+    // costMillisPerSecond is smoothed per one-second window and drives the cost policy and /cc admin top.
+    private volatile long costNanos = 0L;
+    private volatile long blocksRemoved = 0L;
+    private volatile long entitiesRemoved = 0L;
+    private volatile double costMillisPerSecond = 0.0;
+    private long costWindowStart = 0L;
+    private long costWindowNanos = 0L;
+    // fraction of scheduler runs this task may plan work in (lowered by the cost policy)
+    private volatile double budgetShare = 1.0;
+    private double shareCredit = 0.0; // async scheduler only
+
+    // last computed progress (0..1) and ETA, for the owner's progress display
+    private volatile double displayProgress = 0.0;
+    private volatile long displayRemainingSeconds = 0L;
+
     // Adaptive knobs (runtime)
     private volatile int currentChunksPerInterval;
     private volatile int currentYBatchSize;
@@ -72,10 +168,52 @@ public class ChunkCleanerTask {
     // Adaptive TPS sampling
     private int tpsCheckTickCounter = 0;
 
+    // Direct section writes (lighting.mode=deferred / network.mode=resend): no per-block light updates or
+    // block-change packets; chunks are relit in batches and resent to viewers under a network budget
+    private volatile boolean directWrites = false;
+    private volatile boolean resendPerBatch = false;
+    private volatile boolean relightPerSection = true;
+    private static final AtomicBoolean warnedDirectWritesUnavailable = new AtomicBoolean(false);
+    private static final AtomicBoolean warnedResendWithoutDeferred = new AtomicBoolean(false);
+
+    // Edge seal: cleared blocks next to fluid outside the footprint (or in protected columns) become this
+    // instead of air, so the fluid has nowhere to flow (null = off)
+    private volatile Material fluidSeal;
+    private static final EnumSet<Material> FLUID_MATERIALS = EnumSet.of(Material.WATER, Material.LAVA, Material.BUBBLE_COLUMN,
+            Material.KELP, Material.KELP_PLANT, Material.SEAGRASS, Material.TALL_SEAGRASS);
+    // lazily filled per Material ordinal: 0 = unknown, 1 = waterloggable, 2 = not waterloggable
+    private static final byte[] WATERLOGGABLE = new byte[Material.values().length];
+    private static final int[][] SIDES = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+
+    // auto-tuner benchmarks: fixed knobs and lighting.mode instead of config.yml (null = config)
+    private ThrottlePlan throttleOverride;
+    private String lightingModeOverride;
+    // journal a job worker's removals too (auto-tune in a real world)
+    private boolean journaled;
+
+    // Undo journal of removed block states (null when journal.enabled is false)
+    private volatile UndoJournal journal;
+
     // Per-chunk accumulation for summaries
     private final Map<String, Integer> removedCountByChunk = new HashMap<>();
     private final Map<String, Map<Material, Integer>> removedMaterialsByChunk = new HashMap<>();
 
+    // Entity sweeps for finished chunks (mutated on main thread; emptiness read by the async scheduler)
+    private final Deque<EntitySweep> entitySweeps = new ConcurrentLinkedDeque<>();
+    private EnumSet<EntityType> sweepEntityTypes = EnumSet.noneOf(EntityType.class);
+    private int maxEntityRemovalsPerCycle;
+    private boolean skipNamedEntities;
+    private boolean skipLeashedEntities;
+
+    private static class EntitySweep {
+        final int chunkX;
+        final int chunkZ;
+        Entity[] entities; // fetched on the first slice
+        int cursor = 0;
+        final long[] columnMask; // null: whole chunk
+        EntitySweep(int chunkX, int chunkZ, long[] columnMask) { this.chunkX = chunkX; this.chunkZ = chunkZ; this.columnMask = columnMask; }
+    }
+
     /**
      * Constructor (includes placed block coords so hologram can be anchored exactly).
      */
@@ -86,7 +224,8 @@ public class ChunkCleanerTask {
                             int originChunkZ,
                             String worldName,
                             String typeKey,
-                            int size,
+                            ChunkShape shape,
+                            ChunkOrder chunkOrder,
                             int durationSeconds,
                             ChunkCleanersPlugin plugin,
                             int placedBlockX,
@@ -99,23 +238,33 @@ public class ChunkCleanerTask {
         this.originChunkZ = originChunkZ;
         this.worldName = worldName;
         this.typeKey = typeKey;
-        this.size = Math.max(1, size);
+        this.shape = shape;
+        this.chunkOrder = chunkOrder == null ? ChunkOrder.ROW : chunkOrder;
+        this.chunkCount = shape.getChunkCount();
+        this.size = shape.getEquivalentSize();
         this.durationSeconds = Math.max(1, durationSeconds);
         this.plugin = plugin;
+        this.profiler = plugin.getProfiler();
         this.startedAt = Instant.now().getEpochSecond();
 
         this.placedBlockX = placedBlockX;
         this.placedBlockY = placedBlockY;
         this.placedBlockZ = placedBlockZ;
 
-        buildChunkList();
-
         // sample window for ETA smoothing (seconds)
         this.sampleWindowSeconds = Math.max(3, plugin.getConfig().getInt("performance.eta_window_seconds", 8));
 
         // baseline runtime knobs (may be adjusted in start())
         this.currentChunksPerInterval = Math.max(1, plugin.getConfig().getInt("performance.max_chunks_per_interval", 1));
         this.currentYBatchSize = Math.max(1, plugin.getConfig().getInt("performance.y_batch_size", 1));
+
+        // fixed per task; a saved task keeps the order and band it started with
+        this.sweepOrder = "layer".equalsIgnoreCase(plugin.getConfig().getString("performance.sweep_order", "chunk")) ? SweepOrder.LAYER : SweepOrder.CHUNK;
+        this.layerBand = Math.max(1, plugin.getConfig().getInt("performance.layer_band_height", 4));
+        // layer order keeps the whole footprint loaded; too large a footprint is cleared chunk by chunk instead
+        if (sweepOrder == SweepOrder.LAYER && chunkCount > layerMaxChunks()) this.sweepOrder = SweepOrder.CHUNK;
+
+        loadEntitySettings();
     }
 
     /* ---------------- Accessors (for persistence / external use) ---------------- */
@@ -127,56 +276,236 @@ public class ChunkCleanerTask {
     public int getChunkZ() { return originChunkZ; }
     public String getWorldName() { return worldName; }
     public String getTypeKey() { return typeKey; }
+    /** Side of the square footprint, or of a square with about as many chunks for other shapes. */
     public int getSize() { return size; }
+    public ChunkShape getShape() { return shape; }
+    public ChunkOrder getChunkOrder() { return chunkOrder; }
     public int getDurationSeconds() { return durationSeconds; }
     public long getStartedAt() { return startedAt; }
 
-    public int getCurrentChunkIndex() { return currentChunkIndex; }
-    public int getCurrentY() { return currentY; }
+    /** Committed chunk index: every batch before it has been applied to the world. */
+    public int getCurrentChunkIndex() { return committedChunkIndex; }
+    /** Committed Y pointer: next level of the committed chunk that has not been cleared yet. */
+    public int getCurrentY() { return committedY; }
+    public boolean isYInitialized() { return yInitialized; }
+    public SweepOrder getSweepOrder() { return sweepOrder; }
+
+    /** Footprint chunks cleared down to the bottom (in layer order only the last band finishes chunks). */
+    public int getChunksDone() {
+        if (sweepOrder == SweepOrder.CHUNK) return committedChunkIndex;
+        if (!yInitialized) return 0;
+        if (committedY < minY) return chunkCount;
+        return committedY - layerBand + 1 <= minY ? committedChunkIndex : 0;
+    }
+    public int getLayerBand() { return layerBand; }
+
+    /**
+     * Levels behind the committed cursor out of chunkCount * (maxY - minY), protection not taken into account.
+     */
+    public long getCursorLevels(int minY, int maxY) {
+        int topY = maxY - 1;
+        long levelsPerChunk = Math.max(0, maxY - minY);
+        int idx = committedChunkIndex;
+        int y = yInitialized ? committedY : topY;
+        if (sweepOrder == SweepOrder.LAYER) {
+            long bandLayers = y - Math.max(minY, y - layerBand + 1) + 1;
+            return Math.min((long) chunkCount * levelsPerChunk,
+                    (long) Math.max(0, topY - y) * chunkCount + (y < minY ? 0 : idx * bandLayers));
+        }
+        return (long) idx * levelsPerChunk + (idx >= chunkCount ? 0 : Math.max(0, topY - y));
+    }
 
     public int getPlacedBlockX() { return placedBlockX; }
     public int getPlacedBlockY() { return placedBlockY; }
     public int getPlacedBlockZ() { return placedBlockZ; }
 
-    public void setCurrentChunkIndex(int idx) { this.currentChunkIndex = Math.max(0, Math.min(idx, Math.max(0, chunkCoords.size()))); }
-    public void setCurrentY(int y) { this.currentY = y; }
+    /** Progress 0..1 as of the last visuals update. */
+    public double getProgress() { return displayProgress; }
+    /** Smoothed ETA in seconds as of the last visuals update. */
+    public long getRemainingSeconds() { return displayRemainingSeconds; }
+    public long getTotalLevels() { return totalLevels; }
+    public int getChunkCount() { return chunkCount; }
+
+    /** Main-thread time consumed so far, in nanoseconds. */
+    public long getCostNanos() { return costNanos; }
+    /** Smoothed main-thread milliseconds per second of wall time over the last windows. */
+    public double getCostMillisPerSecond() { return costMillisPerSecond; }
+    public long getBlocksRemoved() { return blocksRemoved; }
+    public long getEntitiesRemoved() { return entitiesRemoved; }
+    public double getBlocksPerMilli() { return costNanos <= 0 ? 0.0 : blocksRemoved / (costNanos / 1_000_000.0); }
+    /** Share of scheduler runs the task may use, 1.0 unless the cost policy throttled it. */
+    public double getBudgetShare() { return budgetShare; }
+
+    public State getState() { return state; }
+    /** Reason of the last park; only meaningful while {@link #getState()} is PARKED. */
+    public ParkReason getParkReason() { return parkReason; }
+
+    public void setCurrentChunkIndex(int idx) {
+        this.committedChunkIndex = Math.max(0, Math.min(idx, Math.max(0, chunkCount)));
+        this.currentChunkIndex = committedChunkIndex;
+    }
+    public void setSweepOrder(SweepOrder order, int band) {
+        this.sweepOrder = order == null ? SweepOrder.CHUNK : order;
+        this.layerBand = Math.max(1, band);
+    }
+    public void setCurrentY(int y) {
+        this.committedY = y;
+        this.currentY = y;
+        this.yInitialized = true;
+    }
+
+    /**
+     * True once if the committed cursor moved since the last call; used by the periodic checkpoint.
+     */
+    public boolean takeCheckpointDirty() {
+        if (!checkpointDirty) return false;
+        checkpointDirty = false;
+        return true;
+    }
     public void setStartedAt(long ts) { this.startedAt = ts; }
 
+    /** The maintenance job this task works for, or null for a placed cleaner. */
+    public MaintenanceJob getJob() { return job; }
+    public void setJob(MaintenanceJob job) { this.job = job; }
+
+    /** Run at these knobs instead of performance.*; TPS adaptation and turbo still apply. Call before start(). */
+    public void setThrottleOverride(ThrottlePlan plan) { this.throttleOverride = plan; }
+    /** Use this lighting.mode ("standard" or "deferred") instead of the configured one. Call before start(). */
+    public void setLightingModeOverride(String mode) { this.lightingModeOverride = mode; }
+    /** Keep an undo journal even as a job worker. Call before start(). */
+    public void setJournaled(boolean journaled) { this.journaled = journaled; }
+    /** True while batches are written straight into chunk sections (deferred lighting or resend). */
+    public boolean isDirectWrites() { return directWrites; }
+
+    /**
+     * Seed work accounting from a fresh prescan (/chunkcleaners estimate). Call before start().
+     */
+    public void applyEstimate(WorkEstimator.Estimate estimate) {
+        if (estimate == null) return;
+        // the prescan ran the same footprint query moments ago
+        setColumnMasks(estimate.getColumnMasks());
+    }
+
+    /** Editable columns per protected chunk, or null if not computed yet (legacy saves). */
+    public Map<Long, long[]> getColumnMasks() { return columnMasks; }
+    public void setColumnMasks(Map<Long, long[]> masks) {
+        if (masks == null) {
+            this.columnMasks = null;
+            this.protectedChunks = null;
+            return;
+        }
+        this.protectedChunks = Set.copyOf(IntegrationManager.fullyProtected(masks));
+        this.columnMasks = Map.copyOf(masks);
+    }
+
+    /**
+     * Run the footprint protection query for this task (main thread, owner online).
+     */
+    public void computeProtection(World w) {
+        long t = profiler.begin();
+        setColumnMasks(plugin.getIntegrationManager().computeColumnMasks(ownerUuid, w, shape));
+        profiler.end(Phase.PROTECTION_CHECK, id, t);
+    }
+
     /* ---------------- Internal helpers ---------------- */
 
-    private void buildChunkList() {
-        int half = size / 2;
-        for (int dz = 0; dz < size; dz++) {
-            for (int dx = 0; dx < size; dx++) {
-                int cx = originChunkX + (dx - half);
-                int cz = originChunkZ + (dz - half);
-                chunkCoords.add(new int[] { cx, cz });
+    private void loadLightingSettings(World w) {
+        String lighting = lightingModeOverride != null ? lightingModeOverride : plugin.getConfig().getString("lighting.mode", "standard");
+        boolean deferred = "deferred".equalsIgnoreCase(lighting);
+        boolean resend = "resend".equalsIgnoreCase(plugin.getConfig().getString("network.mode", "standard"));
+        // direct writes skip light updates, so resending on its own would silently defer lighting too
+        if (resend && !deferred) {
+            if (warnedResendWithoutDeferred.compareAndSet(false, true)) {
+                plugin.getLogger().warning("network.mode=resend needs lighting.mode=deferred (direct writes skip light updates); using standard block updates.");
             }
+            resend = false;
         }
+        boolean wanted = deferred;
+        boolean supported = wanted && DirectBlockWriter.isAvailable(w) && LightingUtil.isAvailable(w);
+        if (wanted && !supported && warnedDirectWritesUnavailable.compareAndSet(false, true)) {
+            plugin.getLogger().warning("lighting.mode=deferred / network.mode=resend are not supported by this server build; using standard block updates.");
+        }
+        this.directWrites = supported;
+        this.resendPerBatch = supported && resend;
+        this.relightPerSection = !"chunk".equalsIgnoreCase(plugin.getConfig().getString("lighting.relight_on", "section"));
+    }
+
+    private void loadFluidSettings() {
+        String seal = plugin.getConfig().getString("performance.fluid_edge_seal", "STONE");
+        if (seal == null || seal.isBlank() || "none".equalsIgnoreCase(seal)) {
+            this.fluidSeal = null;
+            return;
+        }
+        Material m = Material.getMaterial(seal.toUpperCase(Locale.ROOT));
+        if (m == null || !m.isBlock() || !m.isSolid()) {
+            plugin.getLogger().warning("performance.fluid_edge_seal '" + seal + "' is not a solid block; using STONE.");
+            m = Material.STONE;
+        }
+        this.fluidSeal = m;
+    }
+
+    private void loadEntitySettings() {
+        ConfigManager cm = plugin.getConfigManager();
+        this.sweepEntityTypes = cm.getType(typeKey)
+                .map(ConfigManager.CleanerType::getEntityTypes)
+                .orElseGet(cm::getDefaultEntityTypes);
+        // configs written before the rename still carry max_removals_per_tick
+        String removalsKey = !plugin.getConfig().isSet("entities.max_removals_per_cycle") && plugin.getConfig().isSet("entities.max_removals_per_tick")
+                ? "entities.max_removals_per_tick" : "entities.max_removals_per_cycle";
+        this.maxEntityRemovalsPerCycle = Math.max(1, plugin.getConfig().getInt(removalsKey, 200));
+        this.skipNamedEntities = plugin.getConfig().getBoolean("entities.skip_named", true);
+        this.skipLeashedEntities = plugin.getConfig().getBoolean("entities.skip_leashed", true);
     }
 
     /**
      * Start or resume the cleaner.
      */
     public void start() {
+        if (state == State.RUNNING || state == State.DONE) return;
         World w = Bukkit.getWorld(worldName);
         if (w == null) {
-            plugin.getLogger().warning("ChunkCleanerTask start(): world not found: " + worldName);
-            cancel();
+            park(ParkReason.WORLD_UNLOADED);
             return;
         }
+        state = State.RUNNING;
+        parkRequested = false;
+        costWindowStart = System.nanoTime();
+        costWindowNanos = 0L;
 
         minY = Math.max(w.getMinHeight(), -63);
         maxY = w.getMaxHeight();
         final int topY = maxY - 1;
 
-        if (currentY == 0) currentY = topY;
+        loadLightingSettings(w);
+        loadFluidSettings();
+        if (columnMasks == null) computeProtection(w);
+        journal = job != null && !journaled ? null : plugin.getCleanerManager().getJournals().open(new UndoJournal.Info(id, worldName, ownerUuid, ownerName, typeKey, size, chunkCount, startedAt));
+
+        boolean resumed = everStarted || yInitialized;
+        everStarted = true;
+        if (!yInitialized) setCurrentY(topY);
+        // plan from what was actually applied
+        pendingJobs.clear();
+        currentChunkIndex = committedChunkIndex;
+        currentY = committedY;
 
         long levelsPerChunk = Math.max(0, maxY - minY);
-        totalLevels = (long) chunkCoords.size() * levelsPerChunk;
-        if (levelsPerChunk > 0) {
-            long processedBefore = (long) currentChunkIndex * levelsPerChunk;
-            long processedInCurrent = Math.max(0, (topY - currentY));
+        // protected chunks are never cleared and do not count as work
+        int protectedBefore = 0;
+        ChunkCursor walk = shape.cursor(chunkOrder, originChunkX, originChunkZ);
+        while (walk.getOrdinal() + 1 < committedChunkIndex && walk.next()) {
+            if (protectedChunks.contains(LightingUtil.chunkKey(walk.getX(), walk.getZ()))) protectedBefore++;
+        }
+        totalLevels = (long) (chunkCount - protectedChunks.size()) * levelsPerChunk;
+        runningSinceMillis = System.currentTimeMillis();
+        if (levelsPerChunk > 0 && sweepOrder == SweepOrder.LAYER) {
+            // whole bands above the cursor, plus the part of the current band already applied
+            int editable = chunkCount - protectedChunks.size();
+            long bandLayers = committedY < minY ? 0 : committedY - Math.max(minY, committedY - layerBand + 1) + 1;
+            processedLevels = (long) Math.max(0, topY - committedY) * editable + (committedChunkIndex - protectedBefore) * bandLayers;
+        } else if (levelsPerChunk > 0) {
+            long processedBefore = (long) (committedChunkIndex - protectedBefore) * levelsPerChunk;
+            long processedInCurrent = Math.max(0, (topY - committedY));
             processedLevels = processedBefore + processedInCurrent;
         } else {
             processedLevels = 0;
@@ -184,22 +513,16 @@ public class ChunkCleanerTask {
 
         // Spawn hologram anchored above the placed block (on main thread)
         try {
-            if (plugin.getConfig().getBoolean("hologram.enabled", true)) {
+            if (job == null && plugin.getConfig().getBoolean("hologram.enabled", true)) {
                 double offset = plugin.getConfig().getDouble("hologram.offset", 0.5);
                 World world = Bukkit.getWorld(worldName);
                 if (world != null) {
                     Location base = new Location(world, placedBlockX + 0.5, placedBlockY + 1.0 + offset, placedBlockZ + 0.5);
-                    List<String> cfgLines = plugin.getConfig().getStringList("hologram.lines");
-                    final List<String> lines;
-                    if (cfgLines == null || cfgLines.isEmpty()) {
-                        String ht = plugin.getConfig().getString("hologram.text", "Cleaning: {remaining}s");
-                        lines = Arrays.asList(ht.split("\\r?\\n"));
-                    } else {
-                        lines = new ArrayList<>(cfgLines);
-                    }
+                    // spawned by renderVisuals once a player is within hologram.view_radius
                     Bukkit.getScheduler().runTask(plugin, () -> {
                         try {
-                            hologramHandle = HologramUtil.createHologram(base, lines);
+                            hologramHandle = HologramUtil.createLazyHologram(base);
+                            if (state == State.RUNNING) updateVisuals();
                         } catch (Throwable t) {
                             plugin.getLogger().warning("Failed to spawn hologram: " + t.getMessage());
                         }
@@ -209,26 +532,9 @@ public class ChunkCleanerTask {
         } catch (Throwable ignored) {}
 
         // Baseline knobs and size-aware scaling
-        final int baseChunksConfig = Math.max(1, plugin.getConfig().getInt("performance.max_chunks_per_interval", 1));
-        final int baseYBatchConfig = Math.max(1, plugin.getConfig().getInt("performance.y_batch_size", 1));
-
-        final boolean sizeScaleEnabled = plugin.getConfig().getBoolean("performance.size_scale_enabled", true);
-        final int sizeScaleMultiplier = Math.max(1, plugin.getConfig().getInt("performance.size_scale_multiplier", 1));
-        final int sizeScaleCap = Math.max(1, plugin.getConfig().getInt("performance.size_scale_cap", 8));
-        int scaleFactor = 1;
-        if (sizeScaleEnabled && this.size > 1) {
-            scaleFactor = Math.min(sizeScaleCap, this.size * sizeScaleMultiplier);
-        }
-        final int baselineChunks = Math.max(1, baseChunksConfig * scaleFactor);
-        final int baselineYBatch = Math.max(1, baseYBatchConfig * scaleFactor);
-
-        final long ticksPerChunkComputed = Math.max(1, Math.round(((double) durationSeconds / Math.max(1, chunkCoords.size())) * 20.0));
-        final long defaultTicks = Math.max(1, plugin.getConfig().getInt("performance.ticks_per_chunk_interval", 1));
-        long scheduleInterval = Math.max(1, Math.min(ticksPerChunkComputed, defaultTicks));
-        final int aggressiveIntervalDivisor = Math.max(1, plugin.getConfig().getInt("performance.aggressive_interval_divisor", 1));
-        if (sizeScaleEnabled && this.size > 1 && aggressiveIntervalDivisor > 1) {
-            scheduleInterval = Math.max(1, scheduleInterval / Math.min(aggressiveIntervalDivisor, Math.max(1, this.size)));
-        }
+        final ThrottlePlan plan = throttleOverride != null ? throttleOverride : ThrottlePlan.compute(plugin, size, durationSeconds, chunkCount);
+        final long scheduleInterval = plan.getIntervalTicks();
+        expectedLevelsPerSecond = plan.levelsPerSecond(20.0);
 
         // TPS-adaptive config
         final double tpsThreshold = plugin.getConfig().getDouble("performance.tps_threshold", 18.0);
@@ -237,142 +543,617 @@ public class ChunkCleanerTask {
         final double tpsSmoothing = plugin.getConfig().getDouble("performance.tps_smoothing", 0.75);
         final int tpsCheckInterval = Math.max(1, plugin.getConfig().getInt("performance.tps_check_interval_ticks", 1));
 
-        this.currentChunksPerInterval = baselineChunks;
-        this.currentYBatchSize = baselineYBatch;
+        this.currentChunksPerInterval = plan.getChunksPerInterval();
+        this.currentYBatchSize = plan.getYBatchSize();
+
+        final TurboPolicy turbo = plugin.getCleanerManager().getWorldBudget().getTurbo();
 
         // Start async scheduler preparing main-thread jobs
         this.schedulerTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
-            if (cancelled) return;
+            if (cancelled || parkRequested) return;
 
-            // Adaptive TPS scaling
+            // Adaptive TPS scaling, plus the off-peak boost
             if (++tpsCheckTickCounter >= tpsCheckInterval) {
                 tpsCheckTickCounter = 0;
                 double tps = getServerTPS();
-                if (tps < tpsThreshold) {
-                    double factor = Math.max(0.0, Math.min(1.0, tps / tpsThreshold));
-                    double smoothed = (tpsSmoothing * factor) + ((1.0 - tpsSmoothing) * 1.0);
-                    int newChunks = Math.max(tpsMinChunks, (int) Math.max(1, Math.round(baselineChunks * smoothed)));
-                    int newYBatch = Math.max(tpsMinYBatch, (int) Math.max(1, Math.round(baselineYBatch * smoothed)));
-                    currentChunksPerInterval = newChunks;
-                    currentYBatchSize = newYBatch;
-                } else {
-                    currentChunksPerInterval = baselineChunks;
-                    currentYBatchSize = baselineYBatch;
-                }
+                ThrottlePlan current = plan.underTps(tps, tpsThreshold, tpsSmoothing, tpsMinChunks, tpsMinYBatch).boosted(turbo.getMultiplier());
+                currentChunksPerInterval = current.getChunksPerInterval();
+                currentYBatchSize = current.getYBatchSize();
+                expectedLevelsPerSecond = current.levelsPerSecond(tps);
             }
 
-            if (currentChunkIndex >= chunkCoords.size()) {
-                finish();
+            // hold off while the undo journal is behind on disk, or the main thread is behind on our jobs
+            UndoJournal j = journal;
+            if (j != null && j.isBackedUp()) return;
+            int jobsPerRun = sweepOrder == SweepOrder.LAYER ? layerGroupSize(layerBand) : currentChunksPerInterval;
+            if (pendingJobs.size() >= MAX_PENDING_JOB_RUNS * jobsPerRun) {
+                // drains may have been turned away by the world budget; make sure one is coming
+                requestDrain();
                 return;
             }
+            // throttled by the cost policy: plan in budgetShare of the runs only
+            double share = budgetShare;
+            if (share < 1.0) {
+                shareCredit += share;
+                if (shareCredit < 1.0) return;
+                shareCredit -= 1.0;
+            }
 
-            Queue<Runnable> mainThreadJobs = new ConcurrentLinkedQueue<>();
+            if (isPlanDone()) {
+                // blocks are done; let the main thread drain remaining entity sweeps and finish
+                requestDrain();
+                return;
+            }
 
-            for (int i = 0; i < currentChunksPerInterval && currentChunkIndex < chunkCoords.size(); i++) {
-                final int[] coords = chunkCoords.get(currentChunkIndex);
-                final int startY = currentY;
-                final int endYInclusive = Math.max(minY, startY - currentYBatchSize + 1);
+            // nothing can be done without the world; park instead of skipping chunks
+            ParkReason blocked = blockedReason();
+            if (blocked != null) {
+                parkRequested = true;
+                Bukkit.getScheduler().runTask(plugin, () -> park(blocked));
+                return;
+            }
 
-                // Protection check
-                Location chunkCenter = getCenterLocation(coords[0], coords[1]);
-                if (!plugin.getIntegrationManager().canEditChunk(ownerUuid, chunkCenter)) {
-                    // skip this chunk
-                    currentChunkIndex++;
-                    currentY = maxY - 1;
-                    continue;
-                }
+            if (sweepOrder == SweepOrder.LAYER) planLayerRun();
+            else planChunkRun();
 
-                mainThreadJobs.add(() -> {
-                    if (cancelled) return;
-                    World world = Bukkit.getWorld(worldName);
-                    if (world == null) return;
-                    Chunk c = world.getChunkAt(coords[0], coords[1]);
+            // execute main-thread jobs
+            requestDrain();
+        }, 0L, Math.max(1, scheduleInterval));
 
-                    int removedThisJob = 0;
-                    Map<Material, Integer> removedMaterialsThisJob = new HashMap<>();
+        plugin.getApiService().fireStart(this, resumed);
+    }
 
-                    for (int y = startY; y >= endYInclusive; y--) {
-                        for (int x = 0; x < 16; x++) {
-                            for (int z = 0; z < 16; z++) {
-                                org.bukkit.block.Block block = c.getBlock(x, y, z);
-                                Material m = block.getType();
-                                if (m != Material.AIR && m != Material.BEDROCK) {
-                                    removedThisJob++;
-                                    removedMaterialsThisJob.merge(m, 1, Integer::sum);
-                                    block.setType(Material.AIR, false);
-                                }
-                            }
-                        }
-                    }
+    /* ---------------- Planning (async scheduler) ---------------- */
 
-                    // accumulate per-chunk
-                    String key = coords[0] + "," + coords[1];
-                    removedCountByChunk.merge(key, removedThisJob, Integer::sum);
-                    removedMaterialsByChunk.computeIfAbsent(key, k -> new HashMap<>());
-                    Map<Material, Integer> agg = removedMaterialsByChunk.get(key);
-                    for (Map.Entry<Material, Integer> ent : removedMaterialsThisJob.entrySet()) {
-                        agg.merge(ent.getKey(), ent.getValue(), Integer::sum);
-                    }
+    private boolean isPlanDone() {
+        return sweepOrder == SweepOrder.LAYER ? currentY < minY : currentChunkIndex >= chunkCount;
+    }
 
-                    int levelsProcessed = (startY - endYInclusive + 1);
-                    processedLevels += levelsProcessed;
+    private boolean isCommittedDone() {
+        return sweepOrder == SweepOrder.LAYER ? committedY < minY : committedChunkIndex >= chunkCount;
+    }
 
-                    // record a sample for ETA smoothing
-                    if (levelsProcessed > 0) {
-                        long now = System.currentTimeMillis();
-                        samples.addLast(new Sample(now, levelsProcessed));
-                        long cutoff = now - (sampleWindowSeconds * 1000L);
-                        while (!samples.isEmpty() && samples.peekFirst().timestampMillis < cutoff) samples.removeFirst();
-                    }
+    /**
+     * Chunk order: up to chunksPerInterval jobs of yBatchSize layers, each chunk taken down to the bottom before
+     * the next one.
+     */
+    private void planChunkRun() {
+        for (int i = 0; i < currentChunksPerInterval && currentChunkIndex < chunkCount; i++) {
+            ChunkCursor c = cursorAt(currentChunkIndex);
+            if (c == null) break;
+            final int cx = c.getX();
+            final int cz = c.getZ();
+            final int startY = currentY;
+            final int endYInclusive = Math.max(minY, startY - currentYBatchSize + 1);
+            // cursor after this batch, committed once its job ran
+            final int nextIndex = endYInclusive - 1 < minY ? currentChunkIndex + 1 : currentChunkIndex;
+            final int nextY = endYInclusive - 1 < minY ? maxY - 1 : endYInclusive - 1;
+
+            // protection was decided for the whole footprint when the task started
+            if (protectedChunks.contains(LightingUtil.chunkKey(cx, cz))) {
+                final int skipIndex = currentChunkIndex + 1;
+                pendingJobs.add(() -> commit(skipIndex, maxY - 1));
+                currentChunkIndex++;
+                currentY = maxY - 1;
+                continue;
+            }
 
-                    // If chunk finished
-                    if (endYInclusive <= minY) {
-                        Arrays.stream(c.getEntities()).forEach(e -> {
-                            if (!(e instanceof Player)) e.remove();
-                        });
+            pendingJobs.add(() -> {
+                if (cancelled) return;
+                World world = worldOrPark();
+                if (world == null) return;
+                applyBatch(world, cx, cz, startY, endYInclusive);
+                commit(nextIndex, nextY);
+            });
+
+            // advance the planned cursor
+            currentChunkIndex = nextIndex;
+            currentY = nextY;
+        }
+    }
+
+    /**
+     * Layer order: clear the current band in as many footprint chunks as chunksPerInterval * yBatchSize layers
+     * allow, one job per chunk so the drain's deadline applies between chunks; the band moves down once every
+     * chunk has it cleared.
+     */
+    private void planLayerRun() {
+        final int startY = currentY;
+        final int endYInclusive = Math.max(minY, startY - layerBand + 1);
+        final long[] group = new long[layerGroupSize(startY - endYInclusive + 1)];
+        final int[] after = new int[group.length];
+        int n = 0;
+        int idx = currentChunkIndex;
+        ChunkCursor c = cursorAt(idx);
+        while (c != null && n < group.length && idx < chunkCount) {
+            long key = LightingUtil.chunkKey(c.getX(), c.getZ());
+            idx++;
+            if (!protectedChunks.contains(key)) {
+                group[n] = key;
+                after[n++] = idx;
+            }
+            if (!c.next()) break;
+        }
+        final boolean bandDone = idx >= chunkCount;
+        final int nextIndex = bandDone ? 0 : idx;
+        final int nextY = bandDone ? endYInclusive - 1 : startY;
+
+        for (int i = 0; i < n; i++) {
+            final long key = group[i];
+            // the last job also moves the cursor past protected chunks at the end of the group
+            final int commitIndex = i == n - 1 ? nextIndex : after[i];
+            final int commitY = i == n - 1 ? nextY : startY;
+            pendingJobs.add(() -> {
+                if (cancelled) return;
+                World world = worldOrPark();
+                if (world == null) return;
+                holdChunk(world, key);
+                applyBatch(world, LightingUtil.chunkKeyX(key), LightingUtil.chunkKeyZ(key), startY, endYInclusive);
+                if (endYInclusive <= minY) releaseChunk(key);
+                commit(commitIndex, commitY);
+            });
+        }
+        if (n == 0) pendingJobs.add(() -> commit(nextIndex, nextY));
+        currentChunkIndex = nextIndex;
+        currentY = nextY;
+    }
 
-                        int totalRemoved = removedCountByChunk.getOrDefault(key, 0);
-                        Map<Material, Integer> breakdown = removedMaterialsByChunk.getOrDefault(key, Map.of());
+    // chunks one layer run covers: the run's layer budget spread over the band
+    private int layerGroupSize(int bandLayers) {
+        return Math.max(1, Math.min(chunkCount, (currentChunksPerInterval * currentYBatchSize) / Math.max(1, bandLayers)));
+    }
 
-                        try {
-                            plugin.getIntegrationManager().enqueueChunkSummary(ownerUuid, chunkCenter, totalRemoved, breakdown);
-                        } catch (Throwable t) {
-                            plugin.getLogger().fine("Failed to enqueue CoreProtect chunk summary: " + t.getMessage());
-                        }
+    private int layerMaxChunks() {
+        return Math.max(1, plugin.getConfig().getInt("performance.layer_max_chunks", 1024));
+    }
 
-                        // persist progress immediately (main thread)
-                        try {
-                            plugin.getPersistenceManager().saveTaskProgress(this);
-                        } catch (Throwable t) {
-                            plugin.getLogger().fine("Failed to persist task progress: " + t.getMessage());
-                        }
+    // every band revisits each footprint chunk: pin it on the first visit so it is loaded once. Tickets are
+    // counted (ChunkTickets), so overlapping cleaners and the relight queue keep their own pins
+    private void holdChunk(World world, long key) {
+        if (chunkCount > layerMaxChunks() || !heldChunks.add(key)) return;
+        plugin.getCleanerManager().getChunkTickets().hold(world, LightingUtil.chunkKeyX(key), LightingUtil.chunkKeyZ(key));
+    }
 
-                        removedCountByChunk.remove(key);
-                        removedMaterialsByChunk.remove(key);
-                    }
-                });
+    // the chunk's last band is done
+    private void releaseChunk(long key) {
+        if (!heldChunks.remove(key)) return;
+        plugin.getCleanerManager().getChunkTickets().release(worldName, LightingUtil.chunkKeyX(key), LightingUtil.chunkKeyZ(key));
+    }
 
-                // advance Y pointer
-                currentY = endYInclusive - 1;
-                if (currentY < minY) {
-                    currentChunkIndex++;
-                    currentY = maxY - 1;
+    private void releaseChunks() {
+        ChunkTickets tickets = plugin.getCleanerManager().getChunkTickets();
+        for (long key : heldChunks) tickets.release(worldName, LightingUtil.chunkKeyX(key), LightingUtil.chunkKeyZ(key));
+        heldChunks.clear();
+    }
+
+    // the plan cursor moved to an ordinal of the walk; null past the last chunk. Planning jumps back to the
+    // committed cursor after a park or restart, which restarts the walk
+    private ChunkCursor cursorAt(int ordinal) {
+        ChunkCursor c = planCursor;
+        if (c == null) planCursor = c = shape.cursor(chunkOrder, originChunkX, originChunkZ);
+        return c.seek(ordinal) ? c : null;
+    }
+
+    /* ---------------- Main-thread jobs ---------------- */
+
+    // world went away under us: drop the rest of the plan and redo it from the committed cursor
+    private World worldOrPark() {
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) {
+            pendingJobs.clear();
+            parkRequested = true;
+            Bukkit.getScheduler().runTask(plugin, () -> park(ParkReason.WORLD_UNLOADED));
+        }
+        return world;
+    }
+
+    /**
+     * Clear layers startY..endYInclusive of one chunk and do the bookkeeping; a batch reaching the bottom
+     * finishes the chunk (entity sweep, CoreProtect summary, API event).
+     */
+    private void applyBatch(World world, int chunkX, int chunkZ, int startY, int endYInclusive) {
+        long tLoad = profiler.begin();
+        Chunk c = world.getChunkAt(chunkX, chunkZ);
+        profiler.end(Phase.CHUNK_LOAD, id, tLoad);
+
+        Map<Material, Integer> removedMaterialsThisJob = new HashMap<>();
+        long tBlocks = profiler.begin();
+        int removedThisJob = clearRange(c, startY, endYInclusive, removedMaterialsThisJob, columnMasks.get(LightingUtil.chunkKey(chunkX, chunkZ)));
+        profiler.end(Phase.BLOCK_LOOP, id, tBlocks);
+
+        // accumulate per-chunk
+        String key = chunkX + "," + chunkZ;
+        removedCountByChunk.merge(key, removedThisJob, Integer::sum);
+        blocksRemoved += removedThisJob;
+        removedMaterialsByChunk.computeIfAbsent(key, k -> new HashMap<>());
+        Map<Material, Integer> agg = removedMaterialsByChunk.get(key);
+        for (Map.Entry<Material, Integer> ent : removedMaterialsThisJob.entrySet()) {
+            agg.merge(ent.getKey(), ent.getValue(), Integer::sum);
+        }
+
+        int levelsProcessed = (startY - endYInclusive + 1);
+        processedLevels += levelsProcessed;
+
+        // record a sample for ETA smoothing
+        if (levelsProcessed > 0) {
+            long now = System.currentTimeMillis();
+            samples.addLast(new Sample(now, levelsProcessed));
+            long cutoff = now - (sampleWindowSeconds * 1000L);
+            while (!samples.isEmpty() && samples.peekFirst().timestampMillis < cutoff) samples.removeFirst();
+        }
+
+        // If chunk finished
+        if (endYInclusive <= minY) {
+            // entities are cleared incrementally by the sweep phase
+            if (!sweepEntityTypes.isEmpty()) entitySweeps.addLast(new EntitySweep(chunkX, chunkZ, columnMasks.get(LightingUtil.chunkKey(chunkX, chunkZ))));
+
+            int totalRemoved = removedCountByChunk.getOrDefault(key, 0);
+            Map<Material, Integer> breakdown = removedMaterialsByChunk.getOrDefault(key, Map.of());
+
+            long tEnqueue = profiler.begin();
+            try {
+                plugin.getIntegrationManager().enqueueChunkSummary(ownerUuid, getCenterLocation(chunkX, chunkZ), totalRemoved, breakdown);
+            } catch (Throwable t) {
+                plugin.getLogger().fine("Failed to enqueue CoreProtect chunk summary: " + t.getMessage());
+            }
+            profiler.end(Phase.COREPROTECT_ENQUEUE, id, tEnqueue);
+            plugin.getApiService().fireChunkCompleted(this, chunkX, chunkZ, breakdown);
+            if (job != null) job.markCleared(chunkX, chunkZ, totalRemoved);
+
+            removedCountByChunk.remove(key);
+            removedMaterialsByChunk.remove(key);
+        }
+    }
+
+    private void commit(int chunkIndex, int y) {
+        committedChunkIndex = chunkIndex;
+        committedY = y;
+        checkpointDirty = true;
+    }
+
+    /**
+     * Run queued main-thread jobs in plan order.
+     */
+    private void runPendingJobs() {
+        Runnable job;
+        while ((job = pendingJobs.poll()) != null) {
+            try { job.run(); } catch (Throwable ex) { plugin.getLogger().warning("ChunkCleaner job failed: " + ex.getMessage()); }
+        }
+    }
+
+    /**
+     * Run queued main-thread jobs in plan order until the queue is empty or the deadline passes.
+     *
+     * @return true if the queue was drained
+     */
+    private boolean runPendingJobs(long deadlineNanos) {
+        Runnable job;
+        while (!pendingJobs.isEmpty()) {
+            if (System.nanoTime() - deadlineNanos >= 0) return false;
+            if ((job = pendingJobs.poll()) == null) break;
+            try { job.run(); } catch (Throwable ex) { plugin.getLogger().warning("ChunkCleaner job failed: " + ex.getMessage()); }
+        }
+        return true;
+    }
+
+    private void requestDrain() {
+        if (!drainQueued.compareAndSet(false, true)) return;
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            drainQueued.set(false);
+            drainMainThread();
+        });
+    }
+
+    /**
+     * Main-thread half of a scheduler run: block jobs, one slice of entity sweeping, completion check, visuals.
+     * Block jobs stop when this cleaner's part of the world's tick budget ({@link WorldBudget}) is used up; the
+     * rest wait for the next run.
+     */
+    private void drainMainThread() {
+        if (cancelled) return;
+        WorldBudget budget = plugin.getCleanerManager().getWorldBudget();
+        if (!budget.hasRemaining(worldName)) return;
+        if (budgetTick != budget.getTick()) {
+            budgetTick = budget.getTick();
+            budgetSpentTick = 0L;
+        }
+        long slice = budget.sliceNanos(worldName, budgetSpentTick);
+        if (slice <= 0L) return;
+        long t0 = System.nanoTime();
+        long blocksBefore = blocksRemoved;
+        try {
+            runMainThreadSlice(t0, slice);
+        } finally {
+            long spent = System.nanoTime() - t0;
+            budgetSpentTick += spent;
+            recordCost(spent);
+            budget.charge(worldName, spent, blocksRemoved - blocksBefore);
+        }
+    }
+
+    private void runMainThreadSlice(long startNanos, long allowanceNanos) {
+        if (allowanceNanos == Long.MAX_VALUE) runPendingJobs();
+        else runPendingJobs(startNanos + allowanceNanos);
+        if (cancelled) return;
+
+        if (!entitySweeps.isEmpty()) {
+            long tEntities = profiler.begin();
+            try {
+                sweepEntities();
+            } catch (Throwable ex) {
+                plugin.getLogger().warning("ChunkCleaner entity sweep failed: " + ex.getMessage());
+                entitySweeps.pollFirst();
+            }
+            profiler.end(Phase.ENTITY_REMOVAL, id, tEntities);
+        }
+        // jobs planned before a park still ran above; nothing else to do until woken
+        if (state != State.RUNNING) return;
+
+        if (isCommittedDone() && entitySweeps.isEmpty()) {
+            finish();
+            return;
+        }
+        updateVisuals();
+    }
+
+    /**
+     * Add a main-thread slice to the cost counters; once per second fold the window into the smoothed rate and
+     * apply the cost policy (cost.max_ms_per_second): throttle halves the task's share of scheduler runs (down to
+     * cost.min_share) and restores it once the task is well below the ceiling; pause parks it for
+     * cost.pause_seconds.
+     */
+    private void recordCost(long nanos) {
+        costNanos += nanos;
+        costWindowNanos += nanos;
+        long now = System.nanoTime();
+        long elapsed = now - costWindowStart;
+        if (elapsed < 1_000_000_000L) return;
+        double rate = (costWindowNanos / 1_000_000.0) / (elapsed / 1_000_000_000.0);
+        costMillisPerSecond = costMillisPerSecond <= 0.0 ? rate : 0.5 * costMillisPerSecond + 0.5 * rate;
+        costWindowStart = now;
+        costWindowNanos = 0L;
+
+        // a hard budget: turbo speeds up the throttle, never the ceiling
+        double ceiling = plugin.getConfig().getDouble("cost.max_ms_per_second", 0.0);
+        if (ceiling <= 0.0 || state != State.RUNNING) return;
+        if (costMillisPerSecond > ceiling) {
+            if ("pause".equalsIgnoreCase(plugin.getConfig().getString("cost.policy", "throttle"))) {
+                long ticks = Math.max(1L, plugin.getConfig().getLong("cost.pause_seconds", 30L)) * 20L;
+                costMillisPerSecond = 0.0;
+                park(ParkReason.OVER_BUDGET);
+                cancelCostResume();
+                costResumeTask = Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                    costResumeTask = null;
+                    plugin.getCleanerManager().resumeAfterCostPause(this);
+                }, ticks);
+            } else {
+                double minShare = Math.min(1.0, Math.max(0.01, plugin.getConfig().getDouble("cost.min_share", 0.1)));
+                budgetShare = Math.max(minShare, budgetShare * 0.5);
+            }
+        } else if (budgetShare < 1.0 && costMillisPerSecond < ceiling * 0.5) {
+            budgetShare = Math.min(1.0, budgetShare * 1.25);
+        }
+    }
+
+    private void cancelCostResume() {
+        if (costResumeTask != null) {
+            try { costResumeTask.cancel(); } catch (Throwable ignored) {}
+            costResumeTask = null;
+        }
+    }
+
+    /**
+     * Clear layers startY..endYInclusive of a chunk (main thread). Block types are read once into a scan buffer,
+     * then removed without physics, so the order of removals inside a batch does not matter. Removed blocks on
+     * the footprint edge that touch a fluid the cleaner may not remove are replaced by performance.fluid_edge_seal.
+     *
+     * @return number of removed blocks
+     */
+    private int clearRange(Chunk c, int startY, int endYInclusive, Map<Material, Integer> removedMaterials, long[] columnMask) {
+        final int layers = startY - endYInclusive + 1;
+        if (layers <= 0) return 0;
+        Material[] scanned = new Material[layers << 8];
+        UndoJournal j = journal;
+        UndoJournal.Recorder undo = j == null ? null : j.recorder(c.getX(), c.getZ());
+
+        int removed = 0;
+        for (int y = startY; y >= endYInclusive; y--) {
+            int layerBase = (startY - y) << 8;
+            for (int x = 0; x < 16; x++) {
+                for (int z = 0; z < 16; z++) {
+                    // protected column (partly claimed chunk)
+                    if (columnMask != null && !ColumnMask.isEditable(columnMask, x, z)) continue;
+                    Block block = c.getBlock(x, y, z);
+                    Material m = block.getType();
+                    if (m == Material.AIR || m == Material.BEDROCK) continue;
+                    int idx = layerBase | (x << 4) | z;
+                    scanned[idx] = m;
+                    removed++;
+                    removedMaterials.merge(m, 1, Integer::sum);
+                    if (undo != null) undo.add(x, y, z, block.getBlockData());
                 }
             }
+        }
+        if (removed == 0) return 0;
+        if (undo != null) undo.commit();
+        boolean[] seal = fluidSeal == null ? null : findSeals(c, startY, endYInclusive, scanned, columnMask);
+
+        DirectBlockWriter.ChunkWriter writer = directWrites ? DirectBlockWriter.open(c) : null;
+        for (int y = startY; y >= endYInclusive; y--) {
+            int layerBase = (startY - y) << 8;
+            for (int x = 0; x < 16; x++) {
+                for (int z = 0; z < 16; z++) {
+                    int idx = layerBase | (x << 4) | z;
+                    if (scanned[idx] == null) continue;
+                    if (seal != null && seal[idx]) c.getBlock(x, y, z).setType(fluidSeal, false);
+                    // points of interest go through setType so the server drops them from its POI storage
+                    else if (writer != null && DirectBlockWriter.isPointOfInterest(scanned[idx])) c.getBlock(x, y, z).setType(Material.AIR, false);
+                    else writer = clearBlock(c, writer, x, y, z);
+                }
+            }
+        }
 
-            // execute main-thread jobs
-            if (!mainThreadJobs.isEmpty()) {
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    Runnable job;
-                    while ((job = mainThreadJobs.poll()) != null) {
-                        try { job.run(); } catch (Throwable ex) { plugin.getLogger().warning("ChunkCleaner job failed: " + ex.getMessage()); }
+        if (writer != null) {
+            try {
+                writer.finish();
+            } catch (ReflectiveOperationException roe) {
+                plugin.getLogger().warning("Direct section write finish failed: " + roe.getMessage());
+            }
+            // relight once per completed section (or chunk) instead of per block
+            boolean sectionDone = Math.floorDiv(startY, 16) != Math.floorDiv(endYInclusive - 1, 16);
+            if (endYInclusive <= minY || (relightPerSection && sectionDone)) {
+                plugin.getCleanerManager().getRelightQueue().enqueue(worldName, c.getX(), c.getZ());
+            } else if (resendPerBatch) {
+                // one refreshed chunk per layer batch instead of per-block change packets
+                plugin.getCleanerManager().getResendQueue().markDirty(worldName, c.getX(), c.getZ());
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Mark the removed blocks of a batch that sit next to a fluid outside the editable area: another chunk
+     * outside the footprint, or a protected column. Only footprint-edge columns are looked at, and neighbours
+     * in unloaded chunks are skipped (their fluid cannot tick until the chunk loads).
+     *
+     * @return per scan index, true where the block is sealed instead of cleared; null if nothing is
+     */
+    private boolean[] findSeals(Chunk c, int startY, int endYInclusive, Material[] scanned, long[] columnMask) {
+        World world = c.getWorld();
+        // per column, bit s set when side s leads out of the editable area
+        byte[] outSides = new byte[256];
+        boolean anyEdge = false;
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                if (columnMask != null && !ColumnMask.isEditable(columnMask, x, z)) continue;
+                for (int s = 0; s < 4; s++) {
+                    if (!isOutside(c.getX(), c.getZ(), columnMask, x + SIDES[s][0], z + SIDES[s][1])) continue;
+                    outSides[(x << 4) | z] |= (byte) (1 << s);
+                    anyEdge = true;
+                }
+            }
+        }
+        if (!anyEdge) return null;
+
+        boolean[] seal = null;
+        int baseX = c.getX() << 4;
+        int baseZ = c.getZ() << 4;
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                int sides = outSides[(x << 4) | z];
+                if (sides == 0) continue;
+                for (int s = 0; s < 4; s++) {
+                    if ((sides & (1 << s)) == 0) continue;
+                    int wx = baseX + x + SIDES[s][0];
+                    int wz = baseZ + z + SIDES[s][1];
+                    if (!world.isChunkLoaded(wx >> 4, wz >> 4)) continue;
+                    for (int y = startY; y >= endYInclusive; y--) {
+                        int idx = ((startY - y) << 8) | (x << 4) | z;
+                        if (scanned[idx] == null || (seal != null && seal[idx])) continue;
+                        Block neighbour = world.getBlockAt(wx, y, wz);
+                        if (!isFluid(neighbour, neighbour.getType())) continue;
+                        if (seal == null) seal = new boolean[scanned.length];
+                        seal[idx] = true;
                     }
-                    updateVisuals();
-                });
-            } else {
-                Bukkit.getScheduler().runTask(plugin, this::updateVisuals);
+                }
             }
-        }, 0L, Math.max(1, scheduleInterval));
+        }
+        return seal;
+    }
+
+    // chunk-local (x, z), possibly in a neighbouring chunk: outside the footprint or protected
+    private boolean isOutside(int chunkX, int chunkZ, long[] columnMask, int x, int z) {
+        if (x >= 0 && x < 16 && z >= 0 && z < 16) return columnMask != null && !ColumnMask.isEditable(columnMask, x, z);
+        int cx = chunkX + (x >> 4);
+        int cz = chunkZ + (z >> 4);
+        if (!shape.contains(cx, cz)) return true;
+        long[] mask = columnMasks.get(LightingUtil.chunkKey(cx, cz));
+        return mask != null && !ColumnMask.isEditable(mask, x & 15, z & 15);
+    }
+
+    private static boolean isFluid(Block block, Material m) {
+        if (FLUID_MATERIALS.contains(m)) return true;
+        int ord = m.ordinal();
+        byte known = WATERLOGGABLE[ord];
+        if (known == 0) {
+            boolean waterloggable;
+            try {
+                waterloggable = m.createBlockData() instanceof Waterlogged;
+            } catch (Throwable t) {
+                waterloggable = false;
+            }
+            known = waterloggable ? (byte) 1 : (byte) 2;
+            WATERLOGGABLE[ord] = known;
+        }
+        return known == 1 && block.getBlockData() instanceof Waterlogged w && w.isWaterlogged();
+    }
+
+    /**
+     * Set one block to air, through the direct writer when available.
+     *
+     * @return the writer to keep using (null once direct writes failed)
+     */
+    private DirectBlockWriter.ChunkWriter clearBlock(Chunk c, DirectBlockWriter.ChunkWriter writer, int x, int y, int z) {
+        if (writer != null) {
+            try {
+                writer.setAir(x, y, z);
+                return writer;
+            } catch (ReflectiveOperationException roe) {
+                plugin.getLogger().warning("Direct section write failed, falling back to standard updates: " + roe.getMessage());
+                directWrites = false;
+            }
+        }
+        c.getBlock(x, y, z).setType(Material.AIR, false);
+        return null;
+    }
+
+    /**
+     * Remove at most entities.max_removals_per_cycle matching entities from finished chunks; runs once per
+     * main-thread drain, i.e. once per scheduler interval. Entities are fetched once per chunk and walked with a
+     * cursor across drains.
+     */
+    private void sweepEntities() {
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) {
+            entitySweeps.clear();
+            return;
+        }
+        int budget = maxEntityRemovalsPerCycle;
+        // inspecting non-matching entities is cheap but not free; bound it as well
+        int inspectBudget = budget * 4;
+        EntitySweep sweep;
+        while (budget > 0 && inspectBudget > 0 && (sweep = entitySweeps.peekFirst()) != null) {
+            if (sweep.entities == null) {
+                if (!world.isChunkLoaded(sweep.chunkX, sweep.chunkZ)) {
+                    // unloaded since it finished; its entities are no longer ticking, nothing to sweep now
+                    entitySweeps.pollFirst();
+                    continue;
+                }
+                sweep.entities = world.getChunkAt(sweep.chunkX, sweep.chunkZ).getEntities();
+            }
+            while (sweep.cursor < sweep.entities.length && budget > 0 && inspectBudget > 0) {
+                Entity e = sweep.entities[sweep.cursor++];
+                inspectBudget--;
+                if (!shouldSweep(e)) continue;
+                if (sweep.columnMask != null) {
+                    Location l = e.getLocation();
+                    if (!ColumnMask.isEditable(sweep.columnMask, l.getBlockX() & 15, l.getBlockZ() & 15)) continue;
+                }
+                e.remove();
+                entitiesRemoved++;
+                budget--;
+            }
+            if (sweep.cursor >= sweep.entities.length) entitySweeps.pollFirst();
+        }
+    }
+
+    private boolean shouldSweep(Entity e) {
+        if (e == null || e instanceof Player || !e.isValid()) return false;
+        if (!sweepEntityTypes.contains(e.getType())) return false;
+        if (e.getScoreboardTags().contains(HologramUtil.HOLOGRAM_TAG)) return false;
+        if (skipNamedEntities && e.getCustomName() != null) return false;
+        if (skipLeashedEntities && e instanceof LivingEntity && ((LivingEntity) e).isLeashed()) return false;
+        return true;
     }
 
     /**
@@ -380,25 +1161,145 @@ public class ChunkCleanerTask {
      */
     public void resume() { start(); }
 
+    /**
+     * Why this task cannot run right now, or null if it can.
+     */
+    public ParkReason blockedReason() {
+        if (Bukkit.getWorld(worldName) == null) return ParkReason.WORLD_UNLOADED;
+        // without a precomputed protection list the owner has to be online to compute it
+        if (columnMasks == null && plugin.getIntegrationManager().requiresOnlineOwner()) {
+            Player owner = ownerUuid == null ? null : Bukkit.getPlayer(ownerUuid);
+            if (owner == null || !owner.isOnline()) return ParkReason.OWNER_OFFLINE;
+        }
+        return null;
+    }
+
+    /**
+     * Stop scheduling and release the timer and hologram until woken (main thread). Jobs already planned run
+     * now (dropped and replanned on wake if the world went away or the cleaner is over budget), then progress
+     * is checkpointed.
+     */
+    public void park(ParkReason reason) {
+        if (state == State.DONE) return;
+        boolean wasRunning = state == State.RUNNING;
+        parkRequested = true;
+        if (schedulerTask != null) {
+            schedulerTask.cancel();
+            schedulerTask = null;
+        }
+        // over budget: running the queue now is what the ceiling is there to prevent; it is replanned on wake
+        if (reason == ParkReason.WORLD_UNLOADED || reason == ParkReason.OVER_BUDGET) pendingJobs.clear();
+        else runPendingJobs();
+        releaseChunks();
+        state = State.PARKED;
+        parkReason = reason;
+        if (hologramHandle != null) {
+            try { hologramHandle.remove(); } catch (Throwable ignored) {}
+            hologramHandle = null;
+        }
+        samples.clear();
+        if (!wasRunning) return;
+        if (job != null) {
+            plugin.getCleanerManager().onTaskStopped(this);
+            return;
+        }
+        try {
+            plugin.getPersistenceManager().saveTaskProgress(this);
+        } catch (Throwable t) {
+            plugin.getLogger().fine("Failed to persist task progress: " + t.getMessage());
+        }
+        Player p = ownerUuid == null ? null : Bukkit.getPlayer(ownerUuid);
+        if (p != null && p.isOnline()) {
+            String path = null;
+            String def = null;
+            if (reason == ParkReason.QUEUE_FULL) {
+                path = "messages.main.task_parked_queue";
+                def = "<yellow>Your chunk cleaner at {coords} is waiting for a free slot.";
+            } else if (reason == ParkReason.WORLD_UNLOADED) {
+                path = "messages.main.task_parked_world";
+                def = "<yellow>Your chunk cleaner at {coords} is paused until its world is loaded.";
+            } else if (reason == ParkReason.OVER_BUDGET) {
+                path = "messages.main.task_parked_cost";
+                def = "<yellow>Your chunk cleaner at {coords} is using too much server time and is paused for {seconds}s.";
+            }
+            if (path != null) {
+                p.sendMessage(MessageUtil.parse(plugin.getConfig().getString(path, def)
+                        .replace("{coords}", worldName + ":" + originChunkX + "," + originChunkZ)
+                        .replace("{seconds}", String.valueOf(plugin.getConfig().getLong("cost.pause_seconds", 30L)))));
+            }
+        }
+        plugin.getCleanerManager().onTaskStopped(this);
+    }
+
     /**
      * Cancel and cleanup.
      */
     public void cancel() {
         cancelled = true;
+        boolean wasRunning = state == State.RUNNING;
+        state = State.DONE;
         if (schedulerTask != null) schedulerTask.cancel();
+        pendingJobs.clear();
+        releaseChunks();
+        cancelCostResume();
+        plugin.getCleanerManager().getJournals().close(id);
         if (hologramHandle != null) {
             try { hologramHandle.remove(); } catch (Throwable ignored) {}
         }
         plugin.getCleanerManager().removeTask(id);
+        if (job != null) job.releaseWorker(id);
+        else plugin.getPersistenceManager().removeRecord(id);
+        plugin.getApiService().fireFinished(this, CleanerFinishedEvent.Outcome.CANCELLED);
+        if (wasRunning) plugin.getCleanerManager().onTaskStopped(this);
+    }
+
+    /**
+     * Server stop (main thread): stop planning, run the jobs already planned until deadlineNanos and drop the
+     * rest, so the committed cursor is exact for the final save. The task stays registered so it is saved.
+     *
+     * @return number of planned jobs abandoned
+     */
+    public int shutdown(long deadlineNanos) {
+        parkRequested = true;
+        if (schedulerTask != null) {
+            schedulerTask.cancel();
+            schedulerTask = null;
+        }
+        int abandoned = 0;
+        if (!runPendingJobs(deadlineNanos)) {
+            abandoned = pendingJobs.size();
+            pendingJobs.clear();
+        }
+        cancelled = true;
+        // the next start plans again from the committed cursor
+        currentChunkIndex = committedChunkIndex;
+        currentY = committedY;
+        releaseChunks();
+        cancelCostResume();
+        plugin.getCleanerManager().getJournals().close(id);
+        if (hologramHandle != null) {
+            try { hologramHandle.remove(); } catch (Throwable ignored) {}
+            hologramHandle = null;
+        }
+        return abandoned;
     }
 
     private void finish() {
         cancelled = true;
+        state = State.DONE;
         if (schedulerTask != null) schedulerTask.cancel();
+        releaseChunks();
+        cancelCostResume();
+        plugin.getCleanerManager().getJournals().close(id);
         if (hologramHandle != null) {
             try { hologramHandle.remove(); } catch (Throwable ignored) {}
         }
         plugin.getCleanerManager().removeTask(id);
+        if (job != null) job.releaseWorker(id);
+        else plugin.getPersistenceManager().removeRecord(id);
+        plugin.getApiService().fireFinished(this, CleanerFinishedEvent.Outcome.COMPLETED);
+        plugin.getCleanerManager().onTaskStopped(this);
+        if (job != null) return;
         Player p = Bukkit.getPlayer(ownerUuid);
         if (p != null && p.isOnline()) {
             p.sendMessage(MessageUtil.parse(plugin.getConfig().getString("messages.finish_message", "<green>Your chunk cleaner has finished clearing the area.</green>")));
@@ -406,9 +1307,18 @@ public class ChunkCleanerTask {
     }
 
     /**
-     * Update actionbar and hologram visuals. Always called on main thread.
+     * Update the ETA and hologram visuals. Always called on main thread.
      */
     private void updateVisuals() {
+        long tVisuals = profiler.begin();
+        try {
+            renderVisuals();
+        } finally {
+            profiler.end(Phase.UPDATE_VISUALS, id, tVisuals);
+        }
+    }
+
+    private void renderVisuals() {
         double progress = 0.0;
         if (totalLevels > 0) progress = Math.min(1.0, Math.max(0.0, processedLevels / (double) totalLevels));
 
@@ -423,7 +1333,13 @@ public class ChunkCleanerTask {
             for (Sample s : samples) {
                 if (s.timestampMillis >= cutoff) windowLevels += s.levels;
             }
-            double rate = windowLevels / Math.max(1.0, sampleWindowSeconds);
+            // until the window has filled, lean on the rate the throttle is configured to reach
+            double observedSeconds = Math.min(sampleWindowSeconds, Math.max(0.0, (now - runningSinceMillis) / 1000.0));
+            double rate = windowLevels / Math.max(1.0, observedSeconds);
+            if (expectedLevelsPerSecond > 0.0) {
+                double weight = observedSeconds / sampleWindowSeconds;
+                rate = weight * rate + (1.0 - weight) * expectedLevelsPerSecond;
+            }
             if (rate <= 0.0001) {
                 double remFrac = 1.0 - progress;
                 double est = remFrac * durationSeconds;
@@ -435,15 +1351,14 @@ public class ChunkCleanerTask {
             }
         }
 
-        Player p = Bukkit.getPlayer(ownerUuid);
-        if (p != null && p.isOnline()) {
-            String msg = plugin.getConfig().getString("actionbar.message", "&aChunk Cleaner &7- &e{remaining}s &8[&e{progress}%&8]");
-            msg = msg.replace("{remaining}", String.valueOf(remainingSeconds))
-                    .replace("{progress}", String.format("%.0f", progress * 100.0));
-            ActionBarUtil.sendActionBar(p, MessageUtil.parse(msg));
-        }
+        // the owner's action bar / boss bar reads these on its own cadence (OwnerProgressDisplay)
+        this.displayProgress = progress;
+        this.displayRemainingSeconds = remainingSeconds;
 
-        if (hologramHandle != null) {
+        // nobody in range: tear down (if shown) and skip building the text
+        double showRadius = plugin.getConfig().getDouble("hologram.view_radius", 48.0);
+        double hideRadius = plugin.getConfig().getDouble("hologram.hide_radius", showRadius + 8.0);
+        if (hologramHandle != null && hologramHandle.updateViewers(showRadius, hideRadius)) {
             try {
                 List<String> cfgLines = plugin.getConfig().getStringList("hologram.lines");
                 if (cfgLines == null || cfgLines.isEmpty()) {
@@ -463,7 +1378,10 @@ public class ChunkCleanerTask {
     public void onConfigReload() {
         this.currentChunksPerInterval = Math.max(1, plugin.getConfig().getInt("performance.max_chunks_per_interval", 1));
         this.currentYBatchSize = Math.max(1, plugin.getConfig().getInt("performance.y_batch_size", 1));
-        updateVisuals();
+        loadEntitySettings();
+        World w = Bukkit.getWorld(worldName);
+        if (w != null) loadLightingSettings(w);
+        if (state == State.RUNNING) updateVisuals();
     }
 
     /* ---------------- Utilities ---------------- */
@@ -479,29 +1397,7 @@ public class ChunkCleanerTask {
         return new Location(w, blockX, y, blockZ);
     }
 
-    /**
-     * Query server TPS reflectively when available; return 20.0 fallback if not.
-     */
     private double getServerTPS() {
-        try {
-            Object server = Bukkit.getServer();
-            Method m = server.getClass().getMethod("getTPS");
-            Object v = m.invoke(server);
-            if (v instanceof double[]) {
-                double[] arr = (double[]) v;
-                if (arr.length > 0) {
-                    double sum = 0.0;
-                    for (double d : arr) sum += d;
-                    return Math.max(0.0, Math.min(20.0, sum / arr.length));
-                }
-            } else if (v instanceof Double) {
-                return Math.max(0.0, Math.min(20.0, (Double) v));
-            }
-        } catch (NoSuchMethodException ignore) {
-            // fallthrough
-        } catch (Throwable t) {
-            plugin.getLogger().fine("Could not query server TPS: " + t.getMessage());
-        }
-        return 20.0;
+        return ThrottlePlan.currentTps(plugin);
     }
 }
\ No newline at end of file
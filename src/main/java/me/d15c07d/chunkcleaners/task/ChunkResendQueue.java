@@ -0,0 +1,120 @@
+package me.d15c07d.chunkcleaners.task;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.utils.LightingUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+
+/**
+ * Resends whole chunks to nearby players under a per-player network budget.
+ *
+ * Used when blocks are written directly into sections (no per-block change packets). Each player owns a token
+ * bucket refilled by network.player_bytes_per_tick up to network.player_burst_bytes; a dirty chunk is resent only
+ * when every player viewing it can pay network.chunk_packet_bytes, otherwise it waits for a later tick. Chunks
+ * nobody is viewing are dropped from the queue: clients receive fresh data when they load them anyway.
+ */
+public class ChunkResendQueue {
+
+    private final ChunkCleanersPlugin plugin;
+
+    // world name -> dirty chunk keys (insertion ordered, de-duplicated); main thread only
+    private final Map<String, LinkedHashSet<Long>> dirty = new LinkedHashMap<>();
+    private final Map<UUID, Long> tokens = new HashMap<>();
+    private BukkitTask tickTask;
+
+    public ChunkResendQueue(ChunkCleanersPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start() {
+        if (tickTask != null) return;
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    public void shutdown() {
+        if (tickTask != null) {
+            try { tickTask.cancel(); } catch (Throwable ignored) {}
+            tickTask = null;
+        }
+        dirty.clear();
+        tokens.clear();
+    }
+
+    /**
+     * Mark a chunk as needing a resend. Must be called on the main thread.
+     */
+    public void markDirty(String worldName, int chunkX, int chunkZ) {
+        dirty.computeIfAbsent(worldName, k -> new LinkedHashSet<>()).add(LightingUtil.chunkKey(chunkX, chunkZ));
+    }
+
+    public int getPendingCount() {
+        int n = 0;
+        for (Set<Long> s : dirty.values()) n += s.size();
+        return n;
+    }
+
+    private void tick() {
+        long perTick = Math.max(1L, plugin.getConfig().getLong("network.player_bytes_per_tick", 16384L));
+        long burst = Math.max(perTick, plugin.getConfig().getLong("network.player_burst_bytes", 65536L));
+        // a single chunk never costs more than a full bucket, otherwise it could starve forever
+        long chunkCost = Math.min(burst, Math.max(1L, plugin.getConfig().getLong("network.chunk_packet_bytes", 12288L)));
+
+        // refill buckets of online players, forget players that left
+        Set<UUID> online = new HashSet<>();
+        for (Player p : Bukkit.getOnlinePlayers()) {
+            online.add(p.getUniqueId());
+            tokens.merge(p.getUniqueId(), perTick, (a, b) -> Math.min(burst, a + b));
+        }
+        tokens.keySet().retainAll(online);
+        if (dirty.isEmpty()) return;
+
+        Iterator<Map.Entry<String, LinkedHashSet<Long>>> worlds = dirty.entrySet().iterator();
+        while (worlds.hasNext()) {
+            Map.Entry<String, LinkedHashSet<Long>> entry = worlds.next();
+            World world = Bukkit.getWorld(entry.getKey());
+            if (world == null) {
+                worlds.remove();
+                continue;
+            }
+            List<Player> players = world.getPlayers();
+            int viewDistance = Math.max(2, world.getViewDistance());
+
+            Iterator<Long> keys = entry.getValue().iterator();
+            while (keys.hasNext()) {
+                long key = keys.next();
+                int cx = LightingUtil.chunkKeyX(key);
+                int cz = LightingUtil.chunkKeyZ(key);
+                if (!world.isChunkLoaded(cx, cz)) {
+                    keys.remove();
+                    continue;
+                }
+
+                List<Player> viewers = new ArrayList<>();
+                boolean affordable = true;
+                for (Player p : players) {
+                    Location l = p.getLocation();
+                    int pcx = l.getBlockX() >> 4;
+                    int pcz = l.getBlockZ() >> 4;
+                    if (Math.max(Math.abs(pcx - cx), Math.abs(pcz - cz)) > viewDistance) continue;
+                    viewers.add(p);
+                    if (tokens.getOrDefault(p.getUniqueId(), 0L) < chunkCost) affordable = false;
+                }
+                if (viewers.isEmpty()) {
+                    keys.remove();
+                    continue;
+                }
+                if (!affordable) continue;
+
+                for (Player p : viewers) tokens.merge(p.getUniqueId(), -chunkCost, Long::sum);
+                try { world.refreshChunk(cx, cz); } catch (Throwable ignored) {}
+                keys.remove();
+            }
+            if (entry.getValue().isEmpty()) worlds.remove();
+        }
+    }
+}
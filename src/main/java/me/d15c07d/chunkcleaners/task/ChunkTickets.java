@@ -0,0 +1,67 @@
+package me.d15c07d.chunkcleaners.task;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.utils.LightingUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Plugin chunk tickets, counted per chunk (main thread only).
+ *
+ * The server keeps one plugin ticket per chunk and plugin, so a cleaner, the relight queue and the auto-tuner
+ * pinning the same chunk would otherwise drop each other's pin on release. Each {@link #hold} adds the ticket
+ * on the first hold only, each {@link #release} removes it with the last.
+ */
+public class ChunkTickets {
+
+    private final ChunkCleanersPlugin plugin;
+    // world name -> chunk key -> holds
+    private final Map<String, Map<Long, Integer>> holds = new HashMap<>();
+
+    public ChunkTickets(ChunkCleanersPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public void hold(World world, int chunkX, int chunkZ) {
+        Map<Long, Integer> chunks = holds.computeIfAbsent(world.getName(), k -> new HashMap<>());
+        if (chunks.merge(LightingUtil.chunkKey(chunkX, chunkZ), 1, Integer::sum) == 1) {
+            world.addPluginChunkTicket(chunkX, chunkZ, plugin);
+        }
+    }
+
+    public void release(String worldName, int chunkX, int chunkZ) {
+        Map<Long, Integer> chunks = holds.get(worldName);
+        if (chunks == null) return;
+        long key = LightingUtil.chunkKey(chunkX, chunkZ);
+        Integer n = chunks.get(key);
+        if (n == null) return;
+        if (n > 1) {
+            chunks.put(key, n - 1);
+            return;
+        }
+        chunks.remove(key);
+        if (chunks.isEmpty()) holds.remove(worldName);
+        World world = Bukkit.getWorld(worldName);
+        // an unloaded world took its tickets with it
+        if (world != null) world.removePluginChunkTicket(chunkX, chunkZ, plugin);
+    }
+
+    /** Drop every ticket (server stop). */
+    public void releaseAll() {
+        Iterator<Map.Entry<String, Map<Long, Integer>>> it = holds.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Map<Long, Integer>> e = it.next();
+            World world = Bukkit.getWorld(e.getKey());
+            if (world != null) {
+                for (long key : e.getValue().keySet()) {
+                    world.removePluginChunkTicket(LightingUtil.chunkKeyX(key), LightingUtil.chunkKeyZ(key), plugin);
+                }
+            }
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package me.d15c07d.chunkcleaners.task;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.utils.ActionBarUtil;
+import me.d15c07d.chunkcleaners.utils.MessageUtil;
+import net.kyori.adventure.bossbar.BossBar;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+
+/**
+ * One progress surface per owner instead of one action bar per task.
+ *
+ * Every actionbar.refresh_ticks the running tasks of each online owner are folded into one line (progress
+ * weighted by task size, the longest ETA) and shown as a boss bar or an action bar (actionbar.mode). A packet
+ * is only sent when the rendered text or bar value changed; action bars are additionally resent every
+ * actionbar.keepalive_ticks because the client fades them out.
+ */
+public class OwnerProgressDisplay {
+
+    private enum Mode { BOSSBAR, ACTIONBAR }
+
+    private final ChunkCleanersPlugin plugin;
+    private final ChunkCleanerManager manager;
+
+    // main thread only
+    private final Map<UUID, BossBar> bars = new HashMap<>();
+    private final Map<UUID, String> lastRendered = new HashMap<>();
+    private final Map<UUID, Long> lastSentTick = new HashMap<>();
+    private BukkitTask task;
+    private long tick = 0L;
+
+    public OwnerProgressDisplay(ChunkCleanersPlugin plugin, ChunkCleanerManager manager) {
+        this.plugin = plugin;
+        this.manager = manager;
+    }
+
+    public void start() {
+        stop();
+        long interval = Math.max(1L, plugin.getConfig().getLong("actionbar.refresh_ticks", 10L));
+        task = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            tick += interval;
+            refresh();
+        }, interval, interval);
+    }
+
+    public void stop() {
+        if (task != null) {
+            try { task.cancel(); } catch (Throwable ignored) {}
+            task = null;
+        }
+        for (Map.Entry<UUID, BossBar> e : bars.entrySet()) {
+            Player p = Bukkit.getPlayer(e.getKey());
+            if (p != null) p.hideBossBar(e.getValue());
+        }
+        bars.clear();
+        lastRendered.clear();
+        lastSentTick.clear();
+    }
+
+    private void refresh() {
+        Mode mode = "bossbar".equalsIgnoreCase(plugin.getConfig().getString("actionbar.mode", "actionbar")) ? Mode.BOSSBAR : Mode.ACTIONBAR;
+        boolean enabled = plugin.getConfig().getBoolean("actionbar.enabled", true);
+
+        Map<UUID, List<ChunkCleanerTask>> byOwner = new HashMap<>();
+        if (enabled) {
+            for (ChunkCleanerTask t : manager.getActiveTasks()) {
+                // job workers report through /chunkcleaners admin status instead
+                if (t.getState() != ChunkCleanerTask.State.RUNNING || t.getJob() != null) continue;
+                byOwner.computeIfAbsent(t.getOwnerUuid(), k -> new ArrayList<>()).add(t);
+            }
+        }
+
+        // owners with nothing running any more (or who went offline) lose their surface
+        for (UUID owner : new ArrayList<>(lastRendered.keySet())) {
+            Player p = Bukkit.getPlayer(owner);
+            if (byOwner.containsKey(owner) && p != null && p.isOnline()) continue;
+            BossBar bar = bars.remove(owner);
+            if (bar != null && p != null) p.hideBossBar(bar);
+            lastRendered.remove(owner);
+            lastSentTick.remove(owner);
+        }
+
+        long keepalive = Math.max(1L, plugin.getConfig().getLong("actionbar.keepalive_ticks", 40L));
+        for (Map.Entry<UUID, List<ChunkCleanerTask>> e : byOwner.entrySet()) {
+            Player p = Bukkit.getPlayer(e.getKey());
+            if (p == null || !p.isOnline()) continue;
+            List<ChunkCleanerTask> tasks = e.getValue();
+
+            double weighted = 0.0;
+            double plain = 0.0;
+            long totalLevels = 0L;
+            long remaining = 0L;
+            for (ChunkCleanerTask t : tasks) {
+                weighted += t.getProgress() * t.getTotalLevels();
+                plain += t.getProgress();
+                totalLevels += t.getTotalLevels();
+                remaining = Math.max(remaining, t.getRemainingSeconds());
+            }
+            double progress = totalLevels > 0 ? weighted / totalLevels : plain / tasks.size();
+            progress = Math.min(1.0, Math.max(0.0, progress));
+            int percent = (int) Math.floor(progress * 100.0);
+
+            String msg = tasks.size() == 1
+                    ? plugin.getConfig().getString("actionbar.message", "&aChunk Cleaner &7- &e{remaining}s &8[&e{progress}%&8]")
+                    : plugin.getConfig().getString("actionbar.message_multiple", "&aChunk Cleaners &7(&f{count}&7) - &e{remaining}s &8[&e{progress}%&8]");
+            msg = msg.replace("{remaining}", String.valueOf(remaining))
+                    .replace("{progress}", String.valueOf(percent))
+                    .replace("{count}", String.valueOf(tasks.size()));
+
+            // the rendered value: text plus (for the bar) its fill in whole percent
+            String rendered = mode + "|" + msg;
+            boolean changed = !rendered.equals(lastRendered.get(e.getKey()));
+
+            if (mode == Mode.BOSSBAR) {
+                if (!changed) continue;
+                BossBar bar = bars.get(e.getKey());
+                if (bar == null) {
+                    bar = BossBar.bossBar(MessageUtil.parse(msg), percent / 100f, bossBarColor(), BossBar.Overlay.PROGRESS);
+                    bars.put(e.getKey(), bar);
+                    p.showBossBar(bar);
+                } else {
+                    bar.name(MessageUtil.parse(msg));
+                    bar.progress(percent / 100f);
+                }
+            } else {
+                // switched from boss bar
+                BossBar bar = bars.remove(e.getKey());
+                if (bar != null) p.hideBossBar(bar);
+                Long last = lastSentTick.get(e.getKey());
+                if (!changed && last != null && tick - last < keepalive) continue;
+                ActionBarUtil.sendActionBar(p, MessageUtil.parse(msg));
+                lastSentTick.put(e.getKey(), tick);
+            }
+            lastRendered.put(e.getKey(), rendered);
+        }
+    }
+
+    private BossBar.Color bossBarColor() {
+        try {
+            return BossBar.Color.valueOf(plugin.getConfig().getString("actionbar.bossbar_color", "GREEN").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException iae) {
+            return BossBar.Color.GREEN;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package me.d15c07d.chunkcleaners.task;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.utils.LightingUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared, rate-limited relight queue used whenever cleaners write sections directly.
+ *
+ * Tasks enqueue chunks whose sections were written directly (no per-block light updates). Once per tick the
+ * queue hands at most lighting.max_relight_chunks_per_tick chunks (across all cleaners) to the server's bulk
+ * relight, keeping at most lighting.max_inflight_batches batches running. Relit chunks are handed to the
+ * {@link ChunkResendQueue} so clients receive the new blocks and light under the network budget.
+ *
+ * Direct writes never mark light as invalid, so a chunk saved before its relight keeps stale light for good.
+ * Every queued chunk therefore holds a chunk ticket until its relight completes. A batch whose callback has not
+ * arrived after lighting.relight_timeout_ticks frees its slot and goes back into the queue, up to
+ * lighting.relight_attempts times; chunks still unlit after that, or when the server stops, are written to
+ * the stale-light file and relit the next time they load.
+ */
+public class RelightQueue implements Listener {
+
+    private final ChunkCleanersPlugin plugin;
+    private final ChunkResendQueue resendQueue;
+    private final ChunkTickets tickets;
+    private final File staleFile;
+
+    // world name -> pending chunk keys (insertion ordered, de-duplicated)
+    private final Map<String, LinkedHashSet<Long>> pending = new LinkedHashMap<>();
+    private final AtomicInteger inflight = new AtomicInteger(0);
+    // main thread only below
+    // batches handed to the server, with the tick they expire
+    private final Map<Object, Inflight> batches = new HashMap<>();
+    // world name -> chunk keys queued or in flight, each holding a ticket
+    private final Map<String, Set<Long>> held = new HashMap<>();
+    // world name -> chunk key -> timed-out batches so far
+    private final Map<String, Map<Long, Integer>> attempts = new HashMap<>();
+    // world name -> chunks saved with stale light, relit when they load
+    private final Map<String, Set<Long>> stale = new HashMap<>();
+    private long tickCounter;
+    private BukkitTask tickTask;
+
+    public RelightQueue(ChunkCleanersPlugin plugin, ChunkResendQueue resendQueue, ChunkTickets tickets, File staleFile) {
+        this.plugin = plugin;
+        this.resendQueue = resendQueue;
+        this.tickets = tickets;
+        this.staleFile = staleFile;
+    }
+
+    public void start() {
+        if (tickTask != null) return;
+        loadStale();
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    /**
+     * Server stop: the bulk relight runs off-thread and would race the world save, so nothing is submitted.
+     * Queued, in-flight and still-stale chunks are written to the stale-light file instead.
+     */
+    public void shutdown() {
+        if (tickTask != null) {
+            try { tickTask.cancel(); } catch (Throwable ignored) {}
+            tickTask = null;
+        }
+        HandlerList.unregisterAll(this);
+        synchronized (pending) {
+            for (Map.Entry<String, LinkedHashSet<Long>> e : pending.entrySet()) markStale(e.getKey(), e.getValue());
+            pending.clear();
+        }
+        for (Inflight b : batches.values()) markStale(b.worldName, b.chunks);
+        batches.clear();
+        inflight.set(0);
+        for (Map.Entry<String, Set<Long>> e : held.entrySet()) {
+            for (long key : e.getValue()) tickets.release(e.getKey(), LightingUtil.chunkKeyX(key), LightingUtil.chunkKeyZ(key));
+        }
+        held.clear();
+        attempts.clear();
+        saveStale();
+    }
+
+    /** Queue a chunk for relighting and pin it until then (main thread). */
+    public void enqueue(String worldName, int chunkX, int chunkZ) {
+        long key = LightingUtil.chunkKey(chunkX, chunkZ);
+        synchronized (pending) {
+            pending.computeIfAbsent(worldName, k -> new LinkedHashSet<>()).add(key);
+        }
+        if (held.computeIfAbsent(worldName, k -> new HashSet<>()).add(key)) {
+            World world = Bukkit.getWorld(worldName);
+            if (world != null) tickets.hold(world, chunkX, chunkZ);
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (pending) {
+            int n = 0;
+            for (Set<Long> s : pending.values()) n += s.size();
+            return n;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Set<Long> keys = stale.get(event.getWorld().getName());
+        if (keys == null || !keys.remove(LightingUtil.chunkKey(event.getChunk().getX(), event.getChunk().getZ()))) return;
+        if (keys.isEmpty()) stale.remove(event.getWorld().getName());
+        enqueue(event.getWorld().getName(), event.getChunk().getX(), event.getChunk().getZ());
+    }
+
+    private void tick() {
+        tickCounter++;
+        expireBatches();
+        int maxInflight = Math.max(1, plugin.getConfig().getInt("lighting.max_inflight_batches", 2));
+        if (inflight.get() >= maxInflight) return;
+        int budget = Math.max(1, plugin.getConfig().getInt("lighting.max_relight_chunks_per_tick", 4));
+
+        synchronized (pending) {
+            Iterator<Map.Entry<String, LinkedHashSet<Long>>> worlds = pending.entrySet().iterator();
+            while (budget > 0 && inflight.get() < maxInflight && worlds.hasNext()) {
+                Map.Entry<String, LinkedHashSet<Long>> entry = worlds.next();
+                World world = Bukkit.getWorld(entry.getKey());
+                if (world == null) {
+                    // the world was saved with whatever light it had
+                    List<Long> dropped = new ArrayList<>(entry.getValue());
+                    worlds.remove();
+                    markStale(entry.getKey(), dropped);
+                    for (long key : dropped) done(entry.getKey(), key);
+                    continue;
+                }
+                List<Long> batch = new ArrayList<>();
+                Iterator<Long> keys = entry.getValue().iterator();
+                while (budget > 0 && keys.hasNext()) {
+                    batch.add(keys.next());
+                    keys.remove();
+                    budget--;
+                }
+                if (entry.getValue().isEmpty()) worlds.remove();
+                submit(world, batch);
+            }
+        }
+    }
+
+    private void submit(World world, List<Long> batch) {
+        if (batch.isEmpty()) return;
+        inflight.incrementAndGet();
+        String worldName = world.getName();
+        Object token = new Object();
+        long timeout = Math.max(1L, plugin.getConfig().getLong("lighting.relight_timeout_ticks", 200L));
+        batches.put(token, new Inflight(worldName, batch, tickCounter + timeout));
+        boolean submitted = LightingUtil.relight(world, batch, () -> Bukkit.getScheduler().runTask(plugin, () -> {
+            // already given up on by the watchdog
+            if (batches.remove(token) == null) return;
+            inflight.decrementAndGet();
+            finished(worldName, batch);
+        }));
+        if (!submitted && batches.remove(token) != null) {
+            // relight unavailable: still resend so clients see the removed blocks
+            inflight.decrementAndGet();
+            finished(worldName, batch);
+        }
+    }
+
+    private void finished(String worldName, List<Long> batch) {
+        for (long key : batch) done(worldName, key);
+        resend(worldName, batch);
+    }
+
+    // release the chunk's ticket unless it was queued again meanwhile
+    private void done(String worldName, long key) {
+        synchronized (pending) {
+            Set<Long> queued = pending.get(worldName);
+            if (queued != null && queued.contains(key)) return;
+        }
+        Map<Long, Integer> tries = attempts.get(worldName);
+        if (tries != null && tries.remove(key) != null && tries.isEmpty()) attempts.remove(worldName);
+        Set<Long> keys = held.get(worldName);
+        if (keys == null || !keys.remove(key)) return;
+        if (keys.isEmpty()) held.remove(worldName);
+        tickets.release(worldName, LightingUtil.chunkKeyX(key), LightingUtil.chunkKeyZ(key));
+    }
+
+    private void expireBatches() {
+        if (batches.isEmpty()) return;
+        int maxAttempts = Math.max(1, plugin.getConfig().getInt("lighting.relight_attempts", 3));
+        Iterator<Inflight> it = batches.values().iterator();
+        while (it.hasNext()) {
+            Inflight b = it.next();
+            if (b.deadlineTick > tickCounter) continue;
+            it.remove();
+            inflight.decrementAndGet();
+            int requeued = 0;
+            Map<Long, Integer> tries = attempts.computeIfAbsent(b.worldName, k -> new HashMap<>());
+            for (long key : b.chunks) {
+                if (tries.merge(key, 1, Integer::sum) < maxAttempts && Bukkit.getWorld(b.worldName) != null) {
+                    // still pinned, so still loaded: try again
+                    synchronized (pending) {
+                        pending.computeIfAbsent(b.worldName, k -> new LinkedHashSet<>()).add(key);
+                    }
+                    requeued++;
+                } else {
+                    // give up for now; relit the next time it loads
+                    markStale(b.worldName, List.of(key));
+                    done(b.worldName, key);
+                }
+            }
+            plugin.getLogger().fine("Relight batch of " + b.chunks.size() + " chunk(s) in " + b.worldName + " timed out; requeued " + requeued + ".");
+        }
+    }
+
+    private void markStale(String worldName, Collection<Long> keys) {
+        if (!keys.isEmpty()) stale.computeIfAbsent(worldName, k -> new HashSet<>()).addAll(keys);
+    }
+
+    private void loadStale() {
+        if (!staleFile.isFile()) return;
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(staleFile);
+        ConfigurationSection worlds = yaml.getConfigurationSection("stale");
+        if (worlds != null) {
+            for (String worldName : worlds.getKeys(false)) markStale(worldName, worlds.getLongList(worldName));
+        }
+        // chunks that are already loaded (spawn) will not fire a load event
+        for (Map.Entry<String, Set<Long>> e : new ArrayList<>(stale.entrySet())) {
+            World world = Bukkit.getWorld(e.getKey());
+            if (world == null) continue;
+            Iterator<Long> keys = e.getValue().iterator();
+            while (keys.hasNext()) {
+                long key = keys.next();
+                if (!world.isChunkLoaded(LightingUtil.chunkKeyX(key), LightingUtil.chunkKeyZ(key))) continue;
+                keys.remove();
+                enqueue(e.getKey(), LightingUtil.chunkKeyX(key), LightingUtil.chunkKeyZ(key));
+            }
+            if (e.getValue().isEmpty()) stale.remove(e.getKey());
+        }
+    }
+
+    // written synchronously: the I/O executor is shutting down with us and the file is small
+    private void saveStale() {
+        if (stale.isEmpty()) {
+            if (staleFile.isFile() && !staleFile.delete()) plugin.getLogger().fine("Could not delete " + staleFile);
+            return;
+        }
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(staleFile);
+        yaml.set("stale", null);
+        for (Map.Entry<String, Set<Long>> e : stale.entrySet()) yaml.set("stale." + e.getKey(), new ArrayList<>(e.getValue()));
+        try {
+            yaml.save(staleFile);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to save chunks awaiting relight: " + e.getMessage());
+        }
+        stale.clear();
+    }
+
+    private static final class Inflight {
+        final String worldName;
+        final List<Long> chunks;
+        final long deadlineTick;
+
+        Inflight(String worldName, List<Long> chunks, long deadlineTick) {
+            this.worldName = worldName;
+            this.chunks = chunks;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private void resend(String worldName, List<Long> batch) {
+        for (long key : batch) {
+            resendQueue.markDirty(worldName, LightingUtil.chunkKeyX(key), LightingUtil.chunkKeyZ(key));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package me.d15c07d.chunkcleaners.task;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import org.bukkit.Bukkit;
+
+import java.lang.reflect.Method;
+
+/**
+ * Baseline scheduling knobs for a cleaner of a given size, derived from performance.* in config.yml.
+ *
+ * Shared by {@link ChunkCleanerTask} (to schedule work) and {@link WorkEstimator} (to predict how long that
+ * work takes), so both always agree on the throttle.
+ */
+public final class ThrottlePlan {
+
+    private final int chunksPerInterval;
+    private final int yBatchSize;
+    private final long intervalTicks;
+
+    private ThrottlePlan(int chunksPerInterval, int yBatchSize, long intervalTicks) {
+        this.chunksPerInterval = chunksPerInterval;
+        this.yBatchSize = yBatchSize;
+        this.intervalTicks = intervalTicks;
+    }
+
+    public static ThrottlePlan compute(ChunkCleanersPlugin plugin, int size, int durationSeconds, int chunkCount) {
+        final int baseChunksConfig = Math.max(1, plugin.getConfig().getInt("performance.max_chunks_per_interval", 1));
+        final int baseYBatchConfig = Math.max(1, plugin.getConfig().getInt("performance.y_batch_size", 1));
+
+        final boolean sizeScaleEnabled = plugin.getConfig().getBoolean("performance.size_scale_enabled", true);
+        final int sizeScaleMultiplier = Math.max(1, plugin.getConfig().getInt("performance.size_scale_multiplier", 1));
+        final int sizeScaleCap = Math.max(1, plugin.getConfig().getInt("performance.size_scale_cap", 8));
+        int scaleFactor = 1;
+        if (sizeScaleEnabled && size > 1) {
+            scaleFactor = Math.min(sizeScaleCap, size * sizeScaleMultiplier);
+        }
+
+        final long ticksPerChunkComputed = Math.max(1, Math.round(((double) durationSeconds / Math.max(1, chunkCount)) * 20.0));
+        final long defaultTicks = Math.max(1, plugin.getConfig().getInt("performance.ticks_per_chunk_interval", 1));
+        long scheduleInterval = Math.max(1, Math.min(ticksPerChunkComputed, defaultTicks));
+        final int aggressiveIntervalDivisor = Math.max(1, plugin.getConfig().getInt("performance.aggressive_interval_divisor", 1));
+        if (sizeScaleEnabled && size > 1 && aggressiveIntervalDivisor > 1) {
+            scheduleInterval = Math.max(1, scheduleInterval / Math.min(aggressiveIntervalDivisor, Math.max(1, size)));
+        }
+
+        return new ThrottlePlan(Math.max(1, baseChunksConfig * scaleFactor), Math.max(1, baseYBatchConfig * scaleFactor), scheduleInterval);
+    }
+
+    /**
+     * Fixed knobs independent of performance.*; used by the auto-tuner to benchmark at a known rate.
+     */
+    public static ThrottlePlan fixed(int chunksPerInterval, int yBatchSize, long intervalTicks) {
+        return new ThrottlePlan(Math.max(1, chunksPerInterval), Math.max(1, yBatchSize), Math.max(1L, intervalTicks));
+    }
+
+    /**
+     * Knobs after TPS-adaptive throttling: below the threshold both knobs shrink with tps / threshold,
+     * blended by the smoothing factor and clamped to the configured minimums.
+     */
+    public ThrottlePlan underTps(double tps, double tpsThreshold, double tpsSmoothing, int tpsMinChunks, int tpsMinYBatch) {
+        if (tps >= tpsThreshold) return this;
+        double factor = Math.max(0.0, Math.min(1.0, tps / tpsThreshold));
+        double smoothed = (tpsSmoothing * factor) + ((1.0 - tpsSmoothing) * 1.0);
+        int newChunks = Math.max(tpsMinChunks, (int) Math.max(1, Math.round(chunksPerInterval * smoothed)));
+        int newYBatch = Math.max(tpsMinYBatch, (int) Math.max(1, Math.round(yBatchSize * smoothed)));
+        return new ThrottlePlan(newChunks, newYBatch, intervalTicks);
+    }
+
+    public ThrottlePlan underTps(ChunkCleanersPlugin plugin, double tps) {
+        return underTps(tps,
+                plugin.getConfig().getDouble("performance.tps_threshold", 18.0),
+                plugin.getConfig().getDouble("performance.tps_smoothing", 0.75),
+                Math.max(1, plugin.getConfig().getInt("performance.tps_min_chunks_per_interval", 1)),
+                Math.max(1, plugin.getConfig().getInt("performance.tps_min_y_batch_size", 1)));
+    }
+
+    /**
+     * Knobs under a turbo multiplier: more chunk batches per run, each the same size, so boosted work still
+     * stops between small batches when the tick allowance runs out.
+     */
+    public ThrottlePlan boosted(double multiplier) {
+        if (multiplier <= 1.0) return this;
+        return new ThrottlePlan(Math.max(1, (int) Math.round(chunksPerInterval * multiplier)), yBatchSize, intervalTicks);
+    }
+
+    public int getChunksPerInterval() { return chunksPerInterval; }
+    public int getYBatchSize() { return yBatchSize; }
+    public long getIntervalTicks() { return intervalTicks; }
+
+    /**
+     * Y-levels processed per second at full speed and the given TPS. Each scheduler run handles
+     * chunksPerInterval batches of yBatchSize levels.
+     */
+    public double levelsPerSecond(double tps) {
+        double runsPerSecond = Math.max(0.0, Math.min(20.0, tps)) / intervalTicks;
+        return runsPerSecond * chunksPerInterval * yBatchSize;
+    }
+
+    /**
+     * Query server TPS reflectively when available; return 20.0 fallback if not.
+     */
+    public static double currentTps(ChunkCleanersPlugin plugin) {
+        try {
+            Object server = Bukkit.getServer();
+            Method m = server.getClass().getMethod("getTPS");
+            Object v = m.invoke(server);
+            if (v instanceof double[]) {
+                double[] arr = (double[]) v;
+                if (arr.length > 0) {
+                    double sum = 0.0;
+                    for (double d : arr) sum += d;
+                    return Math.max(0.0, Math.min(20.0, sum / arr.length));
+                }
+            } else if (v instanceof Double) {
+                return Math.max(0.0, Math.min(20.0, (Double) v));
+            }
+        } catch (NoSuchMethodException ignore) {
+            // fallthrough
+        } catch (Throwable t) {
+            plugin.getLogger().fine("Could not query server TPS: " + t.getMessage());
+        }
+        return 20.0;
+    }
+
+    /**
+     * Average tick time in ms (Paper's getAverageTickTime), queried reflectively; -1 if unavailable.
+     */
+    public static double averageTickMillis(ChunkCleanersPlugin plugin) {
+        try {
+            Object server = Bukkit.getServer();
+            Object v = server.getClass().getMethod("getAverageTickTime").invoke(server);
+            if (v instanceof Number) return ((Number) v).doubleValue();
+        } catch (NoSuchMethodException ignore) {
+            // not Paper
+        } catch (Throwable t) {
+            plugin.getLogger().fine("Could not query average tick time: " + t.getMessage());
+        }
+        return -1.0;
+    }
+}
@@ -0,0 +1,153 @@
+package me.d15c07d.chunkcleaners.task;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import org.bukkit.Bukkit;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Off-peak boost on top of the throttle (turbo.*).
+ *
+ * While the server has MSPT headroom (average tick below turbo.max_mspt), at most turbo.max_players are online
+ * and the local time is inside one of turbo.windows, the multiplier ramps up by turbo.ramp_per_second towards
+ * turbo.max_multiplier. It scales every cleaner's chunks per run, the world budget shards and the cost ceiling.
+ * The extra time is capped per tick: cleaners may spend what they spent on average plus turbo.headroom_share of
+ * the headroom, so block jobs stop between batches once it is used up and the committed cursors stay exact.
+ *
+ * As soon as a condition fails (or a single tick runs longer than turbo.lag_cut_ms) the multiplier drops to 1,
+ * and for turbo.cooldown_ticks the jobs planned at the boosted rate drain at the pace cleaners had before.
+ *
+ * Updated by {@link WorldBudget} at the start of each of its ticks (main thread); the multiplier is also read by
+ * the async schedulers.
+ */
+public class TurboPolicy {
+
+    public enum Status { DISABLED, ACTIVE, NO_MSPT, BUSY, PLAYERS, OUTSIDE_WINDOW, LAG }
+
+    private static final long TICK_NANOS = 50_000_000L;
+    // cooldown pace when cleaners never ran unboosted
+    private static final long MIN_COOLDOWN_NANOS = 1_000_000L;
+
+    private final ChunkCleanersPlugin plugin;
+
+    private volatile double multiplier = 1.0;
+    private volatile Status status = Status.DISABLED;
+    private volatile double mspt = -1.0;
+
+    // main thread only
+    private long allowanceNanos = Long.MAX_VALUE;
+    private long spentTickNanos;
+    private double spentAvgNanos;
+    private double baselineNanos;
+    private long lastTickNanos;
+    private int cooldownTicks;
+    private List<String> rawWindows;
+    private List<int[]> windows = List.of();
+
+    public TurboPolicy(ChunkCleanersPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /** Boost applied to the throttle right now; 1.0 when turbo is off. */
+    public double getMultiplier() { return multiplier; }
+    public Status getStatus() { return status; }
+    /** Average tick time in ms as last read, or -1 when the server does not report it. */
+    public double getMspt() { return mspt; }
+    /** Time cleaners may spend this tick under turbo (or its cooldown); Long.MAX_VALUE otherwise. */
+    public long getAllowanceNanos() { return allowanceNanos; }
+
+    public long remainingNanos() {
+        return allowanceNanos == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(0L, allowanceNanos - spentTickNanos);
+    }
+
+    public void charge(long nanos) {
+        spentTickNanos += nanos;
+    }
+
+    public void reset() {
+        multiplier = 1.0;
+        status = Status.DISABLED;
+        allowanceNanos = Long.MAX_VALUE;
+        spentTickNanos = 0L;
+        cooldownTicks = 0;
+        lastTickNanos = 0L;
+    }
+
+    void update() {
+        long now = System.nanoTime();
+        long interval = lastTickNanos == 0L ? TICK_NANOS : now - lastTickNanos;
+        lastTickNanos = now;
+        long spent = spentTickNanos;
+        spentTickNanos = 0L;
+        spentAvgNanos = 0.9 * spentAvgNanos + 0.1 * spent;
+        if (multiplier <= 1.0 && cooldownTicks == 0) baselineNanos = 0.95 * baselineNanos + 0.05 * spent;
+
+        if (!plugin.getConfig().getBoolean("turbo.enabled", false)) {
+            mspt = -1.0;
+            disengage(Status.DISABLED, false);
+            return;
+        }
+        mspt = ThrottlePlan.averageTickMillis(plugin);
+        double maxMspt = plugin.getConfig().getDouble("turbo.max_mspt", 25.0);
+        long lagCut = (long) (plugin.getConfig().getDouble("turbo.lag_cut_ms", 60.0) * 1_000_000.0);
+
+        Status blocked = null;
+        if (mspt < 0.0) blocked = Status.NO_MSPT;
+        else if (interval > lagCut) blocked = Status.LAG;
+        else if (mspt >= maxMspt) blocked = Status.BUSY;
+        else if (Bukkit.getOnlinePlayers().size() > plugin.getConfig().getInt("turbo.max_players", 5)) blocked = Status.PLAYERS;
+        else if (!inWindow(LocalTime.now())) blocked = Status.OUTSIDE_WINDOW;
+        if (blocked != null) {
+            disengage(blocked, true);
+            return;
+        }
+
+        double max = Math.max(1.0, plugin.getConfig().getDouble("turbo.max_multiplier", 4.0));
+        double ramp = Math.max(0.01, plugin.getConfig().getDouble("turbo.ramp_per_second", 0.5));
+        multiplier = Math.min(max, multiplier + ramp / 20.0);
+        status = Status.ACTIVE;
+        cooldownTicks = 0;
+        // hold what cleaners already use, grow into a share of what is left
+        double share = Math.max(0.0, Math.min(1.0, plugin.getConfig().getDouble("turbo.headroom_share", 0.5)));
+        allowanceNanos = (long) (spentAvgNanos + (maxMspt - mspt) * share * 1_000_000.0);
+    }
+
+    private void disengage(Status reason, boolean cooldown) {
+        if (cooldown && multiplier > 1.0) cooldownTicks = Math.max(0, plugin.getConfig().getInt("turbo.cooldown_ticks", 100));
+        else if (!cooldown) cooldownTicks = 0;
+        multiplier = 1.0;
+        status = reason;
+        if (cooldownTicks > 0) {
+            cooldownTicks--;
+            allowanceNanos = Math.max(MIN_COOLDOWN_NANOS, (long) baselineNanos);
+        } else {
+            allowanceNanos = Long.MAX_VALUE;
+        }
+    }
+
+    // turbo.windows entries "HH:mm-HH:mm" in server local time, may wrap past midnight; none = any time
+    private boolean inWindow(LocalTime now) {
+        List<String> raw = plugin.getConfig().getStringList("turbo.windows");
+        if (!raw.equals(rawWindows)) {
+            rawWindows = raw;
+            List<int[]> parsed = new ArrayList<>();
+            for (String s : raw) {
+                try {
+                    String[] parts = s.split("-");
+                    parsed.add(new int[] { LocalTime.parse(parts[0].trim()).toSecondOfDay(), LocalTime.parse(parts[1].trim()).toSecondOfDay() });
+                } catch (RuntimeException e) {
+                    plugin.getLogger().warning("Ignoring invalid turbo window '" + s + "' (expected HH:mm-HH:mm).");
+                }
+            }
+            windows = parsed;
+        }
+        if (raw.isEmpty()) return true;
+        int t = now.toSecondOfDay();
+        for (int[] w : windows) {
+            if (w[0] <= w[1] ? t >= w[0] && t < w[1] : t >= w[0] || t < w[1]) return true;
+        }
+        return false;
+    }
+}
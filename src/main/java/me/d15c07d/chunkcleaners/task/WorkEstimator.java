@@ -0,0 +1,263 @@
+package me.d15c07d.chunkcleaners.task;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.config.ConfigManager;
+import me.d15c07d.chunkcleaners.integration.IntegrationManager;
+import me.d15c07d.chunkcleaners.shape.ChunkCursor;
+import me.d15c07d.chunkcleaners.shape.ChunkOrder;
+import me.d15c07d.chunkcleaners.shape.ChunkShape;
+import me.d15c07d.chunkcleaners.utils.LightingUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dry-run prescan of a cleaner footprint (/chunkcleaners estimate and the held-item preview).
+ *
+ * Chunk snapshots are taken on the main thread (unloaded chunks are loaded asynchronously, never generated),
+ * block counting runs off-thread, and the protection check plus the duration prediction under the current
+ * throttle run back on the main thread. Per-chunk scans are cached for estimate.cache_ttl_seconds, and the last
+ * estimate per player is kept so placing the cleaner right afterwards can seed its ETA from it.
+ */
+public class WorkEstimator {
+
+    private final ChunkCleanersPlugin plugin;
+
+    // world name + chunk key -> scan
+    private final Map<String, ChunkScan> scans = new ConcurrentHashMap<>();
+    // player -> last finished estimate
+    private final Map<UUID, Estimate> lastByOwner = new ConcurrentHashMap<>();
+
+    private static final class ChunkScan {
+        final long scannedAtMillis;
+        final boolean generated;
+        final int blocks;
+        final Map<Material, Integer> materials;
+
+        ChunkScan(long scannedAtMillis, boolean generated, int blocks, Map<Material, Integer> materials) {
+            this.scannedAtMillis = scannedAtMillis;
+            this.generated = generated;
+            this.blocks = blocks;
+            this.materials = materials;
+        }
+    }
+
+    /**
+     * Result of a prescan.
+     */
+    public static final class Estimate {
+        private final String typeKey;
+        private final String worldName;
+        private final int originChunkX;
+        private final int originChunkZ;
+        private final long createdAtMillis;
+        private final int chunkCount;
+        private final int ungeneratedChunks;
+        private final Set<Long> skippedChunks;
+        private final Map<Long, long[]> columnMasks;
+        private final long totalBlocks;
+        private final Map<Material, Integer> breakdown;
+        private final long predictedSeconds;
+
+        private Estimate(String typeKey, String worldName, int originChunkX, int originChunkZ, int chunkCount, int ungeneratedChunks,
+                         Map<Long, long[]> columnMasks, long totalBlocks, Map<Material, Integer> breakdown, long predictedSeconds) {
+            this.typeKey = typeKey;
+            this.worldName = worldName;
+            this.originChunkX = originChunkX;
+            this.originChunkZ = originChunkZ;
+            this.createdAtMillis = System.currentTimeMillis();
+            this.chunkCount = chunkCount;
+            this.ungeneratedChunks = ungeneratedChunks;
+            this.columnMasks = columnMasks;
+            this.skippedChunks = Collections.unmodifiableSet(IntegrationManager.fullyProtected(columnMasks));
+            this.totalBlocks = totalBlocks;
+            this.breakdown = breakdown;
+            this.predictedSeconds = predictedSeconds;
+        }
+
+        public String getTypeKey() { return typeKey; }
+        public String getWorldName() { return worldName; }
+        public int getOriginChunkX() { return originChunkX; }
+        public int getOriginChunkZ() { return originChunkZ; }
+        public long getCreatedAtMillis() { return createdAtMillis; }
+        public int getChunkCount() { return chunkCount; }
+        public int getUngeneratedChunks() { return ungeneratedChunks; }
+        /** Chunk keys (see {@link LightingUtil#chunkKey(int, int)}) the owner may not edit. */
+        public Set<Long> getSkippedChunks() { return skippedChunks; }
+        /** Editable columns of partly or fully protected chunks (see {@link IntegrationManager#computeColumnMasks}). */
+        public Map<Long, long[]> getColumnMasks() { return columnMasks; }
+        public long getTotalBlocks() { return totalBlocks; }
+        /** Removed block counts, largest first. */
+        public Map<Material, Integer> getBreakdown() { return breakdown; }
+        public long getPredictedSeconds() { return predictedSeconds; }
+    }
+
+    public WorkEstimator(ChunkCleanersPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Prescan the footprint a cleaner of the given type would cover if placed at the location.
+     * Must be called on the main thread; the future completes on the main thread.
+     */
+    public CompletableFuture<Estimate> estimate(UUID ownerUuid, Location at, ConfigManager.CleanerType type) {
+        CompletableFuture<Estimate> result = new CompletableFuture<>();
+        World world = at.getWorld();
+        if (world == null) {
+            result.completeExceptionally(new IllegalArgumentException("location has no world"));
+            return result;
+        }
+        int originX = at.getBlockX() >> 4;
+        int originZ = at.getBlockZ() >> 4;
+        ChunkShape footprint = plugin.getCleanerManager().resolveShape(type, at);
+        int minY = Math.max(world.getMinHeight(), -63);
+        int maxY = world.getMaxHeight();
+        int minSection = world.getMinHeight() >> 4;
+        long ttl = Math.max(0L, plugin.getConfig().getLong("estimate.cache_ttl_seconds", 30L)) * 1000L;
+        long now = System.currentTimeMillis();
+        purgeExpired();
+
+        // snapshots for chunks without a fresh scan
+        Map<Long, CompletableFuture<ChunkSnapshot>> pending = new LinkedHashMap<>();
+        ChunkCursor c = footprint.cursor(ChunkOrder.ROW, originX, originZ);
+        while (c.next()) {
+            long key = LightingUtil.chunkKey(c.getX(), c.getZ());
+            ChunkScan cached = scans.get(cacheKey(world.getName(), key));
+            if (cached != null && now - cached.scannedAtMillis <= ttl) continue;
+            if (world.isChunkLoaded(c.getX(), c.getZ())) {
+                pending.put(key, CompletableFuture.completedFuture(world.getChunkAt(c.getX(), c.getZ()).getChunkSnapshot(false, false, false)));
+            } else {
+                pending.put(key, world.getChunkAtAsync(c.getX(), c.getZ(), false)
+                        .thenApply(ch -> ch == null ? null : ch.getChunkSnapshot(false, false, false)));
+            }
+        }
+
+        CompletableFuture.allOf(pending.values().toArray(new CompletableFuture[0])).whenComplete((ignored, err) -> {
+            Map<Long, ChunkSnapshot> snapshots = new HashMap<>();
+            for (Map.Entry<Long, CompletableFuture<ChunkSnapshot>> e : pending.entrySet()) {
+                CompletableFuture<ChunkSnapshot> f = e.getValue();
+                snapshots.put(e.getKey(), f.isCompletedExceptionally() ? null : f.getNow(null));
+            }
+            // count blocks off the main thread
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                long scannedAt = System.currentTimeMillis();
+                for (Map.Entry<Long, ChunkSnapshot> e : snapshots.entrySet()) {
+                    scans.put(cacheKey(world.getName(), e.getKey()), scan(e.getValue(), minSection, minY, maxY, scannedAt));
+                }
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    try {
+                        Estimate est = summarize(ownerUuid, world, originX, originZ, footprint, type, minY, maxY);
+                        if (ownerUuid != null) lastByOwner.put(ownerUuid, est);
+                        result.complete(est);
+                    } catch (Throwable t) {
+                        result.completeExceptionally(t);
+                    }
+                });
+            });
+        });
+        return result;
+    }
+
+    /**
+     * The owner's last estimate if it matches this placement and is still fresh.
+     */
+    public Optional<Estimate> takeRecent(UUID ownerUuid, String worldName, int originChunkX, int originChunkZ, String typeKey) {
+        if (ownerUuid == null) return Optional.empty();
+        Estimate est = lastByOwner.get(ownerUuid);
+        if (est == null) return Optional.empty();
+        long ttl = Math.max(0L, plugin.getConfig().getLong("estimate.cache_ttl_seconds", 30L)) * 1000L;
+        boolean matches = est.worldName.equals(worldName) && est.originChunkX == originChunkX
+                && est.originChunkZ == originChunkZ && est.typeKey.equalsIgnoreCase(typeKey);
+        if (!matches || System.currentTimeMillis() - est.createdAtMillis > ttl) return Optional.empty();
+        lastByOwner.remove(ownerUuid);
+        return Optional.of(est);
+    }
+
+    public void forget(UUID ownerUuid) {
+        if (ownerUuid != null) lastByOwner.remove(ownerUuid);
+    }
+
+    private void purgeExpired() {
+        long ttl = Math.max(0L, plugin.getConfig().getLong("estimate.cache_ttl_seconds", 30L)) * 1000L;
+        long now = System.currentTimeMillis();
+        scans.values().removeIf(s -> now - s.scannedAtMillis > ttl);
+        lastByOwner.values().removeIf(e -> now - e.createdAtMillis > ttl);
+    }
+
+    private Estimate summarize(UUID ownerUuid, World world, int originX, int originZ, ChunkShape footprint,
+                               ConfigManager.CleanerType type, int minY, int maxY) {
+        Map<Long, long[]> masks = plugin.getIntegrationManager().computeColumnMasks(ownerUuid, world, footprint);
+        Set<Long> skipped = IntegrationManager.fullyProtected(masks);
+        Map<Material, Integer> breakdown = new HashMap<>();
+        long blocks = 0;
+        int ungenerated = 0;
+        ChunkCursor c = footprint.cursor(ChunkOrder.ROW, originX, originZ);
+        while (c.next()) {
+            long key = LightingUtil.chunkKey(c.getX(), c.getZ());
+            if (skipped.contains(key)) continue;
+            ChunkScan s = scans.get(cacheKey(world.getName(), key));
+            if (s == null || !s.generated) {
+                ungenerated++;
+                continue;
+            }
+            blocks += s.blocks;
+            for (Map.Entry<Material, Integer> e : s.materials.entrySet()) breakdown.merge(e.getKey(), e.getValue(), Integer::sum);
+        }
+
+        // largest first for display
+        Map<Material, Integer> sorted = new LinkedHashMap<>();
+        breakdown.entrySet().stream()
+                .sorted(Map.Entry.<Material, Integer>comparingByValue().reversed())
+                .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+
+        double tps = ThrottlePlan.currentTps(plugin);
+        ThrottlePlan plan = ThrottlePlan.compute(plugin, footprint.getEquivalentSize(), type.getDurationSeconds(), footprint.getChunkCount()).underTps(plugin, tps);
+        long levels = (long) (footprint.getChunkCount() - skipped.size()) * Math.max(0, maxY - minY);
+        double rate = plan.levelsPerSecond(tps);
+        long seconds = rate <= 0.0001 ? type.getDurationSeconds() : (long) Math.ceil(levels / rate);
+
+        return new Estimate(type.getKey(), world.getName(), originX, originZ, footprint.getChunkCount(), ungenerated,
+                Collections.unmodifiableMap(masks), blocks, Collections.unmodifiableMap(sorted), seconds);
+    }
+
+    /**
+     * Count what a cleaner would remove: every block in minY..maxY-1 that is not air or bedrock
+     * (same rule as the block loop in {@link ChunkCleanerTask}).
+     */
+    private static ChunkScan scan(ChunkSnapshot snap, int minSection, int minY, int maxY, long scannedAt) {
+        if (snap == null) return new ChunkScan(scannedAt, false, 0, Map.of());
+        Map<Material, Integer> materials = new EnumMap<>(Material.class);
+        int blocks = 0;
+        for (int sy = Math.floorDiv(minY, 16); sy <= Math.floorDiv(maxY - 1, 16); sy++) {
+            try {
+                // section index counts from the world's lowest section
+                if (snap.isSectionEmpty(sy - minSection)) continue;
+            } catch (Throwable ignored) {
+                // scan the section the slow way
+            }
+            int from = Math.max(minY, sy << 4);
+            int to = Math.min(maxY - 1, (sy << 4) + 15);
+            for (int y = from; y <= to; y++) {
+                for (int x = 0; x < 16; x++) {
+                    for (int z = 0; z < 16; z++) {
+                        Material m = snap.getBlockType(x, y, z);
+                        if (m == Material.AIR || m == Material.BEDROCK) continue;
+                        blocks++;
+                        materials.merge(m, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+        return new ChunkScan(scannedAt, true, blocks, materials);
+    }
+
+    private static String cacheKey(String worldName, long chunkKey) {
+        return worldName + ":" + chunkKey;
+    }
+}
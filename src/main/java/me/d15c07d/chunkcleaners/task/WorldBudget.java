@@ -0,0 +1,202 @@
+package me.d15c07d.chunkcleaners.task;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+
+/**
+ * Splits the main-thread time all cleaners may use per tick (budget.max_ms_per_tick) into one shard per world.
+ *
+ * Every tick the budget is divided between the worlds that have running cleaners, by budget.weights.&lt;world&gt;
+ * (budget.default_weight otherwise), so cleaners in one world cannot starve those in another. A world's shard
+ * shrinks while its entity or loaded-chunk count is above budget.load.entity_soft_limit /
+ * budget.load.chunk_soft_limit, down to budget.load.min_factor. Blocks and time are accounted per world either
+ * way, for /chunkcleaners admin worlds. Within a world, each running cleaner may use an equal part of the shard
+ * per tick, so the first cleaner drained in a tick cannot use up the others' time.
+ *
+ * Shards are scaled by the {@link TurboPolicy} multiplier, and while turbo (or its cooldown) is on, all worlds
+ * together are also held to the turbo allowance for the tick.
+ */
+public class WorldBudget {
+
+    public static final class WorldStats {
+        private final String world;
+        private double weight = 1.0;
+        private double loadFactor = 1.0;
+        private int entities;
+        private int loadedChunks;
+        private int running;
+        private long shardNanos = Long.MAX_VALUE;
+        private long spentTickNanos;
+        private long windowNanos;
+        private long windowBlocks;
+        private double msPerSecond;
+        private double blocksPerSecond;
+
+        WorldStats(String world) {
+            this.world = world;
+        }
+
+        public String getWorld() { return world; }
+        public double getWeight() { return weight; }
+        /** Shard multiplier from the world's entity and chunk load, 1.0 when below the soft limits. */
+        public double getLoadFactor() { return loadFactor; }
+        public int getEntities() { return entities; }
+        public int getLoadedChunks() { return loadedChunks; }
+        public int getRunning() { return running; }
+        /** This tick's share of the budget in nanoseconds; Long.MAX_VALUE without a shared budget. */
+        public long getShardNanos() { return shardNanos; }
+        public double getMsPerSecond() { return msPerSecond; }
+        public double getBlocksPerSecond() { return blocksPerSecond; }
+    }
+
+    private final ChunkCleanersPlugin plugin;
+    private final ChunkCleanerManager manager;
+    private final TurboPolicy turbo;
+
+    // main thread only
+    private final Map<String, WorldStats> worlds = new LinkedHashMap<>();
+    private BukkitTask task;
+    private long tick = 0L;
+    private long windowStart = System.nanoTime();
+
+    public WorldBudget(ChunkCleanersPlugin plugin, ChunkCleanerManager manager) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.turbo = new TurboPolicy(plugin);
+    }
+
+    public void start() {
+        stop();
+        windowStart = System.nanoTime();
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            try { task.cancel(); } catch (Throwable ignored) {}
+            task = null;
+        }
+        worlds.clear();
+        turbo.reset();
+    }
+
+    public TurboPolicy getTurbo() {
+        return turbo;
+    }
+
+    /**
+     * True if cleaners in the world may still run main-thread work this tick.
+     */
+    public boolean hasRemaining(String world) {
+        if (turbo.remainingNanos() <= 0L) return false;
+        WorldStats s = worlds.get(world);
+        return s == null || s.spentTickNanos < s.shardNanos;
+    }
+
+    /**
+     * Time the world's cleaners may still use this tick, in nanoseconds.
+     */
+    public long remainingNanos(String world) {
+        WorldStats s = worlds.get(world);
+        long turboLeft = turbo.remainingNanos();
+        if (s == null || s.shardNanos == Long.MAX_VALUE) return turboLeft;
+        return Math.min(turboLeft, Math.max(0L, s.shardNanos - s.spentTickNanos));
+    }
+
+    /**
+     * Time one of the world's cleaners may still use this tick: an equal part of the world's shard, less what
+     * that cleaner already spent this tick, within what the world has left.
+     */
+    public long sliceNanos(String world, long spentByTask) {
+        long left = remainingNanos(world);
+        WorldStats s = worlds.get(world);
+        if (s == null || s.shardNanos == Long.MAX_VALUE || s.running <= 1) return left;
+        return Math.min(left, Math.max(0L, s.shardNanos / s.running - spentByTask));
+    }
+
+    /** Ticks since the budget started; slices are reset when this changes. */
+    public long getTick() {
+        return tick;
+    }
+
+    public void charge(String world, long nanos, long blocks) {
+        WorldStats s = worlds.computeIfAbsent(world, WorldStats::new);
+        s.spentTickNanos += nanos;
+        s.windowNanos += nanos;
+        s.windowBlocks += blocks;
+        turbo.charge(nanos);
+    }
+
+    public Collection<WorldStats> getStats() {
+        return Collections.unmodifiableCollection(worlds.values());
+    }
+
+    private void tick() {
+        tick++;
+        turbo.update();
+        Map<String, Integer> running = new HashMap<>();
+        for (ChunkCleanerTask t : manager.getActiveTasks()) {
+            if (t.getState() == ChunkCleanerTask.State.RUNNING) running.merge(t.getWorldName(), 1, Integer::sum);
+        }
+
+        long sampleTicks = Math.max(1L, plugin.getConfig().getLong("budget.load.sample_ticks", 100L));
+        boolean sample = tick % sampleTicks == 0;
+        double totalWeight = 0.0;
+        for (Map.Entry<String, Integer> e : running.entrySet()) {
+            WorldStats s = worlds.computeIfAbsent(e.getKey(), WorldStats::new);
+            s.running = e.getValue();
+            s.weight = Math.max(0.0, plugin.getConfig().getDouble("budget.weights." + e.getKey(),
+                    plugin.getConfig().getDouble("budget.default_weight", 1.0)));
+            if (sample || s.loadedChunks == 0) sampleLoad(s);
+            totalWeight += s.weight;
+        }
+
+        long totalNanos = (long) (Math.max(0.0, plugin.getConfig().getDouble("budget.max_ms_per_tick", 0.0)) * 1_000_000.0);
+        for (WorldStats s : worlds.values()) {
+            if (!running.containsKey(s.world)) s.running = 0;
+            s.spentTickNanos = 0L;
+            if (totalNanos <= 0L) {
+                s.shardNanos = Long.MAX_VALUE;
+            } else if (s.running == 0 || totalWeight <= 0.0) {
+                s.shardNanos = 0L;
+            } else {
+                s.shardNanos = (long) (totalNanos * (s.weight / totalWeight) * s.loadFactor * turbo.getMultiplier());
+            }
+        }
+
+        long now = System.nanoTime();
+        long elapsed = now - windowStart;
+        if (elapsed >= 1_000_000_000L) {
+            double seconds = elapsed / 1_000_000_000.0;
+            Iterator<WorldStats> it = worlds.values().iterator();
+            while (it.hasNext()) {
+                WorldStats s = it.next();
+                s.msPerSecond = 0.5 * s.msPerSecond + 0.5 * (s.windowNanos / 1_000_000.0) / seconds;
+                s.blocksPerSecond = 0.5 * s.blocksPerSecond + 0.5 * s.windowBlocks / seconds;
+                s.windowNanos = 0L;
+                s.windowBlocks = 0L;
+                // idle long enough to have decayed: drop it from the report
+                if (s.running == 0 && s.blocksPerSecond < 0.5 && s.msPerSecond < 0.01) it.remove();
+            }
+            windowStart = now;
+        }
+    }
+
+    private void sampleLoad(WorldStats s) {
+        World w = Bukkit.getWorld(s.world);
+        if (w == null) return;
+        s.entities = w.getEntityCount();
+        s.loadedChunks = w.getChunkCount();
+        int entityLimit = plugin.getConfig().getInt("budget.load.entity_soft_limit", 0);
+        int chunkLimit = plugin.getConfig().getInt("budget.load.chunk_soft_limit", 0);
+        double minFactor = Math.min(1.0, Math.max(0.01, plugin.getConfig().getDouble("budget.load.min_factor", 0.25)));
+        double factor = 1.0;
+        if (entityLimit > 0 && s.entities > entityLimit) factor = Math.min(factor, (double) entityLimit / s.entities);
+        if (chunkLimit > 0 && s.loadedChunks > chunkLimit) factor = Math.min(factor, (double) chunkLimit / s.loadedChunks);
+        s.loadFactor = Math.max(minFactor, factor);
+    }
+}
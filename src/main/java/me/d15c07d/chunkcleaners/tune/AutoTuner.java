@@ -0,0 +1,605 @@
+package me.d15c07d.chunkcleaners.tune;
+
+import me.d15c07d.chunkcleaners.ChunkCleanersPlugin;
+import me.d15c07d.chunkcleaners.io.IoExecutor;
+import me.d15c07d.chunkcleaners.job.MaintenanceJob;
+import me.d15c07d.chunkcleaners.shape.ChunkListShape;
+import me.d15c07d.chunkcleaners.shape.ChunkOrder;
+import me.d15c07d.chunkcleaners.shape.RectShape;
+import me.d15c07d.chunkcleaners.task.ChunkCleanerManager;
+import me.d15c07d.chunkcleaners.task.ChunkCleanerTask;
+import me.d15c07d.chunkcleaners.task.ThrottlePlan;
+import me.d15c07d.chunkcleaners.utils.DirectBlockWriter;
+import me.d15c07d.chunkcleaners.utils.LightingUtil;
+import me.d15c07d.chunkcleaners.utils.MessageUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.GameRule;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks the live server and proposes performance.* knobs (/chunkcleaners admin tune).
+ *
+ * The run clears a few scratch chunks once per strategy (sweep order chunk / layer, each with standard and,
+ * when the server supports it, deferred lighting). Every strategy is one worker cleaner at a fixed rate of
+ * tune.layers_per_tick, so it goes through the same batches, world budget and cost accounting as real cleaners.
+ * Per strategy it records the main-thread cost per layer and per block, and the average tick time (MSPT) over
+ * the run against a baseline taken before the first one. The MSPT rise divided by the cleaner's own cost per
+ * tick is the overhead the server pays on top (lighting, packets, chunk saves).
+ *
+ * From the cheapest strategy it derives knobs that keep tune.target_ms_per_tick of MSPT for the expected number
+ * of concurrent cleaners, and writes them to tune.output_file for the admin to copy into config.yml; the live
+ * config is never changed.
+ *
+ * Scratch chunks live in a temporary world (a copy of the main world's seed, deleted afterwards) unless
+ * tune.world names an existing world. Then the area at tune.origin_chunk_x/z (no default) is really cleared, only
+ * after /chunkcleaners admin tune confirm, with the requester's protection masks and an undo journal.
+ * All methods run on the main thread.
+ */
+public class AutoTuner {
+
+    public enum Phase { IDLE, PREPARING, SETTLING, RUNNING, DRAINING }
+
+    // largest proposed y_batch_size; one batch is the unit a cleaner cannot stop inside
+    private static final int MAX_Y_BATCH = 16;
+    // overhead factors beyond this are MSPT noise, not cleaner cost
+    private static final double MAX_OVERHEAD = 10.0;
+
+    private final ChunkCleanersPlugin plugin;
+    private final ChunkCleanerManager manager;
+
+    private Phase phase = Phase.IDLE;
+    private BukkitTask timer;
+    private CommandSender requester;
+    private double targetMs;
+    private World world;
+    private boolean temporaryWorld;
+    private final List<Strategy> strategies = new ArrayList<>();
+    private final List<Result> results = new ArrayList<>();
+    private final List<int[]> ticketed = new ArrayList<>();
+    private int index;
+    private int waitTicks;
+    private long runTicks;
+    private long maxRunTicks;
+    private double baselineMspt;
+    private ChunkCleanerTask worker;
+    private MaintenanceJob bench;
+    private UUID ownerUuid = ChunkCleanerManager.TUNER_OWNER;
+
+    // a run in tune.world waiting for /chunkcleaners admin tune confirm
+    private String pendingConfirmBy;
+    private double pendingTarget;
+    private long pendingUntil;
+
+    public AutoTuner(ChunkCleanersPlugin plugin, ChunkCleanerManager manager) {
+        this.plugin = plugin;
+        this.manager = manager;
+    }
+
+    public Phase getPhase() { return phase; }
+    public int getStrategiesDone() { return results.size(); }
+    public int getStrategyCount() { return strategies.size(); }
+    /** Name of the strategy being measured, or null between runs. */
+    public String getCurrentStrategy() {
+        return phase == Phase.IDLE || phase == Phase.PREPARING || index >= strategies.size() ? null : strategies.get(index).name();
+    }
+
+    /**
+     * Start benchmarking in the temporary world, or ask for confirmation when tune.world names a real world.
+     *
+     * @return null if started (or asked to confirm), otherwise why not (a message key under messages.admin)
+     */
+    public String start(CommandSender sender, double targetMsPerTick) {
+        if (phase != Phase.IDLE) return "tune_running";
+        String configured = plugin.getConfig().getString("tune.world", "");
+        if (configured == null || configured.isBlank()) {
+            String name = plugin.getConfig().getString("tune.temporary_world", "chunkcleaners_tune");
+            if (Bukkit.getWorld(name) != null) return "tune_no_world";
+            requester = sender;
+            targetMs = targetMsPerTick;
+            phase = Phase.PREPARING;
+            // a run interrupted by a crash leaves its folder behind; delete it off the main thread first
+            File leftover = new File(Bukkit.getWorldContainer(), name);
+            plugin.getIoExecutor().execute(IoExecutor.Resource.REGION_FILES, () -> deleteFolder(leftover))
+                    .whenComplete((v, err) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                        // cancelled in the meantime
+                        if (phase != Phase.PREPARING) return;
+                        World w = createTemporaryWorld(name);
+                        if (w == null) {
+                            fail("could not create the temporary world " + name);
+                            return;
+                        }
+                        begin(w, true);
+                    }));
+            return null;
+        }
+
+        World w = Bukkit.getWorld(configured);
+        if (w == null) return "tune_no_world";
+        // real terrain is cleared for good: only at an explicitly chosen spot, and only once confirmed
+        if (!plugin.getConfig().isSet("tune.origin_chunk_x") || !plugin.getConfig().isSet("tune.origin_chunk_z")) return "tune_no_origin";
+        int confirmSeconds = Math.max(5, plugin.getConfig().getInt("tune.confirm_seconds", 30));
+        pendingConfirmBy = sender.getName();
+        pendingTarget = targetMsPerTick;
+        pendingUntil = System.currentTimeMillis() + confirmSeconds * 1000L;
+        List<Strategy> planned = planStrategies(w);
+        int chunks = 0;
+        for (Strategy s : planned) chunks += s.area.getChunkCount();
+        Map<String, String> vars = new HashMap<>();
+        vars.put("world", w.getName());
+        vars.put("x", String.valueOf(plugin.getConfig().getInt("tune.origin_chunk_x")));
+        vars.put("z", String.valueOf(plugin.getConfig().getInt("tune.origin_chunk_z")));
+        vars.put("chunks", String.valueOf(chunks));
+        vars.put("seconds", String.valueOf(confirmSeconds));
+        sendTo(sender, "tune_confirm", "<gold>This clears <white>{chunks}</white> chunks of {world} from chunk {x},{z} for real (journaled, protected land is skipped). Run <yellow>/chunkcleaners admin tune confirm</yellow> within {seconds}s.", vars);
+        return null;
+    }
+
+    /**
+     * Start the benchmark in tune.world that the same sender asked for within tune.confirm_seconds.
+     */
+    public String confirm(CommandSender sender) {
+        if (phase != Phase.IDLE) return "tune_running";
+        if (pendingConfirmBy == null || !pendingConfirmBy.equals(sender.getName()) || System.currentTimeMillis() > pendingUntil) {
+            return "tune_no_confirm";
+        }
+        pendingConfirmBy = null;
+        World w = Bukkit.getWorld(plugin.getConfig().getString("tune.world", ""));
+        if (w == null) return "tune_no_world";
+        requester = sender;
+        targetMs = pendingTarget;
+        begin(w, false);
+        return null;
+    }
+
+    // one square of tune.chunks_per_strategy chunks per strategy, side by side from the origin
+    private List<Strategy> planStrategies(World w) {
+        List<Strategy> planned = new ArrayList<>();
+        boolean direct = plugin.getConfig().getBoolean("tune.include_deferred", true)
+                && DirectBlockWriter.isAvailable(w) && LightingUtil.isAvailable(w);
+        int band = Math.max(1, plugin.getConfig().getInt("performance.layer_band_height", 4));
+        int side = scratchSide();
+        int x = plugin.getConfig().getInt("tune.origin_chunk_x", 0);
+        int z = plugin.getConfig().getInt("tune.origin_chunk_z", 0);
+        for (ChunkCleanerTask.SweepOrder order : ChunkCleanerTask.SweepOrder.values()) {
+            for (String lighting : direct ? List.of("standard", "deferred") : List.of("standard")) {
+                // a fresh square per strategy, one chunk apart
+                planned.add(new Strategy(order, band, lighting, new RectShape(x, z, x + side - 1, z + side - 1)));
+                x += side + 1;
+            }
+        }
+        return planned;
+    }
+
+    private int scratchSide() {
+        return (int) Math.ceil(Math.sqrt(Math.max(1, plugin.getConfig().getInt("tune.chunks_per_strategy", 4))));
+    }
+
+    private void begin(World w, boolean temporary) {
+        world = w;
+        temporaryWorld = temporary;
+        // workers in a real world clear as the requesting player, so their claims decide what is editable
+        ownerUuid = !temporary && requester instanceof Player ? ((Player) requester).getUniqueId() : ChunkCleanerManager.TUNER_OWNER;
+        strategies.clear();
+        strategies.addAll(planStrategies(w));
+        results.clear();
+        index = 0;
+
+        phase = Phase.PREPARING;
+
+        // generate and pin every scratch chunk up front, off the main thread, so no run pays for chunk generation
+        List<CompletableFuture<Chunk>> loads = new ArrayList<>();
+        for (Strategy s : strategies) {
+            for (int cx = s.area.getMinX(); cx <= s.area.getMaxX(); cx++) {
+                for (int cz = s.area.getMinZ(); cz <= s.area.getMaxZ(); cz++) {
+                    manager.getChunkTickets().hold(world, cx, cz);
+                    ticketed.add(new int[] { cx, cz });
+                    loads.add(world.getChunkAtAsync(cx, cz, true));
+                }
+            }
+        }
+        CompletableFuture.allOf(loads.toArray(new CompletableFuture[0]))
+                .whenComplete((v, err) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                    // cancelled in the meantime
+                    if (phase != Phase.PREPARING || world != w) return;
+                    if (err != null) {
+                        fail("could not load the scratch chunks: " + err.getMessage());
+                        return;
+                    }
+                    settle();
+                }));
+    }
+
+    // all scratch chunks are loaded: measure the baseline, then run the strategies
+    private void settle() {
+        baselineMspt = -1.0;
+        waitTicks = Math.max(1, plugin.getConfig().getInt("tune.settle_ticks", 200));
+        maxRunTicks = Math.max(1L, plugin.getConfig().getLong("tune.max_run_seconds", 300L)) * 20L;
+        phase = Phase.SETTLING;
+        timer = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+
+        int side = scratchSide();
+        long levels = (long) side * side * Math.max(0, world.getMaxHeight() - Math.max(world.getMinHeight(), -63));
+        long perRun = levels / layersPerTick() + Math.max(0, plugin.getConfig().getInt("tune.gap_ticks", 40));
+        send("tune_started", "<green>Auto-tune started in {world}: {strategies} strategies, target {target}ms/tick, about {seconds}s.", Map.of(
+                "world", world.getName(),
+                "strategies", String.valueOf(strategies.size()),
+                "target", String.format(Locale.ROOT, "%.2f", targetMs),
+                "seconds", String.valueOf((waitTicks + perRun * strategies.size()) / 20L)));
+    }
+
+    public boolean cancel() {
+        if (phase == Phase.IDLE) return false;
+        cleanup();
+        return true;
+    }
+
+    /**
+     * Stop sequence: drop a run in progress before the cleaners drain; nothing of it is saved.
+     */
+    public void shutdown() {
+        if (phase != Phase.IDLE) cleanup();
+    }
+
+    private int layersPerTick() {
+        return Math.max(1, plugin.getConfig().getInt("tune.layers_per_tick", 8));
+    }
+
+    /* ---------------- Benchmark (main thread, every tick) ---------------- */
+
+    private void tick() {
+        switch (phase) {
+            case SETTLING:
+                if (--waitTicks > 0) return;
+                if (baselineMspt < 0.0) baselineMspt = ThrottlePlan.averageTickMillis(plugin);
+                startRun();
+                return;
+            case RUNNING:
+                runTicks++;
+                if (worker.getState() != ChunkCleanerTask.State.DONE) {
+                    if (runTicks > maxRunTicks) fail("strategy " + strategies.get(index).name() + " did not finish in time");
+                    return;
+                }
+                if (!bench.isComplete()) {
+                    fail("the benchmark cleaner was stopped");
+                    return;
+                }
+                // relighting and resends trail the last batch; let them into the average
+                phase = Phase.DRAINING;
+                waitTicks = Math.max(1, plugin.getConfig().getInt("tune.gap_ticks", 40));
+                return;
+            case DRAINING:
+                if (--waitTicks > 0) return;
+                record();
+                if (++index < strategies.size()) {
+                    startRun();
+                } else {
+                    finish();
+                }
+                return;
+            default:
+        }
+    }
+
+    private void startRun() {
+        Strategy s = strategies.get(index);
+        UUID workerId = UUID.randomUUID();
+        bench = new MaintenanceJob(UUID.randomUUID(), null, "auto-tune", world.getName(), s.area, ChunkOrder.ROW);
+        List<int[]> tile = bench.leaseTile(workerId, s.area.getChunkCount());
+        int[] first = tile.get(0);
+        worker = new ChunkCleanerTask(workerId, ownerUuid, requester == null ? "auto-tune" : requester.getName(), first[0], first[1], world.getName(), "tune",
+                ChunkListShape.of(tile), ChunkOrder.ROW, Math.max(1, tile.size()), plugin,
+                (first[0] << 4) + 8, world.getMinHeight(), (first[1] << 4) + 8);
+        worker.setJob(bench);
+        if (temporaryWorld) {
+            worker.setColumnMasks(Map.of());
+        } else {
+            // real terrain: the usual protection query, and an undo journal like any placed cleaner
+            worker.setColumnMasks(plugin.getIntegrationManager().computeColumnMasks(ownerUuid, world, s.area));
+            worker.setJournaled(true);
+        }
+        worker.setSweepOrder(s.order, s.band);
+        worker.setThrottleOverride(ThrottlePlan.fixed(1, layersPerTick(), 1L));
+        worker.setLightingModeOverride(s.lighting);
+        runTicks = 0L;
+        phase = Phase.RUNNING;
+        manager.addWorker(worker);
+    }
+
+    private void record() {
+        Strategy s = strategies.get(index);
+        Result r = new Result(s, worker.getCostNanos(), worker.getBlocksRemoved(), worker.getTotalLevels(), runTicks,
+                ThrottlePlan.averageTickMillis(plugin), baselineMspt, worker.isDirectWrites() || !"deferred".equals(s.lighting));
+        results.add(r);
+        worker = null;
+        bench = null;
+        plugin.getLogger().info("Auto-tune " + s.name() + ": " + String.format(Locale.ROOT,
+                "%.4fms/layer %.3fus/block mspt=%.2f overhead=%.2f ticks=%d", r.layerMillis(), r.blockMicros(), r.mspt, r.overhead(), r.ticks));
+        Map<String, String> vars = new HashMap<>();
+        vars.put("strategy", s.name());
+        vars.put("layer", String.format(Locale.ROOT, "%.4f", r.layerMillis()));
+        vars.put("block", String.format(Locale.ROOT, "%.3f", r.blockMicros()));
+        vars.put("mspt", r.mspt < 0.0 ? "-" : String.format(Locale.ROOT, "%.2f", r.mspt));
+        vars.put("delta", r.mspt < 0.0 || baselineMspt < 0.0 ? "-" : String.format(Locale.ROOT, "%.2f", r.mspt - baselineMspt));
+        vars.put("overhead", String.format(Locale.ROOT, "%.2f", r.overhead()));
+        send("tune_result", "<aqua>{strategy}<white>: {layer}ms/layer {block}µs/block <gray>mspt {mspt} (+{delta}) overhead x{overhead}", vars);
+    }
+
+    private void finish() {
+        Result best = null;
+        for (Result r : results) {
+            // a deferred run that fell back to block updates measured the standard path twice
+            if (!r.asConfigured || r.levels <= 0) continue;
+            if (best == null || r.effectiveLayerMillis() < best.effectiveLayerMillis()) best = r;
+        }
+        if (best == null) {
+            fail("no strategy produced a measurement");
+            return;
+        }
+        Proposal p = derive(best);
+        File file = new File(plugin.getDataFolder(), plugin.getConfig().getString("tune.output_file", "tune-proposal.yml"));
+        String text = render(p, best);
+        CommandSender to = requester;
+        Map<String, String> vars = new HashMap<>();
+        vars.put("file", file.getName());
+        vars.put("chunks", String.valueOf(p.chunksPerInterval));
+        vars.put("y_batch", String.valueOf(p.yBatchSize));
+        vars.put("interval", String.valueOf(p.intervalTicks));
+        vars.put("cap", String.valueOf(p.sizeScaleCap));
+        vars.put("divisor", String.valueOf(p.aggressiveDivisor));
+        vars.put("sweep", best.strategy.order.name().toLowerCase(Locale.ROOT));
+        vars.put("lighting", best.strategy.lighting);
+        plugin.getIoExecutor().submit(IoExecutor.Resource.PERSISTENCE, () -> writeAtomically(file, text))
+                .whenComplete((ok, err) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (err != null) {
+                        plugin.getLogger().warning("Failed to write auto-tune proposal " + file + ": " + err.getMessage());
+                        sendTo(to, "tune_failed", "<red>Auto-tune aborted: {reason}", Map.of("reason", "could not write " + file.getName()));
+                    } else {
+                        sendTo(to, "tune_done", "<green>Proposal written to {file}: <white>chunks={chunks} y_batch={y_batch} interval={interval} scale_cap={cap} divisor={divisor} sweep={sweep} lighting={lighting}", vars);
+                    }
+                }));
+        cleanup();
+    }
+
+    private void fail(String reason) {
+        plugin.getLogger().warning("Auto-tune aborted: " + reason);
+        send("tune_failed", "<red>Auto-tune aborted: {reason}", Map.of("reason", reason));
+        cleanup();
+    }
+
+    private void cleanup() {
+        if (timer != null) {
+            try { timer.cancel(); } catch (Throwable ignored) {}
+            timer = null;
+        }
+        if (worker != null && worker.getState() != ChunkCleanerTask.State.DONE) worker.cancel();
+        worker = null;
+        bench = null;
+        phase = Phase.IDLE;
+        requester = null;
+        World w = world;
+        world = null;
+        if (w == null) return;
+        for (int[] c : ticketed) manager.getChunkTickets().release(w.getName(), c[0], c[1]);
+        ticketed.clear();
+        if (!temporaryWorld) return;
+        File folder = w.getWorldFolder();
+        if (!Bukkit.unloadWorld(w, false)) {
+            plugin.getLogger().warning("Could not unload auto-tune world " + w.getName() + "; delete " + folder + " by hand.");
+            return;
+        }
+        plugin.getIoExecutor().execute(IoExecutor.Resource.REGION_FILES, () -> deleteFolder(folder));
+    }
+
+    /* ---------------- Derivation ---------------- */
+
+    /**
+     * Knobs for the given strategy that spend about targetMs of MSPT per tick with the expected number of
+     * cleaners running: performance.max_running_tasks if set, tune.expected_concurrent otherwise.
+     */
+    private Proposal derive(Result best) {
+        int concurrent = plugin.getConfig().getInt("performance.max_running_tasks", 0);
+        if (concurrent <= 0) concurrent = Math.max(1, plugin.getConfig().getInt("tune.expected_concurrent", 4));
+        double totalLayers = targetMs / best.effectiveLayerMillis();
+        double perCleaner = totalLayers / concurrent;
+
+        Proposal p = new Proposal();
+        if (perCleaner >= 1.0) {
+            p.intervalTicks = 1;
+            p.yBatchSize = (int) Math.max(1, Math.min(MAX_Y_BATCH, Math.floor(perCleaner)));
+            p.chunksPerInterval = (int) Math.max(1, Math.floor(perCleaner / p.yBatchSize));
+        } else {
+            // less than a layer per tick: one layer every few ticks
+            p.intervalTicks = (int) Math.min(200, Math.ceil(1.0 / Math.max(1e-6, perCleaner)));
+            p.yBatchSize = 1;
+            p.chunksPerInterval = 1;
+        }
+        double rate = (double) p.chunksPerInterval * p.yBatchSize / p.intervalTicks;
+        // size scaling multiplies both knobs, so the largest cleaner runs cap^2 times faster; let it alone use the target
+        p.sizeScaleCap = (int) Math.max(1, Math.min(64, Math.floor(Math.sqrt(totalLayers / rate))));
+        p.aggressiveDivisor = p.intervalTicks > 1 ? Math.min(p.intervalTicks, p.sizeScaleCap) : 1;
+        p.concurrent = concurrent;
+        return p;
+    }
+
+    private String render(Proposal p, Result best) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Proposed by /chunkcleaners admin tune on ")
+                .append(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)).append('\n');
+        sb.append("# Copy the sections you want into config.yml, then /chunkcleaners reload.\n");
+        sb.append(String.format(Locale.ROOT, "# Target: %.2fms of MSPT per tick with %d cleaners running.%n", targetMs, p.concurrent));
+        sb.append("performance:\n");
+        sb.append("  max_chunks_per_interval: ").append(p.chunksPerInterval).append('\n');
+        sb.append("  y_batch_size: ").append(p.yBatchSize).append('\n');
+        sb.append("  ticks_per_chunk_interval: ").append(p.intervalTicks).append('\n');
+        sb.append("  size_scale_enabled: true\n");
+        sb.append("  size_scale_multiplier: 1\n");
+        sb.append("  size_scale_cap: ").append(p.sizeScaleCap).append('\n');
+        sb.append("  aggressive_interval_divisor: ").append(p.aggressiveDivisor).append('\n');
+        sb.append("  sweep_order: ").append(best.strategy.order.name().toLowerCase(Locale.ROOT)).append('\n');
+        sb.append("lighting:\n");
+        sb.append("  mode: ").append(best.strategy.lighting).append('\n');
+        sb.append("budget:\n");
+        sb.append(String.format(Locale.ROOT, "  max_ms_per_tick: %.2f%n", targetMs));
+        sb.append("# What the proposal is based on (not read by the plugin).\n");
+        sb.append("measurements:\n");
+        sb.append(String.format(Locale.ROOT, "  baseline_mspt: %.3f%n", baselineMspt));
+        sb.append("  layers_per_tick: ").append(layersPerTick()).append('\n');
+        sb.append("  strategies:\n");
+        for (Result r : results) {
+            sb.append("    ").append(r.strategy.name()).append(":\n");
+            sb.append(String.format(Locale.ROOT, "      cost_per_layer_ms: %.5f%n", r.layerMillis()));
+            sb.append(String.format(Locale.ROOT, "      cost_per_block_us: %.4f%n", r.blockMicros()));
+            sb.append(String.format(Locale.ROOT, "      cleaner_ms_per_tick: %.3f%n", r.cleanerMillisPerTick()));
+            sb.append(String.format(Locale.ROOT, "      mspt: %.3f%n", r.mspt));
+            sb.append(String.format(Locale.ROOT, "      overhead: %.3f%n", r.overhead()));
+            sb.append("      layers: ").append(r.levels).append('\n');
+            sb.append("      blocks: ").append(r.blocks).append('\n');
+            sb.append("      ticks: ").append(r.ticks).append('\n');
+            sb.append("      as_configured: ").append(r.asConfigured).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /* ---------------- Scratch world and files ---------------- */
+
+    private World createTemporaryWorld(String name) {
+        if (Bukkit.getWorld(name) != null) return null;
+        List<World> worlds = Bukkit.getWorlds();
+        WorldCreator creator = new WorldCreator(name);
+        if (!worlds.isEmpty()) {
+            // same terrain generator as the main world, so the benchmark clears representative blocks
+            creator.environment(worlds.get(0).getEnvironment()).seed(worlds.get(0).getSeed());
+        }
+        World w;
+        try {
+            w = creator.createWorld();
+        } catch (Throwable t) {
+            plugin.getLogger().warning("Could not create auto-tune world " + name + ": " + t.getMessage());
+            return null;
+        }
+        if (w == null) return null;
+        w.setAutoSave(false);
+        w.setGameRule(GameRule.DO_MOB_SPAWNING, false);
+        w.setGameRule(GameRule.DO_DAYLIGHT_CYCLE, false);
+        w.setGameRule(GameRule.DO_WEATHER_CYCLE, false);
+        return w;
+    }
+
+    private void deleteFolder(File folder) {
+        if (folder == null || !folder.exists()) return;
+        try (Stream<Path> paths = Files.walk(folder.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to delete auto-tune world folder " + folder + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean writeAtomically(File file, String text) throws IOException {
+        Path target = file.toPath();
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(file.getName() + ".tmp");
+        Files.writeString(tmp, text, StandardCharsets.UTF_8);
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return true;
+    }
+
+    /* ---------------- Messages ---------------- */
+
+    private void send(String key, String def, Map<String, String> vars) {
+        sendTo(requester, key, def, vars);
+    }
+
+    private void sendTo(CommandSender to, String key, String def, Map<String, String> vars) {
+        if (to == null || (to instanceof Player && !((Player) to).isOnline())) return;
+        String s = plugin.getConfig().getString("messages.admin." + key, def);
+        for (Map.Entry<String, String> e : vars.entrySet()) s = s.replace("{" + e.getKey() + "}", e.getValue());
+        to.sendMessage(MessageUtil.parse(s));
+    }
+
+    /* ---------------- Data ---------------- */
+
+    private static final class Strategy {
+        final ChunkCleanerTask.SweepOrder order;
+        final int band;
+        final String lighting;
+        final RectShape area;
+
+        Strategy(ChunkCleanerTask.SweepOrder order, int band, String lighting, RectShape area) {
+            this.order = order;
+            this.band = band;
+            this.lighting = lighting;
+            this.area = area;
+        }
+
+        String name() {
+            return order.name().toLowerCase(Locale.ROOT) + "-" + lighting;
+        }
+    }
+
+    private static final class Result {
+        final Strategy strategy;
+        final long costNanos;
+        final long blocks;
+        final long levels;
+        final long ticks;
+        final double mspt;
+        final double baselineMspt;
+        // false if the deferred path was unavailable for the run
+        final boolean asConfigured;
+
+        Result(Strategy strategy, long costNanos, long blocks, long levels, long ticks, double mspt, double baselineMspt, boolean asConfigured) {
+            this.strategy = strategy;
+            this.costNanos = costNanos;
+            this.blocks = blocks;
+            this.levels = levels;
+            this.ticks = ticks;
+            this.mspt = mspt;
+            this.baselineMspt = baselineMspt;
+            this.asConfigured = asConfigured;
+        }
+
+        double layerMillis() { return levels <= 0 ? 0.0 : costNanos / 1_000_000.0 / levels; }
+        double blockMicros() { return blocks <= 0 ? 0.0 : costNanos / 1_000.0 / blocks; }
+        double cleanerMillisPerTick() { return ticks <= 0 ? 0.0 : costNanos / 1_000_000.0 / ticks; }
+
+        /** MSPT rise per ms of cleaner cost; 1 when the server does not report MSPT. */
+        double overhead() {
+            double own = cleanerMillisPerTick();
+            if (mspt < 0.0 || baselineMspt < 0.0 || own <= 0.0) return 1.0;
+            return Math.max(1.0, Math.min(MAX_OVERHEAD, (mspt - baselineMspt) / own));
+        }
+
+        double effectiveLayerMillis() { return Math.max(1e-6, layerMillis() * overhead()); }
+    }
+
+    private static final class Proposal {
+        int chunksPerInterval;
+        int yBatchSize;
+        int intervalTicks;
+        int sizeScaleCap;
+        int aggressiveDivisor;
+        int concurrent;
+    }
+}
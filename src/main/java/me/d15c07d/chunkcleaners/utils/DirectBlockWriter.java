@@ -0,0 +1,176 @@
+package me.d15c07d.chunkcleaners.utils;
+
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reflective section-level block writer.
+ *
+ * Writes air straight into the chunk's block-state palettes, bypassing the per-block path of Block#setType:
+ * no light propagation, no neighbour/fluid updates and no block-change packets are queued. The caller is
+ * responsible for relighting the chunk ({@link LightingUtil}) and resending it to clients afterwards.
+ *
+ * Points of interest (beds, job sites, bells, hives, portals, ...) are not updated on this path either, so
+ * callers must clear those blocks through Block#setType; see {@link #isPointOfInterest}.
+ *
+ * Everything is resolved once by name (Mojang-mapped server internals); if any piece is missing the writer
+ * reports itself unavailable and callers fall back to Block#setType.
+ */
+public final class DirectBlockWriter {
+
+    private static volatile boolean resolved = false;
+    private static boolean available = false;
+
+    private static Method worldGetHandle;
+    private static Method levelGetChunk;
+    private static Method chunkGetSections;
+    private static Method chunkGetSectionIndex;
+    private static Method sectionSetBlockState;
+    private static Method chunkGetBlockEntities;
+    private static Method chunkRemoveBlockEntity;
+    private static Method blockPosGetY;
+    private static Method primeHeightmaps;
+    private static Object heightmapTypes;
+    private static Method markUnsaved;
+    private static Object airState;
+
+    // blocks registered with the server's POI manager (villager homes and job sites, bells, hives, portals, ...)
+    private static final EnumSet<Material> POI_MATERIALS = EnumSet.noneOf(Material.class);
+
+    static {
+        List<String> names = List.of("BARREL", "BLAST_FURNACE", "BREWING_STAND", "CARTOGRAPHY_TABLE", "CAULDRON",
+                "WATER_CAULDRON", "LAVA_CAULDRON", "POWDER_SNOW_CAULDRON", "COMPOSTER", "FLETCHING_TABLE", "GRINDSTONE",
+                "LECTERN", "LOOM", "SMITHING_TABLE", "SMOKER", "STONECUTTER", "BELL", "BEEHIVE", "BEE_NEST",
+                "NETHER_PORTAL", "LODESTONE", "LIGHTNING_ROD");
+        for (Material m : Material.values()) {
+            if (m.name().endsWith("_BED") || names.contains(m.name())) POI_MATERIALS.add(m);
+        }
+    }
+
+    private DirectBlockWriter() { /* no instances */ }
+
+    /**
+     * True for blocks the direct path must not clear: removing them has to drop their point of interest.
+     */
+    public static boolean isPointOfInterest(Material m) {
+        return m != null && POI_MATERIALS.contains(m);
+    }
+
+    public static boolean isAvailable(World world) {
+        resolve(world);
+        return available;
+    }
+
+    /**
+     * Open a writer for a loaded chunk, or null when direct writes are not supported.
+     */
+    public static ChunkWriter open(Chunk chunk) {
+        if (chunk == null) return null;
+        World world = chunk.getWorld();
+        resolve(world);
+        if (!available) return null;
+        try {
+            Object level = worldGetHandle.invoke(world);
+            Object levelChunk = levelGetChunk.invoke(level, chunk.getX(), chunk.getZ());
+            Object[] sections = (Object[]) chunkGetSections.invoke(levelChunk);
+            return new ChunkWriter(levelChunk, sections);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    public static final class ChunkWriter {
+        private final Object levelChunk;
+        private final Object[] sections;
+        private int lowestWrittenY = Integer.MAX_VALUE;
+        private int highestWrittenY = Integer.MIN_VALUE;
+
+        private ChunkWriter(Object levelChunk, Object[] sections) {
+            this.levelChunk = levelChunk;
+            this.sections = sections;
+        }
+
+        /**
+         * Set the block at chunk-relative x/z and world y to air.
+         */
+        public void setAir(int x, int y, int z) throws ReflectiveOperationException {
+            int index = (Integer) chunkGetSectionIndex.invoke(levelChunk, y);
+            if (index < 0 || index >= sections.length) return;
+            sectionSetBlockState.invoke(sections[index], x & 15, y & 15, z & 15, airState, false);
+            if (y < lowestWrittenY) lowestWrittenY = y;
+            if (y > highestWrittenY) highestWrittenY = y;
+        }
+
+        /**
+         * Drop block entities inside the written Y range, refresh heightmaps and mark the chunk for saving.
+         */
+        public void finish() throws ReflectiveOperationException {
+            if (lowestWrittenY > highestWrittenY) return;
+            @SuppressWarnings("unchecked")
+            Map<Object, Object> blockEntities = (Map<Object, Object>) chunkGetBlockEntities.invoke(levelChunk);
+            if (blockEntities != null && !blockEntities.isEmpty()) {
+                List<Object> toRemove = new ArrayList<>();
+                for (Object pos : blockEntities.keySet()) {
+                    int y = (Integer) blockPosGetY.invoke(pos);
+                    if (y >= lowestWrittenY && y <= highestWrittenY) toRemove.add(pos);
+                }
+                for (Object pos : toRemove) chunkRemoveBlockEntity.invoke(levelChunk, pos);
+            }
+            primeHeightmaps.invoke(null, levelChunk, heightmapTypes);
+            if (markUnsaved.getParameterCount() == 0) markUnsaved.invoke(levelChunk);
+            else markUnsaved.invoke(levelChunk, true);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static synchronized void resolve(World world) {
+        if (resolved || world == null) return;
+        resolved = true;
+        try {
+            worldGetHandle = world.getClass().getMethod("getHandle");
+            Object level = worldGetHandle.invoke(world);
+            ClassLoader cl = level.getClass().getClassLoader();
+
+            Class<?> levelChunkClass = Class.forName("net.minecraft.world.level.chunk.LevelChunk", true, cl);
+            Class<?> sectionClass = Class.forName("net.minecraft.world.level.chunk.LevelChunkSection", true, cl);
+            Class<?> blockStateClass = Class.forName("net.minecraft.world.level.block.state.BlockState", true, cl);
+            Class<?> blockPosClass = Class.forName("net.minecraft.core.BlockPos", true, cl);
+            Class<?> chunkAccessClass = Class.forName("net.minecraft.world.level.chunk.ChunkAccess", true, cl);
+            Class<?> heightmapClass = Class.forName("net.minecraft.world.level.levelgen.Heightmap", true, cl);
+            Class<?> heightmapTypesClass = Class.forName("net.minecraft.world.level.levelgen.Heightmap$Types", true, cl);
+            Class<?> blocksClass = Class.forName("net.minecraft.world.level.block.Blocks", true, cl);
+
+            levelGetChunk = level.getClass().getMethod("getChunk", int.class, int.class);
+            chunkGetSections = levelChunkClass.getMethod("getSections");
+            chunkGetSectionIndex = levelChunkClass.getMethod("getSectionIndex", int.class);
+            sectionSetBlockState = sectionClass.getMethod("setBlockState", int.class, int.class, int.class, blockStateClass, boolean.class);
+            chunkGetBlockEntities = levelChunkClass.getMethod("getBlockEntities");
+            chunkRemoveBlockEntity = levelChunkClass.getMethod("removeBlockEntity", blockPosClass);
+            blockPosGetY = blockPosClass.getMethod("getY");
+            primeHeightmaps = heightmapClass.getMethod("primeHeightmaps", chunkAccessClass, java.util.Set.class);
+            heightmapTypes = EnumSet.allOf((Class) heightmapTypesClass);
+
+            try {
+                markUnsaved = levelChunkClass.getMethod("markUnsaved");
+            } catch (NoSuchMethodException nsme) {
+                markUnsaved = levelChunkClass.getMethod("setUnsaved", boolean.class);
+            }
+
+            Field airField = blocksClass.getField("AIR");
+            Object airBlock = airField.get(null);
+            airState = airBlock.getClass().getMethod("defaultBlockState").invoke(airBlock);
+
+            available = true;
+        } catch (Throwable t) {
+            available = false;
+        }
+    }
+}
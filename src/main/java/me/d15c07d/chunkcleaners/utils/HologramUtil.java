@@ -7,17 +7,24 @@ import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.ArmorStand;
 import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
 
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 public class HologramUtil {
 
     // Vertical spacing between hologram lines (blocks). Can be tuned if desired.
     private static final double LINE_SPACING = 0.25d;
 
+    // Scoreboard tag put on every hologram stand so cleaners never sweep their own holograms.
+    public static final String HOLOGRAM_TAG = "chunkcleaners_hologram";
+
     public static HologramHandle createHologram(Location base, String text) {
         if (text == null) text = "";
         String[] lines = text.split("\\r?\\n");
@@ -26,6 +33,13 @@ public class HologramUtil {
         return createHologram(base, l);
     }
 
+    /**
+     * Handle that spawns nothing until {@link HologramHandle#updateViewers(double, double)} finds a player in range.
+     */
+    public static HologramHandle createLazyHologram(Location base) {
+        return new HologramHandle(base, new ArrayList<>());
+    }
+
     public static HologramHandle createHologram(Location base, List<String> lines) {
         if (base == null) return new HologramHandle(base, new ArrayList<>());
 
@@ -63,6 +77,7 @@ public class HologramUtil {
             try { as.setVisible(false); } catch (Throwable ignored) {}
             try { as.setInvulnerable(true); } catch (Throwable ignored) {}
             try { as.setCustomNameVisible(true); } catch (Throwable ignored) {}
+            try { as.addScoreboardTag(HOLOGRAM_TAG); } catch (Throwable ignored) {}
 
             // Set initial line text if provided
             try {
@@ -107,12 +122,44 @@ public class HologramUtil {
     public static class HologramHandle {
         private final Location anchor; // preserved anchor location (immutable clone)
         private final List<ArmorStand> stands; // mutable list of current armor stands
+        private final List<String> shownLines = new ArrayList<>(); // text currently on the stands
+        private final Set<UUID> viewers = new HashSet<>(); // players within the view radius
 
         private HologramHandle(Location anchor, List<ArmorStand> stands) {
             this.anchor = anchor == null ? null : anchor.clone();
             this.stands = stands;
         }
 
+        /**
+         * Recompute the players near the anchor (main thread): within showRadius blocks while the stands are not
+         * spawned, within hideRadius once they are, so a player standing at the edge does not make them spawn and
+         * despawn over and over. When the last one leaves the stands are removed; {@link #setLines(List)} spawns
+         * them again. A showRadius of 0 or less means always visible.
+         *
+         * @return true if anyone can see the hologram, i.e. it is worth rendering
+         */
+        public boolean updateViewers(double showRadius, double hideRadius) {
+            if (showRadius <= 0) return true;
+            viewers.clear();
+            World w = anchor == null ? null : anchor.getWorld();
+            if (w == null) return false;
+            double radius = stands.isEmpty() ? showRadius : Math.max(showRadius, hideRadius);
+            double r2 = radius * radius;
+            for (Player p : w.getPlayers()) {
+                if (p.getLocation().distanceSquared(anchor) <= r2) viewers.add(p.getUniqueId());
+            }
+            if (viewers.isEmpty() && !stands.isEmpty()) despawn();
+            return !viewers.isEmpty();
+        }
+
+        public int getViewerCount() {
+            return viewers.size();
+        }
+
+        public boolean isSpawned() {
+            return !stands.isEmpty();
+        }
+
         public void setLines(List<String> lines) {
             // Ensure main thread
             if (!Bukkit.isPrimaryThread()) {
@@ -120,17 +167,26 @@ public class HologramUtil {
                 return;
             }
 
-            // Remove existing stands
-            for (ArmorStand as : new ArrayList<>(stands)) {
-                try {
-                    if (as != null && !as.isDead()) as.remove();
-                } catch (Throwable ignored) {}
+            List<String> effective = lines == null ? List.of() : lines;
+
+            // same line count and stands still alive: only rename the lines that changed
+            if (!stands.isEmpty() && stands.size() == Math.max(1, effective.size()) && stands.stream().noneMatch(ArmorStand::isDead)) {
+                for (int i = 0; i < effective.size(); i++) {
+                    String line = effective.get(i);
+                    if (i < shownLines.size() && line.equals(shownLines.get(i))) continue;
+                    try { setName(stands.get(i), MessageUtil.parse(line)); } catch (Throwable ignored) {}
+                }
+                shownLines.clear();
+                shownLines.addAll(effective);
+                return;
             }
-            stands.clear();
+
+            despawn();
 
             if (anchor == null || anchor.getWorld() == null) return;
+            // nobody near enough to load it; the next viewer update spawns it
+            if (!anchor.getWorld().isChunkLoaded(anchor.getBlockX() >> 4, anchor.getBlockZ() >> 4)) return;
 
-            List<String> effective = lines == null ? List.of() : lines;
             int n = Math.max(1, effective.size());
             World w = anchor.getWorld();
             double startY = anchor.getY();
@@ -149,9 +205,21 @@ public class HologramUtil {
                 try { as.setVisible(false); } catch (Throwable ignored) {}
                 try { as.setInvulnerable(true); } catch (Throwable ignored) {}
                 try { as.setCustomNameVisible(true); } catch (Throwable ignored) {}
+                try { as.addScoreboardTag(HOLOGRAM_TAG); } catch (Throwable ignored) {}
                 try { setName(as, MessageUtil.parse(effective.get(i))); } catch (Throwable ignored) {}
                 stands.add(as);
             }
+            shownLines.addAll(effective);
+        }
+
+        private void despawn() {
+            for (ArmorStand as : new ArrayList<>(stands)) {
+                try {
+                    if (as != null && !as.isDead()) as.remove();
+                } catch (Throwable ignored) {}
+            }
+            stands.clear();
+            shownLines.clear();
         }
 
         public void setText(String text) {
@@ -162,12 +230,8 @@ public class HologramUtil {
 
         public void remove() {
             if (Bukkit.isPrimaryThread()) {
-                for (ArmorStand as : new ArrayList<>(stands)) {
-                    try {
-                        if (as != null && !as.isDead()) as.remove();
-                    } catch (Throwable ignored) {}
-                }
-                stands.clear();
+                despawn();
+                viewers.clear();
             } else {
                 Bukkit.getScheduler().runTask(Bukkit.getPluginManager().getPlugin("ChunkCleaners"), this::remove);
             }
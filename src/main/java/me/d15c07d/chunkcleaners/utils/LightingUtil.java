@@ -0,0 +1,109 @@
+package me.d15c07d.chunkcleaners.utils;
+
+import org.bukkit.World;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Reflective bridge to the server's chunk relight entry point.
+ *
+ * Paper (Starlight / Moonrise light engine) exposes a bulk relight on the level's light engine that recomputes
+ * whole chunks on the light executor instead of the main thread; this is what /paper fixlight uses.
+ * Depending on the version it is called "relight" or "starlight$serverRelightChunks" and takes
+ * (Collection/Set&lt;ChunkPos&gt;, Consumer&lt;ChunkPos&gt;, IntConsumer).
+ */
+public final class LightingUtil {
+
+    private static volatile boolean resolved = false;
+    private static Method getHandle;
+    private static Method getChunkSource;
+    private static Method getLightEngine;
+    private static Method relightMethod;
+    private static Constructor<?> chunkPosCtor;
+
+    private LightingUtil() { /* no instances */ }
+
+    /**
+     * Whether a bulk relight API was found on this server.
+     */
+    public static boolean isAvailable(World world) {
+        resolve(world);
+        return relightMethod != null;
+    }
+
+    /**
+     * Relight the given chunks off the main thread.
+     *
+     * @param chunkKeys packed chunk keys (see {@link #chunkKey(int, int)})
+     * @param onComplete called once the whole batch was relit (thread chosen by the server)
+     * @return false if the relight could not be submitted
+     */
+    public static boolean relight(World world, Collection<Long> chunkKeys, Runnable onComplete) {
+        if (world == null || chunkKeys == null || chunkKeys.isEmpty()) return false;
+        resolve(world);
+        if (relightMethod == null) return false;
+        try {
+            Object level = getHandle.invoke(world);
+            Object chunkSource = getChunkSource.invoke(level);
+            Object lightEngine = getLightEngine.invoke(chunkSource);
+            Set<Object> positions = new HashSet<>();
+            for (long key : chunkKeys) {
+                positions.add(chunkPosCtor.newInstance(chunkKeyX(key), chunkKeyZ(key)));
+            }
+            Consumer<Object> perChunk = pos -> { };
+            IntConsumer done = count -> {
+                if (onComplete != null) onComplete.run();
+            };
+            relightMethod.invoke(lightEngine, positions, perChunk, done);
+            return true;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX & 0xFFFFFFFFL) | (((long) chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+    public static int chunkKeyX(long key) { return (int) key; }
+
+    public static int chunkKeyZ(long key) { return (int) (key >>> 32); }
+
+    private static synchronized void resolve(World world) {
+        if (resolved || world == null) return;
+        resolved = true;
+        try {
+            getHandle = world.getClass().getMethod("getHandle");
+            Object level = getHandle.invoke(world);
+            getChunkSource = level.getClass().getMethod("getChunkSource");
+            Object chunkSource = getChunkSource.invoke(level);
+            getLightEngine = chunkSource.getClass().getMethod("getLightEngine");
+            Object lightEngine = getLightEngine.invoke(chunkSource);
+
+            ClassLoader cl = level.getClass().getClassLoader();
+            Class<?> chunkPosClass = Class.forName("net.minecraft.world.level.ChunkPos", true, cl);
+            chunkPosCtor = chunkPosClass.getConstructor(int.class, int.class);
+
+            for (Method m : lightEngine.getClass().getMethods()) {
+                if (!m.getName().toLowerCase(Locale.ROOT).contains("relight")) continue;
+                Class<?>[] params = m.getParameterTypes();
+                if (params.length == 3
+                        && params[0].isAssignableFrom(HashSet.class)
+                        && params[1] == Consumer.class
+                        && params[2] == IntConsumer.class) {
+                    relightMethod = m;
+                    break;
+                }
+            }
+        } catch (Throwable t) {
+            relightMethod = null;
+        }
+    }
+}